@@ -16,6 +16,7 @@ public class EigenstateRingSuperposition implements QMSuperposition{
   double L;
   double[] x,rePsi,imPsi,rho,zeroArray;
   double energyScale=1;
+  SuperpositionSum sum = new SuperpositionSum();
 
   public EigenstateRingSuperposition(int numpts, double xmin, double xmax) {
     L=Math.abs(xmax-xmin);
@@ -230,21 +231,12 @@ public void update(double time){
     System.arraycopy(zeroArray,0,imPsi,0,imPsi.length);
     if(eigenstates.length==0) return;
     double kk=-4*time*energyScale*PISQR/L/L;
-    for(int i=0, ns=recoef.length; i<ns; i++){
-      double re=recoef[i];
-      double im=imcoef[i];
-      double phase=kk*(i/2)*(i/2);  // use integer arithmetic; + and - momentum states have same energy
-      double sin=Math.sin(phase);
-      double cos=Math.cos(phase);
-      double[] reArray = eigenstates[2*i];
-      double[] imArray = eigenstates[2*i+1];
-      for(int j=0, n=x.length; j<n; j++){
-        double a=(re*cos-im*sin);
-        double b=(im*cos+re*sin);
-        rePsi[j]+=(a*reArray[j]-b*imArray[j]);
-        imPsi[j]+=(b*reArray[j]+a*imArray[j]);
-      }
+    int ns=recoef.length;
+    sum.setNumberOfStates(ns);
+    for(int i=0; i<ns; i++){
+      sum.setCoef(i, recoef[i], imcoef[i], kk*(i/2)*(i/2));  // use integer arithmetic; + and - momentum states have same energy
     }
+    sum.evaluateComplex(eigenstates, ns, rePsi, imPsi);
   }
 
 }
@@ -23,7 +23,7 @@ public class EigenstateSHO implements Function{
    */
   @Override
 public double evaluate(double x) {
-    return Math.exp(-x*x/2)*hermite.evaluate(x);
+    return Hermite.evaluateFunction(n, x); // stable recurrence, same as exp(-x*x/2)*hermite.evaluate(x)
   }
 
   @Override
@@ -2,6 +2,8 @@ package davidson.qm;
 
 import org.opensourcephysics.display.ComplexDataset;
 import org.opensourcephysics.display.Dataset;
+import org.opensourcephysics.numerics.Parallel;
+import org.opensourcephysics.numerics.specialfunctions.Hermite;
 
 /**
  * A superposition of particle in a box eigenstates.
@@ -15,6 +17,7 @@ public class EigenstateSHOSuperposition implements QMSuperposition{
   double[][] eigenstates;
   double[] x,rePsi,imPsi,rho,zeroArray;
   double energyScale=1;
+  SuperpositionSum sum = new SuperpositionSum();
 
   public EigenstateSHOSuperposition(int numpts, double xmin, double xmax) {
     rePsi = new double[numpts];
@@ -183,14 +186,17 @@ public double[] getImCoef() {
 		imcoef = new double[n];
 		System.arraycopy(re, 0, recoef, 0, n);
 		System.arraycopy(im, 0, imcoef, 0, n);
-		eigenstates = new double[n][numpts];
-		for (int i = 0; i < n; i++) {
-			double[] state = eigenstates[i];
-			EigenstateSHO sho = new EigenstateSHO(i);
-			for (int j = 0; j < numpts; j++) {
-				state[j] = sho.evaluate(x[j]);
+		double[][] states = eigenstates = new double[n][numpts];
+		// one recurrence at each grid point generates all n eigenstates
+		Parallel.forEachBand(numpts, 256, (band, start, end) -> {
+			double[] psi = new double[n];
+			for (int j = start; j < end; j++) {
+				Hermite.evaluateFunctions(x[j], psi);
+				for (int i = 0; i < n; i++) {
+					states[i][j] = psi[i];
+				}
 			}
-		}
+		});
 		return true;
 	}
 
@@ -210,18 +216,12 @@ public void update(double time){
     System.arraycopy(zeroArray,0,imPsi,0,imPsi.length);
     if(eigenstates.length==0) return;
     double kk=-time*energyScale;
-    for(int i=0, ns=recoef.length; i<ns; i++){
-      double re=recoef[i];
-      double im=imcoef[i];
-      double phase=kk*(0.5+i);
-      double sin=Math.sin(phase);
-      double cos=Math.cos(phase);
-      double[] state = eigenstates[i];
-      for(int j=0, n=x.length; j<n; j++){
-        rePsi[j]+=(re*cos-im*sin)*state[j];
-        imPsi[j]+=(im*cos+re*sin)*state[j];
-      }
+    int ns=recoef.length;
+    sum.setNumberOfStates(ns);
+    for(int i=0; i<ns; i++){
+      sum.setCoef(i, recoef[i], imcoef[i], kk*(0.5+i));
     }
+    sum.evaluate(eigenstates, ns, rePsi, imPsi);
   }
 
 }
@@ -2,6 +2,7 @@ package davidson.qm;
 
 import org.opensourcephysics.display.*;
 import org.opensourcephysics.numerics.*;
+import java.util.function.Supplier;
 import javax.swing.JOptionPane;
 
 /**
@@ -19,8 +20,10 @@ public class EigenstateShootingSuperposition implements QMSuperposition {
   int numstates;
   double energyScale=1;
   EigenstateShooting qmsystem;
+  Supplier<? extends Function> potentialFactory; // independent copies of the potential for concurrent shooting
+  double xmin, xmax, odeTol, bisectionTol;
   double[] x,rePsi,imPsi,rho;
-  double[] zeroArray;
+  SuperpositionSum sum = new SuperpositionSum();
 
   public EigenstateShootingSuperposition(Function potential, int numpts, double xmin, double xmax) {
     this( potential, numpts, xmin, xmax, 1.0E-6, 1.0E-2);
@@ -30,8 +33,11 @@ public class EigenstateShootingSuperposition implements QMSuperposition {
     rePsi = new double[numpts];
     imPsi = new double[numpts];
     rho = new double[numpts];
-    zeroArray = new double[numpts];
     x = new double[numpts];
+    this.xmin = xmin;
+    this.xmax = xmax;
+    this.odeTol = odeTol;
+    this.bisectionTol = bisectionTol;
     qmsystem = new EigenstateShooting(potential, numpts, xmin, xmax);
     qmsystem.setSolverTolerance(odeTol);
     qmsystem.setBisectionTolerance(bisectionTol);
@@ -45,6 +51,18 @@ public class EigenstateShootingSuperposition implements QMSuperposition {
   }
 
 
+  /**
+   * Enables concurrent calculation of eigenstates.
+   *
+   * Eigenstates that have not yet been calculated are found on separate threads when setCoef is invoked.
+   * Every thread shoots with its own copy of the potential from the factory, so the potential need not be thread safe.
+   *
+   * @param factory a factory that returns independent copies of the potential, or null to shoot on the calling thread
+   */
+  public void setParallelShooting(Supplier<? extends Function> factory) {
+    potentialFactory = factory;
+  }
+
   /**
    * Sets the energy scale.
    *
@@ -123,8 +141,16 @@ public boolean setCoef(double[] re, double[] im) {
     numstates = Math.min(re.length, recoef.length);
     System.arraycopy(re,0,recoef,0,numstates);
     System.arraycopy(im,0,imcoef,0,numstates);
+    int nmissing=0;
+    int[] missing=new int[numstates];
     for(int i=0; i<numstates; i++){
-      if(states[i]!=null) continue;  // continue if state has already been calculated
+      if(states[i]==null) missing[nmissing++]=i;  // skip states that have already been calculated
+    }
+    if(potentialFactory!=null && Parallel.getBandCount(nmissing, 1)>1){
+      return shootParallel(missing, nmissing, enmin);
+    }
+    for(int k=0; k<nmissing; k++){
+      int i=missing[k];
       boolean converge;
       if(i>0){
         double enmax = vals[i-1] + i;
@@ -151,6 +177,59 @@ public boolean setCoef(double[] re, double[] im) {
     return noerror;
   }
 
+  /**
+   * Calculates the missing eigenstates concurrently.
+   *
+   * Bisection for a state needs only an energy below the eigenvalue and an energy above it.  The lower bound is the
+   * nearest eigenvalue that has already been calculated, or the potential minimum, and the upper bound is an energy
+   * with enough crossings for the highest missing state.  The states are therefore independent and each band
+   * shoots its states with its own EigenstateShooting.
+   *
+   * @param missing int[] the indices of the states to calculate
+   * @param nmissing int
+   * @param enmin double the minimum of the potential
+   * @return true if every state converged
+   */
+  boolean shootParallel(int[] missing, int nmissing, double enmin){
+    double[] lower=new double[nmissing];
+    double known=enmin;
+    for(int i=0, k=0; k<nmissing; i++){
+      if(i==missing[k]){
+        lower[k++]=known;
+      }else if(states[i]!=null){
+        known=vals[i];
+      }
+    }
+    int qmax=missing[nmissing-1]+1;
+    double enmax=lower[nmissing-1]+qmax;
+    for (int count = 0; count < 32 && qmsystem.solve(enmax) < qmax; count++) {
+      enmax += enmax - enmin;
+    }
+    final double upper=enmax;
+    boolean[] converged=new boolean[nmissing];
+    Parallel.forEachBand(nmissing, 1, (band, start, end) -> {
+      EigenstateShooting shooter = new EigenstateShooting(potentialFactory.get(), x.length, xmin, xmax);
+      shooter.setSolverTolerance(odeTol);
+      shooter.setBisectionTolerance(bisectionTol);
+      for(int k=start; k<end; k++){
+        int i=missing[k];
+        converged[k]=shooter.calcEigenfunction(i+1,lower[k],upper);
+        if(converged[k]){
+          vals[i]=shooter.energy;
+          states[i]=shooter.psi.clone();
+        }
+      }
+    });
+    boolean noerror=true;
+    for(int k=0; k<nmissing; k++){
+      if(!converged[k]){
+        System.out.println("state did not converge. n="+missing[k]);
+        noerror=false;
+      }
+    }
+    return noerror;
+  }
+
   /**
    * Gets the energy eigenvalue for the i-th eigenstate.
    * @return double[][]
@@ -163,21 +242,11 @@ public double getEigenValue(int i) {
 
   @Override
 public void update(double time){
-    System.arraycopy(zeroArray,0,rePsi,0,rePsi.length);
-    System.arraycopy(zeroArray,0,imPsi,0,imPsi.length);
+    sum.setNumberOfStates(numstates);
     for(int i=0; i<numstates; i++){
-      double[] state=states[i];
-      if(state==null) continue;
-      double re=recoef[i];
-      double im=imcoef[i];
-      double phase=-time*vals[i]*energyScale;
-      double sin=Math.sin(phase);
-      double cos=Math.cos(phase);
-      for(int j=0, n=rePsi.length; j<n; j++){
-        rePsi[j]+=(re*cos-im*sin)*state[j];
-        imPsi[j]+=(im*cos+re*sin)*state[j];
-      }
+      sum.setCoef(i, recoef[i], imcoef[i], -time*vals[i]*energyScale);
     }
+    sum.evaluate(states, numstates, rePsi, imPsi);
     rePsi[0]=rePsi[rePsi.length-1]=0;  // end points are always zero
     imPsi[0]=imPsi[imPsi.length-1]=0;
   }
@@ -15,6 +15,7 @@ public class EigenstateWellSuperposition implements QMSuperposition{
   double[][] eigenstates;
   double L;
   double[] x,rePsi,imPsi,rho,zeroArray;
+  SuperpositionSum sum = new SuperpositionSum();
   double energyScale=1;
 
   public EigenstateWellSuperposition(int numpts, double xmin, double xmax) {
@@ -217,18 +218,12 @@ public void update(double time){
     System.arraycopy(zeroArray,0,imPsi,0,imPsi.length);
     if(eigenstates.length==0) return;
     double kk=-PISQR*energyScale*time/L/L;
-    for(int i=0, ns=recoef.length; i<ns; i++){
-      double re=recoef[i];
-      double im=imcoef[i];
-      double phase=kk*(i+1)*(i+1);
-      double sin=Math.sin(phase);
-      double cos=Math.cos(phase);
-      double[] stateArray = eigenstates[i];
-      for(int j=0, n=x.length; j<n; j++){
-        rePsi[j]+=(re*cos-im*sin)*stateArray[j];
-        imPsi[j]+=(im*cos+re*sin)*stateArray[j];
-      }
+    int ns=recoef.length;
+    sum.setNumberOfStates(ns);
+    for(int i=0; i<ns; i++){
+      sum.setCoef(i, recoef[i], imcoef[i], kk*(i+1)*(i+1));
     }
+    sum.evaluate(eigenstates, ns, rePsi, imPsi);
   }
 
 }
@@ -179,6 +179,16 @@ public void initializeAnimation() {
         } else {
             superposition = new EigenstateShootingSuperposition(potential, numpts, xmin, xmax);
         }
+         if(!parseError) { // parsed functions are not thread safe so every shooting thread parses its own copy
+            final String fStr = control.getString("V(x)");
+            ((EigenstateShootingSuperposition) superposition).setParallelShooting(() -> {
+               try {
+                  return new ParsedFunction(fStr);
+               } catch(ParserException ex) {
+                  return Util.constantFunction(0);
+               }
+            });
+         }
       }
       if(!superposition.setCoef(recoef.getArray(), imcoef.getArray())) {
          control.println("Eigenfunction did not converge.");
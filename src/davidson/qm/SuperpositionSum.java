@@ -0,0 +1,128 @@
+package davidson.qm;
+import org.opensourcephysics.numerics.Parallel;
+
+/**
+ * SuperpositionSum accumulates the time-dependent sum of eigenstates into a wave function.
+ *
+ * The caller sets the complex coefficient of every state for the current time and then evaluates the sum.
+ * States with zero coefficients are skipped.  The grid is processed in blocks so that the partial sums of a block
+ * stay in cache while every state is added, and blocks are split into bands that run on separate threads
+ * when the grid is large.  Each point is summed over the states in order, so the result does not depend
+ * on the number of threads.
+ *
+ * @version 1.0
+ */
+class SuperpositionSum {
+  static final int BLOCK_POINTS = 256;           // grid points summed together over all states
+  static final int MIN_PARALLEL_WORK = 1<<16;    // multiply-adds worth running on their own thread
+  double[] re = new double[0], im = new double[0]; // time-dependent coefficients
+  int[] active = new int[0];                     // states with nonzero coefficients
+  int nactive;
+
+  /**
+   * Ensures that there is room for the given number of coefficients.
+   *
+   * @param nstates int
+   */
+  void setNumberOfStates(int nstates) {
+    if(re.length<nstates) {
+      re = new double[nstates];
+      im = new double[nstates];
+      active = new int[nstates];
+    }
+  }
+
+  /**
+   * Sets the coefficient of a state given its initial coefficient and phase.
+   *
+   * @param i int the state
+   * @param reCoef double
+   * @param imCoef double
+   * @param phase double
+   */
+  void setCoef(int i, double reCoef, double imCoef, double phase) {
+    double sin = Math.sin(phase);
+    double cos = Math.cos(phase);
+    re[i] = reCoef*cos-imCoef*sin;
+    im[i] = imCoef*cos+reCoef*sin;
+  }
+
+  /**
+   * Evaluates psi = sum c_i state_i for real eigenstates.
+   *
+   * @param states double[][] the eigenstates; null states are skipped
+   * @param nstates int
+   * @param rePsi double[]
+   * @param imPsi double[]
+   */
+  void evaluate(double[][] states, int nstates, double[] rePsi, double[] imPsi) {
+    findActive(states, nstates, 1);
+    int n = rePsi.length;
+    int nblocks = (n+BLOCK_POINTS-1)/BLOCK_POINTS;
+    Parallel.forEachBand(nblocks, minBlocks(), (band, start, end) -> {
+      for(int block = start; block<end; block++) {
+        int j0 = block*BLOCK_POINTS, j1 = Math.min(n, j0+BLOCK_POINTS);
+        for(int j = j0; j<j1; j++) {
+          rePsi[j] = 0;
+          imPsi[j] = 0;
+        }
+        for(int k = 0; k<nactive; k++) {
+          int i = active[k];
+          double a = re[i], b = im[i];
+          double[] state = states[i];
+          for(int j = j0; j<j1; j++) {
+            rePsi[j] += a*state[j];
+            imPsi[j] += b*state[j];
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Evaluates psi = sum c_i state_i for complex eigenstates.
+   * The real and imaginary parts of state i are stored in states[2*i] and states[2*i+1].
+   *
+   * @param states double[][] the eigenstates
+   * @param nstates int
+   * @param rePsi double[]
+   * @param imPsi double[]
+   */
+  void evaluateComplex(double[][] states, int nstates, double[] rePsi, double[] imPsi) {
+    findActive(states, nstates, 2);
+    int n = rePsi.length;
+    int nblocks = (n+BLOCK_POINTS-1)/BLOCK_POINTS;
+    Parallel.forEachBand(nblocks, minBlocks(), (band, start, end) -> {
+      for(int block = start; block<end; block++) {
+        int j0 = block*BLOCK_POINTS, j1 = Math.min(n, j0+BLOCK_POINTS);
+        for(int j = j0; j<j1; j++) {
+          rePsi[j] = 0;
+          imPsi[j] = 0;
+        }
+        for(int k = 0; k<nactive; k++) {
+          int i = active[k];
+          double a = re[i], b = im[i];
+          double[] reState = states[2*i], imState = states[2*i+1];
+          for(int j = j0; j<j1; j++) {
+            rePsi[j] += (a*reState[j]-b*imState[j]);
+            imPsi[j] += (b*reState[j]+a*imState[j]);
+          }
+        }
+      }
+    });
+  }
+
+  private void findActive(double[][] states, int nstates, int stride) {
+    nactive = 0;
+    for(int i = 0; i<nstates; i++) {
+      if(((re[i]!=0)||(im[i]!=0))&&(states[stride*i]!=null)) {
+        active[nactive++] = i;
+      }
+    }
+  }
+
+  private int minBlocks() {
+    return Math.max(1, MIN_PARALLEL_WORK/(BLOCK_POINTS*Math.max(1, nactive)));
+  }
+
+}
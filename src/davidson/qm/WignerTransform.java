@@ -0,0 +1,182 @@
+package davidson.qm;
+import java.util.Arrays;
+import org.opensourcephysics.numerics.FFT;
+import org.opensourcephysics.numerics.Parallel;
+
+/**
+ * WignerTransform computes the Wigner distribution of a wavefunction on a uniform grid.
+ *
+ * Every x slice of the distribution is the Fourier transform of a kernel that is conjugate symmetric about the
+ * center of the padded array, so its transform is real after a phase shift.  Two slices are therefore packed into
+ * the real and imaginary parts of a single complex FFT.  Slice pairs are split into bands that run on separate
+ * threads, and each band owns its FFT and kernel buffer so that repeated transforms do not allocate.
+ *
+ * The result matches the real part of FourierAnalysis.repeatAnalysis applied slice by slice.
+ */
+public class WignerTransform {
+   static final int MIN_PARALLEL_PAIRS = 8; // smallest band of slice pairs worth a thread
+   int numpts, gutter, nfft;
+   double[] omega;                          // natural angular frequencies of the padded transform
+   int[] wrapped;                           // wrap-around index of each output momentum
+   double[] cosCenter, sinCenter;           // phase that makes each slice transform real
+   double[] scale;                          // phase and normalization of the FourierAnalysis convention
+   Workspace[] workspaces = new Workspace[0];
+
+   /**
+    * FFT and buffer used by a single band.
+    */
+   static class Workspace {
+      final FFT fft;
+      final double[] data;
+      double max;
+
+      Workspace(int nfft) {
+         fft = new FFT(nfft);
+         data = new double[2*nfft];
+      }
+
+   }
+
+   /**
+    * Sets the grid and the number of zero points added to each side of the kernel.
+    *
+    * @param x double[] the uniformly spaced positions
+    * @param gutter int
+    */
+   public void setGrid(double[] x, int gutter) {
+      if((x.length<2)||(gutter<0)) {
+         throw new IllegalArgumentException("Wigner transform needs at least two points and a non-negative gutter."); //$NON-NLS-1$
+      }
+      numpts = x.length;
+      this.gutter = gutter;
+      nfft = numpts+2*gutter;
+      double dx = x[1]-x[0];
+      double xmin = x[0]-gutter*dx;
+      double xmax = x[numpts-1]+(gutter+1)*dx;
+      omega = new FFT(nfft).getNaturalOmega(xmin, xmax);
+      wrapped = new int[numpts];
+      cosCenter = new double[numpts];
+      sinCenter = new double[numpts];
+      scale = new double[numpts];
+      double center = (nfft-1)/2.0;
+      int half = (nfft+nfft%2)/2;
+      double norm = (double) (nfft/numpts)/nfft; // FourierAnalysis uses the integer ratio of the padded and data lengths
+      for(int j = 0; j<numpts; j++) {
+         int k = j+gutter;                                // natural order index
+         double phase = 2*Math.PI*(k-nfft/2)*center/nfft; // shifts the transform origin to the array center
+         wrapped[j] = (k+half)%nfft;
+         cosCenter[j] = Math.cos(phase);
+         sinCenter[j] = Math.sin(phase);
+         scale[j] = norm*Math.cos(phase+omega[k]*xmin);
+      }
+      workspaces = new Workspace[0];
+   }
+
+   /**
+    * Gets the natural angular frequencies of the padded transform.
+    *
+    * @return double[]
+    */
+   public double[] getNaturalOmega() {
+      return omega;
+   }
+
+   /**
+    * Computes the Wigner distribution w[i][j] where i indexes position and j indexes momentum.
+    *
+    * @param rePsi double[]
+    * @param imPsi double[]
+    * @param w double[][] the destination with at least numpts rows and numpts columns
+    * @return double the largest value in the distribution
+    */
+   public double transform(double[] rePsi, double[] imPsi, double[][] w) {
+      if((rePsi.length!=numpts)||(imPsi.length!=numpts)||(w.length<numpts)) {
+         throw new IllegalArgumentException("Wavefunction does not match the Wigner grid."); //$NON-NLS-1$
+      }
+      int npairs = (numpts+1)/2;
+      int minBand = Math.max(1, MIN_PARALLEL_PAIRS*64/nfft);
+      int nBands = Parallel.getBandCount(npairs, minBand);
+      if(workspaces.length<nBands) {
+         Workspace[] ws = new Workspace[nBands];
+         System.arraycopy(workspaces, 0, ws, 0, workspaces.length);
+         for(int b = workspaces.length; b<nBands; b++) {
+            ws[b] = new Workspace(nfft);
+         }
+         workspaces = ws;
+      }
+      Parallel.forEachBand(npairs, nBands, minBand, (band, start, end) -> {
+         Workspace ws = workspaces[band];
+         ws.max = -Double.MAX_VALUE;
+         for(int pair = start; pair<end; pair++) {
+            transformPair(rePsi, imPsi, w, 2*pair, ws);
+         }
+      });
+      double max = -Double.MAX_VALUE;
+      for(int b = 0; b<nBands; b++) {
+         max = Math.max(max, workspaces[b].max);
+      }
+      return max;
+   }
+
+   /**
+    * Transforms slice i in the real part and slice i+1 in the imaginary part of one FFT.
+    */
+   void transformPair(double[] rePsi, double[] imPsi, double[][] w, int i, Workspace ws) {
+      double[] data = ws.data;
+      Arrays.fill(data, 0);
+      int n = numpts, offset = 2*gutter;
+      boolean hasSecond = i+1<n;
+      addKernel(rePsi, imPsi, data, offset, i-n/2, false);
+      if(hasSecond) {
+         addKernel(rePsi, imPsi, data, offset, i+1-n/2, true);
+      }
+      ws.fft.transform(data);
+      double[] row1 = w[i], row2 = hasSecond ? w[i+1] : null;
+      double max = ws.max;
+      for(int j = 0; j<n; j++) {
+         int k = 2*wrapped[j];
+         double re = data[k], im = data[k+1];
+         double v1 = (re*cosCenter[j]-im*sinCenter[j])*scale[j];
+         row1[j] = v1;
+         if(v1>max) {
+            max = v1;
+         }
+         if(hasSecond) {
+            double v2 = (re*sinCenter[j]+im*cosCenter[j])*scale[j];
+            row2[j] = v2;
+            if(v2>max) {
+               max = v2;
+            }
+         }
+      }
+      ws.max = max;
+   }
+
+   /**
+    * Adds the kernel psi(shift+i) psi*(shift+n-1-i) to the data array.
+    * The kernel is added to the real and imaginary parts, or multiplied by i when it is the second slice of a pair.
+    */
+   static void addKernel(double[] rePsi, double[] imPsi, double[] data, int offset, int shift, boolean timesI) {
+      int n = rePsi.length;
+      int first = Math.max(0, Math.max(-shift, shift));
+      int last = Math.min(n-1, Math.min(n-1-shift, shift+n-1));
+      for(int i = first; i<=last; i++) {
+         int ip = shift+i;
+         int im = shift+n-1-i;
+         double re1 = rePsi[ip];
+         double im1 = imPsi[ip];
+         double re2 = rePsi[im];
+         double im2 = imPsi[im];
+         double re = re1*re2+im1*im2;
+         double imag = -re2*im1+re1*im2;
+         int k = offset+2*i;
+         if(timesI) {
+            data[k] -= imag;
+            data[k+1] += re;
+         } else {
+            data[k] += re;
+            data[k+1] += imag;
+         }
+      }
+   }
+}
@@ -8,16 +8,13 @@
 package davidson.stp;
 import java.awt.Color;
 import java.awt.Graphics;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Random;
 import org.opensourcephysics.display.Drawable;
 import org.opensourcephysics.display.DrawingPanel;
 import org.opensourcephysics.display2d.CellLattice;
 
 public class Ising2d implements Drawable {
   public static final double criticalTemperature = 2.0/Math.log(1.0+Math.sqrt(2.0));
-  public int[][] spin;
+  public IsingLattice model;   // Monte Carlo engine that holds the spins
   public int L;
   public int N;                // Number of sites
   public double J = 1.0;       // Interaction strength
@@ -40,26 +37,24 @@ public class Ising2d implements Drawable {
     T = _T;
     H = _H;
     lattice = new CellLattice(L, L); // only used for drawing
-    lattice.setIndexedColor(0, Color.red);
-    lattice.setIndexedColor(2, Color.green);
+    lattice.setIndexedColor(255, Color.red); // spin -1
+    lattice.setIndexedColor(1, Color.green); // spin +1
     // all spins up
-    spin = new int[L][L];
-    for(int i = 0; i<L; ++i) {
-      for(int j = 0; j<L; ++j) {
-        spin[i][j] = 1;
-      }
-    }
-    M = N;
-    E = -2*J*N-H*M;
+    model = new IsingLattice(L, T, H);
+    model.setCoupling(J);
+    M = model.getMagnetization();
+    E = model.getEnergy();
     resetData();
   }
 
   public void setTemperature(double _T) {
     T = _T;
+    model.setTemperature(T);
   }
 
   public void setExternalField(double _H) {
-    E += H*M-_H*M;
+    model.setExternalField(_H);
+    E = model.getEnergy();
     H = _H;
   }
 
@@ -89,83 +84,32 @@ public class Ising2d implements Drawable {
     M_acc = 0;
     M2_acc = 0;
     acceptedMoves = 0;
+    if(model!=null) {
+      model.resetAcceptedMoves();
+    }
   }
 
   public void doOneMCStep() {
-    for(int k = 0; k<N; ++k) {
-      int i = (int) (Math.random()*L);
-      int j = (int) (Math.random()*L);
-      double dE = 2*J*spin[i][j]*(H+spin[(i+1)%L][j]+spin[(i-1+L)%L][j]+spin[i][(j+1)%L]+spin[i][(j-1+L)%L]);
-      if((dE<=0)||(Math.random()<Math.exp(-dE/T))) {
-        spin[i][j] = -spin[i][j];
-        acceptedMoves++;
-        E += dE;
-        M += 2*spin[i][j];
-      }
-    }
-    accumulate_EM();
-    mcs++;
+    model.doMetropolisStep();
+    acceptedMoves = (int) model.getAcceptedMoves();
+    update();
   }
 
   public void doOneWolffStep(double bondProbability) {
-    HashMap<Integer, Integer> wolffCluster = growWolffCluster(bondProbability);
-    int size = wolffCluster.size();
-    for(int i = 0; i<size; i++) {
-      int x = (Integer) wolffCluster.get(i)%L;
-      int y = (Integer) wolffCluster.get(i)/L;
-      int spinDirection = spin[x][y];
-      spin[x][y] *= -1;;
-      double dE = 2*spinDirection
-                  *(this.J
-                    *(this.spin[(x-1+L)%L][y]+this.spin[(x+1+L)%L][y]+this.spin[x][(y-1+L)%L]+this.spin[x][(y+1+L)%L]));
-      this.M += -2*spinDirection;
-      this.E += dE;
-    }
-    accumulate_EM();
-    mcs++;
+    model.doWolffStep(bondProbability);
+    update();
   }
 
-  public HashMap<Integer, Integer> growWolffCluster(double bondProbability) {
-    Random r = new Random();
-    HashMap<Integer, Integer> wolffSpins = new HashMap<Integer, Integer>(100);
-    boolean visit[] = new boolean[this.N];
-    int stackSize = 0;
-    int stackPointer = 0;
-    int firstSpinX = r.nextInt(this.L);
-    int firstSpinY = r.nextInt(this.L);
-    int firstSpin = firstSpinX+this.L*firstSpinY;
-    int direction = spin[firstSpinX][firstSpinY];
-    wolffSpins.put(stackPointer, firstSpin);
-    stackSize++;
-    visit[firstSpin] = true;
-    while(stackPointer<stackSize) {
-      int currentSpin = wolffSpins.get(stackPointer);
-      ArrayList<Integer> neighborList = new ArrayList<Integer>();
-      int currentX = currentSpin%L;
-      int currentY = currentSpin/L;
-      neighborList.add(currentX+((currentY-1+L)%L)*L);
-      neighborList.add(currentX+((currentY+1+L)%L)*L);
-      neighborList.add((currentX-1+L)%L+currentY*L);
-      neighborList.add((currentX+1+L)%L+currentY*L);
-      visit[currentSpin] = true;
-//      int numAdded = 0;
-      for(int nextSpin : neighborList) {
-        boolean visited = visit[nextSpin];
-        boolean inSameDir = (spin[nextSpin%this.L][nextSpin/this.L]==direction);
-        boolean occupyBond = (r.nextDouble()<bondProbability);
-        if(!visited) {
-          if(inSameDir&&occupyBond) {
-            if(!wolffSpins.containsValue(nextSpin)) {
-              wolffSpins.put(stackSize, nextSpin);
-              stackSize++;
-            }
-  //          numAdded++;
-          }
-        }
-      }
-      stackPointer++;
-    }
-    return wolffSpins;
+  public void doOneSwendsenWangStep(double bondProbability) {
+    model.doSwendsenWangStep(bondProbability);
+    update();
+  }
+
+  private void update() {
+    E = model.getEnergy();
+    M = model.getMagnetization();
+    accumulate_EM();
+    mcs++;
   }
 
   public void accumulate_EM() {
@@ -181,11 +125,7 @@ public void draw(DrawingPanel panel, Graphics g) {
     if(lattice==null) {
       return;
     }
-    for(int i = 0; i<L; i++) {
-      for(int j = 0; j<L; j++) {
-        lattice.setValue(i, j, (byte) (spin[i][j]+1));
-      }
-    }
+    lattice.setAll(model.getSpins(), L);
     lattice.draw(panel, g);
   }
 
@@ -25,6 +25,7 @@ public class Ising2dApp extends AbstractSimulation {
   NumberFormat nf;
   double bondProbability;
   boolean metropolis = true;
+  boolean swendsenWang = false;
 
   /**
    * Constructor Ising2DApp
@@ -45,11 +46,9 @@ public class Ising2dApp extends AbstractSimulation {
 public void initialize() {
     ising.initialize(control.getInt("Length"), control.getDouble("Temperature"), control.getDouble("External field"));
     this.bondProbability = bondProbability(ising.J, ising.T);
-    if(control.getString("Dynamics").equals("Metropolis")) {
-      metropolis = true;
-    } else {
-      metropolis = false;
-    }
+    String dynamics = control.getString("Dynamics");
+    metropolis = dynamics.equals("Metropolis");
+    swendsenWang = dynamics.equals("Swendsen-Wang");
     displayPanel.setPreferredMinMax(-5, ising.L+5, -5, ising.L+5);
     control.clearMessages();
     zeroAverages();
@@ -64,17 +63,20 @@ public void initialize() {
 public void doStep() {
     if(metropolis) {
       ising.doOneMCStep();
+    } else if(swendsenWang) {
+      ising.doOneSwendsenWangStep(bondProbability);
     } else {
       ising.doOneWolffStep(bondProbability);
     }
     plotFrame.append(0, ising.mcs, (double) ising.M/ising.N);
-    plotFrame.append(1, ising.mcs, (double) ising.E/ising.N);
+    plotFrame.append(1, ising.mcs, ising.E/ising.N);
   }
   
   @Override
 public void startRunning() {
 	 ising.setTemperature(control.getDouble("Temperature"));
 	 ising.setExternalField(control.getDouble("External field"));
+	 bondProbability = bondProbability(ising.J, ising.T);
   }
 
   @Override
@@ -99,7 +101,7 @@ public void reset() {
     control.setValue("Length", 32);
     control.setAdjustableValue("Temperature", nf.format(Ising2d.criticalTemperature));
     control.setAdjustableValue("External field", 0);
-    OSPCombo combo = new OSPCombo(new String[] {"Metropolis", "Wolff"}, 0); // second argument is default
+    OSPCombo combo = new OSPCombo(new String[] {"Metropolis", "Wolff", "Swendsen-Wang"}, 0); // second argument is default
     control.setValue("Dynamics", combo);
     enableStepsPerDisplay(true);
   }
@@ -0,0 +1,411 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package davidson.stp;
+import java.util.Arrays;
+import org.opensourcephysics.numerics.Parallel;
+import org.opensourcephysics.numerics.RandomStream;
+
+/**
+ * IsingLattice is a Monte Carlo engine for the two dimensional Ising model on an L by L lattice
+ * with periodic boundary conditions.
+ *
+ * Spins are stored as +1 or -1 in a flat byte array with index j*L+i, the row-major layout used by
+ * LatticeFrame. Metropolis sweeps update the two checkerboard sublattices in turn. The rows of a
+ * sublattice are divided into bands that are updated in parallel. Every row draws from its own
+ * random number stream so that a seeded run gives the same result for any number of threads.
+ * Unless a seed is given, the streams are derived from the RandomStream service, so setting its
+ * global seed also reproduces a run.
+ * Acceptance probabilities are tabulated whenever the coupling, temperature or field changes.
+ * Wolff and Swendsen-Wang cluster updates reuse a primitive stack and a union-find forest.
+ *
+ * @version 1.0
+ */
+public class IsingLattice {
+  static final int MIN_PARALLEL_ROWS = 16;
+  final int L;                  // linear dimension
+  final int N;                  // number of sites
+  final byte[] spin;            // spins with index j*L+i
+  double J = 1.0;               // interaction strength
+  double T;                     // temperature
+  double H;                     // external magnetic field
+  double E;                     // system energy
+  int M;                        // system magnetization
+  long acceptedMoves;           // accepted Metropolis flips
+  private final double[] boltzmann = new double[10]; // acceptance indexed by spin and neighbor sum
+  private final RandomStream[] rowRandom;            // one stream per row
+  private RandomStream random;                       // stream for cluster updates
+  private final double[] rowE;                       // energy change per row
+  private final int[] rowM, rowAccepted;             // magnetization change and accepted flips per row
+  private int[] stack, parent;                       // cluster workspace
+
+  /**
+   * Constructs an L by L lattice with all spins up.
+   *
+   * @param L the linear dimension
+   * @param T the temperature
+   * @param H the external field
+   */
+  public IsingLattice(int L, double T, double H) {
+    if(L<2) {
+      throw new IllegalArgumentException("Lattice size must be at least 2."); //$NON-NLS-1$
+    }
+    this.L = L;
+    N = L*L;
+    spin = new byte[N];
+    rowRandom = new RandomStream[L];
+    rowE = new double[L];
+    rowM = new int[L];
+    rowAccepted = new int[L];
+    this.T = T;
+    this.H = H;
+    setSeed(RandomStream.current().nextLong());
+    setAllSpins(1);
+  }
+
+  /**
+   * Seeds the random number streams so that runs can be reproduced.
+   *
+   * @param seed
+   */
+  public void setSeed(long seed) {
+    random = new RandomStream(seed);
+    for(int j = 0; j<L; j++) {
+      rowRandom[j] = random.split();
+    }
+  }
+
+  /**
+   * Sets every spin to the given value and recomputes the energy and magnetization.
+   *
+   * @param s +1 or -1
+   */
+  public void setAllSpins(int s) {
+    Arrays.fill(spin, (byte) ((s<0) ? -1 : 1));
+    computeEnergy();
+  }
+
+  /**
+   * Gets the spin array. Values are +1 or -1 with index j*L+i.
+   *
+   * @return the spins
+   */
+  public byte[] getSpins() {
+    return spin;
+  }
+
+  public int getL() {
+    return L;
+  }
+
+  public double getEnergy() {
+    return E;
+  }
+
+  public int getMagnetization() {
+    return M;
+  }
+
+  public long getAcceptedMoves() {
+    return acceptedMoves;
+  }
+
+  public void resetAcceptedMoves() {
+    acceptedMoves = 0;
+  }
+
+  public void setCoupling(double J) {
+    this.J = J;
+    computeEnergy();
+  }
+
+  public void setTemperature(double T) {
+    this.T = T;
+  }
+
+  public void setExternalField(double H) {
+    E += this.H*M-H*M;
+    this.H = H;
+  }
+
+  /**
+   * Gets the Wolff and Swendsen-Wang bond probability 1-exp(-2J/T).
+   *
+   * @return the probability
+   */
+  public double getBondProbability() {
+    return 1-Math.exp(-2*J/T);
+  }
+
+  /**
+   * Recomputes the energy and magnetization from the spins.
+   */
+  public void computeEnergy() {
+    int m = 0, bonds = 0;
+    for(int j = 0; j<L; j++) {
+      int row = j*L, down = ((j+1)%L)*L;
+      for(int i = 0; i<L; i++) {
+        int s = spin[row+i];
+        m += s;
+        bonds += s*(spin[row+(i+1)%L]+spin[down+i]);
+      }
+    }
+    M = m;
+    E = -J*bonds-H*m;
+  }
+
+  /**
+   * Tabulates min(1, exp(-dE/T)) for both spin values and the five possible neighbor sums.
+   */
+  private void tabulateBoltzmann() {
+    for(int k = 0; k<5; k++) {
+      int sum = 2*k-4;
+      boltzmann[k] = Math.min(1, Math.exp(2*(J*sum+H)/T));    // spin down
+      boltzmann[5+k] = Math.min(1, Math.exp(-2*(J*sum+H)/T)); // spin up
+    }
+  }
+
+  /**
+   * Does one Metropolis Monte Carlo step per spin.
+   *
+   * If L is even the black and white checkerboard sublattices are updated in turn with row bands
+   * in parallel. Sites of the same color are then never neighbors. If L is odd the lattice is
+   * swept in order by a single thread.
+   */
+  public void doMetropolisStep() {
+    tabulateBoltzmann();
+    if(L%2==0) {
+      for(int color = 0; color<2; color++) {
+        final int c = color;
+        Parallel.forEachBand(L, MIN_PARALLEL_ROWS, (band, start, end) -> {
+          for(int j = start; j<end; j++) {
+            sweepRow(j, c, 2);
+          }
+        });
+        collectRows();
+      }
+    } else {
+      for(int j = 0; j<L; j++) {
+        sweepRow(j, 0, 1);
+      }
+      collectRows();
+    }
+  }
+
+  /**
+   * Attempts to flip every stride-th site in row j starting at the site of the given color.
+   */
+  private void sweepRow(int j, int color, int stride) {
+    RandomStream r = rowRandom[j];
+    byte[] s = spin;
+    int row = j*L, up = ((j+L-1)%L)*L, down = ((j+1)%L)*L;
+    double dE = 0;
+    int dM = 0, accepted = 0;
+    for(int i = (stride==1) ? 0 : (j+color)&1; i<L; i += stride) {
+      int k = row+i;
+      int sum = s[(i==0) ? row+L-1 : k-1]+s[(i==L-1) ? row : k+1]+s[up+i]+s[down+i];
+      int si = s[k];
+      double w = boltzmann[((si>0) ? 5 : 0)+(sum+4)/2];
+      if((w>=1)||(r.nextDouble()<w)) {
+        s[k] = (byte) -si;
+        dE += 2*si*(J*sum+H);
+        dM -= 2*si;
+        accepted++;
+      }
+    }
+    rowE[j] = dE;
+    rowM[j] = dM;
+    rowAccepted[j] = accepted;
+  }
+
+  /**
+   * Adds the row changes to the totals in row order so that the sum does not depend on the bands.
+   */
+  private void collectRows() {
+    for(int j = 0; j<L; j++) {
+      E += rowE[j];
+      M += rowM[j];
+      acceptedMoves += rowAccepted[j];
+    }
+  }
+
+  /**
+   * Grows and flips one Wolff cluster using the bond probability 1-exp(-2J/T).
+   * The external field is ignored.
+   *
+   * @return the cluster size
+   */
+  public int doWolffStep() {
+    return doWolffStep(getBondProbability());
+  }
+
+  /**
+   * Grows and flips one Wolff cluster.
+   *
+   * Cluster spins are flipped as they are added so the spins themselves mark visited sites.
+   *
+   * @param bondProbability the probability of adding an aligned neighbor
+   * @return the cluster size
+   */
+  public int doWolffStep(double bondProbability) {
+    if(stack==null) {
+      stack = new int[N];
+    }
+    byte[] s = spin;
+    int seed = random.nextInt(N);
+    byte direction = s[seed];
+    int size = 0, top = 0;
+    double dE = 0;
+    s[seed] = (byte) -direction;
+    dE += 2*direction*J*neighborSum(seed);
+    stack[top++] = seed;
+    size++;
+    while(top>0) {
+      int k = stack[--top];
+      int i = k%L, row = k-i;
+      for(int d = 0; d<4; d++) {
+        int n;
+        switch(d) {
+           case 0 :
+             n = (i==0) ? k+L-1 : k-1;
+             break;
+           case 1 :
+             n = (i==L-1) ? row : k+1;
+             break;
+           case 2 :
+             n = (k<L) ? k+N-L : k-L;
+             break;
+           default :
+             n = (k+L<N) ? k+L : k+L-N;
+        }
+        if((s[n]==direction)&&(random.nextDouble()<bondProbability)) {
+          s[n] = (byte) -direction;
+          dE += 2*direction*J*neighborSum(n);
+          stack[top++] = n;
+          size++;
+        }
+      }
+    }
+    E += dE+2*H*direction*size;
+    M -= 2*direction*size;
+    return size;
+  }
+
+  private int neighborSum(int k) {
+    int i = k%L, row = k-i;
+    return spin[(i==0) ? k+L-1 : k-1]+spin[(i==L-1) ? row : k+1]+spin[(k-L+N)%N]+spin[(k+L)%N];
+  }
+
+  /**
+   * Does one Swendsen-Wang step using the bond probability 1-exp(-2J/T).
+   * The external field is ignored.
+   *
+   * @return the number of clusters
+   */
+  public int doSwendsenWangStep() {
+    return doSwendsenWangStep(getBondProbability());
+  }
+
+  /**
+   * Does one Swendsen-Wang step. Aligned neighbors are bonded with the given probability,
+   * clusters are labeled with a union-find forest, and every cluster is flipped with probability 1/2.
+   *
+   * @param bondProbability
+   * @return the number of clusters
+   */
+  public int doSwendsenWangStep(double bondProbability) {
+    if(parent==null) {
+      parent = new int[N];
+    }
+    int[] p = parent;
+    byte[] s = spin;
+    for(int k = 0; k<N; k++) {
+      p[k] = k;
+    }
+    for(int j = 0; j<L; j++) {
+      int row = j*L, down = ((j+1)%L)*L;
+      for(int i = 0; i<L; i++) {
+        int k = row+i, right = (i==L-1) ? row : k+1;
+        if((s[k]==s[right])&&(random.nextDouble()<bondProbability)) {
+          union(k, right);
+        }
+        if((s[k]==s[down+i])&&(random.nextDouble()<bondProbability)) {
+          union(k, down+i);
+        }
+      }
+    }
+    // a root's sign bit records whether its cluster flips; roots are labeled before their members are read
+    int clusters = 0;
+    for(int k = 0; k<N; k++) {
+      int root = find(k);
+      if(root==k) {
+        clusters++;
+        if(random.nextBoolean()) {
+          p[k] = ~k;
+        }
+      }
+    }
+    for(int k = 0; k<N; k++) {
+      int root = find(k);
+      if(p[root]<0) {
+        s[k] = (byte) -s[k];
+      }
+    }
+    computeEnergy();
+    return clusters;
+  }
+
+  private int find(int k) {
+    int[] p = parent;
+    while((p[k]>=0)&&(p[k]!=k)) {
+      int q = p[k];
+      if((p[q]>=0)&&(p[q]!=q)) {
+        p[k] = p[q]; // path halving
+      }
+      k = q;
+    }
+    return k;
+  }
+
+  private void union(int a, int b) {
+    int ra = find(a), rb = find(b);
+    if(ra!=rb) {
+      if(ra<rb) {
+        parent[rb] = ra;
+      } else {
+        parent[ra] = rb;
+      }
+    }
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -7,11 +7,14 @@
 
 package org.opensourcephysics.analysis;
 import java.awt.Color;
+import java.util.Arrays;
+
 import org.opensourcephysics.display.ComplexDataset;
 import org.opensourcephysics.display.Data;
 import org.opensourcephysics.display.Dataset;
 import org.opensourcephysics.display.DisplayRes;
 import org.opensourcephysics.numerics.FFT;
+import org.opensourcephysics.numerics.FFTReal;
 
 /**
  * FourierAnalysis adds gutter points to complex-number data before performing a fast Fourier transform.
@@ -26,8 +29,10 @@ import org.opensourcephysics.numerics.FFT;
 public class FourierAnalysis implements Data {
   static final double PI2 = 2*Math.PI;
   FFT fft = new FFT();
-  double[] fftData, omega, freqs;
+  FFTReal fftReal = new FFTReal();
+  double[] fftData, realData, omega, freqs;
   double[] cosVec, sinVec, gutterVec;
+  double phaseXMin, phaseXMax, phaseNorm; // domain of the current phase factors
   ComplexDataset[] complexDatasets = new ComplexDataset[1];
   Dataset[] realDatasets = new Dataset[2];
   boolean radians = false;
@@ -43,30 +48,49 @@ public class FourierAnalysis implements Data {
    * @return double[] the Fourier spectrum
    */
   public double[] doAnalysis(double[] x, double[] z, int gutter) {
-    fftData = new double[z.length+4*gutter];
-    gutterVec = new double[2*gutter];
+    setSize(z.length+4*gutter, gutter);
     System.arraycopy(z, 0, fftData, 2*gutter, z.length);
     fft.transform(fftData); // Computes the FFT of data leaving the result in fft_pts.
     fft.toNaturalOrder(fftData);
-    double dx = x[1]-x[0];
-    double xmin = x[0]-gutter*dx;
-    double xmax = x[x.length-1]+(gutter+1)*dx;
-    omega = fft.getNaturalOmega(xmin, xmax);
-    freqs = fft.getNaturalFreq(xmin, xmax);
-    cosVec = new double[omega.length];
-    sinVec = new double[omega.length];
-    double norm = fftData.length/(z.length);
-    //double norm=1;
-    for(int i = 0, nOmega = omega.length; i<nOmega; i++) {
-      cosVec[i] = norm*Math.cos(omega[i]*xmin);
-      sinVec[i] = norm*Math.sin(omega[i]*xmin);
+    setPhase(x, z.length, gutter);
+    shiftPhase();
+    return fftData;
+  }
+
+  /**
+   * Fourier analyzes the given real data f[] after adding gutter points at the start and end of the f[] array.
+   *
+   * The result is the same as the analysis of complex data with zero imaginary parts, but the transform
+   * is computed using a complex FFT of half the length when the padded data has an even number of points.
+   *
+   * @param x double[]
+   * @param f double[]
+   * @param gutter int
+   * @return double[] the Fourier spectrum
+   */
+  public double[] doRealAnalysis(double[] x, double[] f, int gutter) {
+    int n = f.length+2*gutter;
+    if(n%2!=0) {
+      double[] z = new double[2*f.length];
+      for(int i = 0, nf = f.length; i<nf; i++) {
+        z[2*i] = f[i];
+      }
+      return doAnalysis(x, z, gutter);
     }
-    for(int i = 0, nOmega = omega.length; i<nOmega; i++) {
-      double re = fftData[2*i];
-      double im = fftData[2*i+1];
-      fftData[2*i] = re*cosVec[i]+im*sinVec[i];
-      fftData[2*i+1] = im*cosVec[i]-re*sinVec[i];
+    setSize(2*n, gutter);
+    if((realData==null)||(realData.length!=n)) {
+      realData = new double[n];
+    } else {
+      Arrays.fill(realData, 0);
+    }
+    System.arraycopy(f, 0, realData, gutter, f.length);
+    fftReal.transformToComplex(realData, fftData);
+    if(fft.getN()!=n) {
+      fft.setN(n);
     }
+    fft.toNaturalOrder(fftData);
+    setPhase(x, 2*f.length, gutter);
+    shiftPhase();
     return fftData;
   }
 
@@ -87,18 +111,63 @@ public class FourierAnalysis implements Data {
       }
       return doAnalysis(x, z, 0);
     }
-    System.arraycopy(gutterVec, 0, fftData, 0, gutterVec.length);                                 // zero the left gutter
-    System.arraycopy(gutterVec, 0, fftData, fftData.length-1-gutterVec.length, gutterVec.length); // zero the right gutter
+    System.arraycopy(gutterVec, 0, fftData, 0, gutterVec.length);                               // zero the left gutter
+    System.arraycopy(gutterVec, 0, fftData, fftData.length-gutterVec.length, gutterVec.length); // zero the right gutter
     System.arraycopy(z, 0, fftData, gutterVec.length, z.length);
     fft.transform(fftData); // Computes the FFT of data leaving the result in fft_pts.
     fft.toNaturalOrder(fftData);
+    shiftPhase();
+    return fftData;
+  }
+
+  /**
+   * Allocates the transform arrays if their size has changed; otherwise zeros them for reuse.
+   */
+  private void setSize(int length, int gutter) {
+    if((fftData==null)||(fftData.length!=length)) {
+      fftData = new double[length];
+    } else {
+      Arrays.fill(fftData, 0);
+    }
+    if((gutterVec==null)||(gutterVec.length!=2*gutter)) {
+      gutterVec = new double[2*gutter];
+    }
+  }
+
+  /**
+   * Computes the frequencies and phase factors unless the domain is unchanged since the last analysis.
+   */
+  private void setPhase(double[] x, int zLength, int gutter) {
+    double dx = x[1]-x[0];
+    double xmin = x[0]-gutter*dx;
+    double xmax = x[x.length-1]+(gutter+1)*dx;
+    double norm = fftData.length/(zLength);
+    if((cosVec!=null)&&(cosVec.length==fftData.length/2)&&(xmin==phaseXMin)&&(xmax==phaseXMax)&&(norm==phaseNorm)) {
+      return;
+    }
+    phaseXMin = xmin;
+    phaseXMax = xmax;
+    phaseNorm = norm;
+    omega = fft.getNaturalOmega(xmin, xmax);
+    freqs = fft.getNaturalFreq(xmin, xmax);
+    cosVec = new double[omega.length];
+    sinVec = new double[omega.length];
+    for(int i = 0, nOmega = omega.length; i<nOmega; i++) {
+      cosVec[i] = norm*Math.cos(omega[i]*xmin);
+      sinVec[i] = norm*Math.sin(omega[i]*xmin);
+    }
+  }
+
+  /**
+   * Shifts the phase of the transformed data to account for the position of the first data point.
+   */
+  private void shiftPhase() {
     for(int i = 0, nOmega = omega.length; i<nOmega; i++) {
       double re = fftData[2*i];
       double im = fftData[2*i+1];
       fftData[2*i] = re*cosVec[i]+im*sinVec[i];
       fftData[2*i+1] = im*cosVec[i]-re*sinVec[i];
     }
-    return fftData;
   }
 
   /**
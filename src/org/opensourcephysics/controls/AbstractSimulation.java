@@ -27,6 +27,7 @@ import java.awt.Frame;
 import java.util.Collection;
 
 import org.opensourcephysics.display.GUIUtils;
+import org.opensourcephysics.display.OSPRuntime;
 
 import javajs.async.SwingJSUtils;
 import javajs.async.SwingJSUtils.StateHelper;
@@ -41,6 +42,11 @@ import javajs.async.SwingJSUtils.StateMachine;
  *
  * Implement the doStep method to create a concrete simulation.
  *
+ * Simulations can decouple the computation from the display by enabling decoupled rendering.  The simulation thread
+ * then calls doStep as fast as it can and publishes a snapshot at the target frame rate.  A render thread draws the
+ * animated frames using only the most recent snapshot, so a slow display never slows the computation.
+ * Override createSnapshot and showSnapshot to copy the state that the drawables display.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
@@ -49,6 +55,14 @@ abstract public class AbstractSimulation extends AbstractAnimation implements Si
   protected boolean showStepsPerDisplay = false;
   protected int stepsPerDisplay = 1;
   protected int stepCounter = 0;
+  protected SimulationTiming timing = new SimulationTiming();
+  private boolean decoupledRendering = false;
+  private double targetFrameRate = 30;
+  // the simulation thread publishes snapshots and the render thread consumes the latest one
+  private final Object snapshotLock = new Object();
+  private volatile Thread renderThread;
+  private Object snapshot;
+  private long snapshotVersion, renderedVersion;
 
   /**
    * Sets the Control for this model and initializes the control's values.
@@ -111,6 +125,7 @@ public void startAnimation() {
     }
     start();
     startRunning();
+    timing.reset();
     super.startAnimation();
   }
 
@@ -176,6 +191,7 @@ public final void stepAnimation() {
     super.stepAnimation();
     stepCounter++;
     stopRunning();
+    showSnapshot(createSnapshot());
     org.opensourcephysics.display.GUIUtils.repaintAnimatedFrames();
   }
 
@@ -275,6 +291,80 @@ public void resetAnimation() {
    * Override this method to set the simulation's parameters.
    */
   public void reset() {}
+
+  /**
+   * Enables decoupled rendering.
+   *
+   * When enabled, the simulation thread runs doStep continuously and a separate render thread draws the
+   * animated frames at the target frame rate.  The delay time and steps per display are ignored.
+   * Decoupled rendering is not available in JavaScript and takes effect the next time the simulation starts.
+   *
+   * @param decoupled boolean
+   */
+  public void setDecoupledRendering(boolean decoupled) {
+    decoupledRendering = decoupled;
+  }
+
+  /**
+   * Gets the decoupled rendering flag.
+   *
+   * @return boolean
+   */
+  public boolean isDecoupledRendering() {
+    return decoupledRendering;
+  }
+
+  /**
+   * Sets the number of snapshots per second that are published when rendering is decoupled.
+   *
+   * @param fps double
+   */
+  public void setTargetFrameRate(double fps) {
+    if(!(fps>0)) {
+      throw new IllegalArgumentException("Frame rate must be positive."); //$NON-NLS-1$
+    }
+    targetFrameRate = fps;
+  }
+
+  /**
+   * Gets the number of snapshots per second that are published when rendering is decoupled.
+   *
+   * @return double
+   */
+  public double getTargetFrameRate() {
+    return targetFrameRate;
+  }
+
+  /**
+   * Gets the step, snapshot, and render statistics since the simulation was last started.
+   *
+   * @return SimulationTiming
+   */
+  public SimulationTiming getTiming() {
+    return timing;
+  }
+
+  /**
+   * Creates a snapshot of the state that is displayed.
+   *
+   * This method is invoked on the simulation thread between steps.  The snapshot must not be changed after it
+   * is returned because it is displayed by another thread when rendering is decoupled.
+   * The default returns null.
+   *
+   * @return the snapshot
+   */
+  protected Object createSnapshot() {
+    return null;
+  }
+
+  /**
+   * Shows a snapshot by copying it into the drawables just before the animated frames are rendered.
+   *
+   * Override this method together with createSnapshot so that drawables never read the state that doStep is changing.
+   *
+   * @param snapshot the most recent snapshot
+   */
+  protected void showSnapshot(Object snapshot) {}
 	
 	private StateHelper stateHelper;
 	//private int delay = (/** @j2sNative 20 || */ 20);
@@ -294,9 +384,17 @@ public void resetAnimation() {
 				return true;
 			case STATE_LOOP:
 				long currentTime = System.currentTimeMillis();
+				long t0 = System.nanoTime();
 				for(int i=0; i<stepsPerDisplay; i++) doStep();
+				long t1 = System.nanoTime();
+				timing.addSteps(stepsPerDisplay, t1-t0);
+				Object snap = createSnapshot();
+				long t2 = System.nanoTime();
+				timing.addSnapshot(t2-t1);
 				int sleepTime = (int)Math.max(10, delayTime-(System.currentTimeMillis()-currentTime));
+				showSnapshot(snap);
 				org.opensourcephysics.display.GUIUtils.renderAnimatedFrames(); // repaints all animated frames
+				timing.addRender(System.nanoTime()-t2);
 				stateHelper.sleep(sleepTime);
 				return true;
 			case STATE_DONE:
@@ -312,6 +410,10 @@ public void resetAnimation() {
    */
   @Override
 public void run() {
+    if(decoupledRendering&&!OSPRuntime.isJS) {
+      runDecoupled();
+      return;
+    }
   	stateHelper = new SwingJSUtils.StateHelper(this);  
   	stateHelper.setState(STATE_INIT);
   	stateHelper.sleep(0);
@@ -340,6 +442,90 @@ public void run() {
     */
   }
 
+  /**
+   * Steps the simulation continuously and publishes snapshots to the render thread at the target frame rate.
+   */
+  private void runDecoupled() {
+    Thread simThread = Thread.currentThread();
+    Thread renderer = new Thread(this::renderSnapshots, "Simulation render"); //$NON-NLS-1$
+    renderer.setDaemon(true);
+    renderThread = renderer;
+    GUIUtils.setAnimatedFrameIgnoreRepaint(true); // animated frames are updated by the render thread
+    renderer.start();
+    try {
+      long period = (long) (1.0e9/targetFrameRate);
+      long stepStart = System.nanoTime(), nextSnapshot = stepStart;
+      int steps = 0;
+      while(animationThread==simThread) {
+        doStep();
+        steps++;
+        long now = System.nanoTime();
+        if(now-nextSnapshot>=0) {
+          timing.addSteps(steps, now-stepStart);
+          publishSnapshot();
+          steps = 0;
+          nextSnapshot = now+period;
+          stepStart = System.nanoTime();
+        }
+      }
+      timing.addSteps(steps, System.nanoTime()-stepStart);
+      publishSnapshot(); // the final state
+    } finally {
+      synchronized(snapshotLock) {
+        renderThread = null; // the render thread draws any pending snapshot and then exits
+        snapshotLock.notifyAll();
+      }
+      Thread.interrupted(); // clears the interrupt that stopped the simulation so that we can wait for the last frame
+      try {
+        renderer.join(1000);
+      } catch(InterruptedException ex) {}
+      GUIUtils.setAnimatedFrameIgnoreRepaint(false);
+    }
+  }
+
+  private void publishSnapshot() {
+    long t0 = System.nanoTime();
+    Object snap = createSnapshot();
+    timing.addSnapshot(System.nanoTime()-t0);
+    synchronized(snapshotLock) {
+      if(snapshotVersion>renderedVersion) {
+        timing.addSkipped(); // the previous snapshot was never rendered
+      }
+      snapshot = snap;
+      snapshotVersion++;
+      snapshotLock.notifyAll();
+    }
+  }
+
+  /**
+   * Renders the most recent snapshot whenever a new one is published.
+   */
+  private void renderSnapshots() {
+    Thread thisThread = Thread.currentThread();
+    while(true) {
+      Object snap;
+      synchronized(snapshotLock) {
+        while((renderThread==thisThread)&&(snapshotVersion==renderedVersion)) {
+          try {
+            snapshotLock.wait();
+          } catch(InterruptedException ex) {
+            return;
+          }
+        }
+        if(snapshotVersion==renderedVersion) {
+          return; // stopped and nothing left to draw
+        }
+        snap = snapshot;
+        snapshot = null;
+        renderedVersion = snapshotVersion;
+      }
+      long t0 = System.nanoTime();
+      showSnapshot(snap);
+      GUIUtils.renderAnimatedFrames();
+      timing.addRender(System.nanoTime()-t0);
+    }
+  }
+
   // Inner class that lets any control act as a SimControl.
   private class ShadowControl implements SimControl {
     Control control; // shadows AbstractSimulation field
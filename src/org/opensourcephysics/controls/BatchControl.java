@@ -0,0 +1,264 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.controls;
+import java.util.Collection;
+
+/**
+ * BatchControl is an in-memory SimControl that lets a model run without a user interface.
+ *
+ * Parameter values are stored in an XMLControlElement, so numbers, strings, booleans, and objects
+ * are read the same way that the GUI controls read them, including arithmetic expressions such as "2*pi".
+ * Messages are kept in memory and calculationDone marks the run as finished.
+ *
+ * @version 1.0
+ */
+public class BatchControl implements SimControl {
+  XMLControlElement values = new XMLControlElement();
+  StringBuffer messages = new StringBuffer();
+  volatile boolean done = false;
+
+  /**
+   * Copies every property of the given control into this control, replacing existing values.
+   *
+   * @param parameters XMLControl
+   */
+  public void setValues(XMLControl parameters) {
+    if(parameters==null) {
+      return;
+    }
+    for(String name : parameters.getPropertyNames()) {
+      values.setValue(name, parameters.getObject(name));
+    }
+  }
+
+  /**
+   * Gets the XMLControl that stores this control's values.
+   *
+   * @return XMLControlElement
+   */
+  public XMLControlElement getValues() {
+    return values;
+  }
+
+  /**
+   * Gets the messages printed to this control.
+   *
+   * @return String
+   */
+  public String getMessages() {
+    return messages.toString();
+  }
+
+  /**
+   * Determines if calculationDone has been invoked.
+   *
+   * @return boolean
+   */
+  public boolean isDone() {
+    return done;
+  }
+
+  @Override
+  public void setLockValues(boolean lock) {
+    // this control does not have a user interface
+  }
+
+  @Override
+  public void setValue(String name, Object val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void setValue(String name, double val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void setValue(String name, int val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void setValue(String name, boolean val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void setAdjustableValue(String name, boolean val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void setAdjustableValue(String name, double val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void setAdjustableValue(String name, int val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void setAdjustableValue(String name, Object val) {
+    values.setValue(name, val);
+  }
+
+  @Override
+  public void removeParameter(String name) {
+    values.setValue(name, null);
+  }
+
+  @Override
+  public void setParameterToFixed(String name, boolean fixed) {
+    // parameters cannot be edited during a batch run
+  }
+
+  /**
+   * Gets the value of a parameter as a trimmed string or null if the parameter has not been set.
+   */
+  private String getValueString(String name) {
+    Object obj = values.getObject(name);
+    if(obj==null) {
+      println("Variable "+name+" not found."); //$NON-NLS-1$ //$NON-NLS-2$
+      return null;
+    }
+    return obj.toString().trim();
+  }
+
+  @Override
+  public int getInt(String name) {
+    String str = getValueString(name);
+    if(str==null) {
+      return 0;
+    }
+    try {
+      return Integer.parseInt(str);
+    } catch(NumberFormatException ex) {}
+    return(int) getDouble(name);
+  }
+
+  @Override
+  public double getDouble(String name) {
+    String str = getValueString(name);
+    if(str==null) {
+      return 0;
+    }
+    try {
+      return Double.parseDouble(str);
+    } catch(NumberFormatException ex) {}
+    double val = org.opensourcephysics.numerics.Util.evalMath(str);
+    if(Double.isNaN(val)) {
+      println("Variable "+name+" is not a number"); //$NON-NLS-1$ //$NON-NLS-2$
+      return 0;
+    }
+    return val;
+  }
+
+  @Override
+  public Object getObject(String name) {
+    return values.getObject(name);
+  }
+
+  @Override
+  public String getString(String name) {
+    String str = values.getString(name);
+    if(str!=null) {
+      return str;
+    }
+    Object obj = values.getObject(name);
+    if(obj==null) {
+      println("Variable "+name+" not found."); //$NON-NLS-1$ //$NON-NLS-2$
+      return "";                               //$NON-NLS-1$
+    }
+    return obj.toString();
+  }
+
+  @Override
+  public boolean getBoolean(String name) {
+    String str = getValueString(name);
+    if(str==null) {
+      return false;
+    }
+    str = str.toLowerCase();
+    if(str.equals("true")) { //$NON-NLS-1$
+      return true;
+    }
+    if(!str.equals("false")) { //$NON-NLS-1$
+      println("Error: Boolean variable must be true or false."); //$NON-NLS-1$
+    }
+    return false;
+  }
+
+  @Override
+  public Collection<String> getPropertyNames() {
+    return values.getPropertyNames();
+  }
+
+  @Override
+  public Collection<String> getPropertyNamesRaw() {
+    return values.getPropertyNamesRaw();
+  }
+
+  @Override
+  public void println(String s) {
+    messages.append(s).append('\n');
+  }
+
+  @Override
+  public void println() {
+    messages.append('\n');
+  }
+
+  @Override
+  public void print(String s) {
+    messages.append(s);
+  }
+
+  @Override
+  public void clearMessages() {
+    messages.setLength(0);
+  }
+
+  @Override
+  public void clearValues() {
+    values.clearValues();
+  }
+
+  @Override
+  public void calculationDone(String message) {
+    done = true;
+    if(message!=null) {
+      println(message);
+    }
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,352 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.controls;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.opensourcephysics.display.Dataset;
+import org.opensourcephysics.numerics.Parallel;
+
+/**
+ * BatchRunner runs a model once for every parameter set without a user interface.
+ *
+ * Every run creates a new model from the factory and gives it a BatchControl.  The model's reset method sets the
+ * default parameters and the run's parameter set then replaces them, just as a user would edit a control.
+ * Simulations are initialized, started, stepped, and stopped; calculations are calculated once.
+ * A simulation stops early if it invokes calculationDone on its control.
+ *
+ * Runs are independent and execute in parallel.  If an output directory is set, the parameters used by each run
+ * are saved as XML and the points appended to the run's datasets are written to text files at regular intervals.
+ * Written points are cleared from the datasets unless clearing is disabled so that long runs do not accumulate data.
+ *
+ * Models must not create frames or other top-level windows when they run in a headless environment.
+ *
+ * @version 1.0
+ * @param <M> the model type, an AbstractAnimation or a Calculation
+ */
+public class BatchRunner<M> {
+  Supplier<? extends M> factory;
+  Function<? super M, Dataset[]> datasetFunction;
+  int steps = 1000;
+  int writeInterval = 100;
+  File outputDirectory;
+  String filePrefix = "run"; //$NON-NLS-1$
+  boolean clearDatasets = true;
+
+  /**
+   * The outcome of one run.
+   */
+  public static class Result {
+    final int run;
+    final BatchControl control;
+    int steps;
+    Exception exception;
+    List<File> files = new ArrayList<File>();
+
+    Result(int run, BatchControl control) {
+      this.run = run;
+      this.control = control;
+    }
+
+    /**
+     * Gets the index of the parameter set.
+     *
+     * @return int
+     */
+    public int getRun() {
+      return run;
+    }
+
+    /**
+     * Gets the control holding the final parameter values and the run's messages.
+     *
+     * @return BatchControl
+     */
+    public BatchControl getControl() {
+      return control;
+    }
+
+    /**
+     * Gets the number of steps that were performed.
+     *
+     * @return int
+     */
+    public int getSteps() {
+      return steps;
+    }
+
+    /**
+     * Gets the exception that ended the run or null if the run completed.
+     *
+     * @return Exception
+     */
+    public Exception getException() {
+      return exception;
+    }
+
+    /**
+     * Gets the files written by the run.
+     *
+     * @return List
+     */
+    public List<File> getFiles() {
+      return files;
+    }
+
+  }
+
+  /**
+   * Constructs a BatchRunner that creates a new model for every run.
+   *
+   * @param factory the model factory
+   */
+  public BatchRunner(Supplier<? extends M> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Sets the function that gets the datasets that are written to disk.
+   * The function is invoked after the model has been initialized.
+   *
+   * @param datasetFunction the function or null if no data is written
+   */
+  public void setDatasets(Function<? super M, Dataset[]> datasetFunction) {
+    this.datasetFunction = datasetFunction;
+  }
+
+  /**
+   * Sets the number of steps in each simulation run.
+   *
+   * @param steps int
+   */
+  public void setSteps(int steps) {
+    this.steps = Math.max(0, steps);
+  }
+
+  /**
+   * Sets the number of steps between writes of the datasets.
+   *
+   * @param interval int
+   */
+  public void setWriteInterval(int interval) {
+    writeInterval = Math.max(1, interval);
+  }
+
+  /**
+   * Sets the directory for output files.  Nothing is written if the directory is null.
+   *
+   * @param dir File
+   * @param prefix the beginning of every file name
+   */
+  public void setOutputDirectory(File dir, String prefix) {
+    outputDirectory = dir;
+    filePrefix = prefix;
+  }
+
+  /**
+   * Sets whether points are cleared from the datasets after they are written.
+   * Disable clearing if the model reads its own datasets.  A dataset that reaches its maximum number of points
+   * drops its oldest points, so the write interval must be short enough that points are written before they are dropped.
+   *
+   * @param clear boolean
+   */
+  public void setClearDatasets(boolean clear) {
+    clearDatasets = clear;
+  }
+
+  /**
+   * Runs the model once for each parameter set.  Runs execute in parallel.
+   *
+   * @param parameterSets the parameters of each run
+   * @return the results in the order of the parameter sets
+   */
+  public List<Result> run(List<? extends XMLControl> parameterSets) {
+    if(outputDirectory!=null) {
+      outputDirectory.mkdirs();
+    }
+    int n = parameterSets.size();
+    Result[] results = new Result[n];
+    AtomicInteger next = new AtomicInteger();
+    // runs can take very different times so every band takes the next run until none are left
+    Parallel.forEachBand(n, 1, (band, start, end) -> {
+      int run;
+      while((run = next.getAndIncrement())<n) {
+        results[run] = runModel(run, parameterSets.get(run));
+      }
+    });
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Creates, runs, and records a single model.
+   */
+  Result runModel(int run, XMLControl parameters) {
+    BatchControl control = new BatchControl();
+    Result result = new Result(run, control);
+    DatasetWriter writer = null;
+    try {
+      M model = factory.get();
+      if(model instanceof AbstractAnimation) {
+        AbstractAnimation animation = (AbstractAnimation) model;
+        animation.setControl(control); // resets the model to its default parameters
+        control.setValues(parameters);
+        animation.initializeAnimation();
+        writer = createWriter(run, model, result);
+        AbstractSimulation simulation = (model instanceof AbstractSimulation) ? (AbstractSimulation) model : null;
+        if(simulation!=null) {
+          simulation.start();
+          simulation.startRunning();
+        }
+        int sinceWrite = 0;
+        while((result.steps<steps)&&!control.isDone()) {
+          animation.doStep();
+          result.steps++;
+          if(simulation!=null) {
+            simulation.stepCounter++;
+          }
+          if((writer!=null)&&(++sinceWrite==writeInterval)) {
+            writer.write();
+            sinceWrite = 0;
+          }
+        }
+        if(simulation!=null) {
+          simulation.stopRunning();
+          simulation.stop();
+        }
+      } else if(model instanceof Calculation) {
+        Calculation calculation = (Calculation) model;
+        calculation.setControl(control);
+        control.setValues(parameters);
+        calculation.calculate();
+        writer = createWriter(run, model, result);
+      } else {
+        throw new IllegalArgumentException("Batch model must be an animation or a calculation."); //$NON-NLS-1$
+      }
+      if(writer!=null) {
+        writer.write();
+      }
+      if(outputDirectory!=null) {
+        File file = new File(outputDirectory, filePrefix+"-"+run+".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+        control.getValues().write(file.getPath());
+        result.files.add(file);
+      }
+    } catch(Exception ex) {
+      result.exception = ex;
+      control.println(ex.toString());
+    } finally {
+      if(writer!=null) {
+        writer.close(result);
+      }
+    }
+    return result;
+  }
+
+  private DatasetWriter createWriter(int run, M model, Result result) throws IOException {
+    if((outputDirectory==null)||(datasetFunction==null)) {
+      return null;
+    }
+    Dataset[] datasets = datasetFunction.apply(model);
+    if((datasets==null)||(datasets.length==0)) {
+      return null;
+    }
+    return new DatasetWriter(run, datasets, result);
+  }
+
+  /**
+   * Appends the new points of each dataset to its own tab-delimited text file.
+   */
+  class DatasetWriter {
+    Dataset[] datasets;
+    BufferedWriter[] writers;
+    long[] written; // points appended to each dataset since its last clear that have been written
+
+    DatasetWriter(int run, Dataset[] datasets, Result result) throws IOException {
+      this.datasets = datasets;
+      writers = new BufferedWriter[datasets.length];
+      written = new long[datasets.length];
+      for(int i = 0; i<datasets.length; i++) {
+        File file = new File(outputDirectory, filePrefix+"-"+run+"-"+i+".txt"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        writers[i] = new BufferedWriter(new FileWriter(file));
+        result.files.add(file);
+        writers[i].write("# "+datasets[i].getXColumnName()+"\t"+datasets[i].getYColumnName()); //$NON-NLS-1$ //$NON-NLS-2$
+        writers[i].newLine();
+      }
+    }
+
+    void write() throws IOException {
+      for(int i = 0; i<datasets.length; i++) {
+        Dataset dataset = datasets[i];
+        int index = dataset.getIndex();
+        // a capped dataset drops its oldest points, so points are counted from the last clear
+        long dropped = dataset.getDroppedPointCount();
+        if(dropped+index<written[i]) { // the model cleared the dataset
+          written[i] = 0;
+        }
+        double[] x = dataset.getXPointsRaw(), y = dataset.getYPointsRaw();
+        BufferedWriter out = writers[i];
+        for(int j = (int) Math.max(0, written[i]-dropped); j<index; j++) {
+          out.write(Double.toString(x[j]));
+          out.write('\t');
+          out.write(Double.toString(y[j]));
+          out.newLine();
+        }
+        if(clearDatasets) {
+          dataset.clear();
+          written[i] = 0;
+        } else {
+          written[i] = dropped+index;
+        }
+      }
+    }
+
+    void close(Result result) {
+      for(int i = 0; i<writers.length; i++) {
+        try {
+          writers[i].close();
+        } catch(IOException ex) {
+          if(result.exception==null) {
+            result.exception = ex;
+          }
+        }
+      }
+    }
+
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
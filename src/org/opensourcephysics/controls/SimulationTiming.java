@@ -0,0 +1,181 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.controls;
+
+/**
+ * SimulationTiming accumulates the time an AbstractSimulation spends in each phase of its animation loop.
+ *
+ * Steps and snapshots are recorded by the simulation thread and renders by the thread that draws the
+ * animated frames.  Times are reported in milliseconds and rates per second of elapsed time since the last reset.
+ *
+ * @version 1.0
+ */
+public class SimulationTiming {
+  private long startTime = System.nanoTime();
+  private long steps, stepTime;
+  private long snapshots, snapshotTime;
+  private long renders, renderTime;
+  private long skipped; // snapshots replaced before they were rendered
+
+  /**
+   * Clears the statistics.
+   */
+  public synchronized void reset() {
+    startTime = System.nanoTime();
+    steps = stepTime = 0;
+    snapshots = snapshotTime = 0;
+    renders = renderTime = 0;
+    skipped = 0;
+  }
+
+  /**
+   * Records a number of simulation steps and the time they took.
+   *
+   * @param n int the number of steps
+   * @param nanos long
+   */
+  public synchronized void addSteps(int n, long nanos) {
+    steps += n;
+    stepTime += nanos;
+  }
+
+  /**
+   * Records the time taken to create a snapshot.
+   *
+   * @param nanos long
+   */
+  public synchronized void addSnapshot(long nanos) {
+    snapshots++;
+    snapshotTime += nanos;
+  }
+
+  /**
+   * Records the time taken to render the animated frames.
+   *
+   * @param nanos long
+   */
+  public synchronized void addRender(long nanos) {
+    renders++;
+    renderTime += nanos;
+  }
+
+  /**
+   * Records a snapshot that was replaced by a newer snapshot before it could be rendered.
+   */
+  public synchronized void addSkipped() {
+    skipped++;
+  }
+
+  /**
+   * Gets the number of steps since the last reset.
+   *
+   * @return long
+   */
+  public synchronized long getStepCount() {
+    return steps;
+  }
+
+  /**
+   * Gets the number of renders since the last reset.
+   *
+   * @return long
+   */
+  public synchronized long getRenderCount() {
+    return renders;
+  }
+
+  /**
+   * Gets the number of snapshots that were never rendered because a newer snapshot replaced them.
+   *
+   * @return long
+   */
+  public synchronized long getSkippedCount() {
+    return skipped;
+  }
+
+  /**
+   * Gets the mean time of a step in milliseconds.
+   *
+   * @return double
+   */
+  public synchronized double getMeanStepTime() {
+    return (steps==0) ? 0 : 1.0e-6*stepTime/steps;
+  }
+
+  /**
+   * Gets the mean time to create a snapshot in milliseconds.
+   *
+   * @return double
+   */
+  public synchronized double getMeanSnapshotTime() {
+    return (snapshots==0) ? 0 : 1.0e-6*snapshotTime/snapshots;
+  }
+
+  /**
+   * Gets the mean time to render the animated frames in milliseconds.
+   *
+   * @return double
+   */
+  public synchronized double getMeanRenderTime() {
+    return (renders==0) ? 0 : 1.0e-6*renderTime/renders;
+  }
+
+  /**
+   * Gets the number of steps per second since the last reset.
+   *
+   * @return double
+   */
+  public synchronized double getStepRate() {
+    return steps/getElapsedSeconds();
+  }
+
+  /**
+   * Gets the number of renders per second since the last reset.
+   *
+   * @return double
+   */
+  public synchronized double getFrameRate() {
+    return renders/getElapsedSeconds();
+  }
+
+  private double getElapsedSeconds() {
+    return Math.max(1.0e-9, 1.0e-9*(System.nanoTime()-startTime));
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "steps/s="+(float) getStepRate()+" step ms="+(float) getMeanStepTime()                           //$NON-NLS-1$ //$NON-NLS-2$
+           +" snapshot ms="+(float) getMeanSnapshotTime()+" frames/s="+(float) getFrameRate()               //$NON-NLS-1$ //$NON-NLS-2$
+           +" render ms="+(float) getMeanRenderTime()+" skipped="+skipped;                                  //$NON-NLS-1$ //$NON-NLS-2$
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
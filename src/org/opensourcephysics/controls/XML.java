@@ -17,9 +17,10 @@ import java.io.InputStreamReader;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This defines the ObjectLoader interface and static methods for managing and
@@ -47,7 +48,12 @@ public class XML {
 	@SuppressWarnings("javadoc")
 	public static final int INDENT = 4;
   // static fields
-  private static Map<Class<?>, ObjectLoader> loaders = new HashMap<Class<?>, ObjectLoader>();
+  private static Map<Class<?>, ObjectLoader> loaders = new ConcurrentHashMap<Class<?>, ObjectLoader>();
+  private static Map<Class<?>, Method> loaderMethods = new ConcurrentHashMap<Class<?>, Method>(); // static getLoader methods
+  private static Set<Class<?>> noLoaderMethod = ConcurrentHashMap.newKeySet(); // classes without a static getLoader method
+  private static final Object NO_CLASS = new Object();
+  private static Map<String, Object> classes = new ConcurrentHashMap<String, Object>(); // classes found by Class.forName or NO_CLASS
+  private static Map<String, Object> loaderClasses = new ConcurrentHashMap<String, Object>(); // classes found by the classLoader or NO_CLASS
   private static ObjectLoader defaultLoader;
   private static String dtdName;
   private static String dtd;                          // the dtd as a string
@@ -76,11 +82,14 @@ public class XML {
    * Sets the ObjectLoader for a specified class.
    *
    * @param classtype the class
-   * @param loader the ObjectLoader
+   * @param loader the ObjectLoader, or null to remove the registered loader
    */
   public static void setLoader(Class<?> classtype, XML.ObjectLoader loader) {
-	  if (!(loader instanceof NonStaticLoader))
+	  if (loader==null)
+		  loaders.remove(classtype); // concurrent maps reject null values
+	  else if (!(loader instanceof NonStaticLoader))
 		  loaders.put(classtype, loader);
+	  noLoaderMethod.remove(classtype);
   }
 
   /**
@@ -91,18 +100,30 @@ public class XML {
    */
   public static XML.ObjectLoader getLoader(Class<?> classtype) {
     // look for registered loader first
-    ObjectLoader loader = loaders.get(classtype);
+    ObjectLoader loader = (classtype==null) ? null : loaders.get(classtype);
     // if no registered loader, look for static getLoader() method in class
-    if(loader==null) {
+    // methods and their absence are cached since non-static loaders are not registered
+    if((loader==null)&&(classtype!=null)&&!noLoaderMethod.contains(classtype)) {
       try {
-        Method method = classtype.getMethod("getLoader", (Class<?>[]) null); //$NON-NLS-1$
-        if((method!=null)&&Modifier.isStatic(method.getModifiers())) {
+        Method method = loaderMethods.get(classtype);
+        if(method==null) {
+          method = classtype.getMethod("getLoader", (Class<?>[]) null); //$NON-NLS-1$
+          if(Modifier.isStatic(method.getModifiers())) {
+            loaderMethods.put(classtype, method);
+          } else {
+            noLoaderMethod.add(classtype);
+            method = null;
+          }
+        }
+        if(method!=null) {
           loader = (ObjectLoader) method.invoke(null, (Object[]) null);
           if(loader!=null) {
             // register loader for future calls
             setLoader(classtype, loader);
           }
         }
+      } catch(NoSuchMethodException ex) {
+        noLoaderMethod.add(classtype);
       } catch(Exception ex) {
 
       /** empty block */
@@ -189,6 +210,9 @@ public class XML {
    * @param loader the classLoader
    */
   public static void setClassLoader(ClassLoader loader) {
+    if(loader!=classLoader) {
+      loaderClasses = new ConcurrentHashMap<String, Object>();
+    }
     classLoader = loader;
   }
 
@@ -201,6 +225,44 @@ public class XML {
     return classLoader;
   }
 
+  /**
+   * Gets the class with the given name using Class.forName or, if not found,
+   * the ClassLoader. Results, including classes that are not found, are cached
+   * for each ClassLoader.
+   *
+   * @param className the class name
+   * @return the class, or null if not found
+   */
+  public static Class<?> forName(String className) {
+    Object c = classes.get(className);
+    if(c==null) {
+      try {
+        c = Class.forName(className);
+      } catch(ClassNotFoundException ex) {
+        c = NO_CLASS;
+      }
+      classes.put(className, c);
+    }
+    if(c!=NO_CLASS) {
+      return (Class<?>) c;
+    }
+    ClassLoader loader = classLoader;
+    if(loader==null) {
+      return null;
+    }
+    Map<String, Object> found = loaderClasses;
+    c = found.get(className);
+    if(c==null) {
+      try {
+        c = loader.loadClass(className);
+      } catch(ClassNotFoundException ex) {
+        c = NO_CLASS;
+      }
+      found.put(className, c);
+    }
+    return (c==NO_CLASS) ? null : (Class<?>) c;
+  }
+
   /**
    * Replaces backslashes with slashes.
    *
@@ -557,6 +619,37 @@ public class XML {
 
   }
 
+  /**
+   * An ObjectLoader whose objects contain child objects that can be created
+   * independently of each other and of the object being loaded.
+   *
+   * When parallel loading is enabled (see XMLControlElement.setParallelLoading),
+   * the children named by getIndependentProperties are loaded concurrently on a
+   * bounded pool before createObject and loadObject are called. Calls to
+   * control.getObject then return the preloaded children, so objects are still
+   * assembled in the order the loader requests them. Children are preloaded only
+   * when the object itself is created, and the loader must then obtain them with
+   * getObject rather than load them into existing objects.
+   *
+   * Only DatasetManager's loader implements this interface in this library, so
+   * parallel loading currently applies only to the datasets of a DatasetManager
+   * and does not fetch images, videos or other resources concurrently. The media loaders read their
+   * images through ResourceLoader and ImageIcon, whose loads wait on a shared
+   * MediaTracker one at a time, and they may show dialogs when images are missing.
+   */
+  public interface ParallelLoader extends ObjectLoader {
+    /**
+     * Gets the names of the object, array or collection properties whose
+     * objects can be loaded concurrently. Each such object must be loadable
+     * without reference to other objects in the document or to the Swing thread.
+     *
+     * @param control the xml control
+     * @return the property names
+     */
+    public String[] getIndependentProperties(XMLControl control);
+
+  }
+
   // static initializer defines loaders for commonly used classes
   static {
     setLoader(Color.class, new XML.ObjectLoader() {
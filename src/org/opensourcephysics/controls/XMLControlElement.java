@@ -30,6 +30,10 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import javax.swing.JOptionPane;
@@ -110,6 +114,24 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 
 	private boolean isFinalizable;
 
+	private static boolean lazyReading = false;
+
+	/**
+	 * unparsed xml of a child control read lazily, or null once parsed
+	 */
+	private volatile String pendingXML;
+
+	private boolean readingPending;
+
+	private static boolean parallelLoading = false;
+	private static final int MAX_LOAD_THREADS = 8;
+	private static ExecutorService loadPool;
+
+	/**
+	 * the object being loaded by a pool thread, or null
+	 */
+	private Future<Object> preload;
+
 	/**
 	 * see TrackerPanel.Loader
 	 * 
@@ -455,6 +477,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public Collection<String> getPropertyNames() {
+		readPending();
 		synchronized (propNames) {
 			return new ArrayList<String>(propNames);
 		}
@@ -462,6 +485,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 
 	@Override
 	public Collection<String> getPropertyNamesRaw() {
+		readPending();
 		return propNames;
 	}
 
@@ -886,17 +910,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		if (className == null || (theClass != null && theClass.getName().equals(className))) {
 			return theClass;
 		}
-		theClass = null;
-		try {
-			return theClass = Class.forName(className);
-		} catch (ClassNotFoundException ex) {
-			try {
-				ClassLoader loader = XML.getClassLoader();
-				return (loader == null ? null : (theClass = loader.loadClass(className)));
-			} catch (ClassNotFoundException e) {
-			}
-			return theClass;
-		}
+		return theClass = XML.forName(className);
 	}
 
 	/**
@@ -949,11 +963,25 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public Object loadObject(Object obj) {
+		Future<Object> f = takePreload();
+		if (f != null) {
+			if (obj == null) {
+				return getPreloaded(f);
+			}
+			discardPreload(f);
+		}
 		return loadObject(obj, false, false);
 	}
 
 	@Override
 	public Object loadObject(Object obj, Object data) {
+		Future<Object> f = takePreload();
+		if (f != null) {
+			if (obj == null) {
+				return getPreloaded(f);
+			}
+			discardPreload(f);
+		}
 		this.data = data;
 		return loadObject(obj, false, false);
 	}
@@ -1053,6 +1081,11 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 			}
 			loader = XML.getLoader(myType = oclass);
 		}
+		// a parent loaded into an existing object may load its children into existing objects,
+		// so children are only preloaded when the parent is created
+		if (parallelLoading && obj == null && object == null && loader instanceof XML.ParallelLoader) {
+			preloadChildren(((XML.ParallelLoader) loader).getIndependentProperties(this));
+		}
 		if (obj == null) { // if obj is null, try to create a new one
 			obj = (object == null ? loader.createObject(this) : object);
 			if (obj == null || !myType.isInstance(obj)) {
@@ -1077,6 +1110,9 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public void clearValues() {
+		if (!readingPending) {
+			pendingXML = null;
+		}
 		props.clear();
 		propNames.clear();
 		if (propMap != null)
@@ -1208,6 +1244,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public List<Object> getPropertyContent() {
+		readPending();
 		return new ArrayList<Object>(props);
 	}
 
@@ -1218,6 +1255,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public List<XMLProperty> getPropsRaw() {
+		readPending();
 		return props;
 	}
 
@@ -1240,6 +1278,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 */
 	@Override
 	public XMLControl[] getChildControls() {
+		readPending();
 		if (childControls == null) {
 			ArrayList<XMLControl> list = new ArrayList<XMLControl>();
 			Iterator<XMLProperty> it = props.iterator();
@@ -1312,6 +1351,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 			xml.append(" version=\"" + version + "\""); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		// write the property content and closing tag
+		readPending();
 		if (props.isEmpty()) {
 			xml.append("/>"); //$NON-NLS-1$
 		} else {
@@ -1465,6 +1505,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 
 	private boolean processImport(XMLControl control, Collection<String> names) {
 		// names list now contains property names to keep
+		readPending();
 		Iterator<XMLProperty> it = props.iterator();
 		while (it.hasNext()) {
 			String name = it.next().getPropertyName();
@@ -1514,7 +1555,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	private void setXMLProperty(String name, int type, Object value, boolean writeNullFinalArrayElement) {
 		// remove any previous property with the same name
 		XMLPropertyElement prop = new XMLPropertyElement(this, name, type, value, writeNullFinalArrayElement);
-		
+		readPending();
 		if (propNames.contains(name)) {
 			Iterator<XMLProperty> it = props.iterator();
 			for (int i = 0; it.hasNext(); i++) {
@@ -1545,6 +1586,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	}
 
 	private Map<String, XMLProperty> getPropMap() {
+		readPending();
 		if (propMap == null) {
 			propMap = new HashMap<String, XMLProperty>();
 		}
@@ -1577,23 +1619,12 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 		this.input = in;
 		readFailed = false;
 		try {
-			// get document root opening tag line
-			String openingTag = input.readLine();
-			int count = 0;
-			while (openingTag != null && openingTag.indexOf("<object class=") < 0) { //$NON-NLS-1$
-				count++;
-				if (count > 9) {
-					// stop reading at 10 lines
-					readFailed = true;
-					return false;
-				}
-				openingTag = input.readLine();
-			}
-			// read this element from the root
-			if (openingTag != null) {
+			// get document root opening tag, stopping after 10 lines
+			XMLTokenizer tokens = new XMLTokenizer(input);
+			if (tokens.nextRootTag(9)) {
 				// get version, if any
-				version = XML.getAttr(openingTag, "version", version);
-				readObject(this, openingTag, className);
+				version = tokens.getAttribute("version", version); //$NON-NLS-1$
+				readObject(this, tokens, className);
 			} else {
 				readFailed = true;
 				return false;
@@ -1672,42 +1703,215 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	 * Reads the current input into an XMLcontrolElement.
 	 *
 	 * @param control the control to load
-	 * @param xml     the xml opening tag line
+	 * @param tokens  the tokenizer positioned at the object opening tag
 	 * @param requiredType required class name or null
 	 * @return the loaded element
 	 * @throws IOException
 	 */
-	private XMLControlElement readObject(XMLControlElement control, String xml, String requiredType) throws IOException {
+	private XMLControlElement readObject(XMLControlElement control, XMLTokenizer tokens, String requiredType) throws IOException {
 		control.clearValues();
-		String className = getClassName(xml);
+		String className = fixClassName(tokens.getAttribute("class", "")); //$NON-NLS-1$ //$NON-NLS-2$
 		if (requiredType != null && !className.equals(requiredType)) {
 			readFailed = true;
 			return null;
 		}
 		control.className = className;
-		// look for closing object tag on same line
-		if (xml.indexOf("/>") != -1) { //$NON-NLS-1$
-			input.readLine();
+		// look for self-closing object tag
+		if (tokens.isEmptyTag()) {
 			return control;
 		}
-		// read and process input lines
-		XMLProperty prop = control;
-		xml = input.readLine();
-		while (xml != null) {
-			// closing object tag
-			if (xml.indexOf("</object>") >= 0) { //$NON-NLS-1$
-				input.readLine();
-				return control;
-			}
-			// opening property tag
-			else if (xml.indexOf("<property") >= 0) { //$NON-NLS-1$
-				control.addProperty(readProperty(new XMLPropertyElement(prop), xml));
+		// read and process tags up to the closing object tag
+		while (tokens.nextTag()) {
+			if (tokens.isEndTag()) {
+				if ("object".equals(tokens.getTagName())) { //$NON-NLS-1$
+					return control;
+				}
+			} else if ("property".equals(tokens.getTagName())) { //$NON-NLS-1$
+				control.addProperty(readProperty(new XMLPropertyElement(control), tokens));
 			}
-			xml = input.readLine();
 		}
 		return control;
 	}
 
+	/**
+	 * Sets the lazy reading flag. When true, the child controls of documents read
+	 * after this call are parsed only when their properties are first accessed,
+	 * for example by getChildControl or by getObject when the child is loaded.
+	 *
+	 * @param lazy true to read child controls lazily
+	 */
+	public static void setLazyReading(boolean lazy) {
+		lazyReading = lazy;
+	}
+
+	/**
+	 * Gets the lazy reading flag.
+	 *
+	 * @return true if child controls are read lazily
+	 */
+	public static boolean isLazyReading() {
+		return lazyReading;
+	}
+
+	/**
+	 * Sets the parallel loading flag. When true, the independent children declared
+	 * by an XML.ParallelLoader are loaded concurrently on a bounded pool of
+	 * threads. Objects whose loaders do not implement XML.ParallelLoader, including
+	 * images and videos, are still loaded one after another. Parallel loading is
+	 * ignored in JavaScript.
+	 *
+	 * @param parallel true to load independent children in parallel
+	 */
+	public static void setParallelLoading(boolean parallel) {
+		parallelLoading = parallel && !OSPRuntime.isJS;
+	}
+
+	/**
+	 * Gets the parallel loading flag.
+	 *
+	 * @return true if independent children are loaded in parallel
+	 */
+	public static boolean isParallelLoading() {
+		return parallelLoading;
+	}
+
+	/**
+	 * Starts loading the objects of the named properties on the load pool.
+	 * Children of children are loaded on the pool thread that loads their parent.
+	 *
+	 * @param names the property names
+	 */
+	private void preloadChildren(String[] names) {
+		if (names == null || Thread.currentThread() instanceof LoadThread) {
+			return;
+		}
+		for (int i = 0; i < names.length; i++) {
+			XMLProperty prop = getXMLProperty(names[i]);
+			if (prop == null) {
+				continue;
+			}
+			XMLControl[] children = prop.getChildControls();
+			for (int j = 0; j < children.length; j++) {
+				if (children[j] instanceof XMLControlElement) {
+					((XMLControlElement) children[j]).startPreload(data);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Submits a task that loads a new object from this control.
+	 *
+	 * @param data the data passed to the object loader
+	 */
+	private synchronized void startPreload(Object data) {
+		if (preload != null || object != null) {
+			return;
+		}
+		preload = getLoadPool().submit(() -> {
+			this.data = data;
+			return loadObject(null, false, false);
+		});
+	}
+
+	private synchronized Future<Object> takePreload() {
+		Future<Object> f = preload;
+		preload = null;
+		return f;
+	}
+
+	/**
+	 * Discards a preload when the child is loaded into an existing object instead.
+	 * A preload that has not started is cancelled; otherwise it is allowed to finish
+	 * so that it does not run at the same time as the load into the existing object.
+	 *
+	 * @param f the preload task
+	 */
+	private static void discardPreload(Future<Object> f) {
+		if (!f.cancel(false)) {
+			getPreloaded(f);
+		}
+	}
+
+	/**
+	 * Waits for a preloaded object.
+	 *
+	 * @param f the preload task
+	 * @return the loaded object
+	 */
+	private static Object getPreloaded(Future<Object> f) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return f.get();
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				} catch (ExecutionException ex) {
+					Throwable cause = ex.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					OSPLog.warning("Failed to load object: " + cause); //$NON-NLS-1$
+					return null;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getLoadPool() {
+		if (loadPool == null) {
+			int n = Math.min(MAX_LOAD_THREADS, Math.max(4, Runtime.getRuntime().availableProcessors()));
+			loadPool = Executors.newFixedThreadPool(n, (r) -> new LoadThread(r));
+		}
+		return loadPool;
+	}
+
+	/**
+	 * A daemon thread of the load pool.
+	 */
+	private static class LoadThread extends Thread {
+		LoadThread(Runnable r) {
+			super(r, "XMLControl loader"); //$NON-NLS-1$
+			setDaemon(true);
+		}
+	}
+
+	/**
+	 * Parses the xml of a lazily read child control.
+	 */
+	private void readPending() {
+		if (pendingXML == null) {
+			return;
+		}
+		synchronized (this) {
+			String xml = pendingXML;
+			if (xml == null || readingPending) {
+				return;
+			}
+			readingPending = true;
+			try {
+				XMLTokenizer tokens = new XMLTokenizer(new StringReader(xml));
+				if (tokens.nextTag()) {
+					readObject(this, tokens, null);
+				}
+			} catch (IOException ex) {
+				readFailed = true;
+				OSPLog.warning("Failed to read xml: " + ex.getMessage()); //$NON-NLS-1$
+			} finally {
+				pendingXML = null;
+				readingPending = false;
+			}
+		}
+	}
+
 	private void addProperty(XMLProperty child) {
 		String name = child.getPropertyName();
 		propNames.add(name);
@@ -1715,6 +1919,7 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	}
 
 	private Map<String, XMLControl> getChildMap() {
+		readPending();
 		if (childMap == null) {
 //			XMLControl[] children = getChildControls();
 			childMap = new HashMap<String, XMLControl>();
@@ -1728,60 +1933,53 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	/**
 	 * Reads the current input into a property element.
 	 *
-	 * @param prop the property element to load
-	 * @param xml  the xml opening tag line
+	 * @param prop   the property element to load
+	 * @param tokens the tokenizer positioned at the property opening tag
 	 * @return the loaded property element
 	 * @throws IOException
 	 */
-	private XMLPropertyElement readProperty(XMLPropertyElement prop, String xml) throws IOException {
+	private XMLPropertyElement readProperty(XMLPropertyElement prop, XMLTokenizer tokens) throws IOException {
 		// set property name
-		prop.name = XML.getAttr(xml, "name", null); //$NON-NLS-1$
+		prop.name = tokens.getAttribute("name", null); //$NON-NLS-1$
 		// set property type
-		prop.type = XMLProperty.getTypeCode(XML.getAttr(xml, "type", null)); //$NON-NLS-1$
+		prop.type = XMLProperty.getTypeCode(tokens.getAttribute("type", null)); //$NON-NLS-1$
 		// set property content and className
 		switch (prop.type) {
 		case XMLProperty.TYPE_ARRAY: //$NON-NLS-1$
 		case XMLProperty.TYPE_COLLECTION: //$NON-NLS-1$
-			prop.className = getClassName(xml);
-			if (xml.indexOf("/>") >= 0) { // property closing tag on same line //$NON-NLS-1$
+			prop.className = fixClassName(tokens.getAttribute("class", "")); //$NON-NLS-1$ //$NON-NLS-2$
+			if (tokens.isEmptyTag()) { // self-closing property tag
 				return prop;
 			}
-			xml = input.readLine();
-			while (xml.indexOf("<property") >= 0) { //$NON-NLS-1$
-				prop.content.add(readProperty(new XMLPropertyElement(prop), xml));
-				xml = input.readLine();
+			while (tokens.nextTag() && !tokens.isEndTag()) {
+				if ("property".equals(tokens.getTagName())) { //$NON-NLS-1$
+					prop.content.add(readProperty(new XMLPropertyElement(prop), tokens));
+				}
 			}
 			break;
 		case XMLProperty.TYPE_OBJECT: //$NON-NLS-1$
 			// add XMLControl unless value is null
-			if (xml.indexOf(">null</property") < 0) { //$NON-NLS-1$
-				XMLControlElement control = readObject(new XMLControlElement(prop), input.readLine(), null);
-				prop.content.add(control);
-				prop.className = control.className;
+			if (tokens.isEmptyTag() || !tokens.nextTag() || tokens.isEndTag()) {
+				break;
+			}
+			XMLControlElement control = new XMLControlElement(prop);
+			if (lazyReading) {
+				control.className = fixClassName(tokens.getAttribute("class", "")); //$NON-NLS-1$ //$NON-NLS-2$
+				control.pendingXML = tokens.readElement();
+			} else {
+				readObject(control, tokens, null);
 			}
+			prop.content.add(control);
+			prop.className = control.className;
+			// skip the closing property tag
+			tokens.nextTag();
 			break;
 		case XMLProperty.TYPE_STRING:
-			int pt = xml.indexOf(XML.CDATA_PRE); 
-			if (pt >= 0) {
-				String s = xml.substring(pt + XML.CDATA_PRE_LEN);
-				while ((pt = s.indexOf(XML.CDATA_POST_PROP)) < 0) { // look for end tag //$NON-NLS-1$
-					s += XML.NEW_LINE + input.readLine();
-				}
-				prop.content.add(s.substring(0, pt));
-				break;
-			}
-			//$FALL-THROUGH$
-		default:			
+			prop.content.add(tokens.readContent(true));
+			break;
+		default:
 			// int, double, boolean or string types
-			// BH 2020.11.21 was 
-			//if (xml.indexOf(XML.CDATA_PRE) != -1) {
-				//String s = xml.substring(xml.indexOf(XML.CDATA_PRE));
-			// but that includes CDATA_PRE in the contents		
-				String s = xml.substring(xml.indexOf(">") + 1); //$NON-NLS-1$
-				while ((pt = s.indexOf("</property>")) < 0) { // look for end tag //$NON-NLS-1$
-					s += XML.NEW_LINE + input.readLine();
-				}
-				prop.content.add(s.substring(0, pt));
+			prop.content.add(tokens.readContent(false));
 			break;
 		}
 		return prop;
@@ -2143,20 +2341,29 @@ public final class XMLControlElement extends XMLNode implements XMLControl {
 	public static String getClassName(String xml) {
 		// set class name
 		try {
-			String className = XML.getAttr(xml, "class", "");
-			int i = className.lastIndexOf("."); //$NON-NLS-1$
-			if (i >= 0) {
-				String packageName = className.substring(0, i);
-				if (packageName.endsWith("org.opensourcephysics.media")) { //$NON-NLS-1$
-					className = packageName + ".core" + className.substring(i); //$NON-NLS-1$
-				}
-			}
-			return className;
+			return fixClassName(XML.getAttr(xml, "class", ""));
 		} catch (Exception e) {
 			return "";
 		}
 	}
 
+	/**
+	 * Maps class names saved by older versions to current class names.
+	 *
+	 * @param className the saved class name
+	 * @return the current class name
+	 */
+	private static String fixClassName(String className) {
+		int i = className.lastIndexOf("."); //$NON-NLS-1$
+		if (i >= 0) {
+			String packageName = className.substring(0, i);
+			if (packageName.endsWith("org.opensourcephysics.media")) { //$NON-NLS-1$
+				className = packageName + ".core" + className.substring(i); //$NON-NLS-1$
+			}
+		}
+		return className;
+	}
+
 	@Override
 	public void finalize() {
 		if (isFinalizable)
@@ -170,7 +170,7 @@ public final class XMLPropertyElement extends XMLNode implements XMLProperty {
 			return String.class;
 		default:
 			try {
-				return Class.forName(className);
+				return XML.forName(className);
 			} catch (Exception ex) {
 				return null;
 			}
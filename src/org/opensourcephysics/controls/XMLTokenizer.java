@@ -0,0 +1,364 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.controls;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A single-pass character-stream tokenizer for the xml documents written by
+ * XMLControlElement. It reads element tags and their attributes and the raw
+ * text content of property elements without splitting the input into lines.
+ *
+ * Line breaks in text content are converted to XML.NEW_LINE. Entities are not
+ * decoded; property content is returned exactly as written.
+ *
+ * @version 1.0
+ */
+final class XMLTokenizer {
+
+	private static final String PROPERTY_END = "</property>"; //$NON-NLS-1$
+
+	private final Reader in;
+	private final char[] buf = new char[8192];
+	private int pos, len;
+	private boolean pendingLF; // true after a '\r' so a following '\n' is dropped
+	private int lines;
+	private StringBuilder capture; // raw input is copied here while capturing an element
+	private final StringBuilder text = new StringBuilder();
+	private final StringBuilder tag = new StringBuilder();
+
+	// the current tag
+	private String tagName;
+	private boolean isEndTag, isEmptyTag;
+	private String[] attrNames = new String[4];
+	private String[] attrValues = new String[4];
+	private int attrCount;
+
+	XMLTokenizer(Reader in) {
+		this.in = in;
+	}
+
+	/**
+	 * Reads the next character.
+	 *
+	 * @return the character or -1 at the end of the input
+	 */
+	private int read() throws IOException {
+		if (pos == len) {
+			len = in.read(buf, 0, buf.length);
+			pos = 0;
+			if (len <= 0) {
+				len = 0;
+				return -1;
+			}
+		}
+		char c = buf[pos++];
+		if (capture != null) {
+			capture.append(c);
+		}
+		if (c == '\n') {
+			lines++;
+		}
+		return c;
+	}
+
+	/**
+	 * Advances to the next element tag, skipping text, comments, CDATA sections,
+	 * processing instructions and declarations.
+	 *
+	 * @return true if a tag was read, false at the end of the input
+	 */
+	boolean nextTag() throws IOException {
+		int c;
+		while ((c = read()) >= 0) {
+			if (c != '<') {
+				continue;
+			}
+			tag.setLength(0);
+			tag.append('<');
+			c = read();
+			if (c == '?') {
+				skipTo("?>"); //$NON-NLS-1$
+			} else if (c == '!') {
+				tag.append('!');
+				if ((c = read()) == '-') {
+					skipTo("-->"); //$NON-NLS-1$
+				} else if (c == '[') {
+					skipTo(XML.CDATA_POST);
+				} else {
+					skipTo(">"); //$NON-NLS-1$
+				}
+			} else if (c >= 0) {
+				readTag(c);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Advances to the root object tag, failing if more than maxLines lines precede it.
+	 *
+	 * @param maxLines the maximum number of preceding lines
+	 * @return true if the root object tag was read
+	 */
+	boolean nextRootTag(int maxLines) throws IOException {
+		while (nextTag()) {
+			if (!isEndTag && "object".equals(tagName)) { //$NON-NLS-1$
+				return true;
+			}
+			if (lines > maxLines) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the name and attributes of a tag following the opening '<'.
+	 *
+	 * @param c the first character after '<'
+	 */
+	private void readTag(int c) throws IOException {
+		tag.append((char) c);
+		isEndTag = (c == '/');
+		isEmptyTag = false;
+		attrCount = 0;
+		if (isEndTag) {
+			c = readTagChar();
+		}
+		text.setLength(0);
+		while (c >= 0 && c != '>' && c != '/' && !Character.isWhitespace(c)) {
+			text.append((char) c);
+			c = readTagChar();
+		}
+		tagName = text.toString();
+		while (c >= 0 && c != '>') {
+			if (c == '/') {
+				isEmptyTag = true;
+			} else if (!Character.isWhitespace(c)) {
+				// attribute name
+				text.setLength(0);
+				while (c >= 0 && c != '=' && c != '>' && !Character.isWhitespace(c)) {
+					text.append((char) c);
+					c = readTagChar();
+				}
+				String name = text.toString();
+				while (c >= 0 && c != '"' && c != '\'' && c != '>') {
+					c = readTagChar();
+				}
+				if (c == '>') {
+					break;
+				}
+				// attribute value
+				int quote = c;
+				text.setLength(0);
+				while ((c = readTagChar()) >= 0 && c != quote) {
+					text.append((char) c);
+				}
+				addAttribute(name, text.toString());
+			}
+			c = readTagChar();
+		}
+	}
+
+	private int readTagChar() throws IOException {
+		int c = read();
+		if (c >= 0) {
+			tag.append((char) c);
+		}
+		return c;
+	}
+
+	private void addAttribute(String name, String value) {
+		if (attrCount == attrNames.length) {
+			String[] names = new String[2 * attrCount];
+			String[] values = new String[2 * attrCount];
+			System.arraycopy(attrNames, 0, names, 0, attrCount);
+			System.arraycopy(attrValues, 0, values, 0, attrCount);
+			attrNames = names;
+			attrValues = values;
+		}
+		attrNames[attrCount] = name;
+		attrValues[attrCount++] = value;
+	}
+
+	/**
+	 * Skips input up to and including the given terminator.
+	 */
+	private void skipTo(String end) throws IOException {
+		char last = end.charAt(end.length() - 1);
+		text.setLength(0);
+		int c;
+		while ((c = read()) >= 0) {
+			text.append((char) c);
+			if (c == last && endsWith(text, end)) {
+				return;
+			}
+		}
+	}
+
+	private static boolean endsWith(StringBuilder sb, String s) {
+		int n = s.length();
+		int offset = sb.length() - n;
+		if (offset < 0) {
+			return false;
+		}
+		for (int i = 0; i < n; i++) {
+			if (sb.charAt(offset + i) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the name of the current tag.
+	 *
+	 * @return the tag name
+	 */
+	String getTagName() {
+		return tagName;
+	}
+
+	/**
+	 * Returns true if the current tag is a closing tag.
+	 *
+	 * @return true if closing
+	 */
+	boolean isEndTag() {
+		return isEndTag;
+	}
+
+	/**
+	 * Returns true if the current tag closes itself.
+	 *
+	 * @return true if empty
+	 */
+	boolean isEmptyTag() {
+		return isEmptyTag;
+	}
+
+	/**
+	 * Gets an attribute of the current tag.
+	 *
+	 * @param name the attribute name
+	 * @param def  the default value
+	 * @return the attribute value, or def if not found
+	 */
+	String getAttribute(String name, String def) {
+		for (int i = 0; i < attrCount; i++) {
+			if (attrNames[i].equals(name)) {
+				return attrValues[i];
+			}
+		}
+		return def;
+	}
+
+	/**
+	 * Reads the content of the current property element up to and including its
+	 * closing tag. If cdata is true and the content contains a CDATA section,
+	 * the content is the text of the section.
+	 *
+	 * @param cdata true to extract CDATA content
+	 * @return the content
+	 * @throws EOFException if the closing tag is missing
+	 */
+	String readContent(boolean cdata) throws IOException {
+		String end = PROPERTY_END;
+		text.setLength(0);
+		int c;
+		while ((c = read()) >= 0) {
+			switch (c) {
+			case '\r':
+				pendingLF = true;
+				text.append(XML.NEW_LINE);
+				continue;
+			case '\n':
+				if (pendingLF) {
+					pendingLF = false;
+					continue;
+				}
+				text.append(XML.NEW_LINE);
+				continue;
+			case '[':
+				pendingLF = false;
+				text.append('[');
+				if (cdata && endsWith(text, XML.CDATA_PRE)) {
+					cdata = false;
+					end = XML.CDATA_POST_PROP;
+					text.setLength(0);
+				}
+				continue;
+			case '>':
+				pendingLF = false;
+				text.append('>');
+				if (endsWith(text, end)) {
+					text.setLength(text.length() - end.length());
+					return text.toString();
+				}
+				continue;
+			default:
+				pendingLF = false;
+				text.append((char) c);
+			}
+		}
+		throw new EOFException(PROPERTY_END);
+	}
+
+	/**
+	 * Reads the current start tag and the rest of its element, including any
+	 * nested elements with the same name, without parsing the content.
+	 *
+	 * @return the raw xml of the element
+	 */
+	String readElement() throws IOException {
+		String name = tagName;
+		capture = new StringBuilder(tag);
+		try {
+			int depth = isEmptyTag ? 0 : 1;
+			while (depth > 0 && nextTag()) {
+				if (name.equals(tagName) && !isEmptyTag) {
+					depth += (isEndTag ? -1 : 1);
+				}
+			}
+			return capture.toString();
+		} finally {
+			capture = null;
+		}
+	}
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
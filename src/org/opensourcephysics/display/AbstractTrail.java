@@ -35,6 +35,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
 
   protected int numpts = 0;         // the number of points in the trail
   protected boolean closed = false;
+  protected boolean boundsValid = true; // false if removed points may have set the bounds
   protected Stroke drawingStroke;
 
   /**
@@ -112,12 +113,54 @@ public boolean isMeasured() {
     return enableMeasure&&(this.numpts>0);
   }
 
+  /**
+   * Resets the bounds to an empty trail.
+   */
+  protected void resetBounds() {
+    xmax = xmaxLogscale = -Double.MAX_VALUE;
+    ymax = ymaxLogscale = -Double.MAX_VALUE;
+    xmin = xminLogscale = Double.MAX_VALUE;
+    ymin = yminLogscale = Double.MAX_VALUE;
+    boundsValid = true;
+  }
+
+  /**
+   * Expands the bounds to include the given point.
+   * @param x double
+   * @param y double
+   */
+  protected void includeInBounds(double x, double y) {
+    xmin = Math.min(xmin, x);
+    xmax = Math.max(xmax, x);
+    if(x>0) {
+      xminLogscale = Math.min(xminLogscale, x);
+      xmaxLogscale = Math.max(xmaxLogscale, x);
+    }
+    ymin = Math.min(ymin, y);
+    ymax = Math.max(ymax, y);
+    if(y>0) {
+      yminLogscale = Math.min(yminLogscale, y);
+      ymaxLogscale = Math.max(ymaxLogscale, y);
+    }
+  }
+
+  /**
+   * Recomputes the bounds from the stored points.
+   * Trails that remove points override this method and clear boundsValid when a removed point may have set the bounds.
+   */
+  protected void computeBounds() {
+    boundsValid = true;
+  }
+
   /**
    * Gets the minimum x value in the trail.
    * @return double
    */
   @Override
 public double getXMin() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return xmin;
   }
 
@@ -127,6 +170,9 @@ public double getXMin() {
    */
   @Override
 public double getXMax() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return xmax;
   }
 
@@ -136,6 +182,9 @@ public double getXMax() {
    */
   @Override
 public double getYMin() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return ymin;
   }
 
@@ -145,6 +194,9 @@ public double getYMin() {
    */
   @Override
 public double getYMax() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return ymax;
   }
 
@@ -153,6 +205,9 @@ public double getYMax() {
    * @return minimum
    */
   public double getXMinLogscale() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return xminLogscale;
   }
 
@@ -161,6 +216,9 @@ public double getYMax() {
    * @return maximum
    */
   public double getXMaxLogscale() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return xmaxLogscale;
   }
 
@@ -169,6 +227,9 @@ public double getYMax() {
    * @return minimum
    */
   public double getYMinLogscale() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return yminLogscale;
   }
 
@@ -177,6 +238,9 @@ public double getYMax() {
    * @return maximum
    */
   public double getYMaxLogscale() {
+    if(!boundsValid) {
+      computeBounds();
+    }
     return ymaxLogscale;
   }
 
@@ -8,6 +8,7 @@
 package org.opensourcephysics.display;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import org.opensourcephysics.controls.XML;
 
 /**
@@ -16,11 +17,13 @@ import org.opensourcephysics.controls.XML;
  * @author Wolfgang Christian
  * @version 1.0
  */
-public class Circle implements Drawable {
+public class Circle implements DirtyDrawable {
   public Color color = Color.red; // the drawing color
   public int pixRadius = 6;
   protected double x = 0;
   protected double y = 0;
+  private Rectangle pixBounds; // the pixel bounds when the dirty bounds were last requested
+  private Color pixColor;      // the color when the dirty bounds were last requested
 
   /**
    * Constructs a fixed radius circle at the origin.
@@ -57,6 +60,30 @@ public class Circle implements Drawable {
     pixRadius = _r;
   }
 
+  /**
+   * Gets the pixels covered by the circle's previous and current positions.
+   *
+   * Subclasses may draw outside of the circle, so they report the entire panel unless they override this method.
+   *
+   * @param panel
+   * @return the dirty bounds or null if the circle has not changed
+   */
+  @Override
+  public Rectangle getDirtyBounds(DrawingPanel panel) {
+    if(getClass()!=Circle.class) {
+      return new Rectangle(0, 0, panel.getWidth(), panel.getHeight());
+    }
+    // one pixel margin for antialiased edges
+    Rectangle r = new Rectangle(panel.xToPix(x)-pixRadius-1, panel.yToPix(y)-pixRadius-1, 2*pixRadius+3, 2*pixRadius+3);
+    if(r.equals(pixBounds)&&((color==pixColor)||((color!=null)&&color.equals(pixColor)))) {
+      return null;
+    }
+    Rectangle dirty = (pixBounds==null) ? r : r.union(pixBounds);
+    pixBounds = r;
+    pixColor = color;
+    return dirty;
+  }
+
   /**
    * Draws the circle.
    *
@@ -15,7 +15,6 @@ import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.GeneralPath;
-import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -164,7 +163,10 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	protected double shift;
 
 	protected GeneralPath generalPath;
-	// path used to draw line plots
+	// path used to draw line plots; see getGeneralPath()
+
+	private boolean pathInvalid;
+	// the path must be rebuilt before it is drawn
 
 	protected double xmax;
 	// the maximum x value in the dataset
@@ -251,6 +253,9 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	protected int maxPoints = defaultMaxPoints;
 	// the maximum number of points that will be saved in a dataset
 
+	protected long droppedPoints = 0;
+	// the number of old points dropped to stay within maxPoints since the last clear
+
 	protected ArrayList<ErrorBar> errorBars = new ArrayList<ErrorBar>();
 	protected Shape customMarker = new Rectangle2D.Double(-markerSize / 2, -markerSize / 2, markerSize, markerSize);
 
@@ -504,6 +509,18 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 		this.maxPoints = maxPoints;
 	}
 
+	/**
+	 * Gets the number of old points that have been dropped from the start of this
+	 * dataset to stay within the maximum number of points since the dataset was last
+	 * cleared. The number of points appended since the last clear is this count plus
+	 * the index.
+	 *
+	 * @return the number of dropped points
+	 */
+	public long getDroppedPointCount() {
+		return droppedPoints;
+	}
+
 	/**
 	 * Gets the half-width of the data point marker.
 	 *
@@ -1043,12 +1060,7 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	 */
 	private boolean addSorted(double x, double y) {
 		if (!Double.isNaN(y)) {
-			Point2D curPt = generalPath.getCurrentPoint();
-			if (curPt == null) {
-				generalPath.moveTo((float) x, (float) y);
-			} else {
-				generalPath.lineTo((float) x, (float) y);
-			}
+			pathInvalid = true;
 			ymax = Math.max(y, ymax);
 			ymin = Math.min(y, ymin);
 			if (y > 0) {
@@ -1102,7 +1114,10 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	}
 
 	/**
-	 * Allow for raw xpoints, with an index length
+	 * Allow for raw xpoints, with an index length.
+	 * 
+	 * Bounds are accumulated in a single pass over the new points while they are
+	 * copied, and the path is not rebuilt until the dataset is next drawn.
 	 * 
 	 * @param _xpoints
 	 * @param _ypoints
@@ -1110,57 +1125,62 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	 */
 	public void append(double[] _xpoints, double[] _ypoints, int len) {
 		updateID();
-		boolean badData = false;
 		myShape = null;
-		for (int i = 0; i < len; i++) {
-			double xp = _xpoints[i];
-			double yp = _ypoints[i];
-			if (Double.isNaN(xp) || Double.isInfinite(xp) || Double.isInfinite(yp)) {
-				badData = true;
+		int maxPts = getMaxPoints();
+		int start = Math.max(0, len - maxPts); // cannot add more than the maximum capacity
+		int n = len - start;
+		if (n > xpoints.length - index) {
+			// grow geometrically so that repeated bulk appends do not copy every time
+			increaseCapacity(Math.max(xpoints.length * 2, index + n), n);
+		}
+		double x0 = xmin, x1 = xmax, y0 = ymin, y1 = ymax;
+		double x0Log = xminLogscale, x1Log = xmaxLogscale, y0Log = yminLogscale, y1Log = ymaxLogscale;
+		double[] xp = xpoints, yp = ypoints;
+		int pt = index;
+		for (int i = start; i < len; i++) {
+			double x = _xpoints[i];
+			double y = _ypoints[i];
+			if (Double.isNaN(x) || Double.isInfinite(x) || Double.isInfinite(y)) {
 				continue;
 			}
-			xmax = Math.max(xp, xmax);
-			xmin = Math.min(xp, xmin);
-			if (xp > 0) {
-				xmaxLogscale = Math.max(xp, xmaxLogscale);
-				xminLogscale = Math.min(xp, xminLogscale);
+			xp[pt] = x;
+			yp[pt++] = y;
+			if (x < x0)
+				x0 = x;
+			if (x > x1)
+				x1 = x;
+			if (x > 0) {
+				if (x < x0Log)
+					x0Log = x;
+				if (x > x1Log)
+					x1Log = x;
 			}
-			if (!Double.isNaN(yp)) {
-				ymax = Math.max(yp, ymax);
-				ymin = Math.min(yp, ymin);
-				if (yp > 0) {
-					ymaxLogscale = Math.max(yp, ymaxLogscale);
-					yminLogscale = Math.min(yp, yminLogscale);
-				}
-				Point2D curPt = generalPath.getCurrentPoint();
-				if (curPt == null) {
-					generalPath.moveTo((float) xp, (float) yp);
-				} else {
-					generalPath.lineTo((float) xp, (float) yp);
+			if (y == y) { // not NaN
+				if (y < y0)
+					y0 = y;
+				if (y > y1)
+					y1 = y;
+				if (y > 0) {
+					if (y < y0Log)
+						y0Log = y;
+					if (y > y1Log)
+						y1Log = y;
 				}
 			}
 		}
-		int pointsAdded = len;
-		int availableSpots = xpoints.length - index;
-		boolean increasedCapacity = false;
-		if (pointsAdded > availableSpots) {
-			increaseCapacity(xpoints.length + pointsAdded);
-			increasedCapacity = true;
-		}
-		int maxPts = maxPoints == defaultMaxPoints ? (int) (maxPoints * maxPointsMultiplier) : maxPoints;
-		pointsAdded = Math.min(pointsAdded, maxPts); // cannot add more than the maximum capacity
-		System.arraycopy(_xpoints, Math.max(0, len - pointsAdded), xpoints, index, pointsAdded);
-		System.arraycopy(_ypoints, Math.max(0, len - pointsAdded), ypoints, index, pointsAdded);
-		index += pointsAdded;
-		if (badData) {
-			removeBadData(xpoints, ypoints, index);
-		}
+		xmin = x0;
+		xmax = x1;
+		ymin = y0;
+		ymax = y1;
+		xminLogscale = x0Log;
+		xmaxLogscale = x1Log;
+		yminLogscale = y0Log;
+		ymaxLogscale = y1Log;
+		index = pt;
+		pathInvalid = true;
 		if (sorted) {
 			insertionSort();
 		}
-		if (increasedCapacity) {
-			resetXYMinMax(false);
-		}
 	}
 
 	/**
@@ -1304,7 +1324,7 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 		// BH why the try/catch here? What kind of "bad data"?
 		try {
 			if (myShape == null && (connected || markerShape == AREA))
-				myShape = drawingPanel.transformPath(generalPath);
+				myShape = drawingPanel.transformPath(getGeneralPath());
 			switch (markerShape) {
 			case NO_MARKER:
 				break;
@@ -1395,6 +1415,7 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	 */
 	public void clear() {
 		index = 0;
+		droppedPoints = 0;
 		// BH I thought we would need this here:
 		//updateID();
 		// but with that, we lose the highlight when the 
@@ -1406,6 +1427,7 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 		// never be enormous, and this clearing operation is 
 		// carried out A LOT. 
 		generalPath.reset();
+		pathInvalid = false;
 		errorBars.clear();
 		resetXYMinMax(true);
 		myShape = null;
@@ -1526,10 +1548,29 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	}
 
 	/**
-	 * Recalculate the general path.
+	 * Recalculate the general path. The path itself is rebuilt only when it is
+	 * next needed for drawing.
 	 */
 	protected void recalculatePath() {
 		myShape = null;
+		pathInvalid = true;
+	}
+
+	/**
+	 * Gets the path connecting the valid data points, rebuilding it if the data
+	 * has changed since it was last built.
+	 * 
+	 * @return the general path
+	 */
+	protected GeneralPath getGeneralPath() {
+		if (pathInvalid) {
+			pathInvalid = false;
+			buildPath();
+		}
+		return generalPath;
+	}
+
+	private void buildPath() {
 		generalPath.reset();
 		if (index < 1) {
 			return;
@@ -1643,40 +1684,23 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 	}
 
 	/**
-	 * Efficiently removes infinities and NaN (x only) from the dataset.
+	 * Increase the array size up to a maximum size.
+	 *
+	 * @param newCapacity
 	 */
-	private static int removeBadData(double[] ax, double[] ay, int n) {
-		int off = 0;
-		for (int i = 0; i < n; i++) {
-			double x = ax[i];
-			double y = ay[i];
-			if (Double.isNaN(x) || Double.isInfinite(x) || Double.isInfinite(y)) {
-				off++;
-				continue;
-			}
-			if (off > 0) {
-				ax[i - off] = x;
-				ay[i - off] = y;
-			}
-		}
-		return n - off;
+	private void increaseCapacity(int newCapacity) {
+		increaseCapacity(newCapacity, newCapacity - xpoints.length);
 	}
 
-//	static {
-//		double[] xp = new double[] {1,2,3,Double.NaN, 4,5, Double.POSITIVE_INFINITY, 6, 0, 7};
-//		double[] yp = new double[] {1,2,3,0,          4,5,        0,                 6, Double.NEGATIVE_INFINITY, 7};
-//		OSPLog.debug(removeBadData(xp, yp, xp.length) + Arrays.toString(xp) + Arrays.toString(yp));
-//		System.out.println("");
-//	}
-
 	/**
-	 * Increase the array size up to a maximum size.
+	 * Increase the array size up to a maximum size, making room for the given
+	 * number of new points.
 	 *
 	 * @param newCapacity
+	 * @param pointsAdded
 	 */
-	private synchronized void increaseCapacity(int newCapacity) {
-		int pointsAdded = newCapacity - xpoints.length;
-		int maxPts = maxPoints == defaultMaxPoints ? (int) (maxPoints * maxPointsMultiplier) : maxPoints;
+	private synchronized void increaseCapacity(int newCapacity, int pointsAdded) {
+		int maxPts = getMaxPoints();
 		newCapacity = Math.min(newCapacity, maxPts); // do not let the number of data points exceed maxPoints
 		int newIndex = Math.min(index, (3 * newCapacity) / 4); // drop 1/4 of the old data if the capacity is no longer
 																// increasing
@@ -1692,6 +1716,7 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 		ypoints = new double[newCapacity];
 		System.arraycopy(tempy, index - newIndex, ypoints, 0, newIndex);
 		if (index != newIndex) { // data was dropped
+			droppedPoints += index - newIndex;
 			index = newIndex;
 			resetXYMinMax(false);
 			recalculatePath();
@@ -1699,6 +1724,15 @@ public class Dataset extends DataTable.DataModel implements Measurable, LogMeasu
 		index = newIndex;
 	}
 
+	/**
+	 * Gets the maximum number of points, including the default multiplier.
+	 * 
+	 * @return the maximum
+	 */
+	private int getMaxPoints() {
+		return (maxPoints == defaultMaxPoints ? (int) (maxPoints * maxPointsMultiplier) : maxPoints);
+	}
+
 	/**
 	 * Reset the minimum and maximum values.
 	 */
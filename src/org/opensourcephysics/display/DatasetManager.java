@@ -1146,8 +1146,14 @@ public class DatasetManager extends DataTable.DataModel implements Measurable, L
 
 	/**
 	 * A class to save and load Dataset data in an XMLControl.
+	 * The datasets are independent and may be loaded in parallel.
 	 */
-	private static class Loader extends XMLLoader {
+	private static class Loader extends XMLLoader implements XML.ParallelLoader {
+		@Override
+		public String[] getIndependentProperties(XMLControl control) {
+			return new String[] { "datasets" }; //$NON-NLS-1$
+		}
+
 		@Override
 		public void saveObject(XMLControl control, Object obj) {
 			DatasetManager dsm = (DatasetManager) obj;
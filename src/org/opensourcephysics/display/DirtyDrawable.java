@@ -0,0 +1,56 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.display;
+import java.awt.Rectangle;
+
+/**
+ * DirtyDrawable objects report the pixel region that must be repainted when they change.
+ *
+ * A DrawingPanel in layered mode caches everything except DirtyDrawables in a background
+ * image and repaints only the regions reported by its DirtyDrawables.
+ *
+ * @version 1.0
+ * @see DrawingPanel#setLayered(boolean)
+ */
+public interface DirtyDrawable extends Drawable {
+  /**
+   * Gets the pixel region that has changed since the last time this method was called.
+   * The region must include both the previously drawn and the newly drawn pixels.
+   *
+   * @param panel the drawing panel
+   * @return the dirty region, or null if nothing has changed
+   */
+  public Rectangle getDirtyBounds(DrawingPanel panel);
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -154,6 +154,17 @@ public class DrawingPanel extends JPanel implements Disposable, ActionListener,
 	protected BufferedImage offscreenImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
 	protected BufferedImage workingImage = offscreenImage;
 	private boolean buffered = false; // true will draw this component using an off-screen image
+	// layered rendering caches the background and static drawables; see setLayered
+	private boolean layered = false;
+	private volatile boolean validLayers = false;
+	private BufferedImage backgroundImage;
+	private AffineTransform layerTransform = new AffineTransform(); // pixel transform before the background was painted
+	private double[] layerScale = new double[6]; // scale after the background was painted; axes may adjust it
+	private int[] layerGutters = new int[4];
+	private ArrayList<Drawable> layerStatic = new ArrayList<Drawable>(), layerDirty = new ArrayList<Drawable>();
+	private Rectangle lastDirty; // region repainted in the other buffer during the last render
+	private BufferedImage lastBuffer, otherBuffer; // the buffers painted during the last two renders
+	private int fullComposites = 0; // number of renders that must repaint the entire image
 	protected MessageDrawable messages;
 
 	protected DecimalFormat scientificFormat = org.opensourcephysics.numerics.Util.newDecimalFormat("0.###E0"); // coordinate //$NON-NLS-1$
@@ -727,7 +738,11 @@ public class DrawingPanel extends JPanel implements Disposable, ActionListener,
 		imageRatio = ((float) getWidth() <= 0) ? 1 : image.getWidth() / (float) getWidth(); // ratio of image to panel
 																							// width
 		if (osg != null) {
-			paintEverything(osg);
+			if (layered && (image == workingImage)) {
+				paintLayers(image, osg);
+			} else {
+				paintEverything(osg);
+			}
 			if (image == workingImage) {
 				zoomBox.paint(osg); // paint the zoom
 			}
@@ -913,6 +928,32 @@ public class DrawingPanel extends JPanel implements Disposable, ActionListener,
 		ArrayList<Drawable> tempList = getDrawablesNoClone();
 		scale(getDrawablesNoClone()); // sets the world-coordinate scale based on the autoscale values
 		setPixelScale(); // sets the pixel scale and the world-to-pixel affine transformation matrix
+		setRenderingHints(g);
+		// ready to draw everything
+		if (!validImage) {
+			return; // abort drawing
+		}
+		paintFirst(g); // PlottingPanel uses this method to paint axes
+		if (!validImage) {
+			return; // abort drawing
+		}
+		paintDrawableList(g, tempList);
+		if (!validImage) {
+			return; // abort drawing
+		}
+		paintLast(g); // does nothing yet but can be used to add a legend, etc
+		if (RECORD_PAINT_TIMES) {
+			System.out
+					.println("DrawingPanel paint time (ms)=" + (int) (System.currentTimeMillis() - currentTime) + '\n'); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Sets the antialiasing rendering hints.
+	 *
+	 * @param g
+	 */
+	private void setRenderingHints(Graphics g) {
 		if (OSPRuntime.setRenderingHints) { // Rendering hint bug in Mac Snow Leopard
 			if (antialiasTextOn) {
 				((Graphics2D) g).setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
@@ -927,23 +968,118 @@ public class DrawingPanel extends JPanel implements Disposable, ActionListener,
 				((Graphics2D) g).setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
 			}
 		}
-		// ready to draw everything
-		if (!validImage) {
-			return; // abort drawing
+	}
+
+	/**
+	 * Paints a layered panel into one of its buffer images.
+	 *
+	 * The static drawables are painted into the background image only if the scale
+	 * or the drawable list has changed. The regions reported by the DirtyDrawables
+	 * in this render and in the previous render (which went into the other buffer)
+	 * are then restored from the background and the DirtyDrawables are redrawn.
+	 *
+	 * @param image the buffer image
+	 * @param g the graphics context of the image
+	 */
+	protected void paintLayers(BufferedImage image, Graphics g) {
+		ArrayList<Drawable> staticList = new ArrayList<Drawable>(), dirtyList = new ArrayList<Drawable>();
+		synchronized (drawableList) {
+			if (!drawableList.isEmpty() && (drawableList.get(0) instanceof False3D)) {
+				paintEverything(g); // False3D draws the entire list itself
+				return;
+			}
+			for (int i = 0, n = drawableList.size(); i < n; i++) {
+				Drawable d = drawableList.get(i);
+				if (d instanceof DirtyDrawable) {
+					dirtyList.add(d);
+				} else {
+					staticList.add(d);
+				}
+			}
 		}
-		paintFirst(g); // PlottingPanel uses this method to paint axes
+		computeGutters(); // last chance to set the gutters
+		scale(getDrawablesNoClone()); // sets the world-coordinate scale based on the autoscale values
+		setPixelScale(); // sets the pixel scale and the world-to-pixel affine transformation matrix
 		if (!validImage) {
 			return; // abort drawing
 		}
-		paintDrawableList(g, tempList);
-		if (!validImage) {
-			return; // abort drawing
+		int w = image.getWidth(), h = image.getHeight();
+		if (!validLayers || (backgroundImage == null) || (backgroundImage.getWidth() != w)
+				|| (backgroundImage.getHeight() != h) || !pixelTransform.equals(layerTransform)
+				|| !staticList.equals(layerStatic)) {
+			if ((backgroundImage == null) || (backgroundImage.getWidth() != w) || (backgroundImage.getHeight() != h)) {
+				int type = image.getType();
+				backgroundImage = new BufferedImage(w, h, (type == BufferedImage.TYPE_CUSTOM) ? BufferedImage.TYPE_INT_RGB : type);
+			}
+			validLayers = true;
+			layerTransform.setTransform(pixelTransform);
+			Graphics bg = backgroundImage.getGraphics();
+			setRenderingHints(bg);
+			paintFirst(bg); // PlottingPanel uses this method to paint axes
+			paintDrawableList(bg, staticList);
+			bg.dispose();
+			layerScale[0] = xmin;
+			layerScale[1] = xmax;
+			layerScale[2] = ymin;
+			layerScale[3] = ymax;
+			layerScale[4] = xPixPerUnit;
+			layerScale[5] = yPixPerUnit;
+			layerGutters[0] = leftGutter;
+			layerGutters[1] = topGutter;
+			layerGutters[2] = rightGutter;
+			layerGutters[3] = bottomGutter;
+			layerStatic = staticList;
+			fullComposites = 2; // both buffers must be recomposited
+		} else { // restore the scale that was used to paint the background
+			xmin = layerScale[0];
+			xmax = layerScale[1];
+			ymin = layerScale[2];
+			ymax = layerScale[3];
+			xPixPerUnit = layerScale[4];
+			yPixPerUnit = layerScale[5];
+			setGutters(layerGutters);
+			pixelTransform.setTransform(xPixPerUnit, 0, 0, -yPixPerUnit, -xmin * xPixPerUnit + leftGutter,
+					ymax * yPixPerUnit + topGutter);
+			pixelTransform.getMatrix(pixelMatrix);
+		}
+		if (!dirtyList.equals(layerDirty)) { // a removed drawable leaves pixels anywhere
+			layerDirty = dirtyList;
+			fullComposites = 2;
+		}
+		Rectangle dirty = null;
+		for (int i = 0, n = dirtyList.size(); i < n; i++) {
+			// every DirtyDrawable is asked so that it can record its current bounds
+			Rectangle r = ((DirtyDrawable) dirtyList.get(i)).getDirtyBounds(this);
+			if (r != null) {
+				dirty = (dirty == null) ? new Rectangle(r) : dirty.union(r);
+			}
+		}
+		Rectangle region;
+		boolean known = (image == otherBuffer); // buffers alternate so this buffer is one render behind
+		otherBuffer = lastBuffer;
+		lastBuffer = image;
+		if ((fullComposites > 0) || !known) {
+			fullComposites = Math.max(0, fullComposites - 1);
+			region = new Rectangle(0, 0, w, h);
+		} else if (dirty == null) {
+			region = lastDirty;
+		} else {
+			region = (lastDirty == null) ? dirty : dirty.union(lastDirty);
 		}
-		paintLast(g); // does nothing yet but can be used to add a legend, etc
-		if (RECORD_PAINT_TIMES) {
-			System.out
-					.println("DrawingPanel paint time (ms)=" + (int) (System.currentTimeMillis() - currentTime) + '\n'); //$NON-NLS-1$
+		lastDirty = dirty;
+		if (zoomBox.isVisible()) {
+			fullComposites = 2; // the zoom box is painted into the buffer after compositing
 		}
+		if ((region == null) || !validImage) {
+			return; // this buffer already matches the screen
+		}
+		Graphics2D g2 = (Graphics2D) g.create();
+		g2.clip(region);
+		g2.drawImage(backgroundImage, 0, 0, null);
+		setRenderingHints(g2);
+		paintDrawableList(g2, dirtyList);
+		paintLast(g2);
+		g2.dispose();
 	}
 
 	/**
@@ -1104,6 +1240,43 @@ public class DrawingPanel extends JPanel implements Disposable, ActionListener,
 		return buffered;
 	}
 
+	/**
+	 * Sets the layered rendering option.
+	 *
+	 * A layered panel draws its background, axes and every drawable that is not a
+	 * DirtyDrawable into a cached background image. Subsequent renders copy only
+	 * the regions reported by the DirtyDrawables from the background and redraw the
+	 * DirtyDrawables. The background is redrawn when the panel is resized or
+	 * rescaled, when the drawable list changes, or after invalidateLayers() is called.
+	 * Layered panels are always buffered.
+	 *
+	 * @param _layered
+	 * @see DirtyDrawable
+	 */
+	public void setLayered(boolean _layered) {
+		layered = _layered;
+		if (layered) {
+			setBuffered(true);
+		} else {
+			backgroundImage = null;
+		}
+		invalidateLayers();
+	}
+
+	public boolean isLayered() {
+		return layered;
+	}
+
+	/**
+	 * Invalidates the background layer of a layered panel so that it is redrawn
+	 * during the next render. Call this method after changing a drawable that is
+	 * not a DirtyDrawable.
+	 */
+	public void invalidateLayers() {
+		validLayers = false;
+		invalidateImage(); // validImage = false;
+	}
+
 	/**
 	 * Makes the component visible or invisible. Overrides
 	 * <code>JComponent.setVisible</code>.
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 
 import javax.imageio.ImageIO;
 import javax.swing.JComponent;
@@ -45,6 +46,9 @@ public class GUIUtils {
 
 	// colors used to "disable/enable" TitledBorders and other non-Components
 	private static Color enabledColor, disabledColor;
+	// displayable frames whose animated property is true; the array is replaced whenever the list changes
+	private static final ArrayList<OSPFrame> animatedFrameList = new ArrayList<OSPFrame>();
+	private static volatile OSPFrame[] animatedFrames = new OSPFrame[0];
 	static {
 		enabledColor = UIManager.getColor("Label.foreground"); //$NON-NLS-1$
 		if (enabledColor == null)
@@ -145,13 +149,10 @@ public class GUIUtils {
 	 * Usually invoked by an animation thread after every animation step.
 	 */
 	public static void renderAnimatedFrames() {
-		Frame[] frames = Frame.getFrames();
+		OSPFrame[] frames = animatedFrames;
 		for (int i = 0; i < frames.length; i++) {
-			if (!frames[i].isDisplayable() || !OSPFrame.class.isInstance(frames[i])) {
-				continue;
-			}
-			if (((OSPFrame) frames[i]).isAnimated()) {
-				((OSPFrame) frames[i]).render();
+			if (frames[i].isDisplayable() && frames[i].isAnimated()) {
+				frames[i].render();
 			}
 		}
 		if (OSPRuntime.isApplet && OSPRuntime.applet instanceof Renderable) {
@@ -165,15 +166,46 @@ public class GUIUtils {
 	 * Usually invoked by a control's single-step button.
 	 */
 	public static void repaintAnimatedFrames() {
-		Frame[] frames = Frame.getFrames();
+		OSPFrame[] frames = animatedFrames;
 		for (int i = 0; i < frames.length; i++) {
-			if (!frames[i].isDisplayable() || !OSPFrame.class.isInstance(frames[i])) {
-				continue;
+			if (frames[i].isDisplayable() && frames[i].isAnimated()) {
+				frames[i].invalidateImage(); // make sure buffers are up to date
+				frames[i].repaint();
 			}
-			if (((OSPFrame) frames[i]).isAnimated()) {
-				((OSPFrame) frames[i]).invalidateImage(); // make sure buffers are up to date
-				((OSPFrame) frames[i]).repaint();
+		}
+	}
+
+	/**
+	 * Gets the OSPFrames whose animated property is true.
+	 *
+	 * Frames are registered while they are displayable and their animated property is set so that
+	 * animation threads do not have to search every application window after each step.
+	 * Frames unregister themselves in removeNotify, so the list does not keep disposed frames.
+	 *
+	 * @return the animated frames
+	 */
+	public static OSPFrame[] getAnimatedFrames() {
+		return animatedFrames.clone();
+	}
+
+	/**
+	 * Adds a frame to or removes a frame from the animated frames.
+	 *
+	 * @param frame OSPFrame
+	 * @param animated boolean
+	 */
+	static void registerAnimatedFrame(OSPFrame frame, boolean animated) {
+		synchronized (animatedFrameList) {
+			boolean registered = animatedFrameList.contains(frame);
+			if (animated == registered) {
+				return;
 			}
+			if (animated) {
+				animatedFrameList.add(frame);
+			} else {
+				animatedFrameList.remove(frame);
+			}
+			animatedFrames = animatedFrameList.toArray(new OSPFrame[animatedFrameList.size()]);
 		}
 	}
 
@@ -219,12 +251,12 @@ public class GUIUtils {
 	 * @param ignoreRepaint boolean
 	 */
 	public static void setAnimatedFrameIgnoreRepaint(boolean ignoreRepaint) {
-		Frame[] frames = Frame.getFrames();
+		OSPFrame[] frames = animatedFrames;
 		for (int i = 0; i < frames.length; i++) {
 			if (!frames[i].isDisplayable() || !DrawingFrame.class.isInstance(frames[i])) {
 				continue;
 			}
-			if (((DrawingFrame) frames[i]).isAnimated()) {
+			if (frames[i].isAnimated()) {
 				DrawingPanel dp = ((DrawingFrame) frames[i]).getDrawingPanel();
 				if (dp != null) {
 					dp.setIgnoreRepaint(ignoreRepaint);
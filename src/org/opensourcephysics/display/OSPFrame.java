@@ -309,6 +309,25 @@ public class OSPFrame extends JFrame implements Hidable, AppFrame {
 	 */
 	public void setAnimated(boolean animated) {
 		this.animated = animated;
+		GUIUtils.registerAnimatedFrame(this, animated && isDisplayable());
+	}
+
+	/**
+	 * Registers an animated frame with GUIUtils when the frame becomes displayable.
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		GUIUtils.registerAnimatedFrame(this, animated);
+	}
+
+	/**
+	 * Unregisters the frame so that GUIUtils does not keep frames that are no longer displayable.
+	 */
+	@Override
+	public void removeNotify() {
+		GUIUtils.registerAnimatedFrame(this, false);
+		super.removeNotify();
 	}
 
 	/**
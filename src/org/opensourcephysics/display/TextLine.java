@@ -12,6 +12,7 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
@@ -179,6 +180,13 @@ public class TextLine {
    */
   protected Graphics lg = null;
 
+  /**
+   * The font and rendering context used for the last parse. A new graphics context
+   * with the same font and rendering context does not require the text to be measured again.
+   */
+  private Font parsedFont = null;
+  private FontRenderContext parsedFRC = null;
+
   /**
    * The parsed string. Each element in the vector represents
    * a change of context in the string ie font change and offset.
@@ -523,7 +531,13 @@ public class TextLine {
 	public void parseText(Graphics g) {
 		int w = 0;
 		if (lg != g) {
-			parse = true;
+			Font f = (g == null) ? null : (font == null) ? g.getFont() : font;
+			FontRenderContext frc = (g instanceof Graphics2D) ? ((Graphics2D) g).getFontRenderContext() : null;
+			if (f == null || frc == null || !f.equals(parsedFont) || !frc.equals(parsedFRC)) {
+				parse = true;
+			}
+			parsedFont = f;
+			parsedFRC = frc;
 		}
 		lg = g;
 		if (!parse) {
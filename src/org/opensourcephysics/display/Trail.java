@@ -9,9 +9,13 @@ package org.opensourcephysics.display;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.Map;
+import java.util.WeakHashMap;
 import org.opensourcephysics.controls.XML;
 import org.opensourcephysics.controls.XMLControl;
 import org.opensourcephysics.controls.XMLLoader;
@@ -21,12 +25,35 @@ import org.opensourcephysics.controls.XMLLoader;
  * Description:  A trail of pixels on the screen.  This object is often used to
  * show the path of a moving object.
  *
+ * Points are stored in primitive arrays that are used as a circular buffer so that adding a point and
+ * removing the oldest point when the maximum number of points is reached take constant time.
+ * A pixel path is kept for every panel between repaints and only new points are transformed unless the
+ * panel's pixel transformation changes or old points have been removed.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
 public class Trail extends AbstractTrail implements LogMeasurable {
-  protected GeneralPath generalPath = new GeneralPath();
+  static final byte LINE = 0; // point is connected to the previous point
+  static final byte DOT = 1;  // point starts a new segment and is drawn
+  static final byte MOVE = 2; // point starts a new segment without drawing
   boolean connected = true;
+  int maximum = 0;            // maximum number of points; zero for no limit
+  float[] xpoints = new float[16], ypoints = new float[16];
+  byte[] types = new byte[16];
+  int first = 0;              // buffer index of the oldest point
+  long removed = 0;           // number of points removed from the front since the trail was cleared
+  Map<DrawingPanel, PixelPath> pixelPaths = new WeakHashMap<DrawingPanel, PixelPath>(); // guarded by this trail
+
+  /**
+   * The points of the trail in the pixel coordinates of one panel.
+   */
+  static class PixelPath {
+    Path2D.Double path = new Path2D.Double();
+    AffineTransform transform = new AffineTransform();
+    long start = -1, end; // sequence numbers of the first and next point in the path
+    boolean closed;
+  }
 
   /**
    * Adds a point to the trail.
@@ -38,23 +65,7 @@ public synchronized void addPoint(double x, double y) {
     if(closed) {
       throw new IllegalStateException("Cannot add points to a closed trail."); //$NON-NLS-1$
     }
-    if(!connected||(numpts==0)) {
-      generalPath.moveTo((float) x, (float) y);
-    }
-    generalPath.lineTo((float) x, (float) y);
-    xmin = Math.min(xmin, x);
-    xmax = Math.max(xmax, x);
-    if(x>0) {
-      xminLogscale = Math.min(xminLogscale, x);
-      xmaxLogscale = Math.max(xmaxLogscale, x);
-    }
-    ymin = Math.min(ymin, y);
-    ymax = Math.max(ymax, y);
-    if(y>0) {
-      yminLogscale = Math.min(yminLogscale, y);
-      ymaxLogscale = Math.max(ymaxLogscale, y);
-    }
-    numpts++;
+    append(x, y, (!connected||(numpts==0)) ? DOT : LINE);
   }
 
   /**
@@ -63,20 +74,79 @@ public synchronized void addPoint(double x, double y) {
    * @param y double
    */
   public synchronized void moveToPoint(double x, double y) {
-    generalPath.moveTo((float) x, (float) y);
-    xmin = Math.min(xmin, x);
-    xmax = Math.max(xmax, x);
-    if(x>0) {
-      xminLogscale = Math.min(xminLogscale, x);
-      xmaxLogscale = Math.max(xmaxLogscale, x);
-    }
-    ymin = Math.min(ymin, y);
-    ymax = Math.max(ymax, y);
-    if(y>0) {
-      yminLogscale = Math.min(yminLogscale, y);
-      ymaxLogscale = Math.max(ymaxLogscale, y);
+    append(x, y, MOVE);
+  }
+
+  private void append(double x, double y, byte type) {
+    if((maximum>0)&&(numpts>=maximum)) {
+      removeFirst();
     }
+    if(numpts==xpoints.length) {
+      setCapacity(2*numpts);
+    }
+    int i = (first+numpts)%xpoints.length;
+    xpoints[i] = (float) x;
+    ypoints[i] = (float) y;
+    types[i] = type;
     numpts++;
+    includeInBounds(x, y);
+  }
+
+  private void removeFirst() {
+    float x = xpoints[first], y = ypoints[first];
+    if((x<=(float) xmin)||(x>=(float) xmax)||(y<=(float) ymin)||(y>=(float) ymax)||(x<=(float) xminLogscale)
+       ||(y<=(float) yminLogscale)) {
+      boundsValid = false;
+    }
+    first = (first+1)%xpoints.length;
+    numpts--;
+    removed++;
+  }
+
+  private void setCapacity(int capacity) {
+    float[] x = new float[capacity], y = new float[capacity];
+    byte[] t = new byte[capacity];
+    for(int k = 0, n = xpoints.length; k<numpts; k++) {
+      int i = (first+k)%n;
+      x[k] = xpoints[i];
+      y[k] = ypoints[i];
+      t[k] = types[i];
+    }
+    xpoints = x;
+    ypoints = y;
+    types = t;
+    first = 0;
+  }
+
+  /**
+   * Sets the maximum number of points stored in the trail.
+   * The oldest points are removed when the maximum is reached.
+   *
+   * @param max int the maximum number of points; zero for no limit
+   */
+  public synchronized void setMaximumPoints(int max) {
+    maximum = Math.max(0, max);
+    while((maximum>0)&&(numpts>maximum)) {
+      removeFirst();
+    }
+  }
+
+  /**
+   * Gets the maximum number of points stored in the trail.
+   *
+   * @return int the maximum number of points; zero for no limit
+   */
+  public int getMaximumPoints() {
+    return maximum;
+  }
+
+  @Override
+protected synchronized void computeBounds() {
+    resetBounds();
+    for(int k = 0, n = xpoints.length; k<numpts; k++) {
+      int i = (first+k)%n;
+      includeInBounds(xpoints[i], ypoints[i]);
+    }
   }
 
   /**
@@ -86,7 +156,6 @@ public synchronized void addPoint(double x, double y) {
   @Override
 public void closeTrail() {
     closed = true;
-    generalPath.closePath();
   }
 
   /**
@@ -117,11 +186,53 @@ public void closeTrail() {
 public synchronized void clear() {
     closed = false;
     numpts = 0;
-    xmax = xmaxLogscale = -Double.MAX_VALUE;
-    ymax = ymaxLogscale = -Double.MAX_VALUE;
-    xmin = xminLogscale = Double.MAX_VALUE;
-    ymin = yminLogscale = Double.MAX_VALUE;
-    generalPath.reset();
+    first = 0;
+    removed = 0;
+    resetBounds();
+    pixelPaths.clear(); // the pixel paths are rebuilt when they are next drawn
+  }
+
+  /**
+   * Updates the pixel path of a panel so that it contains every point in the trail.
+   *
+   * New points are appended to the existing path.  The path is rebuilt if the panel's transformation changed,
+   * old points were removed, or the trail was reopened.  The caller must hold the lock on this trail
+   * while the path is updated and drawn.
+   */
+  private Path2D.Double getPixelPath(DrawingPanel panel) {
+    AffineTransform at = panel.getPixelTransform();
+    PixelPath pp = pixelPaths.get(panel);
+    if(pp==null) {
+      pp = new PixelPath();
+      pixelPaths.put(panel, pp);
+    }
+    long end = removed+numpts;
+    if((pp.start!=removed)||(pp.closed&&!closed)||!at.equals(pp.transform)) {
+      pp.path.reset();
+      pp.transform.setTransform(at);
+      pp.start = pp.end = removed;
+      pp.closed = false;
+    }
+    double m00 = at.getScaleX(), m01 = at.getShearX(), m02 = at.getTranslateX();
+    double m10 = at.getShearY(), m11 = at.getScaleY(), m12 = at.getTranslateY();
+    for(int n = xpoints.length; pp.end<end; pp.end++) {
+      int i = (int) ((first+pp.end-removed)%n);
+      double x = xpoints[i], y = ypoints[i];
+      double px = x*m00+y*m01+m02;
+      double py = x*m10+y*m11+m12;
+      byte type = types[i];
+      if((type!=LINE)||(pp.end==pp.start)) {
+        pp.path.moveTo(px, py);
+      }
+      if(type!=MOVE) {
+        pp.path.lineTo(px, py);
+      }
+    }
+    if(closed&&!pp.closed) {
+      pp.path.closePath();
+      pp.closed = true;
+    }
+    return pp.path;
   }
 
   /**
@@ -135,15 +246,76 @@ public void draw(DrawingPanel panel, Graphics g) {
     }
     Graphics2D g2 = (Graphics2D) g;
     g2.setColor(color);
-    // transform from world to pixel coordinates
-    Shape s = panel.transformPath(generalPath);
-    if(drawingStroke!=null) {
-      Stroke stroke = g2.getStroke();
-      g2.setStroke(drawingStroke);
-      g2.draw(s);
-      g2.setStroke(stroke);
-    } else {
-      g2.draw(s);
+    // the path is stroked under the lock so that points added while it is drawn do not modify it
+    synchronized(this) {
+      Path2D.Double s = getPixelPath(panel);
+      if(drawingStroke!=null) {
+        Stroke stroke = g2.getStroke();
+        g2.setStroke(drawingStroke);
+        g2.draw(s);
+        g2.setStroke(stroke);
+      } else {
+        g2.draw(s);
+      }
+    }
+  }
+
+  /**
+   * Creates a path containing the points in world coordinates.
+   */
+  synchronized GeneralPath createGeneralPath() {
+    GeneralPath path = new GeneralPath();
+    for(int k = 0, n = xpoints.length; k<numpts; k++) {
+      int i = (first+k)%n;
+      if((types[i]!=LINE)||(k==0)) {
+        path.moveTo(xpoints[i], ypoints[i]);
+      }
+      if(types[i]!=MOVE) {
+        path.lineTo(xpoints[i], ypoints[i]);
+      }
+    }
+    if(closed) {
+      path.closePath();
+    }
+    return path;
+  }
+
+  /**
+   * Replaces the points with those in a path that was created by a trail.
+   */
+  synchronized void setGeneralPath(GeneralPath path) {
+    clear();
+    float[] coords = new float[6];
+    boolean pending = false; // a move that has not been stored
+    float mx = 0, my = 0;
+    for(PathIterator it = path.getPathIterator(null); !it.isDone(); it.next()) {
+      switch(it.currentSegment(coords)) {
+         case PathIterator.SEG_MOVETO :
+           if(pending) {
+             append(mx, my, MOVE);
+           }
+           mx = coords[0];
+           my = coords[1];
+           pending = true;
+           break;
+         case PathIterator.SEG_LINETO :
+           if(pending&&(mx==coords[0])&&(my==coords[1])) {
+             append(mx, my, DOT);
+           } else {
+             if(pending) {
+               append(mx, my, MOVE);
+             }
+             append(coords[0], coords[1], LINE);
+           }
+           pending = false;
+           break;
+         case PathIterator.SEG_CLOSE :
+           closed = true;
+           break;
+      }
+    }
+    if(pending) {
+      append(mx, my, MOVE);
     }
   }
 
@@ -163,10 +335,11 @@ public void draw(DrawingPanel panel, Graphics g) {
     @Override
 	public void saveObject(XMLControl control, Object obj) {
       Trail trail = (Trail) obj;
-      control.setValue("connected", trail.connected);      //$NON-NLS-1$
-      control.setValue("color", trail.color);              //$NON-NLS-1$
-      control.setValue("number of pts", trail.numpts);     //$NON-NLS-1$
-      control.setValue("general path", trail.generalPath); //$NON-NLS-1$
+      control.setValue("connected", trail.connected);               //$NON-NLS-1$
+      control.setValue("color", trail.color);                       //$NON-NLS-1$
+      control.setValue("number of pts", trail.numpts);              //$NON-NLS-1$
+      control.setValue("maximum", trail.maximum);                   //$NON-NLS-1$
+      control.setValue("general path", trail.createGeneralPath()); //$NON-NLS-1$
     }
 
     @Override
@@ -177,10 +350,16 @@ public void draw(DrawingPanel panel, Graphics g) {
     @Override
 	public Object loadObject(XMLControl control, Object obj) {
       Trail trail = (Trail) obj;
-      trail.connected = control.getBoolean("connected");                   //$NON-NLS-1$
-      trail.color = (Color) control.getObject("color");                    //$NON-NLS-1$
-      trail.numpts = control.getInt("number of pts");                      //$NON-NLS-1$
-      trail.generalPath = (GeneralPath) control.getObject("general path"); //$NON-NLS-1$
+      trail.connected = control.getBoolean("connected"); //$NON-NLS-1$
+      trail.color = (Color) control.getObject("color");  //$NON-NLS-1$
+      int max = control.getInt("maximum");               //$NON-NLS-1$
+      trail.setMaximumPoints((max==Integer.MIN_VALUE) ? 0 : max);
+      Object path = control.getObject("general path");   //$NON-NLS-1$
+      if(path instanceof GeneralPath) {
+        trail.setGeneralPath((GeneralPath) path);
+      } else {
+        trail.clear();
+      }
       return obj;
     }
 
@@ -502,6 +502,8 @@ public class CartesianInteractive extends CartesianType1 implements Selectable {
    */
   public void refreshDecimalSeparators() {
   	htFormats.clear();
+  	xLabelCache.clear();
+  	yLabelCache.clear();
   	if (scaleSetter != null) {
   		scaleSetter.updateValues();
   	}
@@ -80,6 +80,9 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
   /** FontMetric information. */
   FontMetrics labelFontMetrics = null, superscriptFontMetrics = null, titleFontMetrics = null;
 
+  /** Formatted and measured tick labels reused while the axis ranges are unchanged. */
+  final TickLabelCache xLabelCache = new TickLabelCache(), yLabelCache = new TickLabelCache();
+
   /** Used for log axes. Index into vector of axis labels. */
   int gridCurJuke = 0;
 
@@ -194,11 +197,12 @@ public class CartesianType1 extends AbstractAxes implements CartesianAxes, Dimen
     }
     double ypos = yStart;
     int sh = labelFontMetrics.getHeight();
+    // drawPlot labels the same ticks so the cached labels are reused when it draws them
+    yLabelCache.validate(yStart, yTickSize, numfracdigits, chop, false, OSPRuntime.getCurrentDecimalSeparator(), labelFontMetrics);
     for(int i = 0; i<=numberYTickMarks; i++) {
-      String yticklabel = formatNum(ypos, numfracdigits, chop);
-      int sw = labelFontMetrics.stringWidth(yticklabel);
+      int sw = (i<yLabelCache.size()) ? yLabelCache.getWidth(i) : yLabelCache.add(formatNum(ypos, numfracdigits, chop));
       gutter = Math.max(sw+2*sh, gutter);
-      ypos += yTickSize;
+      ypos = gridStep(null, ypos, yTickSize, false);
     }
     return Math.min(gutter, panel.getWidth());
   }
@@ -567,18 +571,24 @@ public void resizeFonts(double factor, DrawingPanel panel) {
       graphics.setColor(foreground);
       double chop = Math.abs(yTickSize/100);
       int counter = numberYTickMarks;
+      yLabelCache.validate(yStart, yTickSize, numfracdigits, chop, ylog, OSPRuntime.getCurrentDecimalSeparator(), labelFontMetrics);
+      int index = 0;
       for(double ypos = yTmpStart; ypos<=ytickMax; ypos = gridStep(ygrid, ypos, yTickSize, ylog)) {
         if(--counter<0) {
           break;
         }
         String yticklabel = null;
-        if(ylog) {
-          yticklabel = formatLogNum(ypos, numfracdigits);
-          if(yticklabel.indexOf('e')!=-1) {
-            needExponent = false;
-          }
+        int labelWidth;
+        if(index<yLabelCache.size()) {
+          yticklabel = yLabelCache.getLabel(index);
+          labelWidth = yLabelCache.getWidth(index);
         } else {
-          yticklabel = formatNum(ypos, numfracdigits, chop);
+          yticklabel = ylog ? formatLogNum(ypos, numfracdigits) : formatNum(ypos, numfracdigits, chop);
+          labelWidth = yLabelCache.add(yticklabel);
+        }
+        index++;
+        if(ylog&&(yticklabel.indexOf('e')!=-1)) {
+          needExponent = false;
         }
         int yCoord1 = 0;
         if(ylog||(yExponent==0)) {
@@ -601,11 +611,9 @@ public void resizeFonts(double factor, DrawingPanel panel) {
         graphics.drawLine(leftGutter, yCoord1, xCoord1, yCoord1); // draw tick marks on both sides of plot, y tick marks are drawn horizontally
         // graphics.drawLine(lrx, yCoord1, xCoord2, yCoord1);
         graphics.drawLine(width+leftGutter-1, yCoord1, xCoord2, yCoord1);
-        int labelWidth = labelFontMetrics.stringWidth(yticklabel);
         // NOTE: 4 pixel spacing between axis and labels.
         graphics.drawString(yticklabel, leftGutter-labelWidth-4, yCoord1+offset); // draw tick label
-        int sw = labelFontMetrics.stringWidth(yticklabel);
-        yTickWidth = Math.max(yTickWidth, sw);
+        yTickWidth = Math.max(yTickWidth, labelWidth);
       }
       if(ylog||drawMinorYGrid) {
         // Draw in grid lines that don't have labels.
@@ -727,20 +735,26 @@ public void resizeFonts(double factor, DrawingPanel panel) {
       graphics.setColor(foreground);
       double chop = Math.abs(yTickSize/100);
       int counter = numberXTickMarks;
+      xLabelCache.validate(xStart, xTickSize, numfracdigits, chop, xlog, OSPRuntime.getCurrentDecimalSeparator(), labelFontMetrics);
+      int index = 0;
       for(double xpos = xTmpStart; xpos<=xtickMax; xpos = gridStep(xgrid, xpos, xTickSize, xlog)) {
         if(--counter<0) {
           break;
         }
         String xticklabel = null;
-        boolean hasExponent = false;
-        if(xlog) {
-          xticklabel = formatLogNum(xpos, numfracdigits);
-          if(xticklabel.indexOf('e')!=-1) {
-            needExponent = false;
-            hasExponent = true;
-          }
+        int labelWidth;
+        if(index<xLabelCache.size()) {
+          xticklabel = xLabelCache.getLabel(index);
+          labelWidth = xLabelCache.getWidth(index);
         } else {
-          xticklabel = formatNum(xpos, numfracdigits, chop);
+          xticklabel = xlog ? formatLogNum(xpos, numfracdigits) : formatNum(xpos, numfracdigits, chop);
+          labelWidth = xLabelCache.add(xticklabel);
+        }
+        index++;
+        boolean hasExponent = false;
+        if(xlog&&(xticklabel.indexOf('e')!=-1)) {
+          needExponent = false;
+          hasExponent = true;
         }
         if(xlog||(xExponent==0)) {                                       // exponent is drawn if greater than 1
           xCoord1 = xToPix(xpos, panel);
@@ -757,7 +771,7 @@ public void resizeFonts(double factor, DrawingPanel panel) {
         }
         // lower tick
         graphics.drawLine(xCoord1, lry, xCoord1, yCoord2);
-        int labxpos = xCoord1-labelFontMetrics.stringWidth(xticklabel)/2;
+        int labxpos = xCoord1-labelWidth/2;
         if(hasExponent) {
           graphics.drawString(xticklabel, labxpos+7, lry+3+labelheight); // draw tick label
         } else {
@@ -963,6 +977,7 @@ public void resizeFonts(double factor, DrawingPanel panel) {
   }
 
   protected Hashtable<String,String> htFormats = new Hashtable<>();
+  private static final int MAX_FORMATS = 1000;
   
   /**
    *  Return a string for displaying the specified number using the specified
@@ -1001,6 +1016,9 @@ public void resizeFonts(double factor, DrawingPanel panel) {
   		df.setDecimalFormatSymbols(OSPRuntime.getDecimalFormatSymbols());
   	}
 		
+    if(htFormats.size()>MAX_FORMATS) { // ranges that change every frame would otherwise grow the table without bound
+      htFormats.clear();
+    }
     htFormats.put(key, val = numberFormat.format(num));
     return val;
   }
@@ -0,0 +1,139 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.display.axes;
+import java.awt.FontMetrics;
+import java.util.Arrays;
+
+/**
+ * Caches the formatted tick labels and their measured widths for one axis so that
+ * repainting an axis whose range has not changed does not reformat or remeasure its labels.
+ *
+ * The labels of an axis are a sequence determined by the first tick, the tick spacing,
+ * the number of fraction digits, the scale, the decimal separator and the font.
+ * The cache is emptied whenever any of these change.
+ *
+ * @version 1.0
+ */
+final class TickLabelCache {
+  private double start = Double.NaN, step = Double.NaN;
+  private double chop = Double.NaN;
+  private int fracDigits = -1;
+  private boolean log;
+  private char separator;
+  private FontMetrics fm;
+  private String[] labels = new String[16];
+  private int[] widths = new int[16];
+  private int size;
+
+  /**
+   * Empties the cache unless the label sequence matches the given parameters.
+   *
+   * @param start the first tick
+   * @param step the tick spacing
+   * @param fracDigits the number of fraction digits
+   * @param chop the magnitude below which labels are not shown in scientific notation
+   * @param log true for a logarithmic axis
+   * @param separator the decimal separator
+   * @param fm the metrics of the label font
+   */
+  void validate(double start, double step, int fracDigits, double chop, boolean log, char separator, FontMetrics fm) {
+    if((start==this.start)&&(step==this.step)&&(fracDigits==this.fracDigits)&&(chop==this.chop)&&(log==this.log)
+       &&(separator==this.separator)&&(fm==this.fm)) {
+      return;
+    }
+    this.start = start;
+    this.step = step;
+    this.fracDigits = fracDigits;
+    this.chop = chop;
+    this.log = log;
+    this.separator = separator;
+    this.fm = fm;
+    clear();
+  }
+
+  /**
+   * Empties the cache.
+   */
+  void clear() {
+    Arrays.fill(labels, 0, size, null);
+    size = 0;
+  }
+
+  /**
+   * Gets the number of cached labels.
+   *
+   * @return the size
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the i-th label.
+   *
+   * @param i the index
+   * @return the label
+   */
+  String getLabel(int i) {
+    return labels[i];
+  }
+
+  /**
+   * Gets the width of the i-th label.
+   *
+   * @param i the index
+   * @return the width in pixels
+   */
+  int getWidth(int i) {
+    return widths[i];
+  }
+
+  /**
+   * Measures and appends the next label in the sequence.
+   *
+   * @param label the label
+   * @return the width in pixels
+   */
+  int add(String label) {
+    if(size==labels.length) {
+      labels = Arrays.copyOf(labels, 2*size);
+      widths = Arrays.copyOf(widths, 2*size);
+    }
+    int w = fm.stringWidth(label);
+    labels[size] = label;
+    widths[size++] = w;
+    return w;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
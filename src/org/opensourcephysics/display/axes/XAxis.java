@@ -93,6 +93,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
     if(temp_strings.length!=temp_values.length) {
       return;
     }
+    int[] temp_widths = getLabelWidths(temp_strings, fm);
     for(int i = 0, n = temp_strings.length; i<n; i++) {
       if(axisType==LINEAR) {
         int xpix = drawingPanel.xToPix(temp_values[i]*decade_multiplier);
@@ -102,7 +103,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
           g.setColor(foreground);
         }
         g.drawLine(xpix, yo-5, xpix, yo+5);
-        sw = fm.stringWidth(temp_strings[i]);
+        sw = temp_widths[i];
         g.drawString(temp_strings[i], xpix-sw/2, yo+18);
       } else { // log axis
         int xpix = drawingPanel.xToPix(Math.pow(10, temp_values[i]*decade_multiplier));
@@ -153,6 +154,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
     if(temp_strings.length!=temp_values.length) {
       return;
     }
+    int[] temp_widths = getLabelWidths(temp_strings, fm);
     for(int i = 0, n = temp_strings.length; i<n; i++) {
       if(axisType==LINEAR) {
         int xpix = drawingPanel.xToPix(temp_values[i]*decade_multiplier);
@@ -162,7 +164,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
           g.setColor(foreground);
         }
         g.drawLine(xpix, yo, xpix, yo+5);
-        sw = fm.stringWidth(temp_strings[i]);
+        sw = temp_widths[i];
         g.drawString(temp_strings[i], xpix-sw/2, yo+18);
       } else { // log axis
         int xpix = drawingPanel.xToPix(Math.pow(10, temp_values[i]*decade_multiplier));
@@ -8,6 +8,7 @@
 package org.opensourcephysics.display.axes;
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.text.DecimalFormat;
@@ -55,6 +56,11 @@ abstract public class XYAxis implements Interactive {
   double decade_multiplier = 1;
   int label_count = 0;                                          // The number of labels
   double location = 0;                                          // The position of the axis
+  double label_min = Double.NaN, label_max = Double.NaN;        // The range used to compute the labels
+  int label_ticks = -1;                                         // The number of ticks used to compute the labels
+  int[] label_width = new int[0];                               // The measured widths of the labels
+  String[] measured_string = null;                              // The labels that were measured
+  Font measured_font = null;                                    // The font used to measure the labels
   Font titleFont = new Font("Dialog", Font.PLAIN, 12);          //$NON-NLS-1$
   boolean showMajorGrid = false;
   // Color majorGridColor = new Color(223, 223, 223);  // light gray
@@ -85,6 +91,7 @@ abstract public void draw(DrawingPanel panel, Graphics g);
   public void setLabelFormat(DecimalFormat format) {
     if(format!=null) {
       labelFormat = format;
+      label_ticks = -1;
     }
   }
 
@@ -95,6 +102,7 @@ abstract public void draw(DrawingPanel panel, Graphics g);
    */
   public void setLabelFormat(String formatString) {
     labelFormat = org.opensourcephysics.numerics.Util.newDecimalFormat(formatString);
+    label_ticks = -1;
   }
 
   /**
@@ -122,6 +130,7 @@ abstract public void draw(DrawingPanel panel, Graphics g);
    */
   public void setAxisType(int type) {
     axisType = type;
+    label_ticks = -1;
   }
 
   /**
@@ -173,6 +182,26 @@ abstract public void draw(DrawingPanel panel, Graphics g);
     g2.setFont(oldFont);
   }
 
+  /**
+   * Gets the widths of the labels, measuring them only if the labels or font have changed.
+   * @param labels the labels
+   * @param fm the font metrics
+   * @return the widths
+   */
+  int[] getLabelWidths(String[] labels, FontMetrics fm) {
+    Font font = fm.getFont();
+    if((labels==measured_string)&&font.equals(measured_font)) {
+      return label_width;
+    }
+    int[] widths = new int[labels.length];
+    for(int i = 0, n = labels.length; i<n; i++) {
+      widths[i] = fm.stringWidth(labels[i]);
+    }
+    measured_string = labels;
+    measured_font = font;
+    return label_width = widths;
+  }
+
   /**
    * Calculates the axis labels.
    * @param minimum
@@ -181,6 +210,12 @@ abstract public void draw(DrawingPanel panel, Graphics g);
    */
   public void calculateLabels(double minimum, double maximum, int numTicks) {
     numTicks = Math.min(19, numTicks);
+    if((minimum==label_min)&&(maximum==label_max)&&(numTicks==label_ticks)) {
+      return; // labels are unchanged since the last repaint
+    }
+    label_min = minimum;
+    label_max = maximum;
+    label_ticks = numTicks;
     double min = minimum, max = maximum;
     if(maximum<minimum) {
       // the routines only work for min<max so switch values
@@ -96,6 +96,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
     if(temp_strings.length!=temp_values.length) {
       return;
     }
+    int[] temp_widths = getLabelWidths(temp_strings, fm);
     for(int i = 0, n = temp_values.length; i<n; i++) {
       if(axisType==LINEAR) {
         int ypix = drawingPanel.yToPix(temp_values[i]*decade_multiplier);
@@ -105,7 +106,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
           g.setColor(foreground);
         }
         g.drawLine(xo-5, ypix, xo+5, ypix);
-        sw = fm.stringWidth(temp_strings[i]);
+        sw = temp_widths[i];
         g.drawString(temp_strings[i], xo-sw-7, ypix+5);
       } else { // log axis
         int ypix = drawingPanel.yToPix(Math.pow(10, temp_values[i]*decade_multiplier));
@@ -157,6 +158,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
     if(temp_strings.length!=temp_values.length) {
       return;
     }
+    int[] temp_widths = getLabelWidths(temp_strings, fm);
     for(int i = 0, n = temp_values.length; i<n; i++) {
       if(axisType==LINEAR) {
         int ypix = drawingPanel.yToPix(temp_values[i]*decade_multiplier);
@@ -166,7 +168,7 @@ public void draw(DrawingPanel drawingPanel, Graphics g) {
           g.setColor(foreground);
         }
         g.drawLine(xo-5, ypix, xo, ypix);
-        sw = fm.stringWidth(temp_strings[i]);
+        sw = temp_widths[i];
         g.drawString(temp_strings[i], xo-sw-7, ypix+5);
       } else { // log axis
         int ypix = drawingPanel.yToPix(Math.pow(10, temp_values[i]*decade_multiplier));
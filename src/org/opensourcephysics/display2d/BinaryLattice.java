@@ -17,12 +17,12 @@ import java.awt.image.DataBufferByte;
 import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
-import java.util.Random;
 import javax.swing.JFrame;
 import org.opensourcephysics.display.DrawingPanel;
 import org.opensourcephysics.display.Grid;
 import org.opensourcephysics.display.MeasuredImage;
 import org.opensourcephysics.display.OSPRuntime;
+import org.opensourcephysics.numerics.RandomStream;
 
 /**
  * A BinaryLattice is an array where each array element has a value of 0 or 1.
@@ -124,7 +124,7 @@ public void setYMax(double _value) {
    */
   @Override
 public void randomize() {
-    Random random = new Random();
+    RandomStream random = RandomStream.current();
     random.nextBytes(packedData);
   }
 
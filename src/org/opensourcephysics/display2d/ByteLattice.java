@@ -103,6 +103,29 @@ public interface ByteLattice extends Measurable {
 */
   public void setAll(byte val[][], double xmin, double xmax, double ymin, double ymax);
 
+  /**
+   * Sets all values from a row-major array in which the value at (ix, iy) has index iy*nx+ix.
+   *
+   * The lattice is resized to fit the new data if needed.
+   *
+   * @param val the values
+   * @param nx the number of values in the x direction
+   */
+  default public void setAll(byte[] val, int nx) {
+    if(val.length%nx!=0) {
+      throw new IllegalArgumentException("Number of values in lattice (nx*ny) must match number of values."); //$NON-NLS-1$
+    }
+    int ny = val.length/nx;
+    if((getNx()!=nx)||(getNy()!=ny)) {
+      resizeLattice(nx, ny);
+    }
+    for(int iy = 0; iy<ny; iy++) {
+      for(int ix = 0; ix<nx; ix++) {
+        setValue(ix, iy, val[iy*nx+ix]);
+      }
+    }
+  }
+
   /**
    * Sets a block of data to new values.
    *
@@ -16,7 +16,6 @@ import java.awt.image.DataBufferByte;
 import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
-import java.util.Random;
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
 import org.opensourcephysics.display.Dimensioned;
@@ -26,6 +25,7 @@ import org.opensourcephysics.display.InteractivePanel;
 import org.opensourcephysics.display.MeasuredImage;
 import org.opensourcephysics.display.axes.XAxis;
 import org.opensourcephysics.display.axes.XYAxis;
+import org.opensourcephysics.numerics.RandomStream;
 
 /**
  * A ByteRaster contains an array of bytes where each byte represents an image pixel.
@@ -137,7 +137,7 @@ public int getNy() {
    */
   @Override
 public void randomize() {
-    Random random = new Random();
+    RandomStream random = RandomStream.current();
     random.nextBytes(packedData);
   }
 
@@ -234,6 +234,27 @@ public void setAll(byte val[][], double xmin, double xmax, double ymin, double y
     setMinMax(xmin, xmax, ymin, ymax);
   }
 
+  /**
+   * Sets all values from a row-major array in which the value at (ix, iy) has index iy*nx+ix.
+   *
+   * Rows are copied directly into the raster.
+   *
+   * @param val the values
+   * @param _nx the number of values in the x direction
+   */
+  @Override
+  public void setAll(byte[] val, int _nx) {
+    if(val.length%_nx!=0) {
+      throw new IllegalArgumentException("Number of values in lattice (nx*ny) must match number of values."); //$NON-NLS-1$
+    }
+    if((nx!=_nx)||(ny!=val.length/_nx)) {
+      resizeLattice(_nx, val.length/_nx);
+    }
+    for(int iy = 0; iy<ny; iy++) {
+      System.arraycopy(val, iy*nx, packedData, (ny-iy-1)*nx, nx);
+    }
+  }
+
   /**
    * Sets a block of values starting at location (0,0).
    *
@@ -29,7 +29,7 @@ public class Carpet extends InterpolatedPlot {
 		if (image == null) {
 			return;
 		}
-		if (pixelData.length != image.getWidth() * image.getHeight()) {
+		if (pixelData.length != image.getWidth() * image.getHeight() * 4) {
 			return;
 		}
 		if (griddata instanceof ArrayData) { // replace top row of array
@@ -41,7 +41,7 @@ public class Carpet extends InterpolatedPlot {
 					data[ix][0] = line[c][ix];
 				}
 			}
-		} else {
+		} else if (griddata instanceof GridPointData) {
 			double[][][] data = griddata.getData();
 			for (int ix = 0, nx = data.length; ix < nx; ix++) {
 				int len = line.length;
@@ -52,6 +52,15 @@ public class Carpet extends InterpolatedPlot {
 					data[ix][0][2 + c] = line[c][ix];
 				}
 			}
+		} else { // other storage is accessed through the GridData methods
+			for (int c = 0; c < line.length; c++) {
+				for (int ix = 0, nx = griddata.getNx(); ix < nx; ix++) {
+					for (int iy = griddata.getNy() - 1; iy > 0; iy--) {
+						griddata.setValue(ix, iy, c, griddata.getValue(ix, iy - 1, c));
+					}
+					griddata.setValue(ix, 0, c, line[c][ix]);
+				}
+			}
 		}
 		int imageWidth = image.getWidth();
 		int imageHeight = image.getHeight();
@@ -59,11 +68,18 @@ public class Carpet extends InterpolatedPlot {
 		double y = griddata.getTop();
 		double dx = (griddata.getRight() - x0) / (imageWidth - 1);
 		double dy = (griddata.getBottom() - y) / (imageHeight - 1);
-		int nr = 1 + (int) Math.abs(griddata.getDy() / dy);
-		int offset = nr * imageWidth;
+		double rowPixels = Math.abs(griddata.getDy() / dy); // image rows per data row
+		int nr = (int) Math.round(rowPixels);
+		if (nr < 1 || nr >= imageHeight || Math.abs(rowPixels - nr) > 1.0e-6) {
+			// the image does not scroll by a whole number of rows
+			writeToRaster(x0, y, dx, dy);
+			return;
+		}
+		// scroll the existing image and rewrite only the rows that interpolate the new data
+		int offset = nr * imageWidth * 4;
 		int length = imageWidth * imageHeight * 4 - offset;
 		System.arraycopy(pixelData, 0, pixelData, offset, length);
-		writeToRaster(x0, y, dx, dy);
+		writeToRaster(x0, y, dx, dy, 0, nr + 1);
 	}
 
 }
@@ -153,6 +153,11 @@ public class CellLattice implements ByteLattice {
 		lattice.setAll(val, xmin, xmax, ymin, ymax);
 	}
 
+	@Override
+	public void setAll(byte[] val, int nx) {
+		lattice.setAll(val, nx);
+	}
+
 	@Override
 	public void setBlock(int ix_offset, int iy_offset, byte[][] val) {
 		lattice.setBlock(ix_offset, iy_offset, val);
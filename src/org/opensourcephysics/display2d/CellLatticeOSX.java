@@ -10,7 +10,6 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.util.Random;
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
 import org.opensourcephysics.display.DisplayRes;
@@ -20,6 +19,7 @@ import org.opensourcephysics.display.InteractivePanel;
 import org.opensourcephysics.display.Measurable;
 import org.opensourcephysics.display.axes.XAxis;
 import org.opensourcephysics.display.axes.XYAxis;
+import org.opensourcephysics.numerics.RandomStream;
 
 /**
  *  A Mac version of CellLattice that displays an array where each array element can assume one of 256
@@ -411,7 +411,7 @@ public void setShowGridLines(boolean showGridLines) {
   /** Randomizes the lattice values. */
   @Override
 public void randomize() {
-    Random random = new Random();
+    RandomStream random = RandomStream.current();
     for(int rindex = 0, nr = data[0].length; rindex<nr; rindex++) {
       for(int cindex = 0, nc = data.length; cindex<nc; cindex++) {
         data[cindex][rindex] = (byte) random.nextInt(256);
@@ -10,7 +10,6 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
-import java.util.Random;
 
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
@@ -22,6 +21,7 @@ import org.opensourcephysics.display.InteractivePanel;
 import org.opensourcephysics.display.MeasuredImage;
 import org.opensourcephysics.display.axes.XAxis;
 import org.opensourcephysics.display.axes.XYAxis;
+import org.opensourcephysics.numerics.RandomStream;
 
 /**
  * A CellLattice displays an array where each array element can assume one of 256 values.
@@ -253,6 +253,30 @@ public void setBlock(byte val[][]) {
 		}
 	}
 
+	/**
+	 * Sets all values from a row-major array in which the value at (ix, iy) has index iy*nx+ix.
+	 *
+	 * @param val the values
+	 * @param _nx the number of values in the x direction
+	 */
+	@Override
+	public void setAll(byte[] val, int _nx) {
+		if (val.length % _nx != 0) {
+			throw new IllegalArgumentException("Number of values in lattice (nx*ny) must match number of values."); //$NON-NLS-1$
+		}
+		if ((nx != _nx) || (ny != val.length / _nx)) {
+			resizeLattice(_nx, val.length / _nx);
+		}
+		for (int iy = 0, k = 0; iy < ny; iy++) {
+			int pt = (ny - iy - 1) * nx;
+			for (int ix = 0; ix < nx; ix++, k++) {
+				byte v = val[k];
+				data[ix][iy] = v;
+				rasterData[pt + ix] = rgb[v & 0xFF];
+			}
+		}
+	}
+
 	/**
 	 * Sets a block of data to integer values.
 	 *
@@ -437,7 +461,7 @@ public void setShowGridLines(boolean showGridLines) {
 	 */
 	@Override
 	public void randomize() {
-		Random random = new Random();
+		RandomStream random = RandomStream.current();
 		for (int iy = 0; iy < ny; iy++) {
 			for (int ix = 0; ix < nx; ix++) {
 				data[ix][iy] = (byte) random.nextInt(256);
@@ -37,6 +37,7 @@ public class ColorMapper {
   private Color ceilColor;
   private byte[] floorColorRGB;
   private byte[] ceilColorRGB;
+  private int[] argbTable; // floor, colors, and ceil as packed ARGB; null if the colors have changed
   private int numColors;
   private int paletteType;
   private JFrame legendFrame;
@@ -181,15 +182,46 @@ public class ColorMapper {
 	 * @return byte[]
 	 */
 	public byte[] doubleToComponents(double value) {
-		if (zMap != null) {
-			value = zMap.evaluate(value);
-		}
-		int index = doubleToIndex(value);
+		int index = doubleToIndex(value); // applies the zMap
 		return (index < 0 ? floorColorRGB 
 				: index >= colors.length ? ceilColorRGB
 				: rgbs[index]);
 	}
 
+	/**
+	 * Converts a double to a packed ARGB pixel value using a precomputed color table.
+	 *
+	 * @param value double
+	 * @return the pixel value, as returned by Color.getRGB()
+	 */
+	public int doubleToARGB(double value) {
+		return getARGBTable()[doubleToIndex(value) + 1];
+	}
+
+	/**
+	 * Gets the color lookup table as packed ARGB pixel values. The first entry is
+	 * the floor color, the last entry is the ceiling color, and entry i+1 is the
+	 * color for index i, so that table[doubleToIndex(value) + 1] is the pixel for a value.
+	 * 
+	 * The table is rebuilt when the colors change and must not be modified.
+	 *
+	 * @return the table
+	 */
+	public int[] getARGBTable() {
+		int[] table = argbTable;
+		if (table == null || table.length != colors.length + 2) {
+			table = new int[colors.length + 2];
+			table[0] = floorColor.getRGB();
+			for (int i = 0, n = colors.length; i < n; i++) {
+				table[i + 1] = colors[i].getRGB();
+			}
+			table[colors.length + 1] = ceilColor.getRGB();
+			argbTable = table;
+		}
+		return table;
+	}
+
+
   /**
    * Converts a double to a color.
    * @param value
@@ -312,6 +344,7 @@ public class ColorMapper {
     ceilColor = _ceilColor;
     floorColorRGB = toRGB(floorColor);
     ceilColorRGB = toRGB(ceilColor);
+    argbTable = null;
   }
 
   /**
@@ -335,6 +368,7 @@ public class ColorMapper {
     	rgbs[i] = toRGB(colors[i]);
     }
     paletteType = CUSTOM;
+    argbTable = null;
   }
 
   private static byte[] toRGB(Color c) {
@@ -367,6 +401,7 @@ public class ColorMapper {
       }
       colors = newColors;
       rgbs = newRGBs;
+      argbTable = null;
     } else {
       setPaletteType(paletteType);
     }
@@ -385,6 +420,7 @@ public class ColorMapper {
     }
     numColors = Math.max(2, numColors); // need at least 2 colors
     colors = getColorPalette(numColors, paletteType, rgbs = new byte[numColors][]);
+    argbTable = null;
   }
 
 	static public Color[] getColorPalette(int numColors, int paletteType) {
@@ -29,7 +29,7 @@ public class ComplexCarpet extends ComplexInterpolatedPlot implements ICarpet {
 					data[2][ix][iy] = 0;
 				}
 			}
-		} else { // point data
+		} else if (griddata instanceof GridPointData) {
 			double[][][] data = griddata.getData();
 			for (int ix = 0, nx = griddata.getNx(); ix < nx; ix++) {
 				for (int iy = 0, ny = griddata.getNy(); iy < ny; iy++) {
@@ -38,6 +38,14 @@ public class ComplexCarpet extends ComplexInterpolatedPlot implements ICarpet {
 					data[nx][ny][4] = 0;
 				}
 			}
+		} else {
+			for (int ix = 0, nx = griddata.getNx(); ix < nx; ix++) {
+				for (int iy = 0, ny = griddata.getNy(); iy < ny; iy++) {
+					griddata.setValue(ix, iy, 0, 0);
+					griddata.setValue(ix, iy, 1, 0);
+					griddata.setValue(ix, iy, 2, 0);
+				}
+			}
 		}
 		update();
 	}
@@ -59,7 +67,7 @@ public class ComplexCarpet extends ComplexInterpolatedPlot implements ICarpet {
 					data[ix][0] = line[c][ix];
 				}
 			}
-		} else {
+		} else if (griddata instanceof GridPointData) {
 			double[][][] data = griddata.getData();
 			for (int ix = 0, nx = data.length; ix < nx; ix++) {
 				int len = line.length;
@@ -70,6 +78,15 @@ public class ComplexCarpet extends ComplexInterpolatedPlot implements ICarpet {
 					data[ix][0][2 + c] = line[c][ix];
 				}
 			}
+		} else { // other storage is accessed through the GridData methods
+			for (int c = 0; c < line.length; c++) {
+				for (int ix = 0, nx = griddata.getNx(); ix < nx; ix++) {
+					for (int iy = griddata.getNy() - 1; iy > 0; iy--) {
+						griddata.setValue(ix, iy, c, griddata.getValue(ix, iy - 1, c));
+					}
+					griddata.setValue(ix, 0, c, line[c][ix]);
+				}
+			}
 		}
 		int imageWidth = image.getWidth();
 		int imageHeight = image.getHeight();
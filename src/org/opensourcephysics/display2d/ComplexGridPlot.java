@@ -362,6 +362,27 @@ public void setExpandedZ(boolean expanded, double expansionFactor) {
           count++;
         }
       }
+    } else if(griddata instanceof FlatArrayData) {
+      double[] flat = ((FlatArrayData) griddata).getArray();
+      int ampOffset = ((FlatArrayData) griddata).getOffset(ampIndex);
+      int reOffset = ((FlatArrayData) griddata).getOffset(reIndex);
+      int imOffset = ((FlatArrayData) griddata).getOffset(imIndex);
+      for(int count = 0, n = nx*ny; count<n; count++) {
+        samples[0] = flat[ampOffset+count];
+        samples[1] = flat[reOffset+count];
+        samples[2] = flat[imOffset+count];
+        rgbData[count] = colorMap.samplesToColor(samples).getRGB();
+      }
+    } else {
+      for(int iy = 0, count = 0; iy<ny; iy++) {
+        for(int ix = 0; ix<nx; ix++) {
+          samples[0] = griddata.getValue(ix, iy, ampIndex);
+          samples[1] = griddata.getValue(ix, iy, reIndex);
+          samples[2] = griddata.getValue(ix, iy, imIndex);
+          rgbData[count] = colorMap.samplesToColor(samples).getRGB();
+          count++;
+        }
+      }
     }
     image.setRGB(0, 0, nx, ny, rgbData, 0, nx);
   }
@@ -231,12 +231,9 @@ public void setGridData(GridData _griddata) throws IllegalArgumentException {
     }
   }
 
-  private void generateVerticesFromArray(ArrayData griddata) {
-    double[][] ampdata = griddata.getData()[ampIndex];
-    double[][] redata = griddata.getData()[reIndex];
-    double[][] imdata = griddata.getData()[imIndex];
-    int numRows = ampdata.length;
-    int numCols = ampdata[0].length;
+  private void generateVerticesFromArray(GridData griddata) {
+    int numRows = griddata.getNx();
+    int numCols = griddata.getNy();
     calc_divisions = numRows-1;
     double xfactor = 20/(xmax-xmin);
     double yfactor = 20/(ymax-ymin);
@@ -251,16 +248,15 @@ public void setGridData(GridData _griddata) throws IllegalArgumentException {
       for(int iy = 0; iy<numRows; iy++) {
         int iyd = (griddata.getDy()>0) ? iy : numCols-iy-1;
         int ixd = (griddata.getDx()>0) ? ix : numCols-ix-1;
-        double zval = ampdata[ixd][iyd];
+        double zval = griddata.getValue(ixd, iyd, ampIndex);
         if(zMap!=null) {
           zval = zMap.evaluate(zval);
         }
-        vertexArray[ix*numRows+iy] = new ComplexSurfaceVertex(-10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval, redata[ixd][iyd], imdata[ixd][iyd], this);
+        vertexArray[ix*numRows+iy] = new ComplexSurfaceVertex(-10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval, griddata.getValue(ixd, iyd, reIndex), griddata.getValue(ixd, iyd, imIndex), this);
         y += dy;
       }
       x += dx;
     }
-    ampdata = null;
   }
 
   private void generateVerticesFromPoints(GridPointData griddata) throws IllegalArgumentException {
@@ -1236,10 +1232,10 @@ public synchronized void update() {
     xmax = Math.max(left, right);
     ymin = Math.min(bottom, top);
     ymax = Math.max(bottom, top);
-    if(griddata instanceof ArrayData) {
-      generateVerticesFromArray((ArrayData) griddata);
-    } else if(griddata instanceof GridPointData) {
+    if(griddata instanceof GridPointData) {
       generateVerticesFromPoints((GridPointData) griddata);
+    } else {
+      generateVerticesFromArray(griddata);
     }
   }
 
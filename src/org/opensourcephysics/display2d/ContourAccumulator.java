@@ -7,14 +7,18 @@
 
 package org.opensourcephysics.display2d;
 import java.awt.Graphics;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import org.opensourcephysics.display.DrawingPanel;
 
 /**
 * Title:        Contour
-* Description:  The class <code>LineAccumulator</code> accumulates line drawing information and
-* then draws all accumulated lines together. It is used as contour accumulator
-* in the contour plot.
+* Description:  The class <code>ContourAccumulator</code> accumulates the filled level polygons and
+* the contour lines of a contour plot and then draws them together.
+*
+* Geometry is stored in world coordinates in primitive arrays, one set of arrays per contour level,
+* so that accumulated contours can be redrawn after the panel is panned or zoomed.
+* An accumulator is not synchronized; a contour plot that computes contours in parallel gives each
+* thread its own accumulator.
 *
 * The contour plot uses some code from the Surface Plotter package by Yanto Suryono.
 *
@@ -22,94 +26,135 @@ import java.util.Iterator;
 * @version 1.0
 */
 public final class ContourAccumulator {
-  private ArrayList<LineRecord> accumulator;
+  private int nlevels;
+  private double[][] points = new double[0][];     // polygon vertices as x,y pairs
+  private int[] pointCount = new int[0];
+  private int[][] polygonSizes = new int[0][];     // number of vertices in each polygon
+  private int[] polygonCount = new int[0];
+  private double[][] lines = new double[0][];      // contour lines as x1,y1,x2,y2
+  private int[] lineCount = new int[0];
+  private int[] xpix = new int[8], ypix = new int[8];
 
   /**
-   * The constructor of <code>LineAccumulator</code>
+   * The constructor of <code>ContourAccumulator</code>
    */
-  ContourAccumulator() {
-    accumulator = new ArrayList<LineRecord>();
-  }
+  ContourAccumulator() {}
 
   /**
-   * Adds a line to the accumulator.
+   * Sets the number of contour levels and clears the accumulator.
    *
-   * @param x1 the first point's x coordinate
-   * @param y1 the first point's y coordinate
-   * @param x2 the second point's x coordinate
-   * @param y2 the second point's y coordinate
+   * @param n the number of levels
    */
-  public synchronized void addLine(int x1, int y1, int x2, int y2) {
-    accumulator.add(new LineRecord(x1, y1, x2, y2));
-  }
-
-  /**
-   * Clears accumulator.
-   */
-  public synchronized void clearAccumulator() {
-    accumulator.clear();
+  void setLevelCount(int n) {
+    if(n!=nlevels) {
+      nlevels = n;
+      points = new double[n][16];
+      pointCount = new int[n];
+      polygonSizes = new int[n][4];
+      polygonCount = new int[n];
+      lines = new double[n][8];
+      lineCount = new int[n];
+    }
+    clearAccumulator();
   }
 
   /**
-   * Draws all accumulated lines.
+   * Adds a polygon to the given level.
    *
-   * @param g the graphics context to draw
+   * @param level the contour level
+   * @param x the x coordinates
+   * @param y the y coordinates
+   * @param n the number of vertices
    */
-  public void drawAll(Graphics g) {
-    ArrayList<LineRecord> tempList = null;
-    synchronized(this) {
-      tempList = new ArrayList<LineRecord>(accumulator);
+  void addPolygon(int level, double[] x, double[] y, int n) {
+    int count = pointCount[level];
+    double[] buf = points[level];
+    if(buf.length<2*(count+n)) {
+      buf = points[level] = Arrays.copyOf(buf, Math.max(2*buf.length, 2*(count+n)));
+    }
+    for(int i = 0, k = 2*count; i<n; i++) {
+      buf[k++] = x[i];
+      buf[k++] = y[i];
     }
-    Iterator<LineRecord> it = tempList.iterator();
-    while(it.hasNext()) {
-      LineRecord line = it.next();
-      g.drawLine(line.x1, line.y1, line.x2, line.y2);
+    pointCount[level] = count+n;
+    int[] sizes = polygonSizes[level];
+    if(sizes.length==polygonCount[level]) {
+      sizes = polygonSizes[level] = Arrays.copyOf(sizes, 2*sizes.length);
     }
+    sizes[polygonCount[level]++] = n;
   }
 
-}
-
-/**
- * Represents a stright line.
- * Used by <code>LineAccumulator</code> class.
- *
- * @see LineAccumulator
- */
-class LineRecord extends Object {
   /**
+   * Adds a line to the given level.
+   *
+   * @param level the contour level
    * @param x1 the first point's x coordinate
-   */
-  public int x1;
-
-  /**
    * @param y1 the first point's y coordinate
+   * @param x2 the second point's x coordinate
+   * @param y2 the second point's y coordinate
    */
-  public int y1;
+  public void addLine(int level, double x1, double y1, double x2, double y2) {
+    int k = 4*lineCount[level];
+    double[] buf = lines[level];
+    if(buf.length<k+4) {
+      buf = lines[level] = Arrays.copyOf(buf, 2*buf.length);
+    }
+    buf[k] = x1;
+    buf[k+1] = y1;
+    buf[k+2] = x2;
+    buf[k+3] = y2;
+    lineCount[level]++;
+  }
 
   /**
-   * @param x2 the second point's x coordinate
+   * Clears accumulator.
    */
-  public int x2;
+  public void clearAccumulator() {
+    for(int i = 0; i<nlevels; i++) {
+      pointCount[i] = polygonCount[i] = lineCount[i] = 0;
+    }
+  }
 
   /**
-   * @param y2 the second point's y coordinate
+   * Fills the polygons of the given level.
+   *
+   * @param panel the drawing panel
+   * @param g the graphics context to draw
+   * @param level the contour level
    */
-  public int y2;
+  void fillLevel(DrawingPanel panel, Graphics g, int level) {
+    if(level>=nlevels) {
+      return;
+    }
+    double[] buf = points[level];
+    int[] sizes = polygonSizes[level];
+    for(int p = 0, k = 0, np = polygonCount[level]; p<np; p++) {
+      int n = sizes[p];
+      if(xpix.length<n) {
+        xpix = new int[n];
+        ypix = new int[n];
+      }
+      for(int i = 0; i<n; i++) {
+        xpix[i] = panel.xToPix(buf[k++])+1;
+        ypix[i] = panel.yToPix(buf[k++])+1;
+      }
+      g.fillPolygon(xpix, ypix, n);
+    }
+  }
 
   /**
-   * The constructor of <code>LineRecord</code>
+   * Draws all accumulated lines.
    *
-   * @param x1 the first point's x coordinate
-   * @param y1 the first point's y coordinate
-   * @param x2 the second point's x coordinate
-   * @param y2 the second point's y coordinate
+   * @param panel the drawing panel
+   * @param g the graphics context to draw
    */
-  LineRecord(int x1, int y1, int x2, int y2) {
-    super();
-    this.x1 = x1;
-    this.y1 = y1;
-    this.x2 = x2;
-    this.y2 = y2;
+  public void drawAll(DrawingPanel panel, Graphics g) {
+    for(int level = 0; level<nlevels; level++) {
+      double[] buf = lines[level];
+      for(int i = 0, k = 0, n = lineCount[level]; i<n; i++, k += 4) {
+        g.drawLine(panel.xToPix(buf[k])+1, panel.yToPix(buf[k+1])+1, panel.xToPix(buf[k+2])+1, panel.yToPix(buf[k+3])+1);
+      }
+    }
   }
 
 }
@@ -12,12 +12,17 @@ import javax.swing.JFrame;
 import org.opensourcephysics.controls.XML;
 import org.opensourcephysics.controls.XMLControl;
 import org.opensourcephysics.display.DrawingPanel;
+import org.opensourcephysics.numerics.Parallel;
 
 /**
  * ContourPlot draws a contour plot of a scalar field.
  *
  * Contour uses code from the Surface Plotter package by Yanto Suryono.
  *
+ * Level polygons and contour lines are computed in world coordinates and cached until the data is
+ * updated or the contour levels change, so that panning and zooming only redraw the cached contours.
+ * Large grids are divided into column bands that are contoured in parallel.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
@@ -29,14 +34,12 @@ public class ContourPlot implements Plot2D {
   private boolean showContourLines = true;
   private boolean showColoredLevels = true;       // fill with colors
   private double contour_stepz;                   // contour spacing
-  private int[] xpoints = new int[8];
-  private int[] ypoints = new int[8];
-  private int[] contour_x = new int[8];
-  private int[] contour_y = new int[8];
-  private double[] delta = new double[4];
-  private double[] intersection = new double[4];
-  private double[][] contour_vertex = new double[4][3];
-  private ContourAccumulator accumulator = new ContourAccumulator();
+  private ContourAccumulator[] accumulators = new ContourAccumulator[0]; // one accumulator per band
+  private int bandCount = 0;
+  private int dataVersion = 0, contourVersion = -1;
+  private double[] contourKey = new double[6];    // zmin, zmax, left, right, top, bottom of the cached contours
+  private int contourLevels = -1;
+  private static final int MIN_BAND_CELLS = 1024;
   private double zmin = 0, zmax = 1.0;            // the range for contour levels
   private boolean autoscaleZ = true;
   private boolean symmetricZ=false;
@@ -190,6 +193,7 @@ public void setGridData(GridData _griddata) {
     nx = (interpolateLargeGrids&&(griddata.getNx()>maxGridSize)) ? 32 : griddata.getNx();
     ny = (interpolateLargeGrids&&(griddata.getNy()>maxGridSize)) ? 32 : griddata.getNy();
     internalData = new double[nx][ny];
+    dataVersion++;
   }
 
   /**
@@ -250,7 +254,6 @@ public synchronized void draw(DrawingPanel panel, Graphics g) {
       int h = panel.getHeight()-panel.getTopGutter()-panel.getBottomGutter();
       g.fillRect(panel.getLeftGutter(), panel.getTopGutter(), Math.max(w, 0), Math.max(h, 0));
     }
-    accumulator.clearAccumulator();
     contour_stepz = (zmax-zmin)/(contour_lines+1);
     double z = zmin;
     for(int c = 0; c<contourColors.length; c++) {
@@ -261,31 +264,22 @@ public synchronized void draw(DrawingPanel panel, Graphics g) {
       }
       z += contour_stepz;
     }
-    double x = griddata.getLeft(), dx = (griddata.getRight()-griddata.getLeft())/(nx-1);
-    double y = griddata.getTop(), dy = -(griddata.getTop()-griddata.getBottom())/(ny-1);
-    for(int i = 0, mx = internalData.length-1; i<mx; i++) {
-      y = griddata.getTop();
-      for(int j = 0, my = internalData[0].length-1; j<my; j++) {
-        contour_vertex[0][0] = x;
-        contour_vertex[0][1] = y;
-        contour_vertex[0][2] = internalData[i][j];
-        contour_vertex[1][0] = x;
-        contour_vertex[1][1] = y+dy;
-        contour_vertex[1][2] = internalData[i][j+1];
-        contour_vertex[2][0] = x+dx;
-        contour_vertex[2][1] = y+dy;
-        contour_vertex[2][2] = internalData[i+1][j+1];
-        contour_vertex[3][0] = x+dx;
-        contour_vertex[3][1] = y;
-        contour_vertex[3][2] = internalData[i+1][j];
-        createContour(panel, g);
-        y += dy;
+    if(!isContourValid()) {
+      computeContours();
+    }
+    if(showColoredLevels&&(colorMap.getPaletteType()!=ColorMapper.WIREFRAME)) {
+      for(int level = 0; level<contourColors.length; level++) {
+        g.setColor(contourColors[level]);
+        for(int band = 0; band<bandCount; band++) {
+          accumulators[band].fillLevel(panel, g, level);
+        }
       }
-      x += dx;
     }
     if(showContourLines) {
       g.setColor(lineColor);
-      accumulator.drawAll(g);
+      for(int band = 0; band<bandCount; band++) {
+        accumulators[band].drawAll(panel, g);
+      }
       int lpix = panel.xToPix(griddata.getLeft());
       int tpix = panel.yToPix(griddata.getTop());
       int rpix = panel.xToPix(griddata.getRight());
@@ -294,6 +288,109 @@ public synchronized void draw(DrawingPanel panel, Graphics g) {
     }
   }
 
+  /**
+   * Returns true if the cached contours match the current data, levels, and scale.
+   */
+  private boolean isContourValid() {
+    return (contourVersion==dataVersion)&&(contourLevels==contour_lines)&&(contourKey[0]==zmin)&&(contourKey[1]==zmax)
+           &&(contourKey[2]==griddata.getLeft())&&(contourKey[3]==griddata.getRight())
+           &&(contourKey[4]==griddata.getTop())&&(contourKey[5]==griddata.getBottom());
+  }
+
+  /**
+   * Computes the level polygons and contour lines for the internal data.
+   */
+  private void computeContours() {
+    final double[][] internalData = this.internalData;
+    final int mx = internalData.length-1, my = internalData[0].length-1;
+    final int nlevels = contour_lines+2;
+    final double left = griddata.getLeft(), top = griddata.getTop();
+    final double dx = (griddata.getRight()-left)/(nx-1);
+    final double dy = -(top-griddata.getBottom())/(ny-1);
+    final double zmin = this.zmin, stepz = contour_stepz;
+    bandCount = Math.max(1, Parallel.getBandCount(mx, Math.max(1, MIN_BAND_CELLS/Math.max(1, my))));
+    if(accumulators.length<bandCount) {
+      ContourAccumulator[] temp = new ContourAccumulator[bandCount];
+      System.arraycopy(accumulators, 0, temp, 0, accumulators.length);
+      for(int i = accumulators.length; i<bandCount; i++) {
+        temp[i] = new ContourAccumulator();
+      }
+      accumulators = temp;
+    }
+    for(int band = 0; band<bandCount; band++) {
+      accumulators[band].setLevelCount(nlevels);
+    }
+    if(mx>0) {
+      final ContourAccumulator[] accumulators = this.accumulators;
+      Parallel.forEachBand(mx, bandCount, 1, (band, start, end) -> {
+        contourColumns(internalData, start, end, my, left, top, dx, dy, zmin, stepz, nlevels, accumulators[band]);
+      });
+    }
+    contourVersion = dataVersion;
+    contourLevels = contour_lines;
+    contourKey[0] = this.zmin;
+    contourKey[1] = zmax;
+    contourKey[2] = griddata.getLeft();
+    contourKey[3] = griddata.getRight();
+    contourKey[4] = griddata.getTop();
+    contourKey[5] = griddata.getBottom();
+  }
+
+  /**
+   * Contours the grid cells in the columns from start (inclusive) to end (exclusive).
+   *
+   * The region of each cell at or above a level is clipped from the cell's corners and stored as a polygon.
+   * Polygon edges that join two edge intersections are the contour lines.
+   */
+  private static void contourColumns(double[][] data, int start, int end, int my, double left, double top, double dx, double dy, double zmin, double stepz, int nlevels, ContourAccumulator accumulator) {
+    double[] vx = new double[4], vy = new double[4], vz = new double[4];
+    double[] px = new double[8], py = new double[8];
+    boolean[] onEdge = new boolean[8];
+    for(int i = start; i<end; i++) {
+      double x = left+i*dx;
+      vx[0] = vx[1] = x;
+      vx[2] = vx[3] = x+dx;
+      for(int j = 0; j<my; j++) {
+        double y = top+j*dy;
+        vy[0] = vy[3] = y;
+        vy[1] = vy[2] = y+dy;
+        vz[0] = data[i][j];
+        vz[1] = data[i][j+1];
+        vz[2] = data[i+1][j+1];
+        vz[3] = data[i+1][j];
+        for(int level = 0; level<nlevels; level++) {
+          double z = zmin+level*stepz;
+          int n = 0;
+          for(int k = 0; k<4; k++) {
+            int next = (k+1)&3;
+            boolean in = vz[k]>=z;
+            if(in) {
+              px[n] = vx[k];
+              py[n] = vy[k];
+              onEdge[n++] = false;
+            }
+            if(in!=(vz[next]>=z)) {
+              double t = (z-vz[k])/(vz[next]-vz[k]);
+              px[n] = vx[k]+t*(vx[next]-vx[k]);
+              py[n] = vy[k]+t*(vy[next]-vy[k]);
+              onEdge[n++] = true;
+            }
+          }
+          if(n<3) {
+            break; // higher levels are empty
+          }
+          accumulator.addPolygon(level, px, py, n);
+          for(int k = 0; k<n; k++) {
+            int next = (k+1)%n;
+            if(onEdge[k]&&onEdge[next]) {
+              accumulator.addLine(level, px[k], py[k], px[next], py[next]);
+            }
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Sets the autoscale flag and the floor and ceiling values.
    *
@@ -413,6 +510,7 @@ public void update() {
     } else {
       updateDirect(griddata);
     }
+    dataVersion++;
     colorMap.updateLegend(zMap);
   }
   
@@ -494,116 +592,15 @@ public void update() {
           }
         }
       }
-    }
-  }
-
-  /**
-   * Creates contour plot of a single area division. Called by
-   * <code>draw</code> method
-   *
-   * @see #draw
-   */
-  private final void createContour(DrawingPanel panel, Graphics g) {
-    double z = zmin;
-    xpoints[0] = panel.xToPix(contour_vertex[0][0])+1;
-    xpoints[2] = panel.xToPix(contour_vertex[1][0])+1;
-    xpoints[4] = panel.xToPix(contour_vertex[2][0])+1;
-    xpoints[6] = panel.xToPix(contour_vertex[3][0])+1;
-    xpoints[1] = xpoints[3] = xpoints[5] = xpoints[7] = -1;
-    ypoints[0] = panel.yToPix(contour_vertex[0][1])+1;
-    ypoints[4] = panel.yToPix(contour_vertex[2][1])+1;
-    ypoints[2] = ypoints[3] = panel.yToPix(contour_vertex[1][1])+1;
-    ypoints[6] = ypoints[7] = panel.yToPix(contour_vertex[3][1])+1;
-    int xmin = xpoints[0];
-    int xmax = xpoints[4];
-    for(int counter = 0; counter<=contour_lines+1; counter++) {
-      // Analyzes edges
-      for(int edge = 0; edge<4; edge++) {
-        int index = (edge<<1)+1;
-        int nextedge = (edge+1)&3;
-        if(z>contour_vertex[edge][2]) {
-          xpoints[index-1] = -2;
-          if(z>contour_vertex[nextedge][2]) {
-            xpoints[(index+1)&7] = -2;
-            xpoints[index] = -2;
-          }
-        } else if(z>contour_vertex[nextedge][2]) {
-          xpoints[(index+1)&7] = -2;
-        }
-        if(xpoints[index]!=-2) {
-          if(xpoints[index]!=-1) {
-            intersection[edge] += delta[edge];
-            if((index==1)||(index==5)) {
-              ypoints[index] = panel.yToPix(intersection[edge])+1;
-            } else {
-              xpoints[index] = panel.xToPix(intersection[edge])+1;
-            }
-          } else {
-            if((z>contour_vertex[edge][2])||(z>contour_vertex[nextedge][2])) {
-              switch(index) {
-                 case 1 :
-                   delta[edge] = (contour_vertex[nextedge][1]-contour_vertex[edge][1])*contour_stepz/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   intersection[edge] = (contour_vertex[nextedge][1]*(z-contour_vertex[edge][2])+contour_vertex[edge][1]*(contour_vertex[nextedge][2]-z))/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   xpoints[index] = xmin;
-                   ypoints[index] = panel.yToPix(intersection[edge])+1;
-                   break;
-                 case 3 :
-                   delta[edge] = (contour_vertex[nextedge][0]-contour_vertex[edge][0])*contour_stepz/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   intersection[edge] = (contour_vertex[nextedge][0]*(z-contour_vertex[edge][2])+contour_vertex[edge][0]*(contour_vertex[nextedge][2]-z))/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   xpoints[index] = panel.xToPix(intersection[edge])+1;
-                   break;
-                 case 5 :
-                   delta[edge] = (contour_vertex[edge][1]-contour_vertex[nextedge][1])*contour_stepz/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   intersection[edge] = (contour_vertex[edge][1]*(z-contour_vertex[nextedge][2])+contour_vertex[nextedge][1]*(contour_vertex[edge][2]-z))/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   xpoints[index] = xmax;
-                   ypoints[index] = panel.yToPix(intersection[edge])+1;
-                   break;
-                 case 7 :
-                   delta[edge] = (contour_vertex[edge][0]-contour_vertex[nextedge][0])*contour_stepz/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   intersection[edge] = (contour_vertex[edge][0]*(z-contour_vertex[nextedge][2])+contour_vertex[nextedge][0]*(contour_vertex[edge][2]-z))/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   xpoints[index] = panel.xToPix(intersection[edge])+1;
-                   break;
-              }
-            }
-          }
-        }
-      }
-      // Creates polygon
-      int contour_n = 0;
-      for(int index = 0; index<8; index++) {
-        if(xpoints[index]>=0) {
-          contour_x[contour_n] = xpoints[index];
-          contour_y[contour_n] = ypoints[index];
-          contour_n++;
-        }
-      }
-      if(showColoredLevels&&(colorMap.getPaletteType()!=ColorMapper.WIREFRAME)) {
-        g.setColor(contourColors[counter]);
-        if(contour_n>0) {
-          g.fillPolygon(contour_x, contour_y, contour_n);
-        }
-      }
-      // Creates contour lines
-      if(showContourLines) {
-        int x = -1;
-        int y = -1;
-        for(int index = 1; index<8; index += 2) {
-          if(xpoints[index]>=0) {
-            if(x!=-1) {
-              accumulator.addLine(x, y, xpoints[index], ypoints[index]);
-            }
-            x = xpoints[index];
-            y = ypoints[index];
+    } else {
+      for(int i = 0; i<nx; i++) {
+        for(int j = 0; j<ny; j++) {
+          internalData[i][j] = griddata.getValue(i, j, ampIndex);
+          if(zMap!=null) {
+            internalData[i][j] = zMap.evaluate(internalData[i][j]);
           }
         }
-        if((xpoints[1]>0)&&(x!=-1)) {
-          accumulator.addLine(x, y, xpoints[1], ypoints[1]);
-        }
-      }
-      if(contour_n<3) {
-        break;
       }
-      z += contour_stepz;
     }
   }
 
@@ -361,9 +361,9 @@ public double[][][] getData() {
 		double zmin = data[n];
 		double zmax = zmin;
 		for (int j = 0; j < ny; j++) {
-			int index = j * nx + n;
-			for (int i = 0; n < nx; i++) {
-				double v = data[index + i];
+			int index = j * nx * stride + n;
+			for (int i = 0; i < nx; i++) {
+				double v = data[index + i * stride];
 				if (v > zmax) {
 					zmax = v;
 				} else if (v < zmin) {
@@ -21,6 +21,7 @@ import org.opensourcephysics.display.InteractivePanel;
 import org.opensourcephysics.display.MeasuredImage;
 import org.opensourcephysics.display.axes.XAxis;
 import org.opensourcephysics.display.axes.XYAxis;
+import org.opensourcephysics.numerics.Parallel;
 
 /**
  * GrayscalePlot renders 2d data as a grayscale image.
@@ -33,6 +34,7 @@ import org.opensourcephysics.display.axes.XYAxis;
  * @version    1.0
  */
 public class GrayscalePlot extends MeasuredImage implements Plot2D {
+  static final int MIN_BAND_PIXELS = 16384; // pixels per band before rows are recolored on several threads
   GridData griddata;
   double floor, ceil;
   boolean autoscaleZ = true;
@@ -402,81 +404,46 @@ public void setIndexes(int[] indexes) {
 			ymax = griddata.getTop();
 		}
 		grid.setMinMax(xmin, xmax, ymin, ymax);
-		double[][][] data = griddata.getData();
-		int nx = griddata.getNx();
+		final GridData griddata = this.griddata;
+		final int nx = griddata.getNx();
 		int ny = griddata.getNy();
-		double zscale = 2 * Short.MAX_VALUE / (ceil - floor);
-		if (griddata instanceof GridPointData) {
-			int index = ampIndex + 2;
-			// BH note -- this is inverted from standard practice
-			// of scanning rows slowly and columns more quickly.
-			// I am reversing this so that columns are inside, allowing for
-			// a simple pointer description
-//      for(int ix = 0, pt = 0; ix<nx; ix++) {
-//        for(int iy = 0; iy<ny; iy++, pt++) {
-//          double val = data[ix][iy][index];
-//          if(zMap!=null) {
-//            val = zMap.evaluate(val);
-//          }
-//          val = zscale*(val-floor);
-//          if(val<0) {
-//            bwData[iy*nx+ix] = 0;
-//          } else if(val>2*Short.MAX_VALUE) {
-//            bwData[iy*nx+ix] = (short) (2*Short.MAX_VALUE);
-//          } else {
-//            bwData[iy*nx+ix] = (short) val;
-//          }
-//        }
-//      }
-			for (int iy = 0, pt = 0; iy < ny; iy++) {
-				for (int ix = 0; ix < nx; ix++, pt++) {
-					double val = data[ix][iy][index];
-					if (zMap != null) {
-						val = zMap.evaluate(val);
-					}
-					val = zscale * (val - floor);
-					if (val < 0) {
-						bwData[pt] = 0;
-					} else if (val > 2 * Short.MAX_VALUE) {
-						// BH just being clear that this is FFFE
-						bwData[pt] = -1;//(short) 0xFFFF;//-2;//(short) (2 * Short.MAX_VALUE);
-					} else {
-						bwData[pt] = (short) val;
-					}
+		final double zscale = 2 * Short.MAX_VALUE / (ceil - floor);
+		// BH note -- rows are scanned slowly and columns more quickly,
+		// allowing for a simple pointer description
+		Parallel.forEachBand(ny, Math.max(1, MIN_BAND_PIXELS / nx), (band, start, end) -> {
+			recolorRows(griddata, nx, zscale, start, end);
+		});
+	}
+
+	/**
+	 * Recolors the image rows from rowStart (inclusive) to rowEnd (exclusive).
+	 */
+	private void recolorRows(GridData griddata, int nx, double zscale, int rowStart, int rowEnd) {
+		double[][][] data = griddata.getData();
+		boolean isPointData = (griddata instanceof GridPointData);
+		boolean isArrayData = (griddata instanceof ArrayData);
+		double[] flat = (griddata instanceof FlatArrayData ? ((FlatArrayData) griddata).getArray() : null);
+		int offset = (flat == null ? 0 : ((FlatArrayData) griddata).getOffset(ampIndex));
+		int index = (isPointData ? ampIndex + 2 : ampIndex);
+		ZExpansion zMap = this.zMap;
+		double floor = this.floor;
+		short[] bwData = this.bwData;
+		for (int iy = rowStart, pt = rowStart * nx; iy < rowEnd; iy++) {
+			for (int ix = 0; ix < nx; ix++, pt++) {
+				double val = (flat != null ? flat[offset + pt]
+						: isPointData ? data[ix][iy][index]
+								: isArrayData ? data[index][ix][iy] : griddata.getValue(ix, iy, ampIndex));
+				if (zMap != null) {
+					val = zMap.evaluate(val);
 				}
-			}
-		} else if (griddata instanceof ArrayData) {
-//			for (int ix = 0; ix < nx; ix++) {
-//				for (int iy = 0; iy < ny; iy++) {
-//					double val = data[ampIndex][ix][iy];
-//					if (zMap != null) {
-//						val = zMap.evaluate(val);
-//					}
-//					val = zscale * (val - floor);
-//					if (val < 0) {
-//						bwData[iy * nx + ix] = 0;
-//					} else if (val > 2 * Short.MAX_VALUE) {
-//						bwData[iy * nx + ix] = (short) (2 * Short.MAX_VALUE);
-//					} else {
-//						bwData[iy * nx + ix] = (short) val;
-//					}
-//				}
-//			}
-				for (int iy = 0, pt = 0; iy < ny; iy++) {
-					for (int ix = 0; ix < nx; ix++, pt++) {
-					double val = data[ampIndex][ix][iy];
-					if (zMap != null) {
-						val = zMap.evaluate(val);
-					}
-					val = zscale * (val - floor);
-					if (val < 0) {
-						bwData[pt] = 0;
-					} else if (val > 2 * Short.MAX_VALUE) {
-						// BH just being clear that this is FFFE
-						bwData[pt] = -1;//-2;//(short) (2 * Short.MAX_VALUE);
-					} else {
-						bwData[pt] = (short) val;
-					}
+				val = zscale * (val - floor);
+				if (val < 0) {
+					bwData[pt] = 0;
+				} else if (val > 2 * Short.MAX_VALUE) {
+					// BH just being clear that this is FFFE
+					bwData[pt] = -1;//(short) 0xFFFF;//-2;//(short) (2 * Short.MAX_VALUE);
+				} else {
+					bwData[pt] = (short) val;
 				}
 			}
 		}
@@ -17,6 +17,7 @@ import org.opensourcephysics.controls.XMLControl;
 import org.opensourcephysics.display.DrawingPanel;
 import org.opensourcephysics.display.Grid;
 import org.opensourcephysics.display.MeasuredImage;
+import org.opensourcephysics.numerics.Parallel;
 
 /**
  * GridPlot plots a scalar field by coloring pixels using a buffered image.
@@ -28,6 +29,7 @@ import org.opensourcephysics.display.MeasuredImage;
  * @version    1.0
  */
 public class GridPlot extends MeasuredImage implements Plot2D {
+  static final int MIN_BAND_PIXELS = 16384; // pixels per band before rows are recolored on several threads
   boolean autoscaleZ = true;
   boolean symmetricZ = false;
   GridData griddata;
@@ -396,33 +398,58 @@ public void update() {
     if(grid!=null) {
       grid.setMinMax(xmin, xmax, ymin, ymax);
     }
-    double[][][] data = griddata.getData();
-    int nx = griddata.getNx();
+    final GridData griddata = this.griddata;
+    final int nx = griddata.getNx();
     int ny = griddata.getNy();
+    final int[] table = colorMap.getARGBTable();
+    Parallel.forEachBand(ny, Math.max(1, MIN_BAND_PIXELS/nx), (band, start, end) -> {
+      recolorRows(griddata, table, nx, start, end);
+    });
+  }
+
+  /**
+   * Recolors the image rows from rowStart (inclusive) to rowEnd (exclusive).
+   */
+  private void recolorRows(GridData griddata, int[] table, int nx, int rowStart, int rowEnd) {
+    double[][][] data = griddata.getData();
+    ColorMapper colorMap = this.colorMap;
+    int[] rgbData = this.rgbData;
     if(griddata instanceof GridPointData) {
       int index = ampIndex+2;
-      for(int j = 0, pt = 0; j<ny; j++) {
+      for(int j = rowStart, pt = rowStart*nx; j<rowEnd; j++) {
         for(int i = 0; i<nx; i++, pt++) {
-          rgbData[pt] = colorMap.doubleToColor(data[i][j][index]).getRGB();
+          rgbData[pt] = table[colorMap.doubleToIndex(data[i][j][index])+1];
         }
       }
-//      image.setRGB(0, 0, nx, ny, rgbData, 0, nx);
     } else if(griddata instanceof ArrayData) {
-      for(int j = 0, pt = 0; j<ny; j++) {
+      double[][] array = data[ampIndex];
+      for(int j = rowStart, pt = rowStart*nx; j<rowEnd; j++) {
         for(int i = 0; i<nx; i++, pt++) {
-          rgbData[pt] = colorMap.doubleToColor(data[ampIndex][i][j]).getRGB();
+          rgbData[pt] = table[colorMap.doubleToIndex(array[i][j])+1];
         }
       }
-//      image.setRGB(0, 0, nx, ny, rgbData, 0, nx);
     } else if(griddata instanceof FlatData) {
+      int ny = griddata.getNy();
       int stride = data[0][0].length/(nx*ny);
-      for(int j = 0, pt = 0; j<ny; j++) {
+      double[] flat = data[0][0];
+      for(int j = rowStart, pt = rowStart*nx; j<rowEnd; j++) {
         int offset = j*nx*stride;
         for(int i = 0; i<nx; i++, pt++) {
-          rgbData[pt] = colorMap.doubleToColor(data[0][0][offset+i*stride+ampIndex]).getRGB();
+          rgbData[pt] = table[colorMap.doubleToIndex(flat[offset+i*stride+ampIndex])+1];
+        }
+      }
+    } else if(griddata instanceof FlatArrayData) {
+      double[] flat = ((FlatArrayData) griddata).getArray();
+      int offset = ((FlatArrayData) griddata).getOffset(ampIndex);
+      for(int pt = rowStart*nx, end = rowEnd*nx; pt<end; pt++) {
+        rgbData[pt] = table[colorMap.doubleToIndex(flat[offset+pt])+1];
+      }
+    } else {
+      for(int j = rowStart, pt = rowStart*nx; j<rowEnd; j++) {
+        for(int i = 0; i<nx; i++, pt++) {
+          rgbData[pt] = table[colorMap.doubleToIndex(griddata.getValue(i, j, ampIndex))+1];
         }
       }
-//      image.setRGB(0, 0, nx, ny, rgbData, 0, nx);
     }
   }
 
@@ -19,6 +19,7 @@ import org.opensourcephysics.display.DrawingPanel;
 import org.opensourcephysics.display.Grid;
 import org.opensourcephysics.display.MeasuredImage;
 import org.opensourcephysics.display.OSPRuntime;
+import org.opensourcephysics.numerics.Parallel;
 
 import swingjs.api.JSUtilI;
 
@@ -32,6 +33,7 @@ import swingjs.api.JSUtilI;
  * @version    1.0
  */
 public class InterpolatedPlot extends MeasuredImage implements Plot2D {
+  static final int MIN_BAND_PIXELS = 16384; // pixels per band before rows are written on several threads
   GridData griddata;
   Grid grid;
   ColorMapper colorMap;
@@ -464,33 +466,60 @@ public synchronized void update() {
   }
 
   
+  /**
+   * Writes every image row.
+   */
   protected void writeToRaster(double x0, double y, double dx, double dy) {
-	    int width = image.getWidth();
-	    int height = image.getHeight();
-		byte[] pixels = pixelData;
-		boolean isABGR = (imageType == BufferedImage.TYPE_4BYTE_ABGR);
-	    for(int i = 0; i<height; i++, y += dy) {
-	      double x = x0;
-	      for(int j = 0; j<width; j++, x += dx) {
-	        byte[] ret = colorMap.doubleToComponents(griddata.interpolate(x, y, ampIndex));
-	        int pt = (i*width+j)<<2;
-			// note that -1 here will become UInt8 255 for the canvas by anding with 0xFF
-			if (isABGR) {
-				// Java BufferedImage.TYPE_4BYTE_ABGR
-				pixels[pt++] = -1;//a;
-				pixels[pt++] = ret[2];//b;
-				pixels[pt++] = ret[1];//g;
-				pixels[pt++] = ret[0];//r;
-			} else {
-				// SwingJS BufferedImage.TYPE_4BYTE_HTML5
-				pixels[pt++] = ret[0];//r;
-				pixels[pt++] = ret[1];//g;
-				pixels[pt++] = ret[2];//b;
-				pixels[pt++] = -1;//a;
-			}
-	      }
-	    }
-  	}
+    writeToRaster(x0, y, dx, dy, 0, image.getHeight());
+  }
+
+  /**
+   * Writes the image rows from rowStart (inclusive) to rowEnd (exclusive).
+   * Large images are divided into bands of rows that are written concurrently.
+   *
+   * @param x0 the x coordinate of the first column
+   * @param y0 the y coordinate of the first row
+   * @param dx the x increment per column
+   * @param dy the y increment per row
+   * @param rowStart the first row
+   * @param rowEnd one past the last row
+   */
+  protected void writeToRaster(final double x0, final double y0, final double dx, final double dy, final int rowStart, int rowEnd) {
+    final int width = image.getWidth();
+    rowEnd = Math.min(rowEnd, image.getHeight());
+    Parallel.forEachBand(rowEnd-rowStart, Math.max(1, MIN_BAND_PIXELS/width), (band, start, end) -> {
+      writeRows(x0, y0, dx, dy, width, rowStart+start, rowStart+end);
+    });
+  }
+
+  private void writeRows(double x0, double y0, double dx, double dy, int width, int rowStart, int rowEnd) {
+    byte[] pixels = pixelData;
+    GridData griddata = this.griddata;
+    ColorMapper colorMap = this.colorMap;
+    int ampIndex = this.ampIndex;
+    boolean isABGR = (imageType == BufferedImage.TYPE_4BYTE_ABGR);
+    for(int i = rowStart; i<rowEnd; i++) {
+      double y = y0+i*dy;
+      double x = x0;
+      for(int j = 0, pt = (i*width)<<2; j<width; j++, x += dx) {
+        byte[] ret = colorMap.doubleToComponents(griddata.interpolate(x, y, ampIndex));
+        // note that -1 here will become UInt8 255 for the canvas by anding with 0xFF
+        if (isABGR) {
+          // Java BufferedImage.TYPE_4BYTE_ABGR
+          pixels[pt++] = -1;//a;
+          pixels[pt++] = ret[2];//b;
+          pixels[pt++] = ret[1];//g;
+          pixels[pt++] = ret[0];//r;
+        } else {
+          // SwingJS BufferedImage.TYPE_4BYTE_HTML5
+          pixels[pt++] = ret[0];//r;
+          pixels[pt++] = ret[1];//g;
+          pixels[pt++] = ret[2];//b;
+          pixels[pt++] = -1;//a;
+        }
+      }
+    }
+  }
 
 /**
    * Shows how values map to colors.
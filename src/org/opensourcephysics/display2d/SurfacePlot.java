@@ -217,10 +217,9 @@ public void setGridData(GridData _griddata) {
     griddata = _griddata;
   }
 
-  private void generateVerticesFromArray(ArrayData griddata) throws IllegalArgumentException {
-    double[][] data = griddata.getData()[0];
-    int numRows = data.length;
-    int numCols = data[0].length;
+  private void generateVerticesFromArray(GridData griddata) throws IllegalArgumentException {
+    int numRows = griddata.getNx();
+    int numCols = griddata.getNy();
     if(numRows!=numCols) {
       throw new IllegalArgumentException("Surface Plots require square datasets."); //$NON-NLS-1$
     }
@@ -238,7 +237,7 @@ public void setGridData(GridData _griddata) {
       for(int iy = 0; iy<numRows; iy++) {
         int iyd = (griddata.getDy()>0) ? iy : numCols-iy-1;
         int ixd = (griddata.getDx()>0) ? ix : numCols-ix-1;
-        double zval = data[ixd][iyd];
+        double zval = griddata.getValue(ixd, iyd, 0);
         if(zMap!=null) {
           zval = zMap.evaluate(zval);
         }
@@ -247,7 +246,6 @@ public void setGridData(GridData _griddata) {
       }
       x += dx;
     }
-    data = null;
   }
 
   private void generateVerticesFromPoints(GridPointData griddata) throws IllegalArgumentException {
@@ -1192,10 +1190,10 @@ public synchronized void update() {
     xmax = Math.max(left, right);
     ymin = Math.min(bottom, top);
     ymax = Math.max(bottom, top);
-    if(griddata instanceof ArrayData) {
-      generateVerticesFromArray((ArrayData) griddata);
-    } else if(griddata instanceof GridPointData) {
+    if(griddata instanceof GridPointData) {
       generateVerticesFromPoints((GridPointData) griddata);
+    } else {
+      generateVerticesFromArray(griddata);
     }
     updateLegend();
   }
@@ -6,6 +6,7 @@
  */
 
 package org.opensourcephysics.display2d;
+import org.opensourcephysics.numerics.RandomStream;
 
 /**
  * Title:        TestData
@@ -74,9 +75,10 @@ public class TestData {
    */
   public static void randomScalarField(GridPointData pointdata) {
     double[][][] data = pointdata.getData();
+    RandomStream random = RandomStream.current();
     for(int i = 0, mx = data.length; i<mx; i++) {
       for(int j = 0, my = data[0].length; j<my; j++) {
-        data[i][j][2] = Math.random();
+        data[i][j][2] = random.nextDouble();
       }
     }
   }
@@ -8,9 +8,9 @@
 package org.opensourcephysics.display2d;
 import java.awt.Color;
 import java.awt.Graphics;
-import java.util.Random;
 import org.opensourcephysics.display.DrawingPanel;
 import org.opensourcephysics.display.Measurable;
+import org.opensourcephysics.numerics.RandomStream;
 
 /**
  *  A TriangularBinaryLattice is an array where each array element has a value
@@ -109,7 +109,7 @@ public double getYMax() {
 
   /**  Randomizes the lattice values. */
   public void randomize() {
-    Random random = new Random();
+    RandomStream random = RandomStream.current();
     random.nextBytes(packedData);
   }
 
@@ -124,7 +124,7 @@ public double getYMax() {
     if((probability<0)||(probability>1)) {
       throw new IllegalArgumentException("Probability must be between 0 and 1"); //$NON-NLS-1$
     }
-    Random random = new Random();
+    RandomStream random = RandomStream.current();
     for(int i = 0, size = packedData.length; i<size; i++) {
       byte packedcell = 0;
       for(int j = BITS_PER_BYTE; j>0; j--) {
@@ -8,7 +8,6 @@
 package org.opensourcephysics.display2d;
 import java.awt.Color;
 import java.awt.Graphics;
-import java.util.Random;
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
 import org.opensourcephysics.display.DisplayRes;
@@ -17,6 +16,7 @@ import org.opensourcephysics.display.InteractivePanel;
 import org.opensourcephysics.display.Measurable;
 import org.opensourcephysics.display.axes.XAxis;
 import org.opensourcephysics.display.axes.XYAxis;
+import org.opensourcephysics.numerics.RandomStream;
 
 /**
  *  A TriangularByteLattice is an array where each array element can assume one
@@ -231,7 +231,7 @@ public void draw(DrawingPanel panel, Graphics g) {
 
   /**  Ranomizes the lattice values. */
   public void randomize() {
-    Random random = new Random();
+    RandomStream random = RandomStream.current();
     for(int rindex = 0, nr = data.length; rindex<nr; rindex++) {
       for(int cindex = 0, nc = data[0].length; cindex<nc; cindex++) {
         data[rindex][cindex] = (byte) random.nextInt(256);
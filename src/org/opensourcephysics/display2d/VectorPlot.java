@@ -307,7 +307,7 @@ public void draw(DrawingPanel panel, Graphics g) {
     double aspectRatio = panel.getAspectRatio();
     float arrowLength = (float) Math.abs(panel.getYPixPerUnit()); // arrows will use panel scale
     if(scaleArrowToGrid) { // arrows will adjust size to fit grid
-      arrowLength = Math.max(1, panel.getSize().width/(float) data.length/(float) aspectRatio-1);
+      arrowLength = Math.max(1, panel.getSize().width/(float) griddata.getNx()/(float) aspectRatio-1);
       arrowLength = Math.min(18, arrowLength*0.72f);
     }
     switch(arrowType) {
@@ -338,6 +338,12 @@ public void draw(DrawingPanel panel, Graphics g) {
           amp = data[ampIndex][i][j];
           a = data[aIndex][i][j];
           b = data[bIndex][i][j];
+        } else {
+          x = left+i*dx;
+          y = top+j*dy;
+          amp = griddata.getValue(i, j, ampIndex);
+          a = griddata.getValue(i, j, aIndex);
+          b = griddata.getValue(i, j, bIndex);
         }
         // start in-line code for speed
         Graphics2D g2 = (Graphics2D) g;
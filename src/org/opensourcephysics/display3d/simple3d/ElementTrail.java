@@ -8,7 +8,6 @@
 package org.opensourcephysics.display3d.simple3d;
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.util.ArrayList;
 import org.opensourcephysics.controls.XML;
 import org.opensourcephysics.controls.XMLControl;
 import org.opensourcephysics.display.Data;
@@ -27,9 +26,23 @@ public class ElementTrail extends Element implements org.opensourcephysics.displ
   private int maximum = 0;
   private String[] inputLabels = new String[] {"x", "y", "z"}; //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$
   // Implementation variables
-  private TrailPoint[] points = null;
-  protected ArrayList<TrailPoint> list = new ArrayList<TrailPoint>();
-  private TrailPoint ghostPoint = new TrailPoint(Double.NaN, Double.NaN, Double.NaN, true);
+  // The points are stored in a circular buffer, in the order of the axes mode, with the oldest point at index first
+  private double[] xs = new double[16], ys = new double[16], zs = new double[16];
+  private boolean[] connections = new boolean[16];
+  private double[] pixelXs = new double[16], pixelYs = new double[16], distances = new double[16];
+  private int first = 0, size = 0;
+  private int unprojected = 0;                 // the number of newest points that have not been projected
+  private boolean hasGhost = false;
+  private double ghostX, ghostY, ghostZ;
+  private boolean ghostConnected;
+  private double[] ghostPixel = new double[3];
+  private double[] coordinates = new double[3];
+  private double[] pixel = new double[3];
+  // A snapshot of the projected points, in trail order, used by the panel until the next call to getObjects3D
+  private TrailPoint[] points = new TrailPoint[0];
+  private int numPoints = 0;
+  private double[] viewX = new double[0], viewY = new double[0];
+  private boolean[] viewConnected = new boolean[0];
 
   // -------------------------------------
   // New configuration methods
@@ -50,8 +63,11 @@ public void moveToPoint(double x, double y, double z) {
   }
 
   @Override
-public void setMaximumPoints(int maximum) {
+public synchronized void setMaximumPoints(int maximum) {
     this.maximum = maximum;
+    while((maximum>0)&&(size>maximum)) {
+      removeFirst();
+    }
   }
 
   @Override
@@ -71,11 +87,8 @@ public boolean isConnected() {
 
   @Override
 public synchronized void clear() {
-    synchronized(list) {
-      list.clear();
-    }
-    points = new TrailPoint[0];
-    ghostPoint.xp = Double.NaN;
+    first = size = unprojected = 0;
+    hasGhost = false;
   }
 
   @Override
@@ -93,114 +106,219 @@ public void setZLabel(String _label) {
     inputLabels[2] = _label;
   }
 
-  private void addPoint(double _x, double _y, double _z, boolean _c) {
-    synchronized(list) {
-      if((maximum>0)&&(list.size()>=maximum)) {
-        list.remove(0);
-      }
-      TrailPoint point = new TrailPoint(_x, _y, _z, _c);
-      list.add(point);
-      if(getDrawingPanel3D()!=null) {
-        point.transformAndProject();
-      }
+  private synchronized void addPoint(double _x, double _y, double _z, boolean _c) {
+    if((maximum>0)&&(size>=maximum)) {
+      removeFirst();
+    }
+    if(size==xs.length) {
+      setCapacity(2*size);
+    }
+    int i = (first+size)%xs.length;
+    switch(getAxesMode()) {
+       case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_XZY :
+         xs[i] = _x;
+         zs[i] = _y;
+         ys[i] = _z;
+         break;
+       case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_YXZ :
+         ys[i] = _x;
+         xs[i] = _y;
+         zs[i] = _z;
+         break;
+       case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_YZX :
+         zs[i] = _x;
+         xs[i] = _y;
+         ys[i] = _z;
+         break;
+       case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_ZXY :
+         ys[i] = _x;
+         zs[i] = _y;
+         xs[i] = _z;
+         break;
+       case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_ZYX :
+         zs[i] = _x;
+         ys[i] = _y;
+         xs[i] = _z;
+         break;
+       default : // MODE_XYZ
+         xs[i] = _x;
+         ys[i] = _y;
+         zs[i] = _z;
+         break;
+    }
+    connections[i] = _c;
+    size++;
+    unprojected = Math.min(unprojected+1, size);
+  }
+
+  private void removeFirst() {
+    first = (first+1)%xs.length;
+    size--;
+    unprojected = Math.min(unprojected, size);
+  }
+
+  private void setCapacity(int capacity) {
+    double[] x = new double[capacity], y = new double[capacity], z = new double[capacity];
+    double[] px = new double[capacity], py = new double[capacity], d = new double[capacity];
+    boolean[] c = new boolean[capacity];
+    for(int k = 0, n = xs.length; k<size; k++) {
+      int i = (first+k)%n;
+      x[k] = xs[i];
+      y[k] = ys[i];
+      z[k] = zs[i];
+      c[k] = connections[i];
+      px[k] = pixelXs[i];
+      py[k] = pixelYs[i];
+      d[k] = distances[i];
     }
+    xs = x;
+    ys = y;
+    zs = z;
+    connections = c;
+    pixelXs = px;
+    pixelYs = py;
+    distances = d;
+    first = 0;
   }
 
   public int getNumberOfPoints() {
-    return list.size();
+    return size;
   }
 
   @Override
-public void setGhostPoint(double[] _point, boolean _connected) {
+public synchronized void setGhostPoint(double[] _point, boolean _connected) {
     if(_point==null) {
-      ghostPoint.xp = Double.NaN;
+      hasGhost = false;
     } else {
-      ghostPoint.xp = _point[0];
-      ghostPoint.yp = _point[1];
-      ghostPoint.zp = _point[2];
-      ghostPoint.connected = _connected;
-      if(getDrawingPanel3D()!=null) {
-        ghostPoint.transformAndProject();
-      }
+      hasGhost = true;
+      ghostX = _point[0];
+      ghostY = _point[1];
+      ghostZ = _point[2];
+      ghostConnected = _connected;
     }
   }
 
   // -------------------------------------
   // Abstract part of Element or Parent methods overwritten
   // -------------------------------------
+
+  /**
+   * Projects the points that need it and copies the projected points, in trail order, to the snapshot
+   * that is used for drawing.  The snapshot arrays grow as needed and are reused across frames.
+   */
   private void preparePoints() {
-    boolean hasGhost = !Double.isNaN(ghostPoint.xp);
-    int n = hasGhost ? list.size()+1 : list.size();
-    points = new TrailPoint[n];
-    int index = 0;
-    for(TrailPoint point : list) {
-      points[index] = point;
-      point.setIndex(index);
-      index++;
+    if(hasChanged()) {
+      projectPoints(size);
+      setNeedToProject(false);
+      setElementChanged(false);
+    } else if(needsToProject()) {
+      projectPoints(size);
+      setNeedToProject(false);
+    } else {
+      projectPoints(unprojected);
+    }
+    int n = hasGhost ? size+1 : size;
+    if(viewX.length<n) {
+      int capacity = Math.max(n, 2*viewX.length);
+      TrailPoint[] newPoints = new TrailPoint[capacity];
+      System.arraycopy(points, 0, newPoints, 0, points.length);
+      for(int k = points.length; k<capacity; k++) {
+        newPoints[k] = new TrailPoint(k);
+      }
+      points = newPoints;
+      viewX = new double[capacity];
+      viewY = new double[capacity];
+      viewConnected = new boolean[capacity];
+    }
+    for(int k = 0, nb = xs.length; k<size; k++) {
+      int i = (first+k)%nb;
+      viewX[k] = pixelXs[i];
+      viewY[k] = pixelYs[i];
+      viewConnected[k] = connections[i];
+      points[k].setDistance(distances[i]);
     }
     if(hasGhost) {
-      points[index] = ghostPoint;
-      ghostPoint.setIndex(index);
+      coordinates[0] = ghostX;
+      coordinates[1] = ghostY;
+      coordinates[2] = ghostZ;
+      double distance = project(coordinates, ghostPixel);
+      viewX[size] = ghostPixel[0];
+      viewY[size] = ghostPixel[1];
+      viewConnected[size] = ghostConnected;
+      points[size].setDistance(distance);
+    }
+    for(int k = n, nv = points.length; k<nv; k++) {
+      points[k].setDistance(Double.NaN); // unused objects are ignored by the panel
     }
+    numPoints = n;
   }
 
-  @Override
-Object3D[] getObjects3D() {
-    synchronized(list) {
-      if(!isReallyVisible()||(list.size()<=0)) {
-        return null;
-      }
-      preparePoints();
+  /**
+   * Projects the newest points.
+   * @param count int the number of points to project
+   */
+  private void projectPoints(int count) {
+    for(int k = size-count, nb = xs.length; k<size; k++) {
+      int i = (first+k)%nb;
+      coordinates[0] = xs[i];
+      coordinates[1] = ys[i];
+      coordinates[2] = zs[i];
+      distances[i] = project(coordinates, pixel);
+      pixelXs[i] = pixel[0];
+      pixelYs[i] = pixel[1];
     }
-    if(hasChanged()) {
-      transformAndProjectPoints();
-    } else if(needsToProject()) {
-      projectPoints();
+    unprojected = 0;
+  }
+
+  private double project(double[] point, double[] pixel) {
+    sizeAndToSpaceFrame(point);
+    getDrawingPanel3D().project(point, pixel);
+    return pixel[2]*getStyle().getDepthFactor();
+  }
+
+  @Override
+synchronized Object3D[] getObjects3D() {
+    if(!isReallyVisible()||(size<=0)) {
+      return null;
     }
+    preparePoints();
     return points;
   }
 
   @Override
 void draw(Graphics2D _g2, int _index) {
-    TrailPoint point = points[_index];
-    Color theColor = getDrawingPanel3D().projectColor(getRealStyle().getLineColor(), point.getDistance());
+    Color theColor = getDrawingPanel3D().projectColor(getRealStyle().getLineColor(), points[_index].getDistance());
     _g2.setStroke(getRealStyle().getLineStroke());
     _g2.setColor(theColor);
-    if((_index==0)||!point.connected) {
-      _g2.drawLine((int) point.pixel[0], (int) point.pixel[1], (int) point.pixel[0], (int) point.pixel[1]);
+    int a = (int) viewX[_index], b = (int) viewY[_index];
+    if((_index==0)||!viewConnected[_index]) {
+      _g2.drawLine(a, b, a, b);
     } else {
-      TrailPoint pointPrev = points[_index-1];
-      _g2.drawLine((int) point.pixel[0], (int) point.pixel[1], (int) pointPrev.pixel[0], (int) pointPrev.pixel[1]);
+      _g2.drawLine(a, b, (int) viewX[_index-1], (int) viewY[_index-1]);
     }
   }
 
   @Override
 void drawQuickly(Graphics2D _g2) {
-    synchronized(list) {
-      if(!isReallyVisible()||(list.size()<=0)) {
+    synchronized(this) {
+      if(!isReallyVisible()||(size<=0)) {
         return;
       }
       preparePoints();
     }
-    if(hasChanged()) {
-      transformAndProjectPoints();
-    } else if(needsToProject()) {
-      projectPoints();
-    }
     _g2.setStroke(getRealStyle().getLineStroke());
     _g2.setColor(getRealStyle().getLineColor());
-    TrailPoint point = points[0];
-    int aPrev = (int) point.pixel[0], bPrev = (int) point.pixel[1];
+    int aPrev = (int) viewX[0], bPrev = (int) viewY[0];
     _g2.drawLine(aPrev, bPrev, aPrev, bPrev);
-    for(int i = 1, n = points.length; i<n; i++) { // The order is relevant
-      point = points[i];
-      if(point.connected) {
-        _g2.drawLine((int) point.pixel[0], (int) point.pixel[1], aPrev, bPrev);
+    for(int i = 1, n = numPoints; i<n; i++) { // The order is relevant
+      int a = (int) viewX[i], b = (int) viewY[i];
+      if(viewConnected[i]) {
+        _g2.drawLine(a, b, aPrev, bPrev);
       } else {
-        _g2.drawLine((int) point.pixel[0], (int) point.pixel[1], (int) point.pixel[0], (int) point.pixel[1]);
+        _g2.drawLine(a, b, a, b);
       }
-      aPrev = (int) point.pixel[0];
-      bPrev = (int) point.pixel[1];
+      aPrev = a;
+      bPrev = b;
     }
   }
 
@@ -210,23 +328,29 @@ public void getExtrema(double[] min, double[] max) {
     double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
     double minZ = Double.POSITIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
     double[] aPoint = new double[3];
-    synchronized(list) {
-      if(!isReallyVisible()||(list.size()<=0)) {
+    synchronized(this) {
+      if(!isReallyVisible()||(size<=0)) {
         return;
       }
-      preparePoints();
-    }
-    for(int i = 0, n = points.length; i<n; i++) {
-      aPoint[0] = points[i].xp;
-      aPoint[1] = points[i].yp;
-      aPoint[2] = points[i].zp;
-      sizeAndToSpaceFrame(aPoint);
-      minX = Math.min(minX, aPoint[0]);
-      maxX = Math.max(maxX, aPoint[0]);
-      minY = Math.min(minY, aPoint[1]);
-      maxY = Math.max(maxY, aPoint[1]);
-      minZ = Math.min(minZ, aPoint[2]);
-      maxZ = Math.max(maxZ, aPoint[2]);
+      for(int k = 0, n = hasGhost ? size+1 : size, nb = xs.length; k<n; k++) {
+        if(k<size) {
+          int i = (first+k)%nb;
+          aPoint[0] = xs[i];
+          aPoint[1] = ys[i];
+          aPoint[2] = zs[i];
+        } else {
+          aPoint[0] = ghostX;
+          aPoint[1] = ghostY;
+          aPoint[2] = ghostZ;
+        }
+        sizeAndToSpaceFrame(aPoint);
+        minX = Math.min(minX, aPoint[0]);
+        maxX = Math.max(maxX, aPoint[0]);
+        minY = Math.min(minY, aPoint[1]);
+        maxY = Math.max(maxY, aPoint[1]);
+        minZ = Math.min(minZ, aPoint[2]);
+        maxZ = Math.max(maxZ, aPoint[2]);
+      }
     }
     min[0] = minX;
     max[0] = maxX;
@@ -236,24 +360,6 @@ public void getExtrema(double[] min, double[] max) {
     max[2] = maxZ;
   }
 
-  // -------------------------------------
-  // Private methods
-  // -------------------------------------
-  synchronized void transformAndProjectPoints() {
-    for(int i = 0, n = points.length; i<n; i++) {
-      points[i].transformAndProject();
-    }
-    setNeedToProject(false);
-    setElementChanged(false);
-  }
-
-  synchronized void projectPoints() {
-    for(int i = 0, n = points.length; i<n; i++) {
-      points[i].transformAndProject();
-    }
-    setNeedToProject(false);
-  }
-
   // ----------------------------------------------------
   // Implementation of org.opensourcephysics.display.Data
   // ----------------------------------------------------
@@ -271,15 +377,19 @@ public int getID() {
   }
 
   @Override
-public double[][] getData2D() {
-    synchronized(list) {
-      preparePoints();
+public synchronized double[][] getData2D() {
+    int n = hasGhost ? size+1 : size;
+    double[][] data = new double[3][n];
+    for(int k = 0, nb = xs.length; k<size; k++) {
+      int i = (first+k)%nb;
+      data[0][k] = xs[i];
+      data[1][k] = ys[i];
+      data[2][k] = zs[i];
     }
-    double[][] data = new double[3][points.length];
-    for(int i = 0, n = points.length; i<n; i++) {
-      data[0][i] = points[i].xp;
-      data[1][i] = points[i].yp;
-      data[2][i] = points[i].zp;
+    if(hasGhost) {
+      data[0][size] = ghostX;
+      data[1][size] = ghostY;
+      data[2][size] = ghostZ;
     }
     return data;
   }
@@ -328,63 +438,11 @@ public java.util.ArrayList<Dataset> getDatasets() {
   //  }
 
   // ----------------------------------------------------
-  // A class for the individual points of the trail
+  // The objects that the panel sorts; the k-th object is the k-th point of the snapshot
   // ----------------------------------------------------
   private class TrailPoint extends Object3D {
-    boolean connected; // shadows ElementTrail field
-    private double xp, yp, zp;
-    private double[] coordinates = new double[3];
-    double[] pixel = new double[3];
-
-    TrailPoint(double _x, double _y, double _z, boolean _c) {
-      super(ElementTrail.this, -1); // Same index for all points. Will be changed in getObjects3D[]
-      switch(getAxesMode()) {
-         case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_XYZ :
-           xp = _x;
-           yp = _y;
-           zp = _z;
-           break;
-         case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_XZY :
-           xp = _x;
-           zp = _y;
-           yp = _z;
-           break;
-         case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_YXZ :
-           yp = _x;
-           xp = _y;
-           zp = _z;
-           break;
-         case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_YZX :
-           zp = _x;
-           xp = _y;
-           yp = _z;
-           break;
-         case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_ZXY :
-           yp = _x;
-           zp = _y;
-           xp = _z;
-           break;
-         case org.opensourcephysics.display3d.core.DrawingPanel3D.MODE_ZYX :
-           zp = _x;
-           yp = _y;
-           xp = _z;
-           break;
-         default :
-           xp = _x;
-           yp = _y;
-           zp = _z;
-           break;
-      }
-      connected = _c;
-    }
-
-    void transformAndProject() {
-      coordinates[0] = xp;
-      coordinates[1] = yp;
-      coordinates[2] = zp;
-      sizeAndToSpaceFrame(coordinates);
-      getDrawingPanel3D().project(coordinates, pixel);
-      super.setDistance(pixel[2]*getStyle().getDepthFactor());
+    TrailPoint(int _index) {
+      super(ElementTrail.this, _index);
     }
 
   } // End of class TrailPoint
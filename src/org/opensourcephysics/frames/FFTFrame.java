@@ -24,6 +24,7 @@ import org.opensourcephysics.display.Drawable;
 import org.opensourcephysics.display.DrawingFrame;
 import org.opensourcephysics.display.PlottingPanel;
 import org.opensourcephysics.numerics.FFT;
+import org.opensourcephysics.numerics.FFTReal;
 import org.opensourcephysics.numerics.Function;
 
 /**
@@ -44,6 +45,8 @@ public class FFTFrame extends DrawingFrame {
   protected DataTableFrame tableFrame;
   private double[] fftData = new double[1];
   private FFT fft = new FFT(1);
+  private FFTReal fftReal = new FFTReal();
+  private double[] realData = new double[0];
   JMenuItem ampPhaseItem, postItem, barItem;
 
   /**
@@ -298,12 +301,22 @@ protected void addMenuItems() {
     }
     int off = (int) (n*xmin/(xmax-xmin));
     off = Math.abs(off);
-    for(int i = 0; i<n; i++) {
-      int ii = (off+i)%n;
-      fftData[2*ii] = data[i];
-      fftData[2*ii+1] = 0;
+    if(n%2==0) { // real-to-complex transform of half the length
+      if(realData.length!=n) {
+        realData = new double[n];
+      }
+      for(int i = 0; i<n; i++) {
+        realData[(off+i)%n] = data[i];
+      }
+      fftReal.transformToComplex(realData, fftData);
+    } else {
+      for(int i = 0; i<n; i++) {
+        int ii = (off+i)%n;
+        fftData[2*ii] = data[i];
+        fftData[2*ii+1] = 0;
+      }
+      fft.transform(fftData);
     }
-    fft.transform(fftData);
     fft.toNaturalOrder(fftData);
     double[] domain = null;
     switch(domainType) {
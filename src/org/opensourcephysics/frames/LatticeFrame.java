@@ -221,6 +221,19 @@ public void clearData() {
     drawingPanel.invalidateImage();
   }
 
+  /**
+   * Sets the lattice values from a row-major array in which the index is iy*nx+ix.
+   *
+   * The lattice is resized to fit the new data as needed.
+   *
+   * @param val the new values
+   * @param nx the number of values in the x direction
+   */
+  public void setAll(byte[] val, int nx) {
+    lattice.setAll(val, nx);
+    drawingPanel.invalidateImage();
+  }
+
   /**
    * Sets the lattice values and scale.
    *
@@ -7,9 +7,16 @@
 
 package org.opensourcephysics.frames;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import org.opensourcephysics.display.Circle;
 import org.opensourcephysics.display.DisplayColors;
 import org.opensourcephysics.display.Drawable;
 import org.opensourcephysics.display.DrawingFrame;
@@ -17,18 +24,24 @@ import org.opensourcephysics.display.DrawingPanel;
 import org.opensourcephysics.display.Interactive;
 import org.opensourcephysics.display.InteractiveCircle;
 import org.opensourcephysics.display.Measurable;
+import org.opensourcephysics.display.MeasuredCircle;
 import org.opensourcephysics.display.PlottingPanel;
 
 /**
  * A DrawingFrame that displays particles.
  *
- * Particle locations are specified using a Point2D.
+ * Particle locations are specified using a Point2D or, for large systems, using arrays of coordinates.
  * The default particle drawing shape is a circle.
  *
+ * Circles are drawn by copying a pre-rendered sprite.  Above RASTER_THRESHOLD particles the sprites are
+ * composited directly into the pixels of a transparent layer that is drawn with a single image call.
+ *
  * @author W. Christian
  * @version 1.0
  */
 public class ParticleFrame extends DrawingFrame {
+  static final int RASTER_THRESHOLD = 2000; // particles above which sprites are composited into a raster layer
+  static final int SPRITE_MARGIN = 1;       // pixels around the circle for antialiased edges
   ArrayList<Particles> partlist = new ArrayList<Particles>();
 
   /**
@@ -80,6 +93,35 @@ public class ParticleFrame extends DrawingFrame {
     checkIndex(i).addParticles(points);
   }
 
+  /**
+   * Sets the particle positions from coordinate arrays, replacing positions set by a previous call.
+   *
+   * The coordinates are copied so that the arrays can be reused by the caller.
+   * This method can be called from a simulation thread while the frame is being drawn.
+   *
+   * @param  i
+   * @param x double[]
+   * @param y double[]
+   */
+  public void setParticles(int i, double[] x, double[] y) {
+    setParticles(i, x, y, Math.min(x.length, y.length));
+  }
+
+  /**
+   * Sets the positions of the first n particles from coordinate arrays, replacing positions set by a previous call.
+   *
+   * @param  i
+   * @param x double[]
+   * @param y double[]
+   * @param n int the number of particles
+   */
+  public void setParticles(int i, double[] x, double[] y, int n) {
+    if((n<0)||(n>x.length)||(n>y.length)) {
+      throw new IllegalArgumentException("Particle count exceeds the coordinate arrays."); //$NON-NLS-1$
+    }
+    checkIndex(i).setParticles(x, y, n);
+  }
+
   /**
    * Sets the drawing shape for the particles.
    *
@@ -114,10 +156,51 @@ public void clearData() {
     drawingPanel.invalidateImage();
   }
 
+  /**
+   * Particle coordinates published by a producer.  Buffers are swapped rather than shared so that
+   * the producer never waits for a draw and the draw never sees a partially written set.
+   */
+  static class ParticleBuffer {
+    double[] x = new double[0], y = new double[0];
+    int n;
+    double xmin, xmax, ymin, ymax;
+
+    void set(double[] xs, double[] ys, int count) {
+      if(x.length<count) {
+        x = new double[count];
+        y = new double[count];
+      }
+      System.arraycopy(xs, 0, x, 0, count);
+      System.arraycopy(ys, 0, y, 0, count);
+      n = count;
+      xmin = ymin = Double.MAX_VALUE;
+      xmax = ymax = -Double.MAX_VALUE;
+      for(int i = 0; i<count; i++) {
+        xmax = Math.max(xmax, xs[i]);
+        xmin = Math.min(xmin, xs[i]);
+        ymax = Math.max(ymax, ys[i]);
+        ymin = Math.min(ymin, ys[i]);
+      }
+    }
+
+  }
+
   class Particles implements Drawable, Measurable {
     Interactive shape = new InteractiveCircle();
     private ArrayList<Point2D> pointList = new ArrayList<Point2D>();
     double xmin = Double.MAX_VALUE, xmax = -Double.MAX_VALUE, ymin = Double.MAX_VALUE, ymax = -Double.MAX_VALUE;
+    // primitive particles: the producer fills spare and swaps it with front; the draw holds front while rendering
+    private final Object swapLock = new Object();
+    private volatile ParticleBuffer front;
+    private ParticleBuffer spare = new ParticleBuffer(), drawing;
+    // draw workspace; draws are serialized on drawLock so that the workspace and the drawing buffer have one user
+    private final Object drawLock = new Object();
+    private double[] listX = new double[0], listY = new double[0];
+    private int[] pixX = new int[0], pixY = new int[0];
+    private BufferedImage sprite, layer;
+    private int[] spritePixels, layerPixels;
+    private int spriteRGB, spriteRadius;
+    private Object spriteHint;
 
     Particles() {
       shape.setEnabled(false); // default cannot drag particles
@@ -150,6 +233,29 @@ public void clearData() {
       }
     }
 
+    /**
+     * Replaces the primitive particles.  The coordinates are copied into a spare buffer without holding
+     * the drawing lock and the buffer is then swapped in.
+     */
+    void setParticles(double[] x, double[] y, int n) {
+      ParticleBuffer buf;
+      synchronized(swapLock) {
+        buf = spare;
+        spare = null;
+      }
+      if(buf==null) { // another producer or the draw still holds the spare
+        buf = new ParticleBuffer();
+      }
+      buf.set(x, y, n);
+      synchronized(swapLock) {
+        ParticleBuffer old = front;
+        front = buf;
+        if((old!=null)&&(old!=drawing)) {
+          spare = old;
+        }
+      }
+    }
+
     void clear() {
       synchronized(pointList) {
         pointList.clear();
@@ -158,24 +264,161 @@ public void clearData() {
         ymin = Double.MAX_VALUE;
         ymax = -Double.MAX_VALUE;
       }
+      synchronized(swapLock) {
+        front = null;
+      }
     }
 
     /**
-     * Draws the particles.
+     * Draws the particles.  Overlapping draws, such as a snapshot during an animation, take turns
+     * because they share the draw workspace.  The producer never waits for a draw.
      *
      * @param panel DrawingPanel
      * @param g Graphics
      */
     @Override
 	public void draw(DrawingPanel panel, Graphics g) {
-      synchronized(pointList) {
-        Iterator<Point2D> it = pointList.iterator();
-        while(it.hasNext()) {
-          Point2D point = (it.next());
-          shape.setXY(point.getX(), point.getY());
-          shape.draw(panel, g);
+      synchronized(drawLock) {
+        drawParticles(panel, g);
+      }
+    }
+
+    private void drawParticles(DrawingPanel panel, Graphics g) {
+      int nlist;
+      synchronized(pointList) { // copy the coordinates so that the list is not locked while drawing
+        nlist = pointList.size();
+        if(listX.length<nlist) {
+          listX = new double[nlist];
+          listY = new double[nlist];
         }
+        for(int i = 0; i<nlist; i++) {
+          Point2D point = pointList.get(i);
+          listX[i] = point.getX();
+          listY[i] = point.getY();
+        }
+      }
+      ParticleBuffer buf;
+      synchronized(swapLock) {
+        buf = drawing = front;
       }
+      try {
+        int nbuf = (buf==null) ? 0 : buf.n;
+        if(!canBlit(g)) {
+          drawShapes(panel, g, listX, listY, nlist);
+          if(nbuf>0) {
+            drawShapes(panel, g, buf.x, buf.y, nbuf);
+          }
+          return;
+        }
+        int n = nlist+nbuf;
+        if(pixX.length<n) {
+          pixX = new int[n];
+          pixY = new int[n];
+        }
+        for(int i = 0; i<nlist; i++) {
+          pixX[i] = panel.xToPix(listX[i]);
+          pixY[i] = panel.yToPix(listY[i]);
+        }
+        for(int i = 0; i<nbuf; i++) {
+          pixX[nlist+i] = panel.xToPix(buf.x[i]);
+          pixY[nlist+i] = panel.yToPix(buf.y[i]);
+        }
+        checkSprite((Graphics2D) g);
+        int offset = spriteRadius+SPRITE_MARGIN;
+        if(n<RASTER_THRESHOLD) {
+          for(int i = 0; i<n; i++) {
+            g.drawImage(sprite, pixX[i]-offset, pixY[i]-offset, null);
+          }
+        } else {
+          drawRaster(panel, g, n, offset);
+        }
+      } finally {
+        synchronized(swapLock) {
+          drawing = null;
+          if((buf!=null)&&(buf!=front)&&(spare==null)) {
+            spare = buf;
+          }
+        }
+      }
+    }
+
+    /**
+     * Sprites reproduce a circle's fillOval exactly when the graphics context is only translated.
+     */
+    private boolean canBlit(Graphics g) {
+      Class<?> c = shape.getClass();
+      if((c!=InteractiveCircle.class)&&(c!=MeasuredCircle.class)&&(c!=Circle.class)) {
+        return false;
+      }
+      if(!(g instanceof Graphics2D)) {
+        return false;
+      }
+      int type = ((Graphics2D) g).getTransform().getType();
+      return (type&~AffineTransform.TYPE_TRANSLATION)==0;
+    }
+
+    private void drawShapes(DrawingPanel panel, Graphics g, double[] x, double[] y, int n) {
+      for(int i = 0; i<n; i++) {
+        shape.setXY(x[i], y[i]);
+        shape.draw(panel, g);
+      }
+    }
+
+    /**
+     * Renders the circle into the sprite image if its color, radius, or antialiasing has changed.
+     */
+    private void checkSprite(Graphics2D g) {
+      Circle circle = (Circle) shape;
+      Object hint = g.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+      int rgb = circle.color.getRGB();
+      if((sprite!=null)&&(rgb==spriteRGB)&&(circle.pixRadius==spriteRadius)&&(hint==spriteHint)) {
+        return;
+      }
+      spriteRGB = rgb;
+      spriteRadius = circle.pixRadius;
+      spriteHint = hint;
+      int size = 2*spriteRadius+2*SPRITE_MARGIN;
+      sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D sg = sprite.createGraphics();
+      if(hint!=null) {
+        sg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, hint);
+      }
+      sg.setColor(circle.color);
+      sg.fillOval(SPRITE_MARGIN, SPRITE_MARGIN, 2*spriteRadius, 2*spriteRadius);
+      sg.dispose();
+      spritePixels = sprite.getRGB(0, 0, size, size, null, 0, size);
+    }
+
+    /**
+     * Composites every sprite into a transparent panel-size layer and draws the layer with a single image call.
+     */
+    private void drawRaster(DrawingPanel panel, Graphics g, int n, int offset) {
+      int w = panel.getWidth(), h = panel.getHeight();
+      if((w<1)||(h<1)) {
+        return;
+      }
+      if((layer==null)||(layer.getWidth()!=w)||(layer.getHeight()!=h)) {
+        layer = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        layerPixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+      } else {
+        Arrays.fill(layerPixels, 0);
+      }
+      int size = sprite.getWidth();
+      for(int i = 0; i<n; i++) {
+        int x0 = pixX[i]-offset, y0 = pixY[i]-offset;
+        int sx0 = Math.max(0, -x0), sx1 = Math.min(size, w-x0);
+        int sy0 = Math.max(0, -y0), sy1 = Math.min(size, h-y0);
+        for(int sy = sy0; sy<sy1; sy++) {
+          int src = sy*size, dst = (y0+sy)*w+x0;
+          for(int sx = sx0; sx<sx1; sx++) {
+            int s = spritePixels[src+sx];
+            if(s!=0) {
+              layerPixels[dst+sx] = over(s, layerPixels[dst+sx]);
+            }
+          }
+        }
+      }
+      g.drawImage(layer, 0, 0, null);
     }
 
     /**
@@ -185,7 +428,8 @@ public void clearData() {
      */
     @Override
 	public double getXMax() {
-      return xmax;
+      ParticleBuffer buf = front;
+      return ((buf==null)||(buf.n==0)) ? xmax : Math.max(xmax, buf.xmax);
     }
 
     /**
@@ -195,7 +439,8 @@ public void clearData() {
      */
     @Override
 	public double getXMin() {
-      return xmin;
+      ParticleBuffer buf = front;
+      return ((buf==null)||(buf.n==0)) ? xmin : Math.min(xmin, buf.xmin);
     }
 
     /**
@@ -205,7 +450,8 @@ public void clearData() {
      */
     @Override
 	public double getYMax() {
-      return ymax;
+      ParticleBuffer buf = front;
+      return ((buf==null)||(buf.n==0)) ? ymax : Math.max(ymax, buf.ymax);
     }
 
     /**
@@ -215,7 +461,8 @@ public void clearData() {
      */
     @Override
 	public double getYMin() {
-      return ymin;
+      ParticleBuffer buf = front;
+      return ((buf==null)||(buf.n==0)) ? ymin : Math.min(ymin, buf.ymin);
     }
 
     /**
@@ -225,6 +472,10 @@ public void clearData() {
      */
     @Override
 	public boolean isMeasured() {
+      ParticleBuffer buf = front;
+      if((buf!=null)&&(buf.n>0)) {
+        return true;
+      }
       synchronized(pointList) {
         return(pointList.size()>0) ? true : false;
       }
@@ -232,6 +483,22 @@ public void clearData() {
 
   }
 
+  /**
+   * Composites a non-premultiplied ARGB source pixel over a destination pixel.
+   */
+  static int over(int s, int d) {
+    int sa = s>>>24, da = d>>>24;
+    if((sa==255)||(da==0)) {
+      return s;
+    }
+    int t = da*(255-sa)/255; // destination weight
+    int a = sa+t;
+    int r = (((s>>16)&0xff)*sa+((d>>16)&0xff)*t)/a;
+    int gr = (((s>>8)&0xff)*sa+((d>>8)&0xff)*t)/a;
+    int b = ((s&0xff)*sa+(d&0xff)*t)/a;
+    return (a<<24)|(r<<16)|(gr<<8)|b;
+  }
+
 }
 
 /*
@@ -158,6 +158,18 @@ public class Scalar2DFrame extends DrawingFrame {
     return gridData.getNy();
   }
 
+  /**
+   * Gets the grid data that stores the field.
+   *
+   * Values may be written directly into getGridData().getData()[0] and then passed back to setAll
+   * to update the plot without copying.
+   *
+   * @return the grid data, or null if the grid size has not been set
+   */
+  public GridData getGridData() {
+    return gridData;
+  }
+
   /**
    * Sets the autoscale flag and the floor and ceiling values for the colors.
    *
@@ -746,9 +758,11 @@ public void clearData() {
     }
     double[][] data = gridData.getData()[0];
     // current grid has correct size
-    int ny = vals[0].length;
-    for(int i = 0, nx = data.length; i<nx; i++) {
-      System.arraycopy(vals[i], 0, data[i], 0, ny);
+    if(vals!=data) { // values written directly into the grid do not need to be copied
+      int ny = vals[0].length;
+      for(int i = 0, nx = data.length; i<nx; i++) {
+        System.arraycopy(vals[i], 0, data[i], 0, ny);
+      }
     }
     plot.update();
     if((tableFrame!=null)&&tableFrame.isShowing()) {
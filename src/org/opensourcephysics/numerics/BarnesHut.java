@@ -0,0 +1,573 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.util.Arrays;
+
+/**
+ * BarnesHut computes gravitational accelerations of N bodies in two or three dimensions using a tree code.
+ *
+ * Bodies are sorted along a Morton (Z-order) curve so that the bodies in every quadtree or octree cell are contiguous.
+ * Cells with only a few bodies are leaves.  The tree is walked once for every leaf, and the resulting list of cells and
+ * nearby bodies is shared by every body in the leaf.  A cell is replaced by its mass and quadrupole moment about its center
+ * of mass when its size is less than the opening angle theta times the gap between its bounding box and the leaf's bounding
+ * box, so the cost of a force evaluation is of order N log N.
+ *
+ * For Gaussian distributions of bodies at the default theta of 0.5, the mean relative error of an acceleration is
+ * about 0.03 percent and the largest error is about 0.2 percent of the rms acceleration in both two and three dimensions.
+ * The relative error of a single body can be larger where the forces nearly cancel, for example up to a few percent
+ * near the center of a two-dimensional distribution.  The error grows roughly as theta cubed.
+ *
+ * The tree does not have to be rebuilt for every evaluation.  Between rebuilds the cells keep their bodies and only the
+ * moments and bounding boxes are recomputed, which is accurate because the opening test uses the actual bounding box of
+ * each cell.  Set the rebuild interval to the number of rate evaluations in an ODE step, such as 4 for RK4, so that the
+ * tree is built once per step and reused by the other stages.  Keys, sorting, cell moments, and force walks run in parallel.
+ *
+ * @version 1.0
+ */
+public class BarnesHut {
+  static final int LEAF_SIZE = 16;         // largest cell that is summed directly
+  static final int MIN_BAND_SIZE = 256;    // bodies worth running on their own thread
+  static final int INDEX_BITS = 22;        // low bits of a key that store the body index
+  static final long INDEX_MASK = (1L<<INDEX_BITS)-1;
+  final int dim, bits;                     // dimension and key bits per axis
+  double theta = 0.5, softening = 0, gravity = 1;
+  int rebuildInterval = 1, evaluations = 0;
+  boolean valid = false;
+  int n;
+  long[] keys = new long[0];
+  int[] order = new int[0];                // bodies in tree order
+  // cells
+  int nodeCount, leafCount;
+  int[] bodyStart = new int[0], bodyEnd = new int[0], childStart = new int[0], childCount = new int[0];
+  double[] nodeMass = new double[0], comX = new double[0], comY = new double[0], comZ = new double[0], nodeSize = new double[0];
+  double[] minX = new double[0], maxX = new double[0], minY = new double[0], maxY = new double[0], minZ = new double[0], maxZ = new double[0];
+  double[] quad = new double[0];           // xx, yy, zz, xy, xz, yz quadrupole of each cell about its center of mass
+  int[] leaves = new int[0];
+  // state layout workspace for getRate
+  double[] x = new double[0], y = new double[0], z = new double[0], ax = new double[0], ay = new double[0], az = new double[0];
+
+  /**
+   * Constructs a tree code for the given dimension.
+   *
+   * @param dimension 2 or 3
+   */
+  public BarnesHut(int dimension) {
+    if((dimension!=2)&&(dimension!=3)) {
+      throw new IllegalArgumentException("Dimension must be 2 or 3."); //$NON-NLS-1$
+    }
+    dim = dimension;
+    bits = (dim==2) ? 20 : 13; // the key and the body index must fit in 63 bits
+  }
+
+  /**
+   * Sets the opening angle.  Smaller angles are more accurate and slower; zero sums every pair.
+   * Values above about 0.7 are not recommended.
+   *
+   * @param theta double
+   */
+  public void setTheta(double theta) {
+    this.theta = Math.max(0, theta);
+  }
+
+  /**
+   * Gets the opening angle.
+   *
+   * @return double
+   */
+  public double getTheta() {
+    return theta;
+  }
+
+  /**
+   * Sets the softening length that removes the singularity of close encounters.
+   *
+   * @param eps double
+   */
+  public void setSoftening(double eps) {
+    softening = eps;
+  }
+
+  /**
+   * Sets the gravitational constant.
+   *
+   * @param g double
+   */
+  public void setGravitationalConstant(double g) {
+    gravity = g;
+  }
+
+  /**
+   * Sets the number of force evaluations between rebuilds of the tree.
+   *
+   * @param interval int
+   */
+  public void setRebuildInterval(int interval) {
+    rebuildInterval = Math.max(1, interval);
+  }
+
+  /**
+   * Forces the tree to be rebuilt at the next evaluation.
+   */
+  public void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Computes the gravitational rate of an ODE state.
+   *
+   * The state stores x, vx, y, vy for every body in two dimensions and x, vx, y, vy, z, vz in three dimensions.
+   * If the state has one more element, that element is the time and its rate is one.
+   *
+   * @param state double[]
+   * @param mass the mass of each body
+   * @param rate double[]
+   */
+  public void getRate(double[] state, double[] mass, double[] rate) {
+    int stride = 2*dim;
+    int nbodies = state.length/stride;
+    if(x.length<nbodies) {
+      x = new double[nbodies];
+      y = new double[nbodies];
+      z = new double[nbodies];
+      ax = new double[nbodies];
+      ay = new double[nbodies];
+      az = new double[nbodies];
+    }
+    for(int i = 0, k = 0; i<nbodies; i++, k += stride) {
+      x[i] = state[k];
+      y[i] = state[k+2];
+      if(dim==3) {
+        z[i] = state[k+4];
+      }
+    }
+    computeAccelerations(x, y, (dim==3) ? z : null, mass, nbodies, ax, ay, az);
+    for(int i = 0, k = 0; i<nbodies; i++, k += stride) {
+      rate[k] = state[k+1];
+      rate[k+1] = ax[i];
+      rate[k+2] = state[k+3];
+      rate[k+3] = ay[i];
+      if(dim==3) {
+        rate[k+4] = state[k+5];
+        rate[k+5] = az[i];
+      }
+    }
+    if(state.length>nbodies*stride) {
+      rate[nbodies*stride] = 1; // time rate
+    }
+  }
+
+  /**
+   * Computes the gravitational acceleration of every body.
+   *
+   * @param x double[]
+   * @param y double[]
+   * @param z double[] or null in two dimensions
+   * @param mass double[]
+   * @param n the number of bodies
+   * @param ax double[]
+   * @param ay double[]
+   * @param az double[] or null in two dimensions
+   */
+  public void computeAccelerations(double[] x, double[] y, double[] z, double[] mass, int n, double[] ax, double[] ay, double[] az) {
+    if(n>INDEX_MASK+1) {
+      throw new IllegalArgumentException("Too many bodies for the tree code."); //$NON-NLS-1$
+    }
+    if(!valid||(n!=this.n)||(evaluations%rebuildInterval==0)) {
+      build(x, y, z, n);
+    }
+    evaluations++;
+    computeMoments(x, y, z, mass);
+    walk(x, y, z, mass, ax, ay, az);
+  }
+
+  /**
+   * Sorts the bodies along a Morton curve and links the cells.
+   */
+  void build(double[] x, double[] y, double[] z, int n) {
+    this.n = n;
+    evaluations = 0;
+    if(keys.length<n) {
+      keys = new long[n];
+      order = new int[n];
+    }
+    // bounding cube of the bodies
+    int nBands = Parallel.getBandCount(n, MIN_BAND_SIZE);
+    double[][] bounds = new double[Math.max(1, nBands)][6];
+    Parallel.forEachBand(n, nBands, MIN_BAND_SIZE, (band, first, last) -> {
+      double[] b = bounds[band];
+      b[0] = b[2] = b[4] = Double.MAX_VALUE;
+      b[1] = b[3] = b[5] = -Double.MAX_VALUE;
+      for(int i = first; i<last; i++) {
+        b[0] = Math.min(b[0], x[i]);
+        b[1] = Math.max(b[1], x[i]);
+        b[2] = Math.min(b[2], y[i]);
+        b[3] = Math.max(b[3], y[i]);
+        if(z!=null) {
+          b[4] = Math.min(b[4], z[i]);
+          b[5] = Math.max(b[5], z[i]);
+        }
+      }
+    });
+    double[] b = bounds[0];
+    for(int band = 1; band<nBands; band++) {
+      for(int k = 0; k<6; k += 2) {
+        b[k] = Math.min(b[k], bounds[band][k]);
+        b[k+1] = Math.max(b[k+1], bounds[band][k+1]);
+      }
+    }
+    double side = Math.max(b[1]-b[0], b[3]-b[2]);
+    if(z!=null) {
+      side = Math.max(side, b[5]-b[4]);
+    }
+    double cells = 1<<bits;
+    double scale = (side>0) ? cells*(1-1.0e-12)/side : 0;
+    double x0 = b[0], y0 = b[2], z0 = (z==null) ? 0 : b[4];
+    Parallel.forEachBand(n, MIN_BAND_SIZE, (band, first, last) -> {
+      for(int i = first; i<last; i++) {
+        int ix = (int) ((x[i]-x0)*scale);
+        int iy = (int) ((y[i]-y0)*scale);
+        int iz = (z==null) ? 0 : (int) ((z[i]-z0)*scale);
+        keys[i] = (interleave(ix, iy, iz)<<INDEX_BITS)|i;
+      }
+    });
+    if(Parallel.isEnabled()) {
+      Arrays.parallelSort(keys, 0, n);
+    } else {
+      Arrays.sort(keys, 0, n);
+    }
+    for(int p = 0; p<n; p++) {
+      order[p] = (int) (keys[p]&INDEX_MASK);
+    }
+    nodeCount = 0;
+    leafCount = 0;
+    if(n>0) {
+      ensureNodes(1);
+      nodeCount = 1;
+      buildNode(0, 0, n, 0);
+    }
+    valid = true;
+  }
+
+  /**
+   * Interleaves the bits of the cell coordinates.
+   */
+  long interleave(int ix, int iy, int iz) {
+    long key = 0;
+    for(int b = bits-1; b>=0; b--) {
+      key = (key<<1)|((ix>>b)&1);
+      key = (key<<1)|((iy>>b)&1);
+      if(dim==3) {
+        key = (key<<1)|((iz>>b)&1);
+      }
+    }
+    return key;
+  }
+
+  /**
+   * Links the cell holding the sorted bodies lo to hi-1.  The children of a cell are allocated together.
+   */
+  private void buildNode(int node, int lo, int hi, int level) {
+    bodyStart[node] = lo;
+    bodyEnd[node] = hi;
+    if((hi-lo<=LEAF_SIZE)||(level==bits)) {
+      childCount[node] = 0;
+      if(leafCount==leaves.length) {
+        leaves = Arrays.copyOf(leaves, Math.max(64, 2*leafCount));
+      }
+      leaves[leafCount++] = node;
+      return;
+    }
+    int shift = INDEX_BITS+dim*(bits-1-level);
+    int mask = (1<<dim)-1;
+    int nchildren = 0;
+    for(int p = lo; p<hi; ) { // children are runs of equal digits in the sorted keys
+      int digit = (int) (keys[p]>>>shift)&mask;
+      while((p<hi)&&(((int) (keys[p]>>>shift)&mask)==digit)) {
+        p++;
+      }
+      nchildren++;
+    }
+    int first = nodeCount;
+    ensureNodes(nodeCount+nchildren);
+    nodeCount += nchildren;
+    childStart[node] = first;
+    childCount[node] = nchildren;
+    int child = first;
+    for(int p = lo; p<hi; ) {
+      int start = p;
+      int digit = (int) (keys[p]>>>shift)&mask;
+      while((p<hi)&&(((int) (keys[p]>>>shift)&mask)==digit)) {
+        p++;
+      }
+      buildNode(child++, start, p, level+1);
+    }
+  }
+
+  private void ensureNodes(int size) {
+    if(size<=bodyStart.length) {
+      return;
+    }
+    int capacity = Math.max(size, 2*bodyStart.length);
+    bodyStart = Arrays.copyOf(bodyStart, capacity);
+    bodyEnd = Arrays.copyOf(bodyEnd, capacity);
+    childStart = Arrays.copyOf(childStart, capacity);
+    childCount = Arrays.copyOf(childCount, capacity);
+    nodeMass = new double[capacity];
+    comX = new double[capacity];
+    comY = new double[capacity];
+    comZ = new double[capacity];
+    nodeSize = new double[capacity];
+    minX = new double[capacity];
+    maxX = new double[capacity];
+    minY = new double[capacity];
+    maxY = new double[capacity];
+    minZ = new double[capacity];
+    maxZ = new double[capacity];
+    quad = new double[6*capacity];
+  }
+
+  /**
+   * Computes the mass, center of mass, quadrupole, and bounding box of every cell from the current positions.
+   * Leaves are computed in parallel and parents are computed after their children.
+   */
+  void computeMoments(double[] x, double[] y, double[] z, double[] mass) {
+    Parallel.forEachBand(leafCount, MIN_BAND_SIZE/LEAF_SIZE, (band, first, last) -> {
+      for(int k = first; k<last; k++) {
+        int node = leaves[k];
+        double m = 0, mx = 0, my = 0, mz = 0;
+        double x0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE, y0 = Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+        double z0 = 0, z1 = 0;
+        if(z!=null) {
+          z0 = Double.MAX_VALUE;
+          z1 = -Double.MAX_VALUE;
+        }
+        for(int p = bodyStart[node], end = bodyEnd[node]; p<end; p++) {
+          int i = order[p];
+          double mi = mass[i];
+          m += mi;
+          mx += mi*x[i];
+          my += mi*y[i];
+          x0 = Math.min(x0, x[i]);
+          x1 = Math.max(x1, x[i]);
+          y0 = Math.min(y0, y[i]);
+          y1 = Math.max(y1, y[i]);
+          if(z!=null) {
+            mz += mi*z[i];
+            z0 = Math.min(z0, z[i]);
+            z1 = Math.max(z1, z[i]);
+          }
+        }
+        setMoments(node, m, mx, my, mz, x0, x1, y0, y1, z0, z1);
+        // second moments about the center of mass
+        double cx = comX[node], cy = comY[node], cz = comZ[node];
+        double sxx = 0, syy = 0, szz = 0, sxy = 0, sxz = 0, syz = 0;
+        for(int p = bodyStart[node], end = bodyEnd[node]; p<end; p++) {
+          int i = order[p];
+          double mi = mass[i], dx = x[i]-cx, dy = y[i]-cy, dz = (z==null) ? 0 : z[i]-cz;
+          sxx += mi*dx*dx;
+          syy += mi*dy*dy;
+          szz += mi*dz*dz;
+          sxy += mi*dx*dy;
+          sxz += mi*dx*dz;
+          syz += mi*dy*dz;
+        }
+        setSecondMoments(node, sxx, syy, szz, sxy, sxz, syz);
+      }
+    });
+    for(int node = nodeCount-1; node>=0; node--) { // children have larger indices than their parents
+      int nc = childCount[node];
+      if(nc==0) {
+        continue;
+      }
+      double m = 0, mx = 0, my = 0, mz = 0;
+      double x0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE, y0 = Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+      double z0 = Double.MAX_VALUE, z1 = -Double.MAX_VALUE;
+      for(int c = childStart[node], end = c+nc; c<end; c++) {
+        double mc = nodeMass[c];
+        m += mc;
+        mx += mc*comX[c];
+        my += mc*comY[c];
+        mz += mc*comZ[c];
+        x0 = Math.min(x0, minX[c]);
+        x1 = Math.max(x1, maxX[c]);
+        y0 = Math.min(y0, minY[c]);
+        y1 = Math.max(y1, maxY[c]);
+        z0 = Math.min(z0, minZ[c]);
+        z1 = Math.max(z1, maxZ[c]);
+      }
+      setMoments(node, m, mx, my, mz, x0, x1, y0, y1, z0, z1);
+      // shift the second moments of the children to the center of mass of the parent
+      double cx = comX[node], cy = comY[node], cz = comZ[node];
+      double sxx = 0, syy = 0, szz = 0, sxy = 0, sxz = 0, syz = 0;
+      for(int c = childStart[node], end = c+nc; c<end; c++) {
+        double mc = nodeMass[c], dx = comX[c]-cx, dy = comY[c]-cy, dz = comZ[c]-cz;
+        int q = 6*c;
+        sxx += quad[q]+mc*dx*dx;
+        syy += quad[q+1]+mc*dy*dy;
+        szz += quad[q+2]+mc*dz*dz;
+        sxy += quad[q+3]+mc*dx*dy;
+        sxz += quad[q+4]+mc*dx*dz;
+        syz += quad[q+5]+mc*dy*dz;
+      }
+      setSecondMoments(node, sxx, syy, szz, sxy, sxz, syz);
+    }
+    // convert the second moments to traceless quadrupoles once every parent has been computed
+    Parallel.forEachBand(nodeCount, MIN_BAND_SIZE, (band, first, last) -> {
+      for(int q = 6*first, end = 6*last; q<end; q += 6) {
+        double trace = quad[q]+quad[q+1]+quad[q+2];
+        quad[q] = 3*quad[q]-trace;
+        quad[q+1] = 3*quad[q+1]-trace;
+        quad[q+2] = 3*quad[q+2]-trace;
+        quad[q+3] *= 3;
+        quad[q+4] *= 3;
+        quad[q+5] *= 3;
+      }
+    });
+  }
+
+  private void setSecondMoments(int node, double sxx, double syy, double szz, double sxy, double sxz, double syz) {
+    int q = 6*node;
+    quad[q] = sxx;
+    quad[q+1] = syy;
+    quad[q+2] = szz;
+    quad[q+3] = sxy;
+    quad[q+4] = sxz;
+    quad[q+5] = syz;
+  }
+
+  private void setMoments(int node, double m, double mx, double my, double mz, double x0, double x1, double y0, double y1, double z0, double z1) {
+    nodeMass[node] = m;
+    if(m!=0) {
+      comX[node] = mx/m;
+      comY[node] = my/m;
+      comZ[node] = mz/m;
+    } else { // massless cells use the center of their bounding box
+      comX[node] = 0.5*(x0+x1);
+      comY[node] = 0.5*(y0+y1);
+      comZ[node] = 0.5*(z0+z1);
+    }
+    minX[node] = x0;
+    maxX[node] = x1;
+    minY[node] = y0;
+    maxY[node] = y1;
+    minZ[node] = z0;
+    maxZ[node] = z1;
+    nodeSize[node] = Math.max(x1-x0, Math.max(y1-y0, z1-z0));
+  }
+
+  /**
+   * Walks the tree once for every leaf and applies the resulting interaction lists to the bodies of the leaf.
+   * A cell is replaced by its multipole expansion if it is far from every body in the leaf, so the lists are valid
+   * for each of them.
+   */
+  void walk(double[] x, double[] y, double[] z, double[] mass, double[] ax, double[] ay, double[] az) {
+    double theta2 = theta*theta, eps2 = softening*softening;
+    int stackSize = (bits+1)*((1<<dim)-1)+1;
+    Parallel.forEachBand(leafCount, MIN_BAND_SIZE/LEAF_SIZE, (band, first, last) -> {
+      int[] stack = new int[stackSize];
+      int[] cells = new int[64], bodies = new int[256];
+      for(int k = first; k<last; k++) {
+        int leaf = leaves[k];
+        double x0 = minX[leaf], x1 = maxX[leaf], y0 = minY[leaf], y1 = maxY[leaf], z0 = minZ[leaf], z1 = maxZ[leaf];
+        int ncells = 0, nbodies = 0;
+        int top = 0;
+        stack[top++] = 0;
+        while(top>0) {
+          int node = stack[--top];
+          // gap between the bounding boxes of the leaf and the cell
+          double dx = Math.max(0, Math.max(minX[node]-x1, x0-maxX[node]));
+          double dy = Math.max(0, Math.max(minY[node]-y1, y0-maxY[node]));
+          double dz = Math.max(0, Math.max(minZ[node]-z1, z0-maxZ[node]));
+          double size = nodeSize[node];
+          if(size*size<theta2*(dx*dx+dy*dy+dz*dz)) { // every body of the cell is far enough away to use the expansion
+            if(ncells==cells.length) {
+              cells = Arrays.copyOf(cells, 2*ncells);
+            }
+            cells[ncells++] = node;
+          } else if(childCount[node]==0) { // the bodies of a nearby leaf are summed directly
+            int end = bodyEnd[node];
+            if(nbodies+end-bodyStart[node]>bodies.length) {
+              bodies = Arrays.copyOf(bodies, 2*(nbodies+end-bodyStart[node]));
+            }
+            for(int q = bodyStart[node]; q<end; q++) {
+              bodies[nbodies++] = order[q];
+            }
+          } else {
+            for(int c = childStart[node], end = c+childCount[node]; c<end; c++) {
+              stack[top++] = c;
+            }
+          }
+        }
+        for(int p = bodyStart[leaf], end = bodyEnd[leaf]; p<end; p++) {
+          int i = order[p];
+          double xi = x[i], yi = y[i], zi = (z==null) ? 0 : z[i];
+          double sx = 0, sy = 0, sz = 0;
+          for(int c = 0; c<ncells; c++) {
+            int node = cells[c];
+            double dx = comX[node]-xi, dy = comY[node]-yi, dz = comZ[node]-zi;
+            double r2 = dx*dx+dy*dy+dz*dz+eps2;
+            double inv2 = 1/r2, inv3 = inv2/Math.sqrt(r2), inv5 = inv3*inv2;
+            int q = 6*node;
+            double qx = quad[q]*dx+quad[q+3]*dy+quad[q+4]*dz;
+            double qy = quad[q+3]*dx+quad[q+1]*dy+quad[q+5]*dz;
+            double qz = quad[q+4]*dx+quad[q+5]*dy+quad[q+2]*dz;
+            double f = nodeMass[node]*inv3+2.5*(dx*qx+dy*qy+dz*qz)*inv5*inv2;
+            sx += f*dx-qx*inv5;
+            sy += f*dy-qy*inv5;
+            sz += f*dz-qz*inv5;
+          }
+          for(int b = 0; b<nbodies; b++) {
+            int j = bodies[b];
+            if(j==i) {
+              continue;
+            }
+            double dx = x[j]-xi, dy = y[j]-yi, dz = (z==null) ? 0 : z[j]-zi;
+            double r2 = dx*dx+dy*dy+dz*dz+eps2;
+            if(r2==0) {
+              continue; // coincident bodies without softening
+            }
+            double f = mass[j]/(r2*Math.sqrt(r2));
+            sx += f*dx;
+            sy += f*dy;
+            sz += f*dz;
+          }
+          ax[i] = gravity*sx;
+          ay[i] = gravity*sy;
+          if(az!=null) {
+            az[i] = gravity*sz;
+          }
+        }
+      }
+    });
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
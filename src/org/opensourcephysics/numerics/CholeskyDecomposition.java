@@ -0,0 +1,203 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.numerics;
+
+/**
+ * Cholesky decomposition, A = L*L', of a symmetric positive definite matrix.
+ *
+ * The lower triangular factor is stored in a flat row-major array and computed by a blocked
+ * algorithm. The rows below each diagonal block are updated in parallel for large matrices.
+ * The decomposition can be recomputed for a new matrix of the same size without allocating storage.
+ *
+ * @version 1.0
+ */
+public class CholeskyDecomposition {
+  static final int BLOCK = 48;
+  static final int MIN_PARALLEL_WORK = 1<<15;
+  private int n;
+  private double[] L; // lower triangular factor in row-major order
+  private boolean isspd;
+
+  /**
+   * Constructs the decomposition.
+   *
+   * @param A a square symmetric matrix
+   * @throws IllegalArgumentException if the matrix is not square
+   */
+  public CholeskyDecomposition(double[][] A) throws IllegalArgumentException {
+    n = A.length;
+    L = new double[n*n];
+    recompute(A);
+  }
+
+  /**
+   * Recomputes the decomposition for a new matrix of the same size, reusing the storage.
+   *
+   * @param A a square symmetric matrix
+   * @throws IllegalArgumentException if the matrix dimension has changed
+   */
+  public void recompute(double[][] A) throws IllegalArgumentException {
+    if((A.length!=n)||(A[0].length!=n)) {
+      throw new IllegalArgumentException("Matrix must be square with the dimension of the original matrix."); //$NON-NLS-1$
+    }
+    isspd = true;
+    for(int i = 0; i<n; i++) {
+      double[] row = A[i];
+      for(int j = 0; j<=i; j++) {
+        L[i*n+j] = row[j];
+        isspd &= (row[j]==A[j][i]);
+      }
+      for(int j = i+1; j<n; j++) {
+        L[i*n+j] = 0;
+      }
+    }
+    decompose();
+  }
+
+  private void decompose() {
+    for(int kb = 0; kb<n; kb += BLOCK) {
+      int ke = Math.min(kb+BLOCK, n);
+      // factor the diagonal block
+      for(int j = kb; j<ke; j++) {
+        double d = L[j*n+j]-dot(j, j, kb, j);
+        isspd &= (d>0.0);
+        double ljj = L[j*n+j] = Math.sqrt(Math.max(d, 0.0));
+        for(int i = j+1; i<ke; i++) {
+          L[i*n+j] = (L[i*n+j]-dot(i, j, kb, j))/ljj;
+        }
+      }
+      if(ke==n) {
+        break;
+      }
+      // compute the rows of L below the block
+      final int kb0 = kb, ke0 = ke;
+      int m = n-ke;
+      Parallel.forEachBand(m, Math.max(1, MIN_PARALLEL_WORK/((ke-kb)*(ke-kb))), (band, start, end) -> {
+        for(int i = ke0+start; i<ke0+end; i++) {
+          for(int j = kb0; j<ke0; j++) {
+            L[i*n+j] = (L[i*n+j]-dot(i, j, kb0, j))/L[j*n+j];
+          }
+        }
+      });
+      // update the trailing lower triangle
+      Parallel.forEachBand(m, Math.max(1, MIN_PARALLEL_WORK/(n*(ke-kb))), (band, start, end) -> {
+        for(int i = ke0+start; i<ke0+end; i++) {
+          for(int j = ke0; j<=i; j++) {
+            L[i*n+j] -= dot(i, j, kb0, ke0);
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Computes the sum of L[i][p]*L[j][p] for p from start to end-1.
+   */
+  private double dot(int i, int j, int start, int end) {
+    double sum = 0;
+    for(int pi = i*n+start, pj = j*n+start, pe = i*n+end; pi<pe; pi++, pj++) {
+      sum += L[pi]*L[pj];
+    }
+    return sum;
+  }
+
+  /**
+   * Returns true if the matrix is symmetric and positive definite.
+   *
+   * @return true if A is symmetric and positive definite
+   */
+  public boolean isSPD() {
+    return isspd;
+  }
+
+  /**
+   * Gets the lower triangular factor.
+   *
+   * @return L
+   */
+  public double[][] getL() {
+    double[][] l = new double[n][n];
+    for(int i = 0; i<n; i++) {
+      System.arraycopy(L, i*n, l[i], 0, i+1);
+    }
+    return l;
+  }
+
+  /**
+   * Gets the determinant.
+   *
+   * @return the determinant or NaN if the matrix is not positive definite
+   */
+  public double determinant() {
+    if(!isspd) {
+      return Double.NaN;
+    }
+    double det = 1;
+    for(int i = 0; i<n; i++) {
+      det *= L[i*n+i]*L[i*n+i];
+    }
+    return det;
+  }
+
+  /**
+   * Solves A*x = b.
+   *
+   * @param b the right hand side
+   * @return x or null if the matrix is not symmetric and positive definite
+   */
+  public double[] solve(double[] b) {
+    if(!isspd) {
+      return null;
+    }
+    double[] x = new double[n];
+    // solve L*y = b
+    for(int i = 0; i<n; i++) {
+      double sum = b[i];
+      for(int k = 0, pt = i*n; k<i; k++, pt++) {
+        sum -= L[pt]*x[k];
+      }
+      x[i] = sum/L[i*n+i];
+    }
+    // solve L'*x = y
+    for(int k = n-1; k>=0; k--) {
+      x[k] /= L[k*n+k];
+      double xk = x[k];
+      for(int i = 0, pt = k*n; i<k; i++, pt++) {
+        x[i] -= xk*L[pt];
+      }
+    }
+    return x;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
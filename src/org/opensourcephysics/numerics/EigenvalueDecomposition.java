@@ -9,6 +9,7 @@
  * Code adapted from JAMA library to use double[][] arrays rather than JAMA Matrix class.
  */
 package org.opensourcephysics.numerics;
+import java.util.Arrays;
 
 /**
  * Eigenvalues and eigenvectors of a real matrix.
@@ -69,6 +70,14 @@ public class EigenvalueDecomposition implements java.io.Serializable {
    */
   private double[] ort;
 
+  /**
+   * Flat row-major working storage for the symmetric algorithm.
+   */
+  private transient double[] v, cs;
+  private transient double[][] partial;
+  static final int MIN_PARALLEL_ROWS = 64;
+  static final int MIN_PARALLEL_WORK = 1<<14;
+
   /*
    *  ------------------------
    *  Private Methods
@@ -80,8 +89,11 @@ public class EigenvalueDecomposition implements java.io.Serializable {
     //  Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
     //  Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
     //  Fortran subroutine in EISPACK.
+    //  The matrix is held in the flat row-major array v so that the O(n^3)
+    //  loops sweep contiguous rows and can be split into parallel bands.
+    final double[] v = this.v;
     for(int j = 0; j<n; j++) {
-      d[j] = V[n-1][j];
+      d[j] = v[(n-1)*n+j];
     }
     // Householder reduction to tridiagonal form.
     for(int i = n-1; i>0; i--) {
@@ -94,9 +106,9 @@ public class EigenvalueDecomposition implements java.io.Serializable {
       if(scale==0.0) {
         e[i] = d[i-1];
         for(int j = 0; j<i; j++) {
-          d[j] = V[i-1][j];
-          V[i][j] = 0.0;
-          V[j][i] = 0.0;
+          d[j] = v[(i-1)*n+j];
+          v[i*n+j] = 0.0;
+          v[j*n+i] = 0.0;
         }
       } else {
         // Generate Householder vector.
@@ -112,19 +124,34 @@ public class EigenvalueDecomposition implements java.io.Serializable {
         e[i] = scale*g;
         h = h-f*g;
         d[i-1] = f-g;
-        for(int j = 0; j<i; j++) {
-          e[j] = 0.0;
-        }
         // Apply similarity transformation to remaining columns.
+        // e = A*d using the lower triangle of A, summed over bands of rows.
+        final int ii = i;
+        final int bands = Parallel.getBandCount(i, MIN_PARALLEL_ROWS);
+        if((partial==null)||(partial.length<bands)) {
+          partial = new double[bands][n];
+        }
+        Parallel.forEachBand(i, bands, MIN_PARALLEL_ROWS, (band, start, end) -> {
+          double[] sum = partial[band];
+          Arrays.fill(sum, 0, ii, 0.0);
+          for(int k = start; k<end; k++) {
+            int row = k*n;
+            double dk = d[k];
+            double ek = 0;
+            for(int j = 0; j<k; j++) {
+              ek += v[row+j]*d[j];
+              sum[j] += v[row+j]*dk;
+            }
+            sum[k] += ek+v[row+k]*dk;
+            v[k*n+ii] = dk;
+          }
+        });
         for(int j = 0; j<i; j++) {
-          f = d[j];
-          V[j][i] = f;
-          g = e[j]+V[j][j]*f;
-          for(int k = j+1; k<=i-1; k++) {
-            g += V[k][j]*d[k];
-            e[k] += V[k][j]*f;
+          double sum = 0;
+          for(int b = 0; b<bands; b++) {
+            sum += partial[b][j];
           }
-          e[j] = g;
+          e[j] = sum;
         }
         f = 0.0;
         for(int j = 0; j<i; j++) {
@@ -135,46 +162,61 @@ public class EigenvalueDecomposition implements java.io.Serializable {
         for(int j = 0; j<i; j++) {
           e[j] -= hh*d[j];
         }
-        for(int j = 0; j<i; j++) {
-          f = d[j];
-          g = e[j];
-          for(int k = j; k<=i-1; k++) {
-            V[k][j] -= (f*e[k]+g*d[k]);
+        // Rank two update of the lower triangle.
+        Parallel.forEachBand(i, MIN_PARALLEL_ROWS, (band, start, end) -> {
+          for(int k = start; k<end; k++) {
+            int row = k*n;
+            double dk = d[k], ek = e[k];
+            for(int j = 0; j<=k; j++) {
+              v[row+j] -= (d[j]*ek+e[j]*dk);
+            }
           }
-          d[j] = V[i-1][j];
-          V[i][j] = 0.0;
+        });
+        for(int j = 0; j<i; j++) {
+          d[j] = v[(i-1)*n+j];
+          v[i*n+j] = 0.0;
         }
       }
       d[i] = h;
     }
     // Accumulate transformations.
     for(int i = 0; i<n-1; i++) {
-      V[n-1][i] = V[i][i];
-      V[i][i] = 1.0;
+      v[(n-1)*n+i] = v[i*n+i];
+      v[i*n+i] = 1.0;
       double h = d[i+1];
       if(h!=0.0) {
         for(int k = 0; k<=i; k++) {
-          d[k] = V[k][i+1]/h;
-        }
-        for(int j = 0; j<=i; j++) {
-          double g = 0.0;
-          for(int k = 0; k<=i; k++) {
-            g += V[k][i+1]*V[k][j];
+          d[k] = v[k*n+i+1]/h;
+        }
+        // g = V'*u for the columns j <= i, then V -= d*g', split into bands of columns.
+        final int ii = i;
+        Parallel.forEachBand(i+1, Math.max(1, MIN_PARALLEL_WORK/(i+1)), (band, start, end) -> {
+          double[] g = new double[end-start];
+          for(int k = 0; k<=ii; k++) {
+            int row = k*n;
+            double u = v[row+ii+1];
+            for(int j = start; j<end; j++) {
+              g[j-start] += u*v[row+j];
+            }
           }
-          for(int k = 0; k<=i; k++) {
-            V[k][j] -= g*d[k];
+          for(int k = 0; k<=ii; k++) {
+            int row = k*n;
+            double dk = d[k];
+            for(int j = start; j<end; j++) {
+              v[row+j] -= g[j-start]*dk;
+            }
           }
-        }
+        });
       }
       for(int k = 0; k<=i; k++) {
-        V[k][i+1] = 0.0;
+        v[k*n+i+1] = 0.0;
       }
     }
     for(int j = 0; j<n; j++) {
-      d[j] = V[n-1][j];
-      V[n-1][j] = 0.0;
+      d[j] = v[(n-1)*n+j];
+      v[(n-1)*n+j] = 0.0;
     }
-    V[n-1][n-1] = 1.0;
+    v[(n-1)*n+n-1] = 1.0;
     e[0] = 0.0;
   }
 
@@ -184,6 +226,13 @@ public class EigenvalueDecomposition implements java.io.Serializable {
     //  Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
     //  Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
     //  Fortran subroutine in EISPACK.
+    //  The rotations of each QL sweep are saved and then applied to
+    //  the rows of v in parallel bands.
+    final double[] v = this.v;
+    if((cs==null)||(cs.length!=2*n)) {
+      cs = new double[2*n];
+    }
+    final double[] cs = this.cs;
     for(int i = 1; i<n; i++) {
       e[i-1] = e[i];
     }
@@ -242,13 +291,22 @@ public class EigenvalueDecomposition implements java.io.Serializable {
             c = p/r;
             p = c*d[i]-s*g;
             d[i+1] = h+s*(c*g+s*d[i]);
-            // Accumulate transformation.
-            for(int k = 0; k<n; k++) {
-              h = V[k][i+1];
-              V[k][i+1] = s*V[k][i]+c*h;
-              V[k][i] = c*V[k][i]-s*h;
-            }
+            cs[2*i] = c;
+            cs[2*i+1] = s;
           }
+          // Accumulate transformations.
+          final int ll = l, mm = m;
+          Parallel.forEachBand(n, Math.max(1, MIN_PARALLEL_WORK/(m-l)), (band, start, end) -> {
+            for(int k = start; k<end; k++) {
+              int row = k*n;
+              for(int i = mm-1; i>=ll; i--) {
+                double ci = cs[2*i], si = cs[2*i+1];
+                double hk = v[row+i+1];
+                v[row+i+1] = si*v[row+i]+ci*hk;
+                v[row+i] = ci*v[row+i]-si*hk;
+              }
+            }
+          });
           p = -s*s2*c3*el1*e[l]/dl1;
           e[l] = s*p;
           d[l] = c*p;
@@ -272,14 +330,31 @@ public class EigenvalueDecomposition implements java.io.Serializable {
         d[k] = d[i];
         d[i] = p;
         for(int j = 0; j<n; j++) {
-          p = V[j][i];
-          V[j][i] = V[j][k];
-          V[j][k] = p;
+          p = v[j*n+i];
+          v[j*n+i] = v[j*n+k];
+          v[j*n+k] = p;
         }
       }
     }
   }
 
+  // Symmetric decomposition using the flat work array v.
+  private void symmetric(double[][] A) {
+    if((v==null)||(v.length!=n*n)) {
+      v = new double[n*n];
+    }
+    for(int i = 0; i<n; i++) {
+      System.arraycopy(A[i], 0, v, i*n, n);
+    }
+    // Tridiagonalize.
+    tred2();
+    // Diagonalize.
+    tql2();
+    for(int i = 0; i<n; i++) {
+      System.arraycopy(v, i*n, V[i], 0, n);
+    }
+  }
+
   // Nonsymmetric reduction to Hessenberg form.
   private void orthes() {
     //  This is derived from the Algol procedures orthes and ortran,
@@ -777,15 +852,7 @@ public class EigenvalueDecomposition implements java.io.Serializable {
       }
     }
     if(issymmetric) {
-      for(int i = 0; i<n; i++) {
-        for(int j = 0; j<n; j++) {
-          V[i][j] = A[i][j];
-        }
-      }
-      // Tridiagonalize.
-      tred2();
-      // Diagonalize.
-      tql2();
+      symmetric(A);
     } else {
       H = new double[n][n];
       ort = new double[n];
@@ -820,15 +887,7 @@ public class EigenvalueDecomposition implements java.io.Serializable {
       }
     }
     if(issymmetric) {
-      for(int i = 0; i<n; i++) {
-        for(int j = 0; j<n; j++) {
-          V[i][j] = A[i][j];
-        }
-      }
-      // Tridiagonalize.
-      tred2();
-      // Diagonalize.
-      tql2();
+      symmetric(A);
     } else {
       if((H==null)||(ort==null)) {
         H = new double[n][n];
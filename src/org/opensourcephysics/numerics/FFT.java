@@ -6,6 +6,8 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * FFT computes FFT's of complex, double precision data of arbitrary length n.
@@ -30,6 +32,10 @@ package org.opensourcephysics.numerics;
  *  The default offset, i0, is 0 and the stride is 2.
  *
  *  The transformed data is returned in the original data array in wrap-around order.
+ *  <P>
+ *  The factors and twiddle tables for each length are computed once and shared by all
+ *  FFT objects of that length.  An FFT object has its own scratch storage and should
+ *  be used by one thread at a time; use one FFT per thread for concurrent transforms.
  *
  *  @author Bruce R. Miller bruce.miller@nist.gov
  *  @author Contribution of the National Institute of Standards and Technology,
@@ -352,17 +358,49 @@ public class FFT {
   // Reversed the last 2 levels of the twiddle array compared to what the C version had.
 
   private double twiddle[][][];
-  private int available_factors[] = {7, 6, 5, 4, 3, 2};
+  private static final int available_factors[] = {7, 6, 5, 4, 3, 2};
+
+  /**
+   * Factors and twiddle tables for one transform length.
+   * Wavetables are never modified after they are built, so a single table is shared
+   * by every FFT of the same length, including FFTs used on different threads.
+   */
+  private static final class Wavetable {
+    final int factors[];
+    final double twiddle[][][];
+
+    Wavetable(int factors[], double twiddle[][][]) {
+      this.factors = factors;
+      this.twiddle = twiddle;
+    }
+
+  }
+
+  private static final int MAX_CACHED_WAVETABLES = 64;
+  private static final Map<Integer, Wavetable> wavetables = new ConcurrentHashMap<Integer, Wavetable>();
 
   private void setup_wavetable(int n) {
     if(n<=0) {
       throw new Error("length must be positive integer : "+n); //$NON-NLS-1$
     }
     this.n = n;
-    factors = factor(n, available_factors);
+    Wavetable table = wavetables.get(n);
+    if(table==null) {
+      table = create_wavetable(n);
+      if(wavetables.size()>=MAX_CACHED_WAVETABLES) {
+        wavetables.clear();
+      }
+      wavetables.put(n, table);
+    }
+    factors = table.factors;
+    twiddle = table.twiddle;
+  }
+
+  private static Wavetable create_wavetable(int n) {
+    int[] factors = factor(n, available_factors);
     double d_theta = -2.0*PI/(n);
     int product = 1;
-    twiddle = new double[factors.length][][];
+    double[][][] twiddle = new double[factors.length][][];
     for(int i = 0; i<factors.length; i++) {
       int factor = factors[i];
       int product_1 = product;      /* product_1 = p_(i-1) */
@@ -386,6 +424,7 @@ public class FFT {
         }
       }
     }
+    return new Wavetable(factors, twiddle);
   }
 
   /*
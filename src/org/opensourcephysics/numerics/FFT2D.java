@@ -6,6 +6,7 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.util.Arrays;
 
 /**
  * FFT2D computes the FFT of 2 dimensional complex, double precision data.
@@ -24,15 +25,19 @@ package org.opensourcephysics.numerics;
  * The transformed data is returned in the original data array in
  * <a href="package-summary.html#wraparound">wrap-around</A> order along each dimension.
  *
+ * The row and column passes of large arrays are divided among threads using Parallel.
+ *
  * @author Bruce R. Miller bruce.miller@nist.gov
  * @author Contribution of the National Institute of Standards and Technology,
  * @author not subject to copyright.
  */
 public class FFT2D {
   static final double PI2 = 2*Math.PI;
+  static final int MIN_BAND_POINTS = 4096; // complex points per band before a pass is split across threads
   int nrows;
   int ncols;
   FFT rowFFT, colFFT;
+  FFT[] rowFFTs, colFFTs;                   // one FFT per band; FFT scratch storage is not shared
   double[] acol, ccol;
 
   /**
@@ -53,6 +58,54 @@ public class FFT2D {
     }
     rowFFT = new FFT(ncols);
     colFFT = ((nrows==ncols) ? rowFFT : new FFT(nrows));
+    rowFFTs = new FFT[] {rowFFT};
+    colFFTs = new FFT[] {colFFT};
+  }
+
+  /**
+   * Gets the FFT used by the given band, creating it if needed.
+   * Only the band that owns the array slot reads or writes it while a pass is running.
+   */
+  private FFT getFFT(FFT[] ffts, int band, int n) {
+    FFT fft = ffts[band];
+    if(fft==null) {
+      fft = ffts[band] = new FFT(n);
+    }
+    return fft;
+  }
+
+  /**
+   * Transforms the rows of data.  Rows are split across threads for large arrays.
+   */
+  private void rowPass(final double data[], final int rowspan, final int sign) {
+    int nBands = Parallel.getBandCount(nrows, Math.max(1, MIN_BAND_POINTS/ncols));
+    if(rowFFTs.length<nBands) {
+      rowFFTs = Arrays.copyOf(rowFFTs, nBands);
+    }
+    final FFT[] ffts = rowFFTs;
+    Parallel.forEachBand(nrows, nBands, Math.max(1, MIN_BAND_POINTS/ncols), (band, start, end) -> {
+      FFT fft = getFFT(ffts, band, ncols);
+      for(int i = start; i<end; i++) {
+        fft.transform_internal(data, i*rowspan, 2, sign);
+      }
+    });
+  }
+
+  /**
+   * Transforms the columns of data.  Columns are split across threads for large arrays.
+   */
+  private void colPass(final double data[], final int rowspan, final int sign) {
+    int nBands = Parallel.getBandCount(ncols, Math.max(1, MIN_BAND_POINTS/nrows));
+    if(colFFTs.length<nBands) {
+      colFFTs = Arrays.copyOf(colFFTs, nBands);
+    }
+    final FFT[] ffts = colFFTs;
+    Parallel.forEachBand(ncols, nBands, Math.max(1, MIN_BAND_POINTS/nrows), (band, start, end) -> {
+      FFT fft = getFFT(ffts, band, nrows);
+      for(int j = start; j<end; j++) {
+        fft.transform_internal(data, 2*j, rowspan, sign);
+      }
+    });
   }
 
   protected void checkData(double data[], int rowspan) {
@@ -83,12 +136,8 @@ public class FFT2D {
    */
   void transform_internal(double data[], int rowspan) {
     checkData(data, rowspan);
-    for(int i = 0; i<nrows; i++) {
-      rowFFT.transform_internal(data, i*rowspan, 2, FFT.FORWARD);
-    }
-    for(int j = 0; j<ncols; j++) {
-      colFFT.transform_internal(data, 2*j, rowspan, FFT.FORWARD);
-    }
+    rowPass(data, rowspan, FFT.FORWARD);
+    colPass(data, rowspan, FFT.FORWARD);
   }
 
   /**
@@ -106,12 +155,8 @@ public class FFT2D {
    */
   void backtransform_internal(double data[], int rowspan) {
     checkData(data, rowspan);
-    for(int j = 0; j<ncols; j++) {
-      colFFT.transform_internal(data, 2*j, rowspan, FFT.BACKWARD);
-    }
-    for(int i = 0; i<nrows; i++) {
-      rowFFT.transform_internal(data, i*rowspan, 2, FFT.BACKWARD);
-    }
+    colPass(data, rowspan, FFT.BACKWARD);
+    rowPass(data, rowspan, FFT.BACKWARD);
   }
 
   /**
@@ -131,7 +176,9 @@ public class FFT2D {
     backtransform_internal(data, rowspan);
     double norm = 1.0/((double) nrows*ncols);
     for(int i = 0; i<nrows; i++) {
-      data[i] *= norm;
+      for(int j = i*rowspan, end = j+2*ncols; j<end; j++) {
+        data[j] *= norm;
+      }
     }
   }
 
@@ -87,6 +87,38 @@ public class FFTReal {
     return data;
   }
 
+  /**
+   * Computes the complex FFT of real data using a complex transform of half the length.
+   *
+   * The result is identical to a complex FFT of the data with zero imaginary parts
+   * and is stored in wrap-around order as (re,im) pairs.  The given data array is unchanged.
+   *
+   * @param data double[]     the n real data points
+   * @param complex double[]  an array of length at least 2*n to receive the result, may be null
+   * @return double[]         the complex spectrum
+   */
+  public double[] transformToComplex(double data[], double complex[]) {
+    if(data.length!=n) {
+      setN(data.length);
+    }
+    if((complex==null)||(complex.length<2*n)) {
+      complex = new double[2*n];
+    }
+    System.arraycopy(data, 0, complex, 0, n);
+    fft.transform_internal(complex, 0, 2, FFT.FORWARD);
+    shuffle(complex, +1);
+    // the packed coefficients F[0], F[n/2], F[1], ... F[n/2-1] are already in place for k < n/2
+    int nh = n/2;
+    complex[n] = complex[1]; // F[n/2] is real
+    complex[n+1] = 0;
+    complex[1] = 0;          // F[0] is real
+    for(int k = nh+1; k<n; k++) { // F[n-k] = conj(F[k])
+      complex[2*k] = complex[2*(n-k)];
+      complex[2*k+1] = -complex[2*(n-k)+1];
+    }
+    return complex;
+  }
+
   /**
    * Computes the (unnomalized) inverse FFT of data, leaving it in place.
    *
@@ -182,10 +214,7 @@ public class FFTReal {
    */
   private void shuffle(double data[], int sign) {
     int nh = n/2;
-    int nq = n/4;
-    if(n==6) {
-      nq = 2;
-    }
+    int nq = (nh+1)/2; // pairs (i, nh-i) up to the middle coefficient
     double c1 = 0.5, c2 = -0.5*sign;
     double theta = sign*Math.PI/nh;
     double wtemp = Math.sin(0.5*theta);
@@ -25,6 +25,7 @@
 
 */
 package org.opensourcephysics.numerics;
+import java.util.function.Supplier;
 
 /**
  * Class description
@@ -34,13 +35,50 @@ public class HessianMinimize {
   int Iterations;
   double[][] H;
   double[] xp;
-  double[] xm;
-  double[] xpp;
-  double[] xpm;
-  double[] xmp;
-  double[] xmm;
+  double[] values;   // function values at the finite difference points
+  int[] pairI, pairJ; // variable pairs for the mixed derivatives
   private double rmsd_tmp, rmsd;
   private double[] xtmp;
+  private Supplier<? extends MultiVarFunction> functionFactory;
+  private MultiVarFunction[] clones;
+  private boolean hessianUpdates;
+  private MultiVarFunction lastFunction;
+  private double[] xPrev, gradPrev, s, y, Hs;
+
+  /**
+   * Enables concurrent evaluation of the finite difference points.
+   *
+   * The factory must return an independent copy of the function being minimized.
+   * Each thread evaluates its own copy so the function need not be thread safe.
+   *
+   * @param factory the function factory, or null to evaluate on the calling thread
+   */
+  public void setParallelEvaluation(Supplier<? extends MultiVarFunction> factory) {
+    functionFactory = factory;
+    clones = null;
+  }
+
+  /**
+   * Enables quasi-Newton (BFGS) updates of the Hessian.
+   *
+   * When enabled, only the gradient is evaluated by finite differences after the first
+   * iteration and the previous Hessian is updated from the change in the gradient.
+   * The full Hessian is recomputed whenever the update would not be positive definite.
+   *
+   * @param update true to update the Hessian
+   */
+  public void setHessianUpdates(boolean update) {
+    hessianUpdates = update;
+    resetUpdates();
+  }
+
+  /**
+   * Discards the Hessian and gradient saved for quasi-Newton updates.
+   */
+  void resetUpdates() {
+    lastFunction = null;
+    xPrev = null;
+  }
 
   /*  Inputs
 
@@ -73,9 +111,16 @@ public class HessianMinimize {
     //Use the Hessian method for an equation of several variables
     //start with a good guess.
     Iterations = 0;
+    resetUpdates();
+    LUPDecomposition lu = null;
     while((err>tol*1.e-6)&&(relerr>tol*1.e-6)&&(Iterations<max)) {
       Iterations++;
-      LUPDecomposition lu = new LUPDecomposition(getHessian(Veq, x, D, dx));
+      double[][] hessian = getHessian(Veq, x, D, dx);
+      if(lu==null) {
+        lu = new LUPDecomposition(hessian);
+      } else {
+        lu.recompute(hessian); // reuse the decomposition storage
+      }
       // use the LUPDecomposition's solve method
       xxn = lu.solve(D);      //the corrections
       for(int i = 0; i<m; i++) {
@@ -100,11 +145,20 @@ public class HessianMinimize {
   private void allocateArrays(int m) {
     H = new double[m][m];
     xp = new double[m];
-    xm = new double[m];
-    xpp = new double[m];
-    xpm = new double[m];
-    xmp = new double[m];
-    xmm = new double[m];
+    values = new double[1+2*m+2*m*(m-1)];
+    pairI = new int[m*(m-1)/2];
+    pairJ = new int[m*(m-1)/2];
+    for(int i = 0, pair = 0; i<m; i++) {
+      for(int j = i+1; j<m; j++, pair++) {
+        pairI[pair] = i;
+        pairJ[pair] = j;
+      }
+    }
+    s = new double[m];
+    y = new double[m];
+    Hs = new double[m];
+    gradPrev = new double[m];
+    xPrev = null;
   }
 
   void crudeGuess(MultiVarFunction Veq, double[] x) {
@@ -249,50 +303,141 @@ public class HessianMinimize {
     if((xp==null)||(xp.length!=m)) {
       allocateArrays(m);
     }
+    if(hessianUpdates&&(Veq==lastFunction)&&(xPrev!=null)) {
+      // evaluate only f(x+dx[i]) and f(x-dx[i]) and update the previous Hessian
+      evaluatePoints(Veq, x, dx, 1, 1+2*m);
+      for(int i = 0; i<m; i++) {
+        D[i] = -(values[1+2*i]-values[2+2*i])/(2.0*dx[i]);
+      }
+      if(updateHessian(x, D)) {
+        return H;
+      }
+      evaluatePoints(Veq, x, dx, 0, 1);
+      evaluatePoints(Veq, x, dx, 1+2*m, values.length);
+    } else {
+      evaluatePoints(Veq, x, dx, 0, values.length);
+    }
     //  Compute the Hessian:
+    double f0 = values[0];
     for(int i = 0; i<m; i++) {
-      for(int j = i; j<m; j++) {
-        if(i==j) {
-          for(int k = 0; k<m; k++) { //reset the x's
-            xp[k] = x[k];
-            xm[k] = x[k];
-          }
-          xp[i] = x[i]+dx[i];        //change the ith one
-          xm[i] = x[i]-dx[i];
-          H[i][i] = (Veq.evaluate(xp)-2.0*Veq.evaluate(x)+Veq.evaluate(xm))/(dx[i]*dx[i]);
-        } else {
-          for(int k = 0; k<m; k++) { //reset the x's
-            xpp[k] = x[k];
-            xpm[k] = x[k];
-            xmp[k] = x[k];
-            xmm[k] = x[k];
-          }
-          xpp[i] = x[i]+dx[i];       //change the ith, jth ones
-          xpp[j] = x[j]+dx[j];
-          xpm[i] = x[i]+dx[i];
-          xpm[j] = x[j]-dx[j];
-          xmp[i] = x[i]-dx[i];
-          xmp[j] = x[j]+dx[j];
-          xmm[i] = x[i]-dx[i];
-          xmm[j] = x[j]-dx[j];
-          H[i][j] = ((Veq.evaluate(xpp)-Veq.evaluate(xpm))/(2.0*dx[j])-(Veq.evaluate(xmp)-Veq.evaluate(xmm))/(2.0*dx[j]))/(2.0*dx[i]);
-          H[j][i] = H[i][j];
-        }
-      }
+      H[i][i] = (values[1+2*i]-2.0*f0+values[2+2*i])/(dx[i]*dx[i]);
+    }
+    for(int pair = 0, pt = 1+2*m; pair<pairI.length; pair++, pt += 4) {
+      int i = pairI[pair], j = pairJ[pair];
+      H[i][j] = ((values[pt]-values[pt+1])/(2.0*dx[j])-(values[pt+2]-values[pt+3])/(2.0*dx[j]))/(2.0*dx[i]);
+      H[j][i] = H[i][j];
     }
     // note the D function is the negative of the partial derivative
     for(int i = 0; i<m; i++) {
-      for(int k = 0; k<m; k++) { //reset the x's
-        xp[k] = x[k];
-        xm[k] = x[k];
-      }
-      xp[i] = x[i]+dx[i];        //change the ith one
-      xm[i] = x[i]-dx[i];
-      D[i] = -(Veq.evaluate(xp)-Veq.evaluate(xm))/(2.0*dx[i]);
+      D[i] = -(values[1+2*i]-values[2+2*i])/(2.0*dx[i]);
+    }
+    if(hessianUpdates) {
+      saveGradient(Veq, x, D);
     }
     return H;
   }
 
+  /**
+   * Applies a BFGS update to H using the step from the previous point.
+   *
+   * @return true if H was updated; false if the full Hessian must be recomputed
+   */
+  private boolean updateHessian(double[] x, double[] D) {
+    int m = x.length;
+    double ss = 0, sy = 0, yy = 0;
+    for(int i = 0; i<m; i++) {
+      s[i] = x[i]-xPrev[i];
+      y[i] = -D[i]-gradPrev[i]; // change in gradient, D is the negative gradient
+      ss += s[i]*s[i];
+      sy += s[i]*y[i];
+      yy += y[i]*y[i];
+    }
+    if(ss==0) { // rejected step returns to the previous point
+      return true;
+    }
+    double sHs = 0;
+    for(int i = 0; i<m; i++) {
+      double sum = 0;
+      for(int j = 0; j<m; j++) {
+        sum += H[i][j]*s[j];
+      }
+      Hs[i] = sum;
+      sHs += s[i]*sum;
+    }
+    if(!(sy>1.0e-12*Math.sqrt(ss*yy))||!(sHs>0)) {
+      return false;
+    }
+    for(int i = 0; i<m; i++) {
+      for(int j = 0; j<m; j++) {
+        H[i][j] += y[i]*y[j]/sy-Hs[i]*Hs[j]/sHs;
+      }
+    }
+    saveGradient(lastFunction, x, D);
+    return true;
+  }
+
+  private void saveGradient(MultiVarFunction Veq, double[] x, double[] D) {
+    int m = x.length;
+    if(xPrev==null) {
+      xPrev = new double[m];
+    }
+    System.arraycopy(x, 0, xPrev, 0, m);
+    for(int i = 0; i<m; i++) {
+      gradPrev[i] = -D[i];
+    }
+    lastFunction = Veq;
+  }
+
+  /**
+   * Evaluates the function at the finite difference points from start to end-1 and stores the values.
+   * Point 0 is x, points 1 to 2m are x+dx[i] and x-dx[i], and the remaining points are
+   * x+dx[i]+dx[j], x+dx[i]-dx[j], x-dx[i]+dx[j] and x-dx[i]-dx[j] for each pair i&lt;j.
+   */
+  private void evaluatePoints(MultiVarFunction Veq, double[] x, double[] dx, int start, int end) {
+    if(functionFactory==null) {
+      for(int t = start; t<end; t++) {
+        setPoint(t, x, dx, xp);
+        values[t] = Veq.evaluate(xp);
+      }
+      return;
+    }
+    int bands = Parallel.getBandCount(end-start, 1);
+    if((clones==null)||(clones.length<bands)) {
+      MultiVarFunction[] newClones = new MultiVarFunction[bands];
+      for(int i = 0; i<bands; i++) {
+        newClones[i] = ((clones!=null)&&(i<clones.length)) ? clones[i] : functionFactory.get();
+      }
+      clones = newClones;
+    }
+    Parallel.forEachBand(end-start, bands, 1, (band, first, last) -> {
+      MultiVarFunction f = clones[band];
+      double[] p = new double[x.length];
+      for(int t = start+first; t<start+last; t++) {
+        setPoint(t, x, dx, p);
+        values[t] = f.evaluate(p);
+      }
+    });
+  }
+
+  private void setPoint(int t, double[] x, double[] dx, double[] p) {
+    int m = x.length;
+    System.arraycopy(x, 0, p, 0, m);
+    if(t==0) {
+      return;
+    }
+    t--;
+    if(t<2*m) {
+      int i = t/2;
+      p[i] = ((t%2)==0) ? x[i]+dx[i] : x[i]-dx[i];
+      return;
+    }
+    t -= 2*m;
+    int pair = t/4, k = t%4;
+    int i = pairI[pair], j = pairJ[pair];
+    p[i] = (k<2) ? x[i]+dx[i] : x[i]-dx[i];
+    p[j] = ((k%2)==0) ? x[j]+dx[j] : x[j]-dx[j];
+  }
+
 }
 
 /*
@@ -11,13 +11,31 @@ package org.opensourcephysics.numerics;
  * Lower Upper Permutation (LUP) decomposition
  * See Object Oriented Implementation of Numerical Methods by Didier H. Besset.
  *
+ * The factors are stored in a flat row-major array and computed by a blocked algorithm.
+ * The update of the trailing submatrix is divided among threads for large systems.
+ *
  * @author Didier H. Besset
  */
 public class LUPDecomposition {
   /**
-   * Rows of the system
+   * Block size
+   */
+  static final int BLOCK = 48;
+
+  /**
+   * Minimum number of multiply-adds in a band of the trailing update
+   */
+  static final int MIN_PARALLEL_WORK = 1<<15;
+
+  /**
+   * Dimension of the system
+   */
+  private int n;
+
+  /**
+   * Rows of the system stored in row-major order
    */
-  private double[][] rows;
+  private double[] rows;
 
   /**
    * Permutation
@@ -43,37 +61,91 @@ public class LUPDecomposition {
     initialize(components);
   }
 
+  /**
+   * Recomputes the decomposition for a new matrix of the same size, reusing the storage.
+   *
+   * @param components double[][]
+   * @throws IllegalArgumentException
+   */
+  public void recompute(double[][] components) throws IllegalArgumentException {
+    if((components.length!=n)||(components[0].length!=n)) {
+      throw new IllegalArgumentException("Matrix dimension must match that of original matrix."); //$NON-NLS-1$
+    }
+    initialize(components);
+  }
+
   /**
    * @return double[]
    * @param xTilde double[]
    */
   private double[] backwardSubstitution(double[] xTilde) {
-    int n = rows.length;
     double[] answer = new double[n];
     for(int i = n-1; i>=0; i--) {
-      answer[i] = xTilde[i];
-      for(int j = i+1; j<n; j++) {
-        answer[i] -= rows[i][j]*answer[j];
+      double sum = xTilde[i];
+      for(int j = i+1, pt = i*n+j; j<n; j++, pt++) {
+        sum -= rows[pt]*answer[j];
       }
-      answer[i] /= rows[i][i];
+      answer[i] = sum/rows[i*n+i];
     }
     return answer;
   }
 
   private void decompose() {
-    int n = rows.length;
-    permutation = new int[n];
+    if((permutation==null)||(permutation.length!=n)) {
+      permutation = new int[n];
+    }
     for(int i = 0; i<n; i++) {
       permutation[i] = i;
     }
     parity = 1;
-    try {
-      for(int i = 0; i<n; i++) {
-        swapRows(i, largestPivot(i));
-        pivot(i);
+    for(int kb = 0; kb<n; kb += BLOCK) {
+      int ke = Math.min(kb+BLOCK, n);
+      // factor the panel of columns kb to ke-1
+      for(int k = kb; k<ke; k++) {
+        swapRows(k, largestPivot(k));
+        pivot(k, ke);
+      }
+      if(ke==n) {
+        break;
+      }
+      // compute the block row of U to the right of the panel
+      for(int k = kb+1; k<ke; k++) {
+        for(int p = kb; p<k; p++) {
+          double l = rows[k*n+p];
+          if(l!=0) {
+            for(int j = ke, pk = k*n+ke, pp = p*n+ke; j<n; j++, pk++, pp++) {
+              rows[pk] -= l*rows[pp];
+            }
+          }
+        }
+      }
+      // update the trailing submatrix
+      final int kb0 = kb, ke0 = ke;
+      int m = n-ke;
+      Parallel.forEachBand(m, Math.max(1, MIN_PARALLEL_WORK/(m*(ke-kb))), (band, start, end) -> {
+        updateTrailing(kb0, ke0, ke0+start, ke0+end);
+      });
+    }
+  }
+
+  /**
+   * Subtracts the product of the panel columns kb to ke-1 and the U block row from rows start to end-1.
+   */
+  private void updateTrailing(int kb, int ke, int start, int end) {
+    for(int jb = ke; jb<n; jb += BLOCK) {
+      int je = Math.min(jb+BLOCK, n);
+      for(int i = start; i<end; i++) {
+        int row = i*n;
+        for(int p = kb; p<ke; p++) {
+          double l = rows[row+p];
+          if(l==0) {
+            continue;
+          }
+          for(int j = jb, pi = row+jb, pp = p*n+jb; j<je; j++, pi++, pp++) {
+            rows[pi] -= l*rows[pp];
+          }
+        }
       }
-    } catch(ArithmeticException e) {
-      parity = 0;
     }
   }
 
@@ -97,8 +169,8 @@ public class LUPDecomposition {
       return Double.NaN;
     }
     double determinant = parity;
-    for(int i = 0; i<rows.length; i++) {
-      determinant *= rows[i][i];
+    for(int i = 0; i<n; i++) {
+      determinant *= rows[i*n+i];
     }
     return determinant;
   }
@@ -108,13 +180,13 @@ public class LUPDecomposition {
    * @param c double[]
    */
   private double[] forwardSubstitution(double[] c) {
-    int n = rows.length;
     double[] answer = new double[n];
     for(int i = 0; i<n; i++) {
-      answer[i] = c[permutation[i]];
-      for(int j = 0; j<=i-1; j++) {
-        answer[i] -= rows[i][j]*answer[j];
+      double sum = c[permutation[i]];
+      for(int j = 0, pt = i*n; j<i; j++, pt++) {
+        sum -= rows[pt]*answer[j];
       }
+      answer[i] = sum;
     }
     return answer;
   }
@@ -123,10 +195,12 @@ public class LUPDecomposition {
    * @param components double[][]  components obtained from constructor methods.
    */
   private void initialize(double[][] components) {
-    int n = components.length;
-    rows = new double[n][n];
+    n = components.length;
+    if((rows==null)||(rows.length!=n*n)) {
+      rows = new double[n*n];
+    }
     for(int i = 0; i<n; i++) { // loop over the rows
-      System.arraycopy(components[i], 0, rows[i], 0, n);
+      System.arraycopy(components[i], 0, rows, i*n, n);
     }
     permutation = null;
     parity = 1;
@@ -134,6 +208,7 @@ public class LUPDecomposition {
 
   /**
    * Calculates the inverse matrix components.
+   * Columns of the inverse are computed in parallel for large systems.
    *
    * @return the matrix inverse or null if the inverse does not exist
    */
@@ -141,23 +216,26 @@ public class LUPDecomposition {
     if(!decomposed()) {
       return null;
     }
-    int n = rows.length;
     double[][] inverseMatrix = new double[n][n];
-    double[] column = new double[n];
-    for(int i = 0; i<n; i++) {
-      for(int j = 0; j<n; j++) {
-        column[j] = 0;
-      }
-      column[i] = 1;
-      column = solve(column);
-      for(int j = 0; j<n; j++) {
-        if(Double.isNaN(column[j])) {
-          return null;
+    boolean[] singular = new boolean[1];
+    Parallel.forEachBand(n, Math.max(1, MIN_PARALLEL_WORK/(n*n)), (band, start, end) -> {
+      double[] column = new double[n];
+      for(int i = start; i<end; i++) {
+        for(int j = 0; j<n; j++) {
+          column[j] = 0;
+        }
+        column[i] = 1;
+        double[] x = solve(column);
+        for(int j = 0; j<n; j++) {
+          if(Double.isNaN(x[j])) {
+            singular[0] = true;
+            return;
+          }
+          inverseMatrix[j][i] = x[j];
         }
-        inverseMatrix[j][i] = column[j];
       }
-    }
-    return inverseMatrix;
+    });
+    return singular[0] ? null : inverseMatrix;
   }
 
   /**
@@ -180,11 +258,11 @@ public class LUPDecomposition {
    * @param k int
    */
   private int largestPivot(int k) {
-    double maximum = Math.abs(rows[k][k]);
+    double maximum = Math.abs(rows[k*n+k]);
     double abs;
     int index = k;
-    for(int i = k+1; i<rows.length; i++) {
-      abs = Math.abs(rows[i][k]);
+    for(int i = k+1; i<n; i++) {
+      abs = Math.abs(rows[i*n+k]);
       if(abs>maximum) {
         maximum = abs;
         index = i;
@@ -194,16 +272,19 @@ public class LUPDecomposition {
   }
 
   /**
+   * Eliminates column k from the rows below it within the panel ending at column ke-1.
+   *
    * @param k int
+   * @param ke int
    */
-  private void pivot(int k) {
-    double inversePivot = 1/rows[k][k];
+  private void pivot(int k, int ke) {
+    double inversePivot = 1/rows[k*n+k];
     int k1 = k+1;
-    int n = rows.length;
     for(int i = k1; i<n; i++) {
-      rows[i][k] *= inversePivot;
-      for(int j = k1; j<n; j++) {
-        rows[i][j] -= rows[i][k]*rows[k][j];
+      int row = i*n;
+      double l = rows[row+k] *= inversePivot;
+      for(int j = k1, pk = k*n+k1; j<ke; j++, pk++) {
+        rows[row+j] -= l*rows[pk];
       }
     }
   }
@@ -223,10 +304,10 @@ public class LUPDecomposition {
   private void swapRows(int i, int k) {
     if(i!=k) {
       double temp;
-      for(int j = 0; j<rows.length; j++) {
-        temp = rows[i][j];
-        rows[i][j] = rows[k][j];
-        rows[k][j] = temp;
+      for(int j = 0, pi = i*n, pk = k*n; j<n; j++, pi++, pk++) {
+        temp = rows[pi];
+        rows[pi] = rows[pk];
+        rows[pk] = temp;
       }
       int nTemp;
       nTemp = permutation[i];
@@ -244,12 +325,11 @@ public class LUPDecomposition {
 public String toString() {
     StringBuffer sb = new StringBuffer();
     char[] separator = {'[', ' '};
-    int n = rows.length;
     for(int i = 0; i<n; i++) {
       separator[0] = '{';
       for(int j = 0; j<n; j++) {
         sb.append(separator);
-        sb.append(rows[i][j]);
+        sb.append(rows[i*n+j]);
         separator[0] = ' ';
       }
       sb.append('}');
@@ -7,6 +7,7 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.util.function.Supplier;
 
 /**
  * LevenbergMarquardt performs a minimization of a nonlinear multivariable function using
@@ -22,6 +23,26 @@ public class LevenbergMarquardt {
   private double[] xtmp, xtmp1;
   HessianMinimize hessianMinimize = new HessianMinimize();
 
+  /**
+   * Enables concurrent evaluation of the finite difference points.
+   *
+   * @param factory a factory that returns independent copies of the function, or null
+   * @see HessianMinimize#setParallelEvaluation(Supplier)
+   */
+  public void setParallelEvaluation(Supplier<? extends MultiVarFunction> factory) {
+    hessianMinimize.setParallelEvaluation(factory);
+  }
+
+  /**
+   * Enables quasi-Newton updates of the Hessian between iterations.
+   *
+   * @param update true to update the Hessian
+   * @see HessianMinimize#setHessianUpdates(boolean)
+   */
+  public void setHessianUpdates(boolean update) {
+    hessianMinimize.setHessianUpdates(update);
+  }
+
   /*
    *  Inputs
    *
@@ -56,16 +77,23 @@ public class LevenbergMarquardt {
     //Use the Levenberg-Marquardt alogorithm along with the modified Hessian
     //for an equation of several variables start with a reasonable guess.
     Iterations = 0;
+    hessianMinimize.resetUpdates();
+    LUPDecomposition lu = null;
     while((err>tol*1.e-6)&&(relerr>tol*1.e-6)&&(Iterations<max)&&(Lambda>1e-6)) {
       Iterations++;
       //The Levenberg-Marquardt trick, adds Lambda to the Hessian diagonals
       //We find the modified H and D for Veq. Here Lambda is a parameter to be changed.
       //Ref: K. Madsen, H. B. Nielsen, O. Tngleff, Methods for Non-Linear
-      H = hessianMinimize.getHessian(Veq, x, D, dx);
+      double[][] hessian = hessianMinimize.getHessian(Veq, x, D, dx);
       for(int i = 0; i<m; i++) {
+        System.arraycopy(hessian[i], 0, H[i], 0, m); // keep the unmodified Hessian for updates
         H[i][i] = H[i][i]+Lambda;
       }
-      LUPDecomposition lu = new LUPDecomposition(H);
+      if(lu==null) {
+        lu = new LUPDecomposition(H);
+      } else {
+        lu.recompute(H); // reuse the decomposition storage
+      }
       // use the LUPDecomposition's solve method
       xxn = lu.solve(D);      //the corrections
       for(int i = 0; i<m; i++) {
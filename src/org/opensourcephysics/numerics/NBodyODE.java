@@ -0,0 +1,155 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.util.Arrays;
+
+/**
+ * NBodyODE is the ODE of N bodies that attract each other through gravity.  Forces are computed with a BarnesHut tree code.
+ *
+ * The state stores x, vx, y, vy for every body in two dimensions and x, vx, y, vy, z, vz in three dimensions
+ * followed by the time.  The tree is rebuilt every fourth rate evaluation by default, once per step of the default RK4 solver.
+ * Match the rebuild interval to the number of rate evaluations in a step if another solver is used.
+ *
+ * @version 1.0
+ */
+public class NBodyODE implements ODE {
+  final int dim, n;
+  final double[] state, mass;
+  final BarnesHut tree;
+
+  /**
+   * Constructs the ODE for n bodies with unit mass at the origin.
+   *
+   * @param dimension 2 or 3
+   * @param n the number of bodies
+   */
+  public NBodyODE(int dimension, int n) {
+    tree = new BarnesHut(dimension);
+    tree.setRebuildInterval(4);
+    dim = dimension;
+    this.n = n;
+    state = new double[2*dim*n+1];
+    mass = new double[n];
+    Arrays.fill(mass, 1);
+  }
+
+  /**
+   * Sets the position, velocity, and mass of a body.  The z components are ignored in two dimensions.
+   *
+   * @param i the body index
+   * @param m the mass
+   * @param x double
+   * @param y double
+   * @param z double
+   * @param vx double
+   * @param vy double
+   * @param vz double
+   */
+  public void setBody(int i, double m, double x, double y, double z, double vx, double vy, double vz) {
+    int k = 2*dim*i;
+    mass[i] = m;
+    state[k] = x;
+    state[k+1] = vx;
+    state[k+2] = y;
+    state[k+3] = vy;
+    if(dim==3) {
+      state[k+4] = z;
+      state[k+5] = vz;
+    }
+    tree.invalidate();
+  }
+
+  /**
+   * Gets the number of bodies.
+   *
+   * @return int
+   */
+  public int getBodyCount() {
+    return n;
+  }
+
+  /**
+   * Gets the masses.  Invoke invalidate on the tree code after changing the masses.
+   *
+   * @return double[]
+   */
+  public double[] getMasses() {
+    return mass;
+  }
+
+  /**
+   * Gets the tree code that computes the forces.
+   *
+   * @return BarnesHut
+   */
+  public BarnesHut getTreeCode() {
+    return tree;
+  }
+
+  /**
+   * Gets the total kinetic and potential energy by direct summation.  The cost is of order N squared.
+   *
+   * @param softening the softening length used by the tree code
+   * @param g the gravitational constant
+   * @return double
+   */
+  public double getEnergy(double softening, double g) {
+    int stride = 2*dim;
+    double eps2 = softening*softening, ke = 0, pe = 0;
+    for(int i = 0; i<n; i++) {
+      int ki = stride*i;
+      double v2 = state[ki+1]*state[ki+1]+state[ki+3]*state[ki+3];
+      if(dim==3) {
+        v2 += state[ki+5]*state[ki+5];
+      }
+      ke += 0.5*mass[i]*v2;
+      for(int j = i+1; j<n; j++) {
+        int kj = stride*j;
+        double dx = state[kj]-state[ki], dy = state[kj+2]-state[ki+2];
+        double dz = (dim==3) ? state[kj+4]-state[ki+4] : 0;
+        pe -= g*mass[i]*mass[j]/Math.sqrt(dx*dx+dy*dy+dz*dz+eps2);
+      }
+    }
+    return ke+pe;
+  }
+
+  @Override
+  public double[] getState() {
+    return state;
+  }
+
+  @Override
+  public void getRate(double[] state, double[] rate) {
+    tree.getRate(state, mass, rate);
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,448 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * NeighborList finds the pairs of particles that are closer than a cutoff distance in two or three dimensions.
+ *
+ * Particles are sorted into a grid of cells whose sides are at least the cutoff plus a skin distance, and a Verlet list
+ * of the pairs closer than the cutoff plus the skin is built from neighboring cells.  The list is reused until some
+ * particle has moved more than half the skin since the list was built, so the cost of finding the neighbors of N
+ * particles is of order N instead of N^2.  The box extends from zero to its size along each axis and uses the
+ * minimum image convention of PBC when it is periodic; particles outside a box that is not periodic are placed in
+ * the nearest cell.
+ *
+ * Coordinates are stored in separate arrays and a null z array means two dimensions.  The list is built and the pairs
+ * are visited in bands of particles that run on separate threads.  A half list visits every pair once and
+ * a full list visits every pair twice, once from each particle.  Use a full list, or per-band accumulators indexed
+ * by the band number, when the pair task updates both particles.
+ *
+ * @version 1.0
+ */
+public class NeighborList {
+  static final int MIN_BAND_SIZE = 512; // particles worth running on their own thread
+
+  /**
+   * A task that is invoked for each pair of particles closer than the cutoff.
+   */
+  public interface PairTask {
+    /**
+     * Processes one pair.
+     *
+     * @param band the band running the task, 0 &lt;= band &lt; getBandCount()
+     * @param i the first particle
+     * @param j the second particle
+     * @param dx the x separation of j from i
+     * @param dy the y separation of j from i
+     * @param dz the z separation of j from i, zero in two dimensions
+     * @param r2 the square of the separation
+     */
+    public void pair(int band, int i, int j, double dx, double dy, double dz, double r2);
+
+  }
+
+  double cutoff, skin;
+  double lx = 1, ly = 1, lz = 1;
+  boolean periodic = true;
+  boolean fullList = false;
+  int n;                               // number of particles in the list
+  boolean threeD;
+  double[] refX = new double[0], refY = new double[0], refZ = new double[0]; // positions when the list was built
+  int[] start = new int[1];            // neighbors of i are neighbors[start[i]] to neighbors[start[i+1]-1]
+  int[] neighbors = new int[0];
+  int[] count = new int[0];
+  boolean valid = false;
+  int rebuilds = 0;
+  // cell list
+  int ncx, ncy, ncz;
+  double cellSizeX, cellSizeY, cellSizeZ;
+  int[] cellStart = new int[1];        // particles in cell c are cellParticles[cellStart[c]] to cellParticles[cellStart[c+1]-1]
+  int[] cellParticles = new int[0];
+  int[] cellNext = new int[0];         // insertion point of each cell during the sort
+  int[] particleCell = new int[0];
+  int[][] bandBuffers = new int[0][];
+
+  /**
+   * Constructs a neighbor list.
+   *
+   * @param cutoff the largest separation of a pair
+   * @param skin the extra distance that particles may move before the list is rebuilt
+   */
+  public NeighborList(double cutoff, double skin) {
+    if(!(cutoff>0)||!(skin>=0)) {
+      throw new IllegalArgumentException("Cutoff must be positive and skin must not be negative."); //$NON-NLS-1$
+    }
+    this.cutoff = cutoff;
+    this.skin = skin;
+  }
+
+  /**
+   * Sets the size of a two-dimensional box.
+   *
+   * @param lx double
+   * @param ly double
+   */
+  public void setBox(double lx, double ly) {
+    setBox(lx, ly, 1);
+  }
+
+  /**
+   * Sets the size of a three-dimensional box.
+   *
+   * @param lx double
+   * @param ly double
+   * @param lz double
+   */
+  public void setBox(double lx, double ly, double lz) {
+    if(!(lx>0)||!(ly>0)||!(lz>0)) {
+      throw new IllegalArgumentException("Box size must be positive."); //$NON-NLS-1$
+    }
+    this.lx = lx;
+    this.ly = ly;
+    this.lz = lz;
+    valid = false;
+  }
+
+  /**
+   * Sets periodic boundary conditions along every axis.
+   *
+   * @param periodic boolean
+   */
+  public void setPeriodic(boolean periodic) {
+    this.periodic = periodic;
+    valid = false;
+  }
+
+  /**
+   * Sets whether every pair is visited from both particles.
+   *
+   * @param full boolean
+   */
+  public void setFullList(boolean full) {
+    fullList = full;
+    valid = false;
+  }
+
+  /**
+   * Forces the list to be rebuilt the next time it is updated.
+   * Invoke this method after particles have been added, removed, or moved discontinuously.
+   */
+  public void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Gets the number of times the list has been built.
+   *
+   * @return int
+   */
+  public int getRebuildCount() {
+    return rebuilds;
+  }
+
+  /**
+   * Gets the number of bands used to visit the pairs.  Per-band accumulators need this many elements.
+   *
+   * @return int
+   */
+  public int getBandCount() {
+    return Parallel.getBandCount(n, MIN_BAND_SIZE);
+  }
+
+  /**
+   * Gets the index of the first neighbor of every particle.  The array has one more element than there are particles.
+   *
+   * @return int[]
+   */
+  public int[] getNeighborStart() {
+    return start;
+  }
+
+  /**
+   * Gets the neighbors of every particle within the cutoff plus the skin when the list was built.
+   *
+   * @return int[]
+   */
+  public int[] getNeighbors() {
+    return neighbors;
+  }
+
+  /**
+   * Rebuilds the list if it is invalid or if a particle has moved more than half the skin.
+   *
+   * @param x double[]
+   * @param y double[]
+   * @param z double[] or null in two dimensions
+   * @param n the number of particles
+   * @return true if the list was rebuilt
+   */
+  public boolean update(double[] x, double[] y, double[] z, int n) {
+    if(valid&&(n==this.n)&&((z!=null)==threeD)&&!hasMoved(x, y, z)) {
+      return false;
+    }
+    build(x, y, z, n);
+    return true;
+  }
+
+  /**
+   * Updates the list and then invokes the task for every pair closer than the cutoff.
+   *
+   * @param x double[]
+   * @param y double[]
+   * @param z double[] or null in two dimensions
+   * @param n the number of particles
+   * @param task the pair task
+   */
+  public void forEachPair(double[] x, double[] y, double[] z, int n, PairTask task) {
+    update(x, y, z, n);
+    double cut2 = cutoff*cutoff;
+    Parallel.forEachBand(n, MIN_BAND_SIZE, (band, first, last) -> {
+      for(int i = first; i<last; i++) {
+        double xi = x[i], yi = y[i], zi = (z==null) ? 0 : z[i];
+        for(int k = start[i], end = start[i+1]; k<end; k++) {
+          int j = neighbors[k];
+          double dx = separation(x[j]-xi, lx);
+          double dy = separation(y[j]-yi, ly);
+          double dz = (z==null) ? 0 : separation(z[j]-zi, lz);
+          double r2 = dx*dx+dy*dy+dz*dz;
+          if(r2<cut2) {
+            task.pair(band, i, j, dx, dy, dz, r2);
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Gets the minimum image separation if the box is periodic.
+   */
+  private double separation(double dr, double size) {
+    if(periodic&&((dr>0.5*size)||(dr<-0.5*size))) {
+      return PBC.separation(dr, size);
+    }
+    return dr;
+  }
+
+  /**
+   * Determines if any particle has moved more than half the skin since the list was built.
+   */
+  private boolean hasMoved(double[] x, double[] y, double[] z) {
+    double limit2 = 0.25*skin*skin;
+    for(int i = 0; i<n; i++) {
+      double dx = separation(x[i]-refX[i], lx);
+      double dy = separation(y[i]-refY[i], ly);
+      double dz = (z==null) ? 0 : separation(z[i]-refZ[i], lz);
+      if(dx*dx+dy*dy+dz*dz>limit2) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sorts the particles into cells and builds the Verlet list.
+   */
+  private void build(double[] x, double[] y, double[] z, int n) {
+    this.n = n;
+    threeD = (z!=null);
+    double range = cutoff+skin;
+    if(periodic&&((range>0.5*lx)||(range>0.5*ly)||(threeD&&(range>0.5*lz)))) {
+      throw new IllegalArgumentException("Cutoff plus skin must not exceed half the periodic box."); //$NON-NLS-1$
+    }
+    if(refX.length<n) {
+      refX = new double[n];
+      refY = new double[n];
+      refZ = new double[n];
+      count = new int[n];
+      particleCell = new int[n];
+      cellParticles = new int[n];
+    }
+    if(start.length<n+1) {
+      start = new int[n+1];
+    }
+    System.arraycopy(x, 0, refX, 0, n);
+    System.arraycopy(y, 0, refY, 0, n);
+    if(threeD) {
+      System.arraycopy(z, 0, refZ, 0, n);
+    }
+    buildCells(x, y, z);
+    double range2 = range*range;
+    int nBands = Parallel.getBandCount(n, MIN_BAND_SIZE);
+    if(bandBuffers.length<nBands) {
+      int[][] buffers = new int[nBands][];
+      System.arraycopy(bandBuffers, 0, buffers, 0, bandBuffers.length);
+      for(int b = bandBuffers.length; b<nBands; b++) {
+        buffers[b] = new int[1024];
+      }
+      bandBuffers = buffers;
+    }
+    Parallel.forEachBand(n, nBands, MIN_BAND_SIZE, (band, first, last) -> {
+      int[] buf = bandBuffers[band];
+      int size = 0;
+      int[] cells = new int[27];
+      for(int i = first; i<last; i++) {
+        double xi = x[i], yi = y[i], zi = threeD ? z[i] : 0;
+        int ncells = neighborCells(particleCell[i], cells);
+        int before = size;
+        for(int c = 0; c<ncells; c++) {
+          int cell = cells[c];
+          for(int k = cellStart[cell], end = cellStart[cell+1]; k<end; k++) {
+            int j = cellParticles[k];
+            if((j==i)||(!fullList&&(j<i))) {
+              continue;
+            }
+            double dx = separation(x[j]-xi, lx);
+            double dy = separation(y[j]-yi, ly);
+            double dz = threeD ? separation(z[j]-zi, lz) : 0;
+            if(dx*dx+dy*dy+dz*dz<range2) {
+              if(size==buf.length) {
+                int[] bigger = new int[2*size];
+                System.arraycopy(buf, 0, bigger, 0, size);
+                buf = bigger;
+              }
+              buf[size++] = j;
+            }
+          }
+        }
+        count[i] = size-before;
+      }
+      bandBuffers[band] = buf;
+    });
+    start[0] = 0;
+    for(int i = 0; i<n; i++) {
+      start[i+1] = start[i]+count[i];
+    }
+    if(neighbors.length<start[n]) {
+      neighbors = new int[start[n]+start[n]/8];
+    }
+    // the bands cover contiguous particles so every band's buffer is a contiguous part of the list
+    for(int b = 0; b<nBands; b++) {
+      int first = (b==0) ? 0 : (int) ((long) n*b/nBands);
+      int last = (b==0) ? n/nBands : (int) ((long) n*(b+1)/nBands);
+      System.arraycopy(bandBuffers[b], 0, neighbors, start[first], start[last]-start[first]);
+    }
+    valid = true;
+    rebuilds++;
+  }
+
+  /**
+   * Sorts the particles into cells using a counting sort.
+   */
+  private void buildCells(double[] x, double[] y, double[] z) {
+    double range = cutoff+skin;
+    ncx = Math.max(1, (int) (lx/range));
+    ncy = Math.max(1, (int) (ly/range));
+    ncz = threeD ? Math.max(1, (int) (lz/range)) : 1;
+    cellSizeX = lx/ncx;
+    cellSizeY = ly/ncy;
+    cellSizeZ = lz/ncz;
+    int ncells = ncx*ncy*ncz;
+    if(cellStart.length<ncells+1) {
+      cellStart = new int[ncells+1];
+    } else {
+      java.util.Arrays.fill(cellStart, 0, ncells+1, 0);
+    }
+    for(int i = 0; i<n; i++) {
+      int ix = cellIndex(x[i], cellSizeX, ncx);
+      int iy = cellIndex(y[i], cellSizeY, ncy);
+      int iz = threeD ? cellIndex(z[i], cellSizeZ, ncz) : 0;
+      int cell = (iz*ncy+iy)*ncx+ix;
+      particleCell[i] = cell;
+      cellStart[cell+1]++;
+    }
+    for(int c = 0; c<ncells; c++) {
+      cellStart[c+1] += cellStart[c];
+    }
+    if(cellNext.length<ncells) {
+      cellNext = new int[ncells];
+    }
+    System.arraycopy(cellStart, 0, cellNext, 0, ncells);
+    for(int i = 0; i<n; i++) {
+      cellParticles[cellNext[particleCell[i]]++] = i;
+    }
+  }
+
+  private int cellIndex(double r, double cellSize, int ncells) {
+    int index = (int) Math.floor(r/cellSize);
+    if(periodic) {
+      return PBC.position(index, ncells);
+    }
+    return Math.max(0, Math.min(ncells-1, index));
+  }
+
+  /**
+   * Gets the distinct cells that neighbor the given cell, including the cell itself.
+   */
+  private int neighborCells(int cell, int[] cells) {
+    int ix = cell%ncx, iy = (cell/ncx)%ncy, iz = cell/(ncx*ncy);
+    int zlo = threeD ? -1 : 0, zhi = threeD ? 1 : 0;
+    int ncells = 0;
+    for(int dz = zlo; dz<=zhi; dz++) {
+      int jz = neighborIndex(iz+dz, ncz);
+      if(jz<0) {
+        continue;
+      }
+      for(int dy = -1; dy<=1; dy++) {
+        int jy = neighborIndex(iy+dy, ncy);
+        if(jy<0) {
+          continue;
+        }
+        for(int dx = -1; dx<=1; dx++) {
+          int jx = neighborIndex(ix+dx, ncx);
+          if(jx<0) {
+            continue;
+          }
+          int c = (jz*ncy+jy)*ncx+jx;
+          boolean duplicate = false; // small periodic grids wrap onto the same cell
+          for(int k = 0; k<ncells; k++) {
+            if(cells[k]==c) {
+              duplicate = true;
+              break;
+            }
+          }
+          if(!duplicate) {
+            cells[ncells++] = c;
+          }
+        }
+      }
+    }
+    return ncells;
+  }
+
+  private int neighborIndex(int index, int ncells) {
+    if(periodic) {
+      return PBC.position(index, ncells);
+    }
+    return((index<0)||(index>=ncells)) ? -1 : index;
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -0,0 +1,178 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.numerics;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parallel splits loops over an index range into contiguous bands and runs the bands
+ * on the common fork-join pool.
+ *
+ * Bands are run on the calling thread when parallel execution is disabled, when the range
+ * is too small to be worth splitting, or when running in JavaScript.
+ * This class cannot be subclassed or instantiated because all methods are static.
+ *
+ * @version 1.0
+ */
+public final class Parallel {
+
+  /**
+   * A task that processes the indices start (inclusive) to end (exclusive) of one band.
+   */
+  public interface BandTask {
+    /**
+     * Processes one band.
+     *
+     * @param band the band number, 0 &lt;= band &lt; getBandCount(n, minBandSize)
+     * @param start the first index in the band
+     * @param end one past the last index in the band
+     */
+    public void run(int band, int start, int end);
+
+  }
+
+  // BH note: Cannot use "final" here because then the constant will be set before
+  // the transpiler ever sees it.
+  private static boolean isJS = /** @j2sNative true || */
+      false;
+  private static boolean enabled = !isJS;
+  private static int maxThreads = Runtime.getRuntime().availableProcessors();
+
+  private Parallel() {} // prohibit instantiation because all methods are static
+
+  /**
+   * Enables or disables parallel execution. Parallel execution is never enabled in JavaScript.
+   *
+   * @param enable true to allow bands to run concurrently
+   */
+  public static void setEnabled(boolean enable) {
+    enabled = enable&&!isJS;
+  }
+
+  /**
+   * Gets the enabled flag.
+   *
+   * @return true if bands may run concurrently
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Sets the maximum number of bands that will run concurrently.
+   *
+   * @param n the maximum number of threads
+   */
+  public static void setMaxThreads(int n) {
+    maxThreads = Math.max(1, n);
+  }
+
+  /**
+   * Gets the maximum number of bands that will run concurrently.
+   *
+   * @return the maximum number of threads, 1 if parallel execution is disabled
+   */
+  public static int getMaxThreads() {
+    return(enabled ? maxThreads : 1);
+  }
+
+  /**
+   * Gets the number of bands that forEachBand will use for n indices.
+   * Callers may use this to allocate per-band workspace.
+   *
+   * @param n the number of indices
+   * @param minBandSize the smallest band worth running on its own thread
+   * @return the number of bands
+   */
+  public static int getBandCount(int n, int minBandSize) {
+    if(n<=0) {
+      return 0;
+    }
+    return Math.max(1, Math.min(getMaxThreads(), n/Math.max(1, minBandSize)));
+  }
+
+  /**
+   * Runs the task over the indices 0 to n-1 split into contiguous bands.
+   * The calling thread runs the first band and waits for the others to finish.
+   *
+   * @param n the number of indices
+   * @param minBandSize the smallest band worth running on its own thread
+   * @param task the task
+   */
+  public static void forEachBand(int n, int minBandSize, BandTask task) {
+    forEachBand(n, getBandCount(n, minBandSize), minBandSize, task);
+  }
+
+  /**
+   * Runs the task over the indices 0 to n-1 split into at most the given number of bands.
+   *
+   * @param n the number of indices
+   * @param nBands the maximum number of bands
+   * @param minBandSize the smallest band worth running on its own thread
+   * @param task the task
+   */
+  public static void forEachBand(int n, int nBands, int minBandSize, BandTask task) {
+    nBands = Math.min(nBands, getBandCount(n, minBandSize));
+    if(nBands<=1) {
+      if(n>0) {
+        task.run(0, 0, n);
+      }
+      return;
+    }
+    ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[nBands];
+    for(int b = 1; b<nBands; b++) {
+      final int band = b, start = (int) ((long) n*b/nBands), end = (int) ((long) n*(b+1)/nBands);
+      tasks[b] = ForkJoinPool.commonPool().submit(() -> task.run(band, start, end));
+    }
+    RuntimeException ex = null;
+    try {
+      task.run(0, 0, n/nBands);
+    } catch(RuntimeException e) {
+      ex = e;
+    }
+    for(int b = 1; b<nBands; b++) {
+      try {
+        tasks[b].join();
+      } catch(RuntimeException e) {
+        if(ex==null) {
+          ex = e;
+        }
+      }
+    }
+    if(ex!=null) {
+      throw ex;
+    }
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
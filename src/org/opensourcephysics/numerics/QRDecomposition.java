@@ -0,0 +1,244 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.numerics;
+
+/**
+ * QR decomposition of an m by n matrix with m &gt;= n using Householder reflections.
+ *
+ * Adapted from the JAMA QRDecomposition to use a flat row-major array. Each reflection is applied
+ * to the trailing columns by sweeping contiguous rows, and the columns are divided into bands
+ * that are updated in parallel for large matrices. The decomposition can be recomputed for a
+ * new matrix of the same size without allocating storage.
+ *
+ * @version 1.0
+ */
+public class QRDecomposition {
+  static final int MIN_PARALLEL_WORK = 1<<15;
+  private int m, n;
+  private double[] QR; // Householder vectors and R in row-major order
+  private double[] Rdiag;
+
+  /**
+   * Constructs the decomposition.
+   *
+   * @param A a matrix with at least as many rows as columns
+   * @throws IllegalArgumentException if A has fewer rows than columns
+   */
+  public QRDecomposition(double[][] A) throws IllegalArgumentException {
+    m = A.length;
+    n = A[0].length;
+    if(m<n) {
+      throw new IllegalArgumentException("QR decomposition requires at least as many rows as columns."); //$NON-NLS-1$
+    }
+    QR = new double[m*n];
+    Rdiag = new double[n];
+    recompute(A);
+  }
+
+  /**
+   * Recomputes the decomposition for a new matrix of the same size, reusing the storage.
+   *
+   * @param A the matrix
+   * @throws IllegalArgumentException if the matrix dimensions have changed
+   */
+  public void recompute(double[][] A) throws IllegalArgumentException {
+    if((A.length!=m)||(A[0].length!=n)) {
+      throw new IllegalArgumentException("Matrix dimensions must match those of the original matrix."); //$NON-NLS-1$
+    }
+    for(int i = 0; i<m; i++) {
+      System.arraycopy(A[i], 0, QR, i*n, n);
+    }
+    decompose();
+  }
+
+  private void decompose() {
+    for(int k = 0; k<n; k++) {
+      // compute 2-norm of k-th column without under/overflow
+      double nrm = 0;
+      for(int i = k; i<m; i++) {
+        nrm = Math.hypot(nrm, QR[i*n+k]);
+      }
+      if(nrm!=0.0) {
+        // form k-th Householder vector
+        if(QR[k*n+k]<0) {
+          nrm = -nrm;
+        }
+        for(int i = k; i<m; i++) {
+          QR[i*n+k] /= nrm;
+        }
+        QR[k*n+k] += 1.0;
+        // apply transformation to remaining columns
+        final int kk = k;
+        int cols = n-k-1;
+        Parallel.forEachBand(cols, Math.max(1, MIN_PARALLEL_WORK/(2*(m-k))), (band, start, end) -> {
+          reflect(kk, kk+1+start, kk+1+end);
+        });
+      }
+      Rdiag[k] = -nrm;
+    }
+  }
+
+  /**
+   * Applies the k-th Householder reflection to the columns from start to end-1.
+   */
+  private void reflect(int k, int start, int end) {
+    double[] s = new double[end-start];
+    for(int i = k, row = k*n; i<m; i++, row += n) {
+      double v = QR[row+k];
+      if(v!=0) {
+        for(int j = start, pt = row+start; j<end; j++, pt++) {
+          s[j-start] += v*QR[pt];
+        }
+      }
+    }
+    double vkk = QR[k*n+k];
+    for(int j = 0; j<s.length; j++) {
+      s[j] = -s[j]/vkk;
+    }
+    for(int i = k, row = k*n; i<m; i++, row += n) {
+      double v = QR[row+k];
+      if(v!=0) {
+        for(int j = start, pt = row+start; j<end; j++, pt++) {
+          QR[pt] += s[j-start]*v;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns true if R, and hence A, has full rank.
+   *
+   * @return true if R has full rank
+   */
+  public boolean isFullRank() {
+    for(int j = 0; j<n; j++) {
+      if(Rdiag[j]==0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the Householder vectors, the lower trapezoidal matrix whose columns define the reflections.
+   *
+   * @return H
+   */
+  public double[][] getH() {
+    double[][] H = new double[m][n];
+    for(int i = 0; i<m; i++) {
+      for(int j = 0; j<n; j++) {
+        H[i][j] = (i>=j) ? QR[i*n+j] : 0.0;
+      }
+    }
+    return H;
+  }
+
+  /**
+   * Gets the upper triangular factor.
+   *
+   * @return R
+   */
+  public double[][] getR() {
+    double[][] R = new double[n][n];
+    for(int i = 0; i<n; i++) {
+      R[i][i] = Rdiag[i];
+      System.arraycopy(QR, i*n+i+1, R[i], i+1, n-i-1);
+    }
+    return R;
+  }
+
+  /**
+   * Gets the m by n orthogonal factor.
+   *
+   * @return Q
+   */
+  public double[][] getQ() {
+    double[][] Q = new double[m][n];
+    for(int k = n-1; k>=0; k--) {
+      Q[k][k] = 1.0;
+      for(int j = k; j<n; j++) {
+        if(QR[k*n+k]!=0) {
+          double s = 0.0;
+          for(int i = k; i<m; i++) {
+            s += QR[i*n+k]*Q[i][j];
+          }
+          s = -s/QR[k*n+k];
+          for(int i = k; i<m; i++) {
+            Q[i][j] += s*QR[i*n+k];
+          }
+        }
+      }
+    }
+    return Q;
+  }
+
+  /**
+   * Finds the least squares solution x that minimizes the norm of A*x-b.
+   *
+   * @param b an array with m elements
+   * @return x or null if the matrix is rank deficient
+   */
+  public double[] solve(double[] b) {
+    if(b.length!=m) {
+      throw new IllegalArgumentException("Array length must equal the number of matrix rows."); //$NON-NLS-1$
+    }
+    if(!isFullRank()) {
+      return null;
+    }
+    double[] y = b.clone();
+    // compute y = Q'*b
+    for(int k = 0; k<n; k++) {
+      double s = 0.0;
+      for(int i = k; i<m; i++) {
+        s += QR[i*n+k]*y[i];
+      }
+      s = -s/QR[k*n+k];
+      for(int i = k; i<m; i++) {
+        y[i] += s*QR[i*n+k];
+      }
+    }
+    // solve R*x = y
+    double[] x = new double[n];
+    for(int k = n-1; k>=0; k--) {
+      double sum = y[k];
+      for(int j = k+1, pt = k*n+k+1; j<n; j++, pt++) {
+        sum -= QR[pt]*x[j];
+      }
+      x[k] = sum/Rdiag[k];
+    }
+    return x;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
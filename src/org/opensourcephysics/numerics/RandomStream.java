@@ -0,0 +1,397 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * RandomStream is a fast, seedable xoshiro256** pseudorandom number generator.
+ *
+ * A stream is seeded by expanding a single long with the SplitMix64 generator.  The split method returns a new
+ * stream that starts 2^128 values ahead so that split streams never overlap.  A stream is not thread safe.
+ *
+ * The static methods provide a service that models can use instead of Math.random or ad hoc Random objects.
+ * The current method returns a stream that belongs to the calling thread so that threads never contend for a
+ * shared seed.  Threads receive their streams in the order in which they first ask for one, so parallel code
+ * that must be reproducible should instead give every band or row its own stream using forIndex.
+ * Every stream depends only on the global seed, which can be set to repeat a run.
+ *
+ * Streams are not reproducible in JavaScript because longs do not have 64 bits of precision.
+ *
+ * @version 1.0
+ */
+public class RandomStream {
+  // BH note: Cannot use "final" here because then the constant will be set before
+  // the transpiler ever sees it.
+  private static boolean isJS = /** @j2sNative true || */
+      false;
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+  private static final long[] JUMP = {0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL};
+  private static long globalSeed = mix64(System.nanoTime()^System.currentTimeMillis());
+  private static volatile int generation = 0;         // incremented whenever the global seed changes
+  private static long threadCount = 0;                // thread streams issued since the global seed was set
+  private static final ThreadLocal<RandomStream> threadStream = new ThreadLocal<RandomStream>();
+  private long s0, s1, s2, s3;
+  private double nextGaussian;
+  private boolean haveNextGaussian = false;
+  private int streamGeneration;
+
+  /**
+   * Constructs a stream with the given seed.
+   *
+   * @param seed long
+   */
+  public RandomStream(long seed) {
+    setSeed(seed);
+  }
+
+  /**
+   * Constructs a stream with an unpredictable seed.
+   */
+  public RandomStream() {
+    this(mix64(System.nanoTime()^Thread.currentThread().getId()*GOLDEN_GAMMA));
+  }
+
+  private RandomStream(RandomStream stream) {
+    s0 = stream.s0;
+    s1 = stream.s1;
+    s2 = stream.s2;
+    s3 = stream.s3;
+  }
+
+  /**
+   * Sets the seed of this stream.
+   *
+   * @param seed long
+   */
+  public void setSeed(long seed) {
+    s0 = mix64(seed += GOLDEN_GAMMA); // the SplitMix64 sequence starting at seed
+    s1 = mix64(seed += GOLDEN_GAMMA);
+    s2 = mix64(seed += GOLDEN_GAMMA);
+    s3 = mix64(seed += GOLDEN_GAMMA);
+    haveNextGaussian = false;
+  }
+
+  /**
+   * Sets the global seed and discards the streams of every thread.
+   *
+   * @param seed long
+   */
+  public static synchronized void setGlobalSeed(long seed) {
+    globalSeed = seed;
+    threadCount = 0;
+    generation++;
+  }
+
+  /**
+   * Gets the global seed.
+   *
+   * @return long
+   */
+  public static synchronized long getGlobalSeed() {
+    return globalSeed;
+  }
+
+  /**
+   * Gets the stream that belongs to the calling thread.
+   *
+   * @return RandomStream
+   */
+  public static RandomStream current() {
+    RandomStream stream = threadStream.get();
+    int gen = generation;
+    if((stream==null)||(stream.streamGeneration!=gen)) {
+      long index;
+      synchronized(RandomStream.class) {
+        gen = generation;
+        index = threadCount++;
+      }
+      stream = forIndex(-1-index); // negative indices are reserved for threads
+      stream.streamGeneration = gen;
+      threadStream.set(stream);
+    }
+    return stream;
+  }
+
+  /**
+   * Creates the stream with the given index.  The same index and global seed always produce the same stream.
+   *
+   * @param index a non-negative index such as a band, row, or run number
+   * @return RandomStream
+   */
+  public static RandomStream forIndex(long index) {
+    return new RandomStream(mix64(getGlobalSeed()^mix64(index*GOLDEN_GAMMA+GOLDEN_GAMMA)));
+  }
+
+  /**
+   * Returns a new stream that starts where this stream is now and advances this stream by 2^128 values.
+   *
+   * @return RandomStream
+   */
+  public RandomStream split() {
+    RandomStream stream = new RandomStream(this);
+    jump();
+    return stream;
+  }
+
+  /**
+   * Advances this stream by 2^128 values.
+   */
+  public void jump() {
+    long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+    for(int i = 0; i<JUMP.length; i++) {
+      for(int b = 0; b<64; b++) {
+        if((JUMP[i]&(1L<<b))!=0) {
+          t0 ^= s0;
+          t1 ^= s1;
+          t2 ^= s2;
+          t3 ^= s3;
+        }
+        nextLong();
+      }
+    }
+    s0 = t0;
+    s1 = t1;
+    s2 = t2;
+    s3 = t3;
+    haveNextGaussian = false;
+  }
+
+  /**
+   * Gets the next 64 random bits.
+   *
+   * @return long
+   */
+  public long nextLong() {
+    if(isJS) {
+      return(long) ((Math.random()-0.5)*0x1.0p53);
+    }
+    long result = Long.rotateLeft(s1*5, 7)*9;
+    long t = s1<<17;
+    s2 ^= s0;
+    s3 ^= s1;
+    s1 ^= s2;
+    s0 ^= s3;
+    s2 ^= t;
+    s3 = Long.rotateLeft(s3, 45);
+    return result;
+  }
+
+  /**
+   * Gets a random int.
+   *
+   * @return int
+   */
+  public int nextInt() {
+    return(int) (nextLong()>>>32);
+  }
+
+  /**
+   * Gets a random int between 0 (inclusive) and bound (exclusive).
+   *
+   * @param bound a positive bound
+   * @return int
+   */
+  public int nextInt(int bound) {
+    if(bound<=0) {
+      throw new IllegalArgumentException("Bound must be positive."); //$NON-NLS-1$
+    }
+    if(isJS) {
+      return(int) (Math.random()*bound);
+    }
+    int bits, val;
+    do { // reject the incomplete range at the top so that every value is equally likely
+      bits = (int) (nextLong()>>>33);
+      val = bits%bound;
+    } while(bits-val+(bound-1)<0);
+    return val;
+  }
+
+  /**
+   * Gets a random boolean.
+   *
+   * @return boolean
+   */
+  public boolean nextBoolean() {
+    return nextLong()<0;
+  }
+
+  /**
+   * Gets a random double uniformly distributed between 0 (inclusive) and 1 (exclusive).
+   *
+   * @return double
+   */
+  public double nextDouble() {
+    if(isJS) {
+      return Math.random();
+    }
+    return(nextLong()>>>11)*0x1.0p-53;
+  }
+
+  /**
+   * Gets a normally distributed random double with zero mean and unit standard deviation.
+   *
+   * @return double
+   */
+  public double nextGaussian() {
+    if(haveNextGaussian) {
+      haveNextGaussian = false;
+      return nextGaussian;
+    }
+    double v1, v2, s;
+    do { // Marsaglia polar method
+      v1 = 2*nextDouble()-1;
+      v2 = 2*nextDouble()-1;
+      s = v1*v1+v2*v2;
+    } while((s>=1)||(s==0));
+    double multiplier = Math.sqrt(-2*Math.log(s)/s);
+    nextGaussian = v2*multiplier;
+    haveNextGaussian = true;
+    return v1*multiplier;
+  }
+
+  /**
+   * Gets a normally distributed random double.
+   *
+   * @param mean double
+   * @param sigma the standard deviation
+   * @return double
+   */
+  public double nextGaussian(double mean, double sigma) {
+    return mean+sigma*nextGaussian();
+  }
+
+  /**
+   * Gets an exponentially distributed random double with unit mean.
+   *
+   * @return double
+   */
+  public double nextExponential() {
+    return -Math.log(1-nextDouble()); // 1-u is never zero
+  }
+
+  /**
+   * Gets an exponentially distributed random double.
+   *
+   * @param mean double
+   * @return double
+   */
+  public double nextExponential(double mean) {
+    return mean*nextExponential();
+  }
+
+  /**
+   * Fills an array with random bytes.
+   *
+   * @param bytes byte[]
+   */
+  public void nextBytes(byte[] bytes) {
+    int i = 0, n = bytes.length;
+    while(i<n) {
+      long bits = nextLong();
+      for(int k = Math.min(n-i, 8); k>0; k--, bits >>>= 8) {
+        bytes[i++] = (byte) bits;
+      }
+    }
+  }
+
+  /**
+   * Fills an array with random doubles uniformly distributed between 0 (inclusive) and 1 (exclusive).
+   *
+   * @param values double[]
+   */
+  public void fill(double[] values) {
+    fill(values, 0, values.length);
+  }
+
+  /**
+   * Fills part of an array with random doubles uniformly distributed between 0 (inclusive) and 1 (exclusive).
+   *
+   * @param values double[]
+   * @param from the first index (inclusive)
+   * @param to the last index (exclusive)
+   */
+  public void fill(double[] values, int from, int to) {
+    if(isJS) {
+      for(int i = from; i<to; i++) {
+        values[i] = Math.random();
+      }
+      return;
+    }
+    long a = s0, b = s1, c = s2, d = s3; // the state stays in registers
+    for(int i = from; i<to; i++) {
+      long result = Long.rotateLeft(b*5, 7)*9;
+      long t = b<<17;
+      c ^= a;
+      d ^= b;
+      b ^= c;
+      a ^= d;
+      c ^= t;
+      d = Long.rotateLeft(d, 45);
+      values[i] = (result>>>11)*0x1.0p-53;
+    }
+    s0 = a;
+    s1 = b;
+    s2 = c;
+    s3 = d;
+  }
+
+  /**
+   * Fills an array with normally distributed random doubles with zero mean and unit standard deviation.
+   *
+   * @param values double[]
+   */
+  public void fillGaussian(double[] values) {
+    for(int i = 0, n = values.length; i<n; i++) {
+      values[i] = nextGaussian();
+    }
+  }
+
+  /**
+   * Fills an array with exponentially distributed random doubles with unit mean.
+   *
+   * @param values double[]
+   */
+  public void fillExponential(double[] values) {
+    for(int i = 0, n = values.length; i<n; i++) {
+      values[i] = nextExponential();
+    }
+  }
+
+  /**
+   * The SplitMix64 finalizer.
+   */
+  static long mix64(long z) {
+    z = (z^(z>>>30))*0xbf58476d1ce4e5b9L;
+    z = (z^(z>>>27))*0x94d049bb133111ebL;
+    return z^(z>>>31);
+  }
+
+}
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -6,6 +6,7 @@
  */
 
 package org.opensourcephysics.numerics;
+import java.util.function.Supplier;
 
 /**
  * Class Root defines various root finding algorithms.
@@ -320,6 +321,20 @@ public class Root {
    *   @return double the error
    */
   public static double newtonMultivar(VectorFunction feqs, double xx[], int max, double tol) {
+    return newtonMultivar(feqs, xx, max, tol, null);
+  }
+
+  /**
+   * Finds a zero of a system of equations using Newton's method and evaluates the Jacobian concurrently.
+   *
+   * @param feqs the function containing n equations with n unknowns and whose zeros we seek
+   * @param xx the array containing the guess to the solutions
+   * @param max the maximum iteration number
+   * @param tol the tolerance level
+   * @param factory a factory that returns independent copies of feqs, or null to evaluate on the calling thread
+   * @return double the error
+   */
+  public static double newtonMultivar(VectorFunction feqs, double xx[], int max, double tol, Supplier<? extends VectorFunction> factory) {
     int Ndim = xx.length;
     double[] xxn = new double[Ndim];
     double[] F = new double[Ndim];
@@ -329,9 +344,16 @@ public class Root {
     relerr = 9999.;
     //Use the Newton-Raphson method for systems of equations - employs the Jacobian
     //Needs a good guess - use one found by a grid method if one is not available
+    LUPDecomposition lu = null;
+    VectorFunction[] copies = createCopies(factory, Ndim); // created once and reused by every iteration
     while((err>tol*1.e-6)&&(relerr>tol*1.e-6)&&(Iterations<max)) {
       Iterations++;
-      LUPDecomposition lu = new LUPDecomposition(getJacobian(feqs, Ndim, xx, tol/100.));
+      double[][] jacobian = jacobian(feqs, Ndim, xx, tol/100., copies);
+      if(lu==null) {
+        lu = new LUPDecomposition(jacobian);
+      } else {
+        lu.recompute(jacobian); // reuse the decomposition storage
+      }
       //use the LUPDecomposition's solve method
       F = feqs.evaluate(xx, F); //the functions
       xxn = lu.solve(F);        //the corrections
@@ -352,6 +374,87 @@ public class Root {
     return err;
   }
 
+  /**
+   * Finds a zero of a system of equations using Broyden's method.
+   *
+   * The finite difference Jacobian is computed and inverted at the starting point only.
+   * Each iteration then makes a rank one update of the inverse Jacobian so that only
+   * one evaluation of the equations is needed per iteration.
+   *
+   * @param feqs the function containing n equations with n unknowns and whose zeros we seek
+   * @param xx the array containing the guess to the solutions
+   * @param max the maximum iteration number
+   * @param tol the tolerance level
+   * @return double the error
+   */
+  public static double broydenMultivar(VectorFunction feqs, double xx[], int max, double tol) {
+    int n = xx.length;
+    double[] F = feqs.evaluate(xx, new double[n]);
+    double[] Fn = new double[n];
+    double[] dx = new double[n];
+    double[] By = new double[n];
+    double[] sB = new double[n];
+    double[][] B = null; // the inverse Jacobian
+    int Iterations = 0;
+    double err = 9999., relerr = 9999.;
+    while((err>tol*1.e-6)&&(relerr>tol*1.e-6)&&(Iterations<max)) {
+      Iterations++;
+      if(B==null) {
+        B = new LUPDecomposition(getJacobian(feqs, n, xx, tol/100.)).inverseMatrixComponents();
+        if(B==null) {
+          NumericsLog.fine("Singular Jacobian in Broyden's method"); //$NON-NLS-1$
+          return Double.NaN;
+        }
+      }
+      err = 0;
+      relerr = 0;
+      for(int i = 0; i<n; i++) {
+        double sum = 0;
+        for(int j = 0; j<n; j++) {
+          sum += B[i][j]*F[j];
+        }
+        dx[i] = -sum;
+        xx[i] += dx[i];
+        err += dx[i]*dx[i];
+        relerr += xx[i]*xx[i];
+      }
+      err = Math.sqrt(err);
+      relerr = err/(relerr+tol);
+      Fn = feqs.evaluate(xx, Fn);
+      // update B with the secant condition B*(Fn-F) = dx
+      double denom = 0;
+      for(int i = 0; i<n; i++) {
+        double sum = 0;
+        for(int j = 0; j<n; j++) {
+          sum += B[i][j]*(Fn[j]-F[j]);
+        }
+        By[i] = sum;
+        denom += dx[i]*sum;
+      }
+      if((denom==0)||Double.isNaN(denom)) {
+        B = null; // recompute the Jacobian at the new point
+      } else {
+        for(int j = 0; j<n; j++) {
+          double sum = 0;
+          for(int i = 0; i<n; i++) {
+            sum += dx[i]*B[i][j];
+          }
+          sB[j] = sum/denom;
+        }
+        for(int i = 0; i<n; i++) {
+          double u = dx[i]-By[i];
+          for(int j = 0; j<n; j++) {
+            B[i][j] += u*sB[j];
+          }
+        }
+      }
+      double[] temp = F;
+      F = Fn;
+      Fn = temp;
+    }
+    return err;
+  }
+
   /**
  * Computes the Jacobian using a finite difference approximation.
  * Contributed to OSP by J E Hasbun 2007.
@@ -363,6 +466,47 @@ public class Root {
  * @return double[][]  J - the square matrix containing the Jacobian
  */
   public static double[][] getJacobian(VectorFunction feqs, int n, double xx[], double tol) {
+    return getJacobian(feqs, n, xx, tol, null);
+  }
+
+  /**
+   * Computes the Jacobian using a finite difference approximation.
+   * The equations are evaluated concurrently if a factory is given. Each thread uses its own copy
+   * of the equations so the VectorFunction need not be thread safe.
+   *
+   * @param feqs VectorFunction - the function containing n equations
+   * @param n int - number of equations
+   * @param xx double[] - the variable array at which the Jacobian is calculated
+   * @param tol double - the small change to find the derivatives
+   * @param factory a factory that returns independent copies of feqs, or null to evaluate on the calling thread
+   * @return double[][]  J - the square matrix containing the Jacobian
+   */
+  public static double[][] getJacobian(VectorFunction feqs, int n, double xx[], double tol, Supplier<? extends VectorFunction> factory) {
+    return jacobian(feqs, n, xx, tol, createCopies(factory, n));
+  }
+
+  /**
+   * Creates one copy of the equations for every band that evaluates the Jacobian.
+   *
+   * @param factory the factory or null
+   * @param n the number of equations
+   * @return the copies or null if the Jacobian is evaluated on the calling thread
+   */
+  static VectorFunction[] createCopies(Supplier<? extends VectorFunction> factory, int n) {
+    if(factory==null) {
+      return null;
+    }
+    VectorFunction[] copies = new VectorFunction[Parallel.getBandCount(2*n, 1)];
+    for(int i = 0; i<copies.length; i++) {
+      copies[i] = factory.get();
+    }
+    return copies;
+  }
+
+  /**
+   * Computes the Jacobian using the given copies of the equations, one per band.
+   */
+  static double[][] jacobian(VectorFunction feqs, int n, double xx[], double tol, VectorFunction[] copies) {
     //builds the Jacobian
     //xxp, xxm contain the varied parameter values to evaluate the equations on
     //fp, fm comtain the transpose of the function evaluations needed in the Jacobian
@@ -381,9 +525,23 @@ public class Root {
       xxp[i][i] = xxp[i][i]+tol;
       xxm[i][i] = xxm[i][i]-tol;
     }
-    for(int i = 0; i<n; i++) {              //f's here are built in transpose form
-      fp[i] = feqs.evaluate(xxp[i], fp[i]); //i=1: f's at x+tol; i=2 f's at y+tol, etc
-      fm[i] = feqs.evaluate(xxm[i], fm[i]); //i=1: f's at x-tol; i=2 f's at y-tol, etc
+    if(copies==null) {
+      for(int i = 0; i<n; i++) {              //f's here are built in transpose form
+        fp[i] = feqs.evaluate(xxp[i], fp[i]); //i=1: f's at x+tol; i=2 f's at y+tol, etc
+        fm[i] = feqs.evaluate(xxm[i], fm[i]); //i=1: f's at x-tol; i=2 f's at y-tol, etc
+      }
+    } else {
+      //each band evaluates its share of the 2n points with its own copy of the equations
+      Parallel.forEachBand(2*n, copies.length, 1, (band, start, end) -> {
+        VectorFunction f = copies[band];
+        for(int k = start; k<end; k++) {
+          if(k<n) {
+            fp[k] = f.evaluate(xxp[k], fp[k]);
+          } else {
+            fm[k-n] = f.evaluate(xxm[k-n], fm[k-n]);
+          }
+        }
+      });
     }
     //Builds the Jacobian by the differences methods
     //becasue the f's above are in transpose form, we swap i, j in the derivative
@@ -0,0 +1,906 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.numerics;
+import java.util.Arrays;
+
+/**
+ * SplitComplexMatrix is a dense complex matrix whose real and imaginary parts are stored
+ * in separate row-major double arrays.
+ *
+ * It is a companion to ComplexMatrix, which operates on Complex[][] arrays. The LU, inverse,
+ * multiply and eigen routines in this class perform complex arithmetic on primitives and do not
+ * allocate objects in their inner loops. Multiplication, inversion and the LU trailing update
+ * are divided among threads by Parallel for large matrices.
+ *
+ * The element in row i and column j is stored at re[i*cols+j] and im[i*cols+j].
+ *
+ * @version 1.0
+ */
+public class SplitComplexMatrix {
+  static final int BLOCK = 64;                  // block size for multiplication
+  static final int MIN_PARALLEL_WORK = 1<<16;   // complex multiply-adds per band
+  final int rows, cols;
+  final double[] re, im;
+
+  /**
+   * Constructs a zero matrix.
+   *
+   * @param rows the number of rows
+   * @param cols the number of columns
+   */
+  public SplitComplexMatrix(int rows, int cols) {
+    if((rows<1)||(cols<1)) {
+      throw new IllegalArgumentException("Matrix dimensions must be positive: "+rows+" by "+cols); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    this.rows = rows;
+    this.cols = cols;
+    re = new double[rows*cols];
+    im = new double[rows*cols];
+  }
+
+  /**
+   * Constructs a matrix containing the values of a Complex array.
+   *
+   * @param A the Complex array
+   */
+  public SplitComplexMatrix(Complex[][] A) {
+    this(A.length, A[0].length);
+    for(int i = 0, pt = 0; i<rows; i++) {
+      for(int j = 0; j<cols; j++, pt++) {
+        re[pt] = A[i][j].re();
+        im[pt] = A[i][j].im();
+      }
+    }
+  }
+
+  /**
+   * Constructs a matrix from real and imaginary double arrays.
+   *
+   * @param real the real parts
+   * @param imag the imaginary parts, or null for a real matrix
+   */
+  public SplitComplexMatrix(double[][] real, double[][] imag) {
+    this(real.length, real[0].length);
+    for(int i = 0; i<rows; i++) {
+      System.arraycopy(real[i], 0, re, i*cols, cols);
+      if(imag!=null) {
+        System.arraycopy(imag[i], 0, im, i*cols, cols);
+      }
+    }
+  }
+
+  /**
+   * Constructs a copy of the given matrix.
+   *
+   * @param m the matrix
+   */
+  public SplitComplexMatrix(SplitComplexMatrix m) {
+    this(m.rows, m.cols);
+    System.arraycopy(m.re, 0, re, 0, re.length);
+    System.arraycopy(m.im, 0, im, 0, im.length);
+  }
+
+  /**
+   * Creates an n by n identity matrix.
+   *
+   * @param n the size
+   * @return the identity
+   */
+  public static SplitComplexMatrix identity(int n) {
+    SplitComplexMatrix m = new SplitComplexMatrix(n, n);
+    for(int i = 0; i<n; i++) {
+      m.re[i*n+i] = 1;
+    }
+    return m;
+  }
+
+  /**
+   * Gets the number of rows.
+   *
+   * @return the rows
+   */
+  public int getRowCount() {
+    return rows;
+  }
+
+  /**
+   * Gets the number of columns.
+   *
+   * @return the columns
+   */
+  public int getColumnCount() {
+    return cols;
+  }
+
+  /**
+   * Gets the row-major array of real parts.  The array is not copied.
+   *
+   * @return the real parts
+   */
+  public double[] getReal() {
+    return re;
+  }
+
+  /**
+   * Gets the row-major array of imaginary parts.  The array is not copied.
+   *
+   * @return the imaginary parts
+   */
+  public double[] getImaginary() {
+    return im;
+  }
+
+  /**
+   * Gets the real part of an element.
+   *
+   * @param i the row
+   * @param j the column
+   * @return the real part
+   */
+  public double getRe(int i, int j) {
+    return re[i*cols+j];
+  }
+
+  /**
+   * Gets the imaginary part of an element.
+   *
+   * @param i the row
+   * @param j the column
+   * @return the imaginary part
+   */
+  public double getIm(int i, int j) {
+    return im[i*cols+j];
+  }
+
+  /**
+   * Sets an element.
+   *
+   * @param i the row
+   * @param j the column
+   * @param real the real part
+   * @param imag the imaginary part
+   */
+  public void set(int i, int j, double real, double imag) {
+    re[i*cols+j] = real;
+    im[i*cols+j] = imag;
+  }
+
+  /**
+   * Copies this matrix into a Complex array.
+   *
+   * @param A the Complex array
+   * @return A
+   */
+  public Complex[][] toComplex(Complex[][] A) {
+    for(int i = 0, pt = 0; i<rows; i++) {
+      for(int j = 0; j<cols; j++, pt++) {
+        A[i][j] = new Complex(re[pt], im[pt]);
+      }
+    }
+    return A;
+  }
+
+  /**
+   * Computes C = A*B.  C may not be the same matrix as A or B.
+   *
+   * Multiplication is blocked for cache reuse and the rows of C are computed in parallel
+   * for large matrices.
+   *
+   * @param A the left matrix
+   * @param B the right matrix
+   * @param C the product
+   */
+  public static void multiply(SplitComplexMatrix A, SplitComplexMatrix B, SplitComplexMatrix C) {
+    if((A.cols!=B.rows)||(C.rows!=A.rows)||(C.cols!=B.cols)) {
+      throw new IllegalArgumentException("Incompatible matrix sizes for multiplication."); //$NON-NLS-1$
+    }
+    if((C==A)||(C==B)) {
+      throw new IllegalArgumentException("Product matrix must differ from the factors."); //$NON-NLS-1$
+    }
+    Arrays.fill(C.re, 0);
+    Arrays.fill(C.im, 0);
+    int minRows = Math.max(1, MIN_PARALLEL_WORK/Math.max(1, A.cols*B.cols));
+    Parallel.forEachBand(A.rows, minRows, (band, start, end) -> {
+      multiplyRows(A, B, C, start, end);
+    });
+  }
+
+  /**
+   * Computes the rows from start (inclusive) to end (exclusive) of C = A*B.
+   */
+  private static void multiplyRows(SplitComplexMatrix A, SplitComplexMatrix B, SplitComplexMatrix C, int start, int end) {
+    int nk = A.cols, nj = B.cols;
+    double[] ar = A.re, ai = A.im, br = B.re, bi = B.im, cr = C.re, ci = C.im;
+    for(int jj = 0; jj<nj; jj += BLOCK) {
+      int jmax = Math.min(jj+BLOCK, nj);
+      for(int kk = 0; kk<nk; kk += BLOCK) {
+        int kmax = Math.min(kk+BLOCK, nk);
+        for(int i = start; i<end; i++) {
+          int crow = i*nj;
+          for(int k = kk; k<kmax; k++) {
+            double xr = ar[i*nk+k], xi = ai[i*nk+k];
+            if((xr==0)&&(xi==0)) {
+              continue;
+            }
+            int brow = k*nj;
+            for(int j = jj; j<jmax; j++) {
+              double yr = br[brow+j], yi = bi[brow+j];
+              cr[crow+j] += xr*yr-xi*yi;
+              ci[crow+j] += xr*yi+xi*yr;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the product of this matrix and the given matrix.
+   *
+   * @param B the right matrix
+   * @return this*B
+   */
+  public SplitComplexMatrix multiply(SplitComplexMatrix B) {
+    SplitComplexMatrix C = new SplitComplexMatrix(rows, B.cols);
+    multiply(this, B, C);
+    return C;
+  }
+
+  /**
+   * Computes y = this*x for a complex vector.
+   *
+   * @param xr the real part of x
+   * @param xi the imaginary part of x
+   * @param yr the real part of y
+   * @param yi the imaginary part of y
+   */
+  public void multiply(double[] xr, double[] xi, double[] yr, double[] yi) {
+    for(int i = 0, pt = 0; i<rows; i++) {
+      double sr = 0, si = 0;
+      for(int j = 0; j<cols; j++, pt++) {
+        double a = re[pt], b = im[pt];
+        sr += a*xr[j]-b*xi[j];
+        si += a*xi[j]+b*xr[j];
+      }
+      yr[i] = sr;
+      yi[i] = si;
+    }
+  }
+
+  /**
+   * Computes the LU decomposition of this matrix with partial pivoting.
+   *
+   * @return the decomposition
+   */
+  public LU lu() {
+    return new LU(this);
+  }
+
+  /**
+   * Returns the inverse of this matrix.
+   *
+   * @return the inverse
+   * @throws IllegalArgumentException if the matrix is singular
+   */
+  public SplitComplexMatrix inverse() {
+    return lu().inverse();
+  }
+
+  /**
+   * Computes the eigenvalues and eigenvectors of this square matrix.
+   * The eigenvectors are stored in the columns of vec.
+   *
+   * The algorithm is the Hessenberg reduction and complex LR iteration used by
+   * ComplexEigenvalueDecomposition.  This matrix is not modified.
+   *
+   * @param lambdaRe the real parts of the eigenvalues
+   * @param lambdaIm the imaginary parts of the eigenvalues
+   * @param vec the eigenvectors, or null if not needed
+   * @return true if successful; false if the iteration did not converge
+   */
+  public boolean eigen(double[] lambdaRe, double[] lambdaIm, SplitComplexMatrix vec) {
+    if(rows!=cols) {
+      throw new IllegalArgumentException("Eigenvalues require a square matrix."); //$NON-NLS-1$
+    }
+    int n = rows;
+    if(vec==null) {
+      vec = new SplitComplexMatrix(n, n);
+    } else if((vec.rows!=n)||(vec.cols!=n)) {
+      throw new IllegalArgumentException("Eigenvector matrix has the wrong size."); //$NON-NLS-1$
+    }
+    if(n==1) {
+      lambdaRe[0] = re[0];
+      lambdaIm[0] = im[0];
+      vec.re[0] = 1;
+      vec.im[0] = 0;
+      return true;
+    }
+    SplitComplexMatrix B = new SplitComplexMatrix(this);
+    if(n==2) {
+      B.twoByTwo(lambdaRe, lambdaIm, vec);
+      return true;
+    }
+    int[] rowcol = new int[n];
+    B.hessenberg(rowcol);
+    return B.hessenbergEigen(lambdaRe, lambdaIm, vec, rowcol);
+  }
+
+  private static double sumabs(double a, double b) {
+    return Math.abs(a)+Math.abs(b);
+  }
+
+  /**
+   * Stores the quotient (ar+i*ai)/(br+i*bi) in q.
+   */
+  private static void div(double ar, double ai, double br, double bi, double[] q) {
+    if(Math.abs(br)>=Math.abs(bi)) {
+      double r = bi/br, d = br+r*bi;
+      q[0] = (ar+ai*r)/d;
+      q[1] = (ai-ar*r)/d;
+    } else {
+      double r = br/bi, d = bi+r*br;
+      q[0] = (ar*r+ai)/d;
+      q[1] = (ai*r-ar)/d;
+    }
+  }
+
+  /**
+   * Stores the principal square root of a+i*b in q.
+   */
+  private static void sqrt(double a, double b, double[] q) {
+    if((a==0)&&(b==0)) {
+      q[0] = q[1] = 0;
+      return;
+    }
+    double m = Math.sqrt(Math.hypot(a, b)+Math.abs(a))/Math.sqrt(2);
+    if(a>=0) {
+      q[0] = m;
+      q[1] = b/(2*m);
+    } else {
+      q[0] = Math.abs(b)/(2*m);
+      q[1] = (b>=0) ? m : -m;
+    }
+  }
+
+  private void twoByTwo(double[] lambdaRe, double[] lambdaIm, SplitComplexMatrix vec) {
+    double[] q = new double[2];
+    double a00r = re[0], a00i = im[0], a01r = re[1], a01i = im[1];
+    double a10r = re[2], a10i = im[2], a11r = re[3], a11i = im[3];
+    double br = a00r+a11r, bi = a00i+a11i;
+    double cr = a00r*a11r-a00i*a11i-(a01r*a10r-a01i*a10i);
+    double ci = a00r*a11i+a00i*a11r-(a01r*a10i+a01i*a10r);
+    sqrt(br*br-bi*bi-4*cr, 2*br*bi-4*ci, q);
+    double l1r = (br+q[0])/2, l1i = (bi+q[1])/2;
+    double l2r = (br-q[0])/2, l2i = (bi-q[1])/2;
+    lambdaRe[0] = l1r;
+    lambdaIm[0] = l1i;
+    lambdaRe[1] = l2r;
+    lambdaIm[1] = l2i;
+    // eigenvectors in columns
+    setUnitColumn(vec, 0, -a01r, -a01i, a00r-l1r, a00i-l1i);
+    setUnitColumn(vec, 1, a11r-l2r, a11i-l2i, -a10r, -a10i);
+  }
+
+  private static void setUnitColumn(SplitComplexMatrix vec, int col, double z0r, double z0i, double z1r, double z1i) {
+    double t = Math.sqrt(z0r*z0r+z0i*z0i+z1r*z1r+z1i*z1i);
+    if(t==0) { // A is diagonal in this column
+      z0r = (col==0) ? 1 : 0;
+      z1r = 1-z0r;
+      z0i = z1i = 0;
+      t = 1;
+    }
+    vec.re[col] = z0r/t;
+    vec.im[col] = z0i/t;
+    vec.re[2+col] = z1r/t;
+    vec.im[2+col] = z1i/t;
+  }
+
+  /**
+   * Reduces this matrix to upper Hessenberg form by stabilized elementary similarity transformations.
+   * The multipliers are left below the subdiagonal for the eigenvector accumulation.
+   */
+  private void hessenberg(int[] rowcol) {
+    int n = rows;
+    double[] ar = re, ai = im;
+    double[] q = new double[2];
+    for(int j = 0; j<n; j++) {
+      rowcol[j] = j;
+    }
+    for(int m = 1; m<n-1; m++) {
+      int i = m;
+      double xr = 0, xi = 0;
+      for(int j = m; j<n; j++) {
+        int p = j*n+m-1;
+        if(sumabs(ar[p], ai[p])>sumabs(xr, xi)) {
+          xr = ar[p];
+          xi = ai[p];
+          i = j;
+        }
+      }
+      rowcol[m] = i; // pivot row for the accumulation of transformations
+      if(i!=m) {
+        for(int j = m-1; j<n; j++) {
+          swap(i*n+j, m*n+j);
+        }
+        for(int j = 0; j<n; j++) {
+          swap(j*n+i, j*n+m);
+        }
+      }
+      if(sumabs(xr, xi)!=0.0) {
+        for(int ii = m+1; ii<n; ii++) {
+          int p = ii*n+m-1;
+          if(sumabs(ar[p], ai[p])>0.0) {
+            div(ar[p], ai[p], xr, xi, q);
+            double yr = q[0], yi = q[1];
+            ar[p] = yr;
+            ai[p] = yi;
+            for(int j = m; j<n; j++) {
+              double mr = ar[m*n+j], mi = ai[m*n+j];
+              ar[ii*n+j] -= yr*mr-yi*mi;
+              ai[ii*n+j] -= yr*mi+yi*mr;
+            }
+            for(int j = 0; j<n; j++) {
+              double sr = ar[j*n+ii], si = ai[j*n+ii];
+              ar[j*n+m] += yr*sr-yi*si;
+              ai[j*n+m] += yr*si+yi*sr;
+            }
+          } else {
+            ar[p] = 0;
+            ai[p] = 0;
+          }
+        }
+      }
+    }
+  }
+
+  private void swap(int p1, int p2) {
+    double t = re[p1];
+    re[p1] = re[p2];
+    re[p2] = t;
+    t = im[p1];
+    im[p1] = im[p2];
+    im[p2] = t;
+  }
+
+  /**
+   * Finds the eigenvalues and eigenvectors of this upper Hessenberg matrix by the complex LR algorithm.
+   */
+  private boolean hessenbergEigen(double[] lambdaRe, double[] lambdaIm, SplitComplexMatrix vec, int[] rowcol) {
+    int n = rows;
+    double[] ar = re, ai = im, vr = vec.re, vi = vec.im;
+    double[] q = new double[2];
+    boolean[] interchanged = new boolean[n];
+    int low = 0;
+    double acc = Math.pow(2.0, -52);
+    double tr = 0, ti = 0;
+    int itn = 30*n; // heuristic on maximum iterations
+    Arrays.fill(vr, 0);
+    Arrays.fill(vi, 0);
+    for(int i = 0; i<n; i++) {
+      vr[i*n+i] = 1;
+    }
+    // starting from Hessenberg reduction
+    for(int ii = n-2; ii>0; ii--) {
+      int j = rowcol[ii];
+      for(int k = ii+1; k<n; k++) {
+        vr[k*n+ii] = ar[k*n+ii-1];
+        vi[k*n+ii] = ai[k*n+ii-1];
+      }
+      if(ii!=j) {
+        for(int k = ii; k<n; k++) {
+          vr[ii*n+k] = vr[j*n+k];
+          vi[ii*n+k] = vi[j*n+k];
+          vr[j*n+k] = 0;
+          vi[j*n+k] = 0;
+        }
+        vr[j*n+ii] = 1;
+        vi[j*n+ii] = 0;
+      }
+    }
+    for(int i = 2; i<n; i++) { // clear the multipliers
+      Arrays.fill(ar, i*n, i*n+i-1, 0);
+      Arrays.fill(ai, i*n, i*n+i-1, 0);
+    }
+    int ien = n-1;
+    while(low<=ien) {
+      int its = 0;
+      // look for small single subdiagonal element
+      while(true) {
+        int k = low;
+        for(int kk = ien; kk>low; kk--) {
+          double ahr = sumabs(ar[kk*n+kk-1], ai[kk*n+kk-1]);
+          double aahr = acc*(sumabs(ar[(kk-1)*n+kk-1], ai[(kk-1)*n+kk-1])+sumabs(ar[kk*n+kk], ai[kk*n+kk]));
+          if(ahr<=aahr) {
+            k = kk;
+            break;
+          }
+        }
+        if(k==ien) {
+          break;
+        }
+        if(itn<=0) {
+          return false;
+        }
+        // compute shift
+        double sr, si;
+        if((its==10)||(its==20)) {
+          sr = Math.abs(ar[ien*n+ien-1])+Math.abs(ar[(ien-1)*n+ien-2]);
+          si = Math.abs(ai[ien*n+ien-1])+Math.abs(ai[(ien-1)*n+ien-2]);
+        } else {
+          sr = ar[ien*n+ien];
+          si = ai[ien*n+ien];
+          double ur = ar[(ien-1)*n+ien], ui = ai[(ien-1)*n+ien];
+          double wr = ar[ien*n+ien-1], wi = ai[ien*n+ien-1];
+          double xr = ur*wr-ui*wi, xi = ur*wi+ui*wr;
+          if(sumabs(xr, xi)>0.0) {
+            double yr = (ar[(ien-1)*n+ien-1]-sr)/2, yi = (ai[(ien-1)*n+ien-1]-si)/2;
+            sqrt(yr*yr-yi*yi+xr, 2*yr*yi+xi, q);
+            double zr = q[0], zi = q[1];
+            if(yr*zr+yi*zi<0.0) {
+              zr = -zr;
+              zi = -zi;
+            }
+            div(xr, xi, yr+zr, yi+zi, q);
+            sr -= q[0];
+            si -= q[1];
+          }
+        }
+        for(int i = low; i<=ien; i++) {
+          ar[i*n+i] -= sr;
+          ai[i*n+i] -= si;
+        }
+        tr += sr;
+        ti += si;
+        its++;
+        itn--;
+        int j = k+1;
+        // look for two consecutive small sub-diagonal elements
+        double xr = sumabs(ar[(ien-1)*n+ien-1], ai[(ien-1)*n+ien-1]);
+        double yr = sumabs(ar[ien*n+ien-1], ai[ien*n+ien-1]);
+        double zr = sumabs(ar[ien*n+ien], ai[ien*n+ien]);
+        int m = k;
+        for(int mm = ien-1; mm>=j; mm--) {
+          double yi = yr;
+          yr = sumabs(ar[mm*n+mm-1], ai[mm*n+mm-1]);
+          double xi = zr;
+          zr = xr;
+          xr = sumabs(ar[(mm-1)*n+mm-1], ai[(mm-1)*n+mm-1]);
+          if(yr<=(acc*zr/yi*(zr+xr+xi))) {
+            m = mm;
+            break;
+          }
+        }
+        // triangular decomposition  A = L*R
+        for(int i = m+1; i<=ien; i++) {
+          int p = (i-1)*n+i-1, p1 = i*n+i-1;
+          double xre = ar[p], xim = ai[p];
+          double yre = ar[p1], yim = ai[p1];
+          if(sumabs(xre, xim)>=sumabs(yre, yim)) {
+            div(yre, yim, xre, xim, q);
+            interchanged[i] = false;
+          } else {
+            // interchange rows of A
+            for(int jj = i-1; jj<n; jj++) {
+              swap((i-1)*n+jj, i*n+jj);
+            }
+            div(xre, xim, yre, yim, q);
+            interchanged[i] = true;
+          }
+          double zre = q[0], zim = q[1];
+          ar[p1] = zre;
+          ai[p1] = zim;
+          for(int jj = i; jj<n; jj++) {
+            double ur = ar[(i-1)*n+jj], ui = ai[(i-1)*n+jj];
+            ar[i*n+jj] -= zre*ur-zim*ui;
+            ai[i*n+jj] -= zre*ui+zim*ur;
+          }
+        }
+        // composition R*L = H
+        for(int jj = m+1; jj<=ien; jj++) {
+          int p = jj*n+jj-1;
+          double xre = ar[p], xim = ai[p];
+          ar[p] = 0;
+          ai[p] = 0;
+          // interchange columns of A and vec if necessary
+          if(interchanged[jj]) {
+            for(int i = low; i<=jj; i++) {
+              swap(i*n+jj-1, i*n+jj);
+            }
+            for(int i = low; i<n; i++) {
+              vec.swap(i*n+jj-1, i*n+jj);
+            }
+          }
+          for(int i = low; i<=jj; i++) {
+            double ur = ar[i*n+jj], ui = ai[i*n+jj];
+            ar[i*n+jj-1] += xre*ur-xim*ui;
+            ai[i*n+jj-1] += xre*ui+xim*ur;
+          }
+          for(int i = low; i<n; i++) {
+            double ur = vr[i*n+jj], ui = vi[i*n+jj];
+            vr[i*n+jj-1] += xre*ur-xim*ui;
+            vi[i*n+jj-1] += xre*ui+xim*ur;
+          }
+        }
+      }
+      // a root found
+      lambdaRe[ien] = ar[ien*n+ien]+tr;
+      lambdaIm[ien] = ai[ien*n+ien]+ti;
+      ien--;
+    }
+    // all roots found
+    double anorm = 0.0;
+    for(int i = 0; i<n; i++) {
+      anorm += sumabs(lambdaRe[i], lambdaIm[i]);
+      for(int jj = i+1; jj<n; jj++) {
+        anorm += sumabs(ar[i*n+jj], ai[i*n+jj]);
+      }
+    }
+    if(anorm==0.0) {
+      return true;
+    }
+    double accnorm = anorm*Math.pow(2.0, -52);
+    // back substitute to set up vec of upper triangular form
+    for(ien = n-1; ien>low; ien--) {
+      double xre = lambdaRe[ien], xim = lambdaIm[ien];
+      for(int i = ien-1; i>=low; i--) {
+        double zre = ar[i*n+ien], zim = ai[i*n+ien];
+        for(int jj = i+1; jj<ien; jj++) {
+          double ur = ar[i*n+jj], ui = ai[i*n+jj], wr = ar[jj*n+ien], wi = ai[jj*n+ien];
+          zre += ur*wr-ui*wi;
+          zim += ur*wi+ui*wr;
+        }
+        double yre = xre-lambdaRe[i], yim = xim-lambdaIm[i];
+        if(sumabs(yre, yim)==0.0) {
+          yre = accnorm;
+          yim = 0;
+        }
+        div(zre, zim, yre, yim, q);
+        ar[i*n+ien] = q[0];
+        ai[i*n+ien] = q[1];
+      }
+    }
+    // multiply by transformation matrix to give vec of original full matrix
+    for(int jj = n-1; jj>=0; jj--) {
+      for(int i = 0; i<n; i++) {
+        double zre = vr[i*n+jj], zim = vi[i*n+jj];
+        for(int k = 0; k<jj; k++) {
+          double ur = vr[i*n+k], ui = vi[i*n+k], wr = ar[k*n+jj], wi = ai[k*n+jj];
+          zre += ur*wr-ui*wi;
+          zim += ur*wi+ui*wr;
+        }
+        vr[i*n+jj] = zre;
+        vi[i*n+jj] = zim;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The LU decomposition with partial pivoting, PA = LU, of a square complex matrix.
+   * L has a unit diagonal and is stored below the diagonal of the factor arrays.
+   */
+  public static class LU {
+    final int n;
+    final double[] lr, li; // combined L and U factors
+    final int[] piv;
+    int parity = 1;
+    boolean singular;
+
+    /**
+     * Decomposes the given matrix, which is not modified.
+     *
+     * @param A the matrix
+     */
+    public LU(SplitComplexMatrix A) {
+      if(A.rows!=A.cols) {
+        throw new IllegalArgumentException("LU decomposition requires a square matrix."); //$NON-NLS-1$
+      }
+      n = A.rows;
+      lr = A.re.clone();
+      li = A.im.clone();
+      piv = new int[n];
+      for(int i = 0; i<n; i++) {
+        piv[i] = i;
+      }
+      decompose();
+    }
+
+    private void decompose() {
+      double[] q = new double[2];
+      for(int k = 0; k<n; k++) {
+        // find pivot
+        int p = k;
+        double max = Math.hypot(lr[k*n+k], li[k*n+k]);
+        for(int i = k+1; i<n; i++) {
+          double abs = Math.hypot(lr[i*n+k], li[i*n+k]);
+          if(abs>max) {
+            max = abs;
+            p = i;
+          }
+        }
+        if(p!=k) {
+          for(int j = 0; j<n; j++) {
+            double t = lr[p*n+j];
+            lr[p*n+j] = lr[k*n+j];
+            lr[k*n+j] = t;
+            t = li[p*n+j];
+            li[p*n+j] = li[k*n+j];
+            li[k*n+j] = t;
+          }
+          int t = piv[p];
+          piv[p] = piv[k];
+          piv[k] = t;
+          parity = -parity;
+        }
+        if(max==0) {
+          singular = true;
+          continue;
+        }
+        // compute multipliers
+        double pr = lr[k*n+k], pi = li[k*n+k];
+        for(int i = k+1; i<n; i++) {
+          div(lr[i*n+k], li[i*n+k], pr, pi, q);
+          lr[i*n+k] = q[0];
+          li[i*n+k] = q[1];
+        }
+        // update the trailing submatrix
+        final int kk = k;
+        int m = n-k-1;
+        Parallel.forEachBand(m, Math.max(1, MIN_PARALLEL_WORK/Math.max(1, m)), (band, start, end) -> {
+          updateRows(kk, kk+1+start, kk+1+end);
+        });
+      }
+    }
+
+    private void updateRows(int k, int start, int end) {
+      for(int i = start; i<end; i++) {
+        double mr = lr[i*n+k], mi = li[i*n+k];
+        if((mr==0)&&(mi==0)) {
+          continue;
+        }
+        for(int j = k+1, pi = i*n+j, pk = k*n+j; j<n; j++, pi++, pk++) {
+          double ur = lr[pk], ui = li[pk];
+          lr[pi] -= mr*ur-mi*ui;
+          li[pi] -= mr*ui+mi*ur;
+        }
+      }
+    }
+
+    /**
+     * Returns true if the matrix is singular.
+     *
+     * @return true if singular
+     */
+    public boolean isSingular() {
+      return singular;
+    }
+
+    /**
+     * Computes the determinant.
+     *
+     * @return {real, imaginary}
+     */
+    public double[] determinant() {
+      double dr = parity, di = 0;
+      for(int i = 0; i<n; i++) {
+        double ur = lr[i*n+i], ui = li[i*n+i];
+        double t = dr*ur-di*ui;
+        di = dr*ui+di*ur;
+        dr = t;
+      }
+      return new double[] {dr, di};
+    }
+
+    /**
+     * Solves A*x = b in place.
+     *
+     * @param br the real part of b, replaced by the real part of x
+     * @param bi the imaginary part of b, replaced by the imaginary part of x
+     * @throws IllegalArgumentException if the matrix is singular
+     */
+    public void solve(double[] br, double[] bi) {
+      double[] xr = new double[n], xi = new double[n];
+      for(int i = 0; i<n; i++) {
+        xr[i] = br[piv[i]];
+        xi[i] = bi[piv[i]];
+      }
+      solvePermuted(xr, xi, new double[2]);
+      System.arraycopy(xr, 0, br, 0, n);
+      System.arraycopy(xi, 0, bi, 0, n);
+    }
+
+    /**
+     * Solves L*U*x = b where b has already been permuted.
+     */
+    private void solvePermuted(double[] xr, double[] xi, double[] q) {
+      if(singular) {
+        throw new IllegalArgumentException("Matrix is singular."); //$NON-NLS-1$
+      }
+      // forward substitution with unit lower triangle
+      for(int i = 1; i<n; i++) {
+        double sr = xr[i], si = xi[i];
+        for(int j = 0, p = i*n; j<i; j++, p++) {
+          sr -= lr[p]*xr[j]-li[p]*xi[j];
+          si -= lr[p]*xi[j]+li[p]*xr[j];
+        }
+        xr[i] = sr;
+        xi[i] = si;
+      }
+      // back substitution with upper triangle
+      for(int i = n-1; i>=0; i--) {
+        double sr = xr[i], si = xi[i];
+        for(int j = i+1, p = i*n+i+1; j<n; j++, p++) {
+          sr -= lr[p]*xr[j]-li[p]*xi[j];
+          si -= lr[p]*xi[j]+li[p]*xr[j];
+        }
+        div(sr, si, lr[i*n+i], li[i*n+i], q);
+        xr[i] = q[0];
+        xi[i] = q[1];
+      }
+    }
+
+    /**
+     * Computes the inverse.  Columns of the inverse are solved in parallel for large matrices.
+     *
+     * @return the inverse
+     * @throws IllegalArgumentException if the matrix is singular
+     */
+    public SplitComplexMatrix inverse() {
+      if(singular) {
+        throw new IllegalArgumentException("Matrix is singular."); //$NON-NLS-1$
+      }
+      SplitComplexMatrix inv = new SplitComplexMatrix(n, n);
+      Parallel.forEachBand(n, Math.max(1, MIN_PARALLEL_WORK/(n*n)), (band, start, end) -> {
+        double[] xr = new double[n], xi = new double[n], q = new double[2];
+        for(int j = start; j<end; j++) {
+          Arrays.fill(xr, 0);
+          Arrays.fill(xi, 0);
+          for(int i = 0; i<n; i++) {
+            if(piv[i]==j) {
+              xr[i] = 1;
+            }
+          }
+          solvePermuted(xr, xi, q);
+          for(int i = 0; i<n; i++) {
+            inv.re[i*n+j] = xr[i];
+            inv.im[i*n+j] = xi[i];
+          }
+        }
+      });
+      return inv;
+    }
+
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
@@ -48,6 +48,29 @@ public class Airy {
     zeroMap.put(16, -17.66130010569706);
   }
 
+  /**
+   * Computes the Airy function at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] airy(double[] x, double[] y) {
+    return ArrayFunctions.evaluate(x, y, Airy::airy);
+  }
+
+  /**
+   * Computes the derivative of the Airy function at every element of an array.
+   *
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] airyDerivative(double[] x, double[] y) {
+    return ArrayFunctions.evaluate(x, y, Airy::airyDerivative);
+  }
+
   /**
    * Computes the Airy function at x.
    * @param x
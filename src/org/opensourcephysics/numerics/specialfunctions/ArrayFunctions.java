@@ -0,0 +1,72 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <http://www.opensourcephysics.org/>
+ */
+
+
+package org.opensourcephysics.numerics.specialfunctions;
+import java.util.function.DoubleUnaryOperator;
+import org.opensourcephysics.numerics.Parallel;
+
+/**
+ * Evaluates a function of one variable over an array, dividing large arrays into bands
+ * that are evaluated in parallel.
+ *
+ * @version 1.0
+ */
+final class ArrayFunctions {
+  static final int MIN_PARALLEL_POINTS = 1024;
+
+  private ArrayFunctions() {} // all methods are static so prohibit instantiation
+
+  /**
+   * Evaluates y[i] = f(x[i]).
+   *
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @param f the function
+   * @return the values
+   */
+  static double[] evaluate(double[] x, double[] y, DoubleUnaryOperator f) {
+    if(y==null) {
+      y = new double[x.length];
+    } else if(y.length<x.length) {
+      throw new IllegalArgumentException("Value array is shorter than the argument array."); //$NON-NLS-1$
+    }
+    final double[] values = y;
+    Parallel.forEachBand(x.length, MIN_PARALLEL_POINTS, (band, start, end) -> {
+      for(int i = start; i<end; i++) {
+        values[i] = f.applyAsDouble(x[i]);
+      }
+    });
+    return y;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2024  The Open Source Physics project
+ *                     http://www.opensourcephysics.org
+ */
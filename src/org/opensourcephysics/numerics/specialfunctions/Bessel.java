@@ -6,8 +6,9 @@
  */
 
 package org.opensourcephysics.numerics.specialfunctions;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opensourcephysics.numerics.Function;
 
 /*
@@ -31,13 +32,13 @@ import org.opensourcephysics.numerics.Function;
  * @author Wolfgang Christian
  */
 public class Bessel {
-  static final Map<Integer, Function> functionMap = new HashMap<Integer, Function>();
-  static final Map<Integer, Function> derivativeMap = new HashMap<Integer, Function>();
+  static final Map<Integer, Function> functionMap = new ConcurrentHashMap<Integer, Function>();
+  static final Map<Integer, Function> derivativeMap = new ConcurrentHashMap<Integer, Function>();
 
   /**
    * Gets the Bessel function with the given order.
    */
-  public static synchronized Function getFunction(int n) {
+  public static Function getFunction(int n) {
     if(n<0) {
       throw new IllegalArgumentException(Messages.getString("Bessel.0.neg_order")); //$NON-NLS-1$
     }
@@ -46,14 +47,14 @@ public class Bessel {
       return f;
     }
     f = new BesselFunction(n);
-    functionMap.put(n, f); // polynomial was not in the list so add it.
-    return f;
+    Function prev = functionMap.putIfAbsent(n, f); // function was not in the map so add it.
+    return (prev==null) ? f : prev;
   }
 
   /**
    * Gets the derivative of the Bessel function with the given order.
    */
-  public static synchronized Function getDerivative(int n) {
+  public static Function getDerivative(int n) {
     if(n<0) {
       throw new IllegalArgumentException(Messages.getString("Bessel.1.neg_order")); //$NON-NLS-1$
     }
@@ -62,8 +63,72 @@ public class Bessel {
       return f;
     }
     f = new BesselDerivative(n);
-    derivativeMap.put(n, f); // polynomial was not in the list so add it.
-    return f;
+    Function prev = derivativeMap.putIfAbsent(n, f); // function was not in the map so add it.
+    return (prev==null) ? f : prev;
+  }
+
+  /**
+   * Computes the Bessel function of order n at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param n the order
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] besseln(int n, double[] x, double[] y) {
+    return ArrayFunctions.evaluate(x, y, v -> besseln(n, v));
+  }
+
+  /**
+   * Computes the Bessel functions of orders 0 to j.length-1 at x.
+   *
+   * Uses Miller's backward recurrence normalized by J0+2*(J2+J4+...) = 1 so that all
+   * orders are obtained from one recurrence.
+   *
+   * @param x the argument
+   * @param j the array of values
+   * @return j
+   */
+  public static double[] besselOrders(double x, double[] j) {
+    int nmax = j.length-1;
+    Arrays.fill(j, 0);
+    double ax = Math.abs(x);
+    if(ax<1.e-12) {
+      j[0] = 1;
+      return j;
+    }
+    double big = 1.e10;
+    int top = (int) Math.max(nmax, ax);
+    int m = 2*((top+(int) Math.sqrt(160.0*top)+16)/2); // even starting order
+    double jp = 0, jc = 1, sum = 1; // J(m+1), J(m) and the sum of even orders
+    for(int k = m; k>0; k--) {
+      double jm = 2*k/ax*jc-jp; // J(k-1)
+      jp = jc;
+      jc = jm;
+      if(Math.abs(jc)>big) { // rescale to prevent overflow
+        jc /= big;
+        jp /= big;
+        sum /= big;
+        for(int i = k; i<=nmax; i++) {
+          j[i] /= big;
+        }
+      }
+      if(k-1<=nmax) {
+        j[k-1] = jc;
+      }
+      if(((k-1)%2==0)&&(k>1)) {
+        sum += jc;
+      }
+    }
+    double norm = jc+2*sum; // J0+2*(J2+J4+...)
+    for(int i = 0; i<=nmax; i++) {
+      j[i] /= norm;
+      if((x<0)&&(i%2==1)) {
+        j[i] = -j[i];
+      }
+    }
+    return j;
   }
 
   /**
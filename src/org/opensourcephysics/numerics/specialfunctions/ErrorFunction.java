@@ -26,6 +26,18 @@ public double evaluate(double x) {
     return errf(x);
   }
 
+  /**
+   * Computes the error function at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] errf(double[] x, double[] y) {
+    return ArrayFunctions.evaluate(x, y, ErrorFunction::errf);
+  }
+
   /**
    * Error function.
    * @param x
@@ -27,6 +27,18 @@ public double evaluate(double x) {
     return gamma(x);
   }
 
+  /**
+   * Computes the gamma function at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] gamma(double[] x, double[] y) {
+    return ArrayFunctions.evaluate(x, y, Gamma::gamma);
+  }
+
   public static double gamma(double x) {
     /*
      * Input parameters:
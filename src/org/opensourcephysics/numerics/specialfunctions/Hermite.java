@@ -6,7 +6,7 @@
  */
 
 package org.opensourcephysics.numerics.specialfunctions;
-import java.util.ArrayList;
+import java.util.Arrays;
 import org.opensourcephysics.numerics.Polynomial;
 
 /**
@@ -16,7 +16,7 @@ import org.opensourcephysics.numerics.Polynomial;
  * @version 1.0
  */
 public class Hermite {
-  static final ArrayList<Polynomial> hermiteList;
+  static volatile Polynomial[] hermiteList; // published copy-on-write, never modified after publication
   static final Polynomial twoX = new Polynomial(new double[] {0, 2.0}); // 2x used in recursion
 
   private Hermite() {}                                                  // all methods are static so prohibit instantiation
@@ -29,35 +29,157 @@ public class Hermite {
    *
    * @param n degree of polynomial
    */
-  public static synchronized Polynomial getPolynomial(int n) {
+  public static Polynomial getPolynomial(int n) {
     if(n<0) {
       throw new IllegalArgumentException(Messages.getString("Hermite.neg_degree")); //$NON-NLS-1$
     }
-    if(n<hermiteList.size()) {
-      return hermiteList.get(n);
+    Polynomial[] list = hermiteList;
+    if(n<list.length) {
+      return list[n];
     }
-    Polynomial p1 = getPolynomial(n-1).multiply(twoX);
-    Polynomial p2 = getPolynomial(n-2).multiply(2*(n-1));
-    Polynomial p = p1.subtract(p2);
-    hermiteList.add(p); // polynomial was not on the list so add it.
-    return p;
+    return extendList(n)[n];
   }
 
   /**
-   * Evaluates the n-th Hermite polynomial at x.
+   * Constructs the polynomials up to degree n and publishes a new list.
+   */
+  private static synchronized Polynomial[] extendList(int n) {
+    Polynomial[] list = hermiteList;
+    if(n<list.length) { // another thread has extended the list
+      return list;
+    }
+    int size = list.length;
+    list = Arrays.copyOf(list, n+1);
+    for(int k = size; k<=n; k++) {
+      Polynomial p1 = list[k-1].multiply(twoX);
+      Polynomial p2 = list[k-2].multiply(2*(k-1));
+      list[k] = p1.subtract(p2);
+    }
+    hermiteList = list;
+    return list;
+  }
+
+  /**
+   * Evaluates the n-th Hermite polynomial at x using the three term recurrence relation.
+   * The polynomial is not constructed.
    *
    * @return the value of the function
    */
   public static double evaluate(int n, double x) {
-    return getPolynomial(n).evaluate(x);
+    if(n<0) {
+      throw new IllegalArgumentException(Messages.getString("Hermite.neg_degree")); //$NON-NLS-1$
+    }
+    if(n==0) {
+      return 1;
+    }
+    double h0 = 1, h1 = 2*x;
+    for(int k = 1; k<n; k++) {
+      double h2 = 2*x*h1-2*k*h0;
+      h0 = h1;
+      h1 = h2;
+    }
+    return h1;
+  }
+
+  /**
+   * Evaluates the normalized Hermite function, exp(-x*x/2)*H_n(x)/sqrt(2^n n! sqrt(pi)),
+   * using a recurrence relation that does not overflow for large n.
+   *
+   * @return the value of the function
+   */
+  public static double evaluateFunction(int n, double x) {
+    if(n<0) {
+      throw new IllegalArgumentException(Messages.getString("Hermite.neg_degree")); //$NON-NLS-1$
+    }
+    double psi0 = Math.exp(-x*x/2)/Math.sqrt(Math.sqrt(Math.PI));
+    if(n==0) {
+      return psi0;
+    }
+    double psi1 = Math.sqrt(2)*x*psi0;
+    for(int k = 1; k<n; k++) {
+      double psi2 = Math.sqrt(2.0/(k+1))*x*psi1-Math.sqrt(k/(k+1.0))*psi0;
+      psi0 = psi1;
+      psi1 = psi2;
+    }
+    return psi1;
+  }
+
+  /**
+   * Evaluates the n-th Hermite polynomial at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param n the degree
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] evaluate(int n, double[] x, double[] y) {
+    if(n<0) {
+      throw new IllegalArgumentException(Messages.getString("Hermite.neg_degree")); //$NON-NLS-1$
+    }
+    return ArrayFunctions.evaluate(x, y, v -> evaluate(n, v));
+  }
+
+  /**
+   * Evaluates the normalized n-th Hermite function at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param n the degree
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] evaluateFunction(int n, double[] x, double[] y) {
+    if(n<0) {
+      throw new IllegalArgumentException(Messages.getString("Hermite.neg_degree")); //$NON-NLS-1$
+    }
+    return ArrayFunctions.evaluate(x, y, v -> evaluateFunction(n, v));
+  }
+
+  /**
+   * Evaluates the Hermite polynomials of degree 0 to values.length-1 at x.
+   *
+   * @param x the argument
+   * @param values the array of values
+   * @return values
+   */
+  public static double[] evaluateOrders(double x, double[] values) {
+    if(values.length>0) {
+      values[0] = 1;
+    }
+    if(values.length>1) {
+      values[1] = 2*x;
+    }
+    for(int k = 1; k<values.length-1; k++) {
+      values[k+1] = 2*x*values[k]-2*k*values[k-1];
+    }
+    return values;
+  }
+
+  /**
+   * Evaluates the normalized Hermite functions of degree 0 to psi.length-1 at x.
+   *
+   * @param x the argument
+   * @param psi the array of values
+   * @return psi
+   */
+  public static double[] evaluateFunctions(double x, double[] psi) {
+    if(psi.length>0) {
+      psi[0] = Math.exp(-x*x/2)/Math.sqrt(Math.sqrt(Math.PI));
+    }
+    if(psi.length>1) {
+      psi[1] = Math.sqrt(2)*x*psi[0];
+    }
+    for(int k = 1; k<psi.length-1; k++) {
+      psi[k+1] = Math.sqrt(2.0/(k+1))*x*psi[k]-Math.sqrt(k/(k+1.0))*psi[k-1];
+    }
+    return psi;
   }
 
   static {
-    hermiteList = new ArrayList<Polynomial>();
-    Polynomial p = new Polynomial(new double[] {1.0});
-    hermiteList.add(p);
-    p = new Polynomial(new double[] {0, 2.0});
-    hermiteList.add(p);
+    Polynomial p0 = new Polynomial(new double[] {1.0});
+    Polynomial p1 = new Polynomial(new double[] {0, 2.0});
+    hermiteList = new Polynomial[] {p0, p1};
   }
 
 }
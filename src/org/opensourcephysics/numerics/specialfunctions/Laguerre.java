@@ -6,9 +6,9 @@
  */
 
 package org.opensourcephysics.numerics.specialfunctions;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opensourcephysics.numerics.Polynomial;
 
 /**
@@ -18,8 +18,8 @@ import org.opensourcephysics.numerics.Polynomial;
  * @version 1.0
  */
 public class Laguerre {
-  static final ArrayList<Polynomial> laguerreList;
-  static final Map<QNKey, Polynomial> associatedLaguerreMap = new HashMap<QNKey, Polynomial>();
+  static volatile Polynomial[] laguerreList; // published copy-on-write, never modified after publication
+  static final Map<QNKey, Polynomial> associatedLaguerreMap = new ConcurrentHashMap<QNKey, Polynomial>();
 
   private Laguerre() {} // all methods are static so prohibit instantiation
 
@@ -28,19 +28,35 @@ public class Laguerre {
    * it is returned  from the list. Uses the recurrence relationship to construct new polynomials
    * based on lower order polynomials.
    */
-  public static synchronized Polynomial getPolynomial(int n) {
+  public static Polynomial getPolynomial(int n) {
     if(n<0) {
       throw new IllegalArgumentException(Messages.getString("Laguerre.neg_degree")); //$NON-NLS-1$
     }
-    if(n<laguerreList.size()) {
-      return laguerreList.get(n);
+    Polynomial[] list = laguerreList;
+    if(n<list.length) {
+      return list[n];
     }
-    Polynomial pk = new Polynomial(new double[] {(2.0*n-1.0)/n, -1.0/n});
-    Polynomial p1 = getPolynomial(n-1).multiply(pk);
-    Polynomial p2 = getPolynomial(n-2).multiply((1.0-n)/n);
-    Polynomial p = p1.add(p2);
-    laguerreList.add(p); // polynomial was not in the list so add it.
-    return p;
+    return extendList(n)[n];
+  }
+
+  /**
+   * Constructs the polynomials up to degree n and publishes a new list.
+   */
+  private static synchronized Polynomial[] extendList(int n) {
+    Polynomial[] list = laguerreList;
+    if(n<list.length) { // another thread has extended the list
+      return list;
+    }
+    int size = list.length;
+    list = Arrays.copyOf(list, n+1);
+    for(int k = size; k<=n; k++) {
+      Polynomial pk = new Polynomial(new double[] {(2.0*k-1.0)/k, -1.0/k});
+      Polynomial p1 = list[k-1].multiply(pk);
+      Polynomial p2 = list[k-2].multiply((1.0-k)/k);
+      list[k] = p1.add(p2);
+    }
+    laguerreList = list;
+    return list;
   }
 
   /**
@@ -48,7 +64,7 @@ public class Laguerre {
    * it is returned  from the list. Uses the recurrence relationship to construct new polynomials
    * based on lower order polynomials.
    */
-  public static synchronized Polynomial getPolynomial(int n, int k) {
+  public static Polynomial getPolynomial(int n, int k) {
     if(k<0) {
       throw new IllegalArgumentException(Messages.getString("Laguerre.neg_k")); //$NON-NLS-1$
     }
@@ -66,8 +82,8 @@ public class Laguerre {
     if(sign==-1) {
       p = p.multiply(sign);
     }
-    associatedLaguerreMap.put(key, p); // polynomial was not in the list so add it.
-    return p;
+    Polynomial prev = associatedLaguerreMap.putIfAbsent(key, p); // polynomial was not in the map so add it.
+    return (prev==null) ? p : prev;
   }
 
   /**
@@ -79,13 +95,59 @@ public class Laguerre {
     return getPolynomial(n).evaluate(x);
   }
 
+  /**
+   * Evaluates the n-th Laguerre polynomial at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param n the degree
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] evaluate(int n, double[] x, double[] y) {
+    if(n<0) {
+      throw new IllegalArgumentException(Messages.getString("Laguerre.neg_degree")); //$NON-NLS-1$
+    }
+    return ArrayFunctions.evaluate(x, y, v -> {
+      double l0 = 1, l1 = 1-v;
+      if(n==0) {
+        return l0;
+      }
+      for(int k = 1; k<n; k++) {
+        double l2 = ((2*k+1-v)*l1-k*l0)/(k+1);
+        l0 = l1;
+        l1 = l2;
+      }
+      return l1;
+    });
+  }
+
+  /**
+   * Evaluates the Laguerre polynomials of degree 0 to values.length-1 at x
+   * using the three term recurrence relation.
+   *
+   * @param x the argument
+   * @param values the array of values
+   * @return values
+   */
+  public static double[] evaluateOrders(double x, double[] values) {
+    if(values.length>0) {
+      values[0] = 1;
+    }
+    if(values.length>1) {
+      values[1] = 1-x;
+    }
+    for(int k = 1; k<values.length-1; k++) {
+      values[k+1] = ((2*k+1-x)*values[k]-k*values[k-1])/(k+1);
+    }
+    return values;
+  }
+
   static {
     // seed the first two Laguerre polynomials
-    laguerreList = new ArrayList<Polynomial>();
     Polynomial p0 = new Polynomial(new double[] {1.0});
-    laguerreList.add(p0);
     Polynomial p1 = new Polynomial(new double[] {1, -1});
-    laguerreList.add(p1);
+    laguerreList = new Polynomial[] {p0, p1};
   }
 
 }
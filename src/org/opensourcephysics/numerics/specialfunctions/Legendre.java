@@ -6,9 +6,9 @@
  */
 
 package org.opensourcephysics.numerics.specialfunctions;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opensourcephysics.numerics.Function;
 import org.opensourcephysics.numerics.Polynomial;
 
@@ -19,8 +19,8 @@ import org.opensourcephysics.numerics.Polynomial;
  * @version 1.0
  */
 public class Legendre {
-  static final ArrayList<Polynomial> legendreList;
-  static final Map<QNKey, AssociatedLegendreFunction> associatedMap = new HashMap<QNKey, AssociatedLegendreFunction>();
+  static volatile Polynomial[] legendreList; // published copy-on-write, never modified after publication
+  static final Map<QNKey, AssociatedLegendreFunction> associatedMap = new ConcurrentHashMap<QNKey, AssociatedLegendreFunction>();
 
   private Legendre() {} // all methods are static so prohibit instantiation
 
@@ -29,27 +29,42 @@ public class Legendre {
    * it is returned  from the list. Uses the recurrence relationship to construct new polynomials
    * based on lower order polynomials.
    */
-  public static synchronized Polynomial getPolynomial(int el) {
+  public static Polynomial getPolynomial(int el) {
     if(el<0) {
       throw new IllegalArgumentException(Messages.getString("Legendre.neg_degree")); //$NON-NLS-1$
     }
-    if(el<legendreList.size()) {
-      return legendreList.get(el);
+    Polynomial[] list = legendreList;
+    if(el<list.length) {
+      return list[el];
     }
-    Polynomial pk = new Polynomial(new double[] {0, (2.0*el-1.0)/el});
-    Polynomial p1 = getPolynomial(el-1).multiply(pk);
-    Polynomial p2 = getPolynomial(el-2).multiply((1.0-el)/el);
-    Polynomial p = p1.add(p2);
-    legendreList.add(p); // polynomial was not in the list so add it.
-    return p;
+    return extendList(el)[el];
+  }
+
+  /**
+   * Constructs the polynomials up to degree el and publishes a new list.
+   */
+  private static synchronized Polynomial[] extendList(int el) {
+    Polynomial[] list = legendreList;
+    if(el<list.length) { // another thread has extended the list
+      return list;
+    }
+    int size = list.length;
+    list = Arrays.copyOf(list, el+1);
+    for(int n = size; n<=el; n++) {
+      Polynomial pk = new Polynomial(new double[] {0, (2.0*n-1.0)/n});
+      Polynomial p1 = list[n-1].multiply(pk);
+      Polynomial p2 = list[n-2].multiply((1.0-n)/n);
+      list[n] = p1.add(p2);
+    }
+    legendreList = list;
+    return list;
   }
 
   /**
    * Gets the associated Legendre function. If the function has already been calculated
-   * it is returned  from the map. Uses the Legendre polynomial recurrence relationship to construct new functions
-   * based on derivatives of lower order polynomials.
+   * it is returned  from the map.
    */
-  public static synchronized Function getAssociatedFunction(int el, int m) {
+  public static Function getAssociatedFunction(int el, int m) {
     if(m*m>el*el) {
       throw new IllegalArgumentException(Messages.getString("Legendre.out_of_range_m")); //$NON-NLS-1$
     }
@@ -59,17 +74,107 @@ public class Legendre {
       return f;
     }
     f = new AssociatedLegendreFunction(el, m);
-    associatedMap.put(key, f); // polynomial was not in the list so add it.
-    return f;
+    AssociatedLegendreFunction prev = associatedMap.putIfAbsent(key, f);
+    return (prev==null) ? f : prev;
   }
 
   /**
-   * Evaluates the el-th Legendre polynomial at x.
+   * Evaluates the el-th Legendre polynomial at x using the three term recurrence relation.
+   * The recurrence is stable and does not construct the polynomial.
    *
    * @return the value of the function
    */
   public static double evaluate(int el, double x) {
-    return getPolynomial(el).evaluate(x);
+    if(el<0) {
+      throw new IllegalArgumentException(Messages.getString("Legendre.neg_degree")); //$NON-NLS-1$
+    }
+    if(el==0) {
+      return 1;
+    }
+    double p0 = 1, p1 = x;
+    for(int n = 1; n<el; n++) {
+      double p2 = ((2*n+1)*x*p1-n*p0)/(n+1);
+      p0 = p1;
+      p1 = p2;
+    }
+    return p1;
+  }
+
+  /**
+   * Evaluates the el-th Legendre polynomial at every element of an array.
+   * Large arrays are evaluated in parallel.
+   *
+   * @param el the degree
+   * @param x the arguments
+   * @param y the values, or null to allocate a new array
+   * @return the values
+   */
+  public static double[] evaluate(int el, double[] x, double[] y) {
+    if(el<0) {
+      throw new IllegalArgumentException(Messages.getString("Legendre.neg_degree")); //$NON-NLS-1$
+    }
+    return ArrayFunctions.evaluate(x, y, v -> evaluate(el, v));
+  }
+
+  /**
+   * Evaluates the Legendre polynomials of degree 0 to values.length-1 at x.
+   *
+   * @param x the argument
+   * @param values the array of values
+   * @return values
+   */
+  public static double[] evaluateOrders(double x, double[] values) {
+    if(values.length>0) {
+      values[0] = 1;
+    }
+    if(values.length>1) {
+      values[1] = x;
+    }
+    for(int n = 1; n<values.length-1; n++) {
+      values[n+1] = ((2*n+1)*x*values[n]-n*values[n-1])/(n+1);
+    }
+    return values;
+  }
+
+  /**
+   * Evaluates the associated Legendre function with the Condon-Shortley phase using the
+   * recurrence relation in the degree el.
+   *
+   * @return the value of the function
+   */
+  public static double evaluate(int el, int m, double x) {
+    if(m*m>el*el) {
+      throw new IllegalArgumentException(Messages.getString("Legendre.out_of_range_m")); //$NON-NLS-1$
+    }
+    int am = Math.abs(m);
+    // P(am,am) = (-1)^am (2am-1)!! (1-x*x)^(am/2)
+    double pmm = 1;
+    for(int i = 1; i<am; i++) {
+      pmm *= 2*i+1;
+    }
+    pmm *= Math.pow(1-x*x, am/2);
+    if(am%2==1) {
+      pmm *= -Math.sqrt(1-x*x);
+    }
+    double val;
+    if(el==am) {
+      val = pmm;
+    } else {
+      double p0 = pmm, p1 = x*(2*am+1)*pmm;
+      for(int n = am+1; n<el; n++) {
+        double p2 = ((2*n+1)*x*p1-(n+am)*p0)/(n-am+1);
+        p0 = p1;
+        p1 = p2;
+      }
+      val = p1;
+    }
+    if(m<0) { // apply definition for negative m
+      val *= Factorials.factorial(el-am)/Factorials.factorial(el+am);
+      if(am%2==1) {
+        val = -val;
+      }
+    }
+    return val;
   }
 
   /**
@@ -77,26 +182,11 @@ public class Legendre {
    * @author Wolfgang Christian
    */
   static class AssociatedLegendreFunction implements Function {
-    Polynomial p;
-    int n, m;
-    boolean oddPower, positiveM;
+    final int n, m;
 
     AssociatedLegendreFunction(int el, int m) {
       this.n = el;
-      positiveM = (m>0);
-      m = Math.abs(m); // following definition valid for positive m
       this.m = m;
-      oddPower = (m%2==1);
-      p = getPolynomial(n);
-      for(int i = 0; i<m; i++) {
-        p = p.derivative();
-      }
-      if(positiveM&&oddPower) { // odd positive m terms have negative sign
-        p = p.multiply(-1);
-      }
-      if(!positiveM) { // apply definition for negative m
-        p = p.multiply(Factorials.factorial(n-m)/Factorials.factorial(n+m));
-      }
     }
 
     /**
@@ -104,19 +194,16 @@ public class Legendre {
      */
     @Override
 	public double evaluate(final double x) {
-      double val = Math.pow((1-x*x), m/2)*p.evaluate(x); // power function is more efficient with integer values
-      return oddPower ? val*Math.sqrt(1-x*x) : val;
+      return Legendre.evaluate(n, m, x);
     }
 
   }
 
   static {
     // seed the first two Legendre polynomials
-    legendreList = new ArrayList<Polynomial>();
     Polynomial p0 = new Polynomial(new double[] {1.0});
-    legendreList.add(p0);
     Polynomial p1 = new Polynomial(new double[] {0, 1.0});
-    legendreList.add(p1);
+    legendreList = new Polynomial[] {p0, p1};
   }
 
 }
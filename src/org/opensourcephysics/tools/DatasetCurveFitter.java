@@ -38,6 +38,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import javax.swing.AbstractCellEditor;
 import javax.swing.AbstractSpinnerModel;
@@ -118,6 +119,7 @@ public class DatasetCurveFitter extends JPanel {
 	static final String FIT_GAUSS = "Gaussian";
 	static final String FIT_POWER = "Power";
 	static final String FIT_TEST = "TestFunction";
+	static final int PARALLEL_FIT_POINTS = 10000;
 	static ArrayList<KnownFunction> defaultFits = new ArrayList<KnownFunction>();
 	private final static Border labelBorder = BorderFactory.createEmptyBorder(0, 2, 0, 2);
 
@@ -483,6 +485,11 @@ public class DatasetCurveFitter extends JPanel {
 					// can't autofit if no parameters or data length < parameter count
 					if (params.length > 0 && params.length <= x.length && params.length <= y.length) {
 						MinimizeUserFunction minFunc = new MinimizeUserFunction(f, x, y);
+						// evaluate the finite difference points concurrently for large data sets
+						Supplier<MultiVarFunction> factory = (x.length < PARALLEL_FIT_POINTS ? null
+								: () -> new MinimizeUserFunction(f.clone(), x, y));
+						hessian.setParallelEvaluation(factory);
+						levmar.setParallelEvaluation(factory);
 						prevParams = new double[params.length];
 						for (int i = 0; i < params.length; i++) {
 							params[i] = prevParams[i] = f.getParameterValue(i);
@@ -0,0 +1,116 @@
+package test;
+
+import java.util.Random;
+
+import org.opensourcephysics.numerics.BarnesHut;
+
+/**
+ * Compares BarnesHut accelerations with direct summation in two and three dimensions
+ * for a new tree and for a tree that is reused after the bodies have moved.
+ */
+public class BarnesHutTest {
+	static final int N = 5000;
+	static final double SOFTENING = 0.001;
+	static boolean passed = true;
+
+	double[] x = new double[N], y = new double[N], z = new double[N], mass = new double[N];
+	double[] ax = new double[N], ay = new double[N], az = new double[N];
+	int dim;
+
+	BarnesHutTest(int dim, long seed) {
+		this.dim = dim;
+		Random random = new Random(seed);
+		for (int i = 0; i < N; i++) {
+			x[i] = random.nextGaussian();
+			y[i] = random.nextGaussian();
+			z[i] = (dim == 3) ? random.nextGaussian() : 0;
+			mass[i] = 1.0 / N;
+		}
+	}
+
+	void move(double distance, long seed) {
+		Random random = new Random(seed);
+		for (int i = 0; i < N; i++) {
+			x[i] += distance * random.nextGaussian();
+			y[i] += distance * random.nextGaussian();
+			if (dim == 3) {
+				z[i] += distance * random.nextGaussian();
+			}
+		}
+	}
+
+	void compute(BarnesHut tree) {
+		tree.computeAccelerations(x, y, (dim == 3) ? z : null, mass, N, ax, ay, az);
+	}
+
+	/**
+	 * Checks the accelerations against direct summation.
+	 *
+	 * @param label a description of the test
+	 * @param maxError the largest error allowed relative to the rms acceleration
+	 * @param maxMeanError the largest mean error allowed relative to the acceleration of each body
+	 */
+	void check(String label, double maxError, double maxMeanError) {
+		double eps2 = SOFTENING * SOFTENING, rms = 0, worst = 0, mean = 0, worstRelative = 0;
+		double[] error = new double[N];
+		for (int i = 0; i < N; i++) {
+			double sx = 0, sy = 0, sz = 0;
+			for (int j = 0; j < N; j++) {
+				if (i == j) {
+					continue;
+				}
+				double dx = x[j] - x[i], dy = y[j] - y[i], dz = z[j] - z[i];
+				double r2 = dx * dx + dy * dy + dz * dz + eps2;
+				double f = mass[j] / (r2 * Math.sqrt(r2));
+				sx += f * dx;
+				sy += f * dy;
+				sz += f * dz;
+			}
+			double ex = ax[i] - sx, ey = ay[i] - sy, ez = (dim == 3) ? az[i] - sz : 0;
+			double a = Math.sqrt(sx * sx + sy * sy + sz * sz);
+			error[i] = Math.sqrt(ex * ex + ey * ey + ez * ez);
+			rms += a * a;
+			mean += error[i] / a;
+			worstRelative = Math.max(worstRelative, error[i] / a);
+		}
+		rms = Math.sqrt(rms / N);
+		for (int i = 0; i < N; i++) {
+			worst = Math.max(worst, error[i] / rms);
+		}
+		mean /= N;
+		boolean ok = (worst <= maxError) && (mean <= maxMeanError);
+		passed &= ok;
+		System.out.printf("%-28s worst/rms %.2e  mean %.2e  worst relative %.2e  %s%n", label, worst, mean, //$NON-NLS-1$
+				worstRelative, ok ? "ok" : "FAILED"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	static void run(int dim) {
+		BarnesHutTest test = new BarnesHutTest(dim, 1);
+		BarnesHut tree = new BarnesHut(dim);
+		tree.setSoftening(SOFTENING);
+		tree.setTheta(0);
+		test.compute(tree);
+		test.check(dim + "D theta 0", 1e-12, 1e-12); //$NON-NLS-1$
+		tree.setTheta(0.5);
+		tree.setRebuildInterval(2);
+		tree.invalidate();
+		test.compute(tree);
+		test.check(dim + "D theta 0.5 new tree", 5e-3, 1e-3); //$NON-NLS-1$
+		test.move(0.01, 2); // one stage of an ODE step
+		test.compute(tree);
+		test.check(dim + "D theta 0.5 reused tree", 5e-3, 1e-3); //$NON-NLS-1$
+		tree.invalidate();
+		test.compute(tree);
+		test.move(0.3, 3); // far more than one stage of an ODE step
+		test.compute(tree);
+		test.check(dim + "D theta 0.5 stale tree", 5e-3, 1e-3); //$NON-NLS-1$
+	}
+
+	public static void main(String[] args) {
+		run(2);
+		run(3);
+		System.out.println(passed ? "passed" : "FAILED"); //$NON-NLS-1$ //$NON-NLS-2$
+		System.exit(passed ? 0 : 1);
+	}
+
+}